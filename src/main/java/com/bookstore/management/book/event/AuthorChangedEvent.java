@@ -0,0 +1,6 @@
+package com.bookstore.management.book.event;
+
+/**
+ * Published when an author's data changes, which changes the summaries of their books.
+ */
+public record AuthorChangedEvent(Long authorId) {}
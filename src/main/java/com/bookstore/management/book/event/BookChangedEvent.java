@@ -0,0 +1,6 @@
+package com.bookstore.management.book.event;
+
+/**
+ * Published when a book's catalogue data changes or the book is deleted.
+ */
+public record BookChangedEvent(Long bookId) {}
@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,6 +15,9 @@ public interface BookRepository extends JpaRepository<Book, Long> {
     @EntityGraph(attributePaths = {"author"})
     List<Book> findBooksByAuthorId(@Param("authorId") Long authorId);
 
+    @EntityGraph(attributePaths = {"author"})
+    List<Book> findAllByIdIn(@Param("ids") Collection<Long> ids);
+
     Optional<Book> findBookByIsbn(@Param("isbn") String isbn);
     List<Book> findBookByTitleContainingIgnoreCase(@Param("title") String title);
 
@@ -3,12 +3,14 @@ package com.bookstore.management.book.service;
 import com.bookstore.management.book.dto.AuthorResponseDTO;
 import com.bookstore.management.book.dto.AuthorSummaryDTO;
 import com.bookstore.management.book.dto.CreateAuthorDTO;
+import com.bookstore.management.book.event.AuthorChangedEvent;
 import com.bookstore.management.book.mapper.AuthorMapper;
 import com.bookstore.management.book.model.Author;
 import com.bookstore.management.book.repository.AuthorRepository;
 import com.bookstore.management.shared.exception.custom.ResourceNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
@@ -23,6 +25,8 @@ public class AuthorService {
 
     private final AuthorMapper authorMapper;
 
+    private final ApplicationEventPublisher eventPublisher;
+
     public List<AuthorSummaryDTO> findAll(){
 
         return authorMapper.toSummaryDTOList(authorRepository.findAll());
@@ -55,6 +59,7 @@ public class AuthorService {
                 .orElseThrow(()-> new ResourceNotFoundException("Author","Id",id));
 
         authorMapper.updateEntityFromDto(createAuthorDto, existingAuthor);
+        eventPublisher.publishEvent(new AuthorChangedEvent(id));
 
         return authorMapper.toResponseDTO(authorRepository.save(existingAuthor));
     }
@@ -3,6 +3,7 @@ package com.bookstore.management.book.service;
 import com.bookstore.management.book.dto.BookResponseDTO;
 import com.bookstore.management.book.dto.BookSummaryDTO;
 import com.bookstore.management.book.dto.CreateBookDTO;
+import com.bookstore.management.book.event.BookChangedEvent;
 import com.bookstore.management.book.mapper.BookMapper;
 import com.bookstore.management.book.model.Author;
 import com.bookstore.management.book.model.Book;
@@ -12,6 +13,7 @@ import com.bookstore.management.shared.exception.custom.DuplicateEntityException
 import com.bookstore.management.shared.exception.custom.ResourceNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
@@ -30,6 +32,8 @@ public class BookService {
 
     private final BookMapper bookMapper;
 
+    private final ApplicationEventPublisher eventPublisher;
+
     public List<BookSummaryDTO> findAll() {
 
         return bookMapper.toBookSummaryDTOList(bookRepository.findAll());
@@ -76,12 +80,14 @@ public class BookService {
                 .findById(createBookDto.getAuthorId())
                 .orElseThrow(()-> new ResourceNotFoundException("Author","Id",createBookDto.getAuthorId()));
         existingBook.setAuthor(author);
+        eventPublisher.publishEvent(new BookChangedEvent(id));
         return  bookMapper.toBookResponseDTO(bookRepository.save(existingBook));
     }
     @Transactional
     public void deleteById(Long id){
         findByIdOrThrow(id);
         bookRepository.deleteById(id);
+        eventPublisher.publishEvent(new BookChangedEvent(id));
     }
     @Transactional
     public BookResponseDTO updateAuthor(Long bookId, Long newAuthorId){
@@ -96,6 +102,7 @@ public class BookService {
                         .orElseThrow(()-> new ResourceNotFoundException("Author", "Id", newAuthorId));
 
         existingBook.setAuthor(newAuthor);
+        eventPublisher.publishEvent(new BookChangedEvent(bookId));
 
         return bookMapper.toBookResponseDTO(bookRepository.save(existingBook));
     }
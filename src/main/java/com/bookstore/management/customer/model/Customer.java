@@ -16,7 +16,8 @@ import java.time.LocalDate;
 @Table(name = "customers", uniqueConstraints = @UniqueConstraint(columnNames = "email"))
 public class Customer {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customers_seq")
+    @SequenceGenerator(name = "customers_seq", sequenceName = "customers_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "name", nullable = false, length = 100)
@@ -0,0 +1,22 @@
+package com.bookstore.management.inventory.activity;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param flushInterval     time movements are buffered in memory before the activity is updated
+ * @param chunkSize         inventories updated per transaction by a flush
+ * @param backfillOnStartup whether an empty {@code inventory_activity} is filled from the ledger at startup
+ * @param parallelism       workers of the fork-join pool running the backfill
+ * @param rangeSize         book ids backfilled by one query and transaction
+ */
+@ConfigurationProperties(prefix = "inventory.activity")
+public record InventoryActivityProperties(
+        @DefaultValue("30s") Duration flushInterval,
+        @DefaultValue("500") int chunkSize,
+        @DefaultValue("true") boolean backfillOnStartup,
+        @DefaultValue("2") int parallelism,
+        @DefaultValue("10000") int rangeSize
+) {}
@@ -0,0 +1,255 @@
+package com.bookstore.management.inventory.activity;
+
+import com.bookstore.management.inventory.dto.ActivityBackfillDTO;
+import com.bookstore.management.inventory.dto.DeadStockDTO;
+import com.bookstore.management.inventory.event.MovementRecordedEvent;
+import com.bookstore.management.inventory.model.InventoryActivity;
+import com.bookstore.management.inventory.model.MovementType;
+import com.bookstore.management.inventory.repository.InventoryActivityRepository;
+import com.bookstore.management.shared.exception.custom.ActivityBackfillInProgressException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Latest movement and latest sale of every inventory, for dead-stock lists that do not touch the
+ * ledger.
+ * <p>
+ * The timestamps are kept from the movements as they commit: the latest of each inventory is
+ * held in memory and written to {@code inventory_activity} every {@code flush-interval}, keeping
+ * the later of the stored and the buffered value, so flushes and the backfill can run in any
+ * order. The backfill reads the latest movements of the ledger once, split in book id ranges on a
+ * fork-join pool like the reconciliation; it runs at startup while the table is empty and can be
+ * run again at any time. Movements already archived are not seen by it.
+ */
+@Slf4j
+@Component
+public class InventoryActivityTracker {
+
+    private static final int BACKFILL_ATTEMPTS = 3;
+    private static final String BOOK_ID_BOUNDS = "select min(book_id), max(book_id) from inventory";
+    private static final String LATEST_RANGE = "select i.id, max(m.created_at), " +
+            "max(case when m.movement_type = 'EXIT' then m.created_at end) " +
+            "from inventory i left join inventory_movement m on m.inventory_id = i.id " +
+            "where i.book_id >= ? and i.book_id < ? group by i.id";
+
+    private final InventoryActivityRepository activityRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final InventoryActivityProperties properties;
+    private final Map<Long, Activity> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean backfilling = new AtomicBoolean();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "inventory-activity-backfill");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public InventoryActivityTracker(InventoryActivityRepository activityRepository,
+                                    JdbcTemplate jdbcTemplate,
+                                    TransactionTemplate transactionTemplate,
+                                    InventoryActivityProperties properties) {
+        this.activityRepository = activityRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMovementRecorded(MovementRecordedEvent event) {
+        LocalDateTime soldAt = event.movementType() == MovementType.EXIT ? event.createdAt() : null;
+        pending.merge(event.inventoryId(), new Activity(event.createdAt(), soldAt), Activity::latest);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (properties.backfillOnStartup() && activityRepository.findFirstByOrderByIdAsc().isEmpty()) {
+            executor.execute(() -> {
+                try {
+                    backfill();
+                } catch (RuntimeException e) {
+                    log.error("Inventory activity backfill failed", e);
+                }
+            });
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.activity.flush-interval:30s}",
+            initialDelayString = "${inventory.activity.flush-interval:30s}")
+    public void flushPending() {
+        flush();
+    }
+
+    /**
+     * Writes the buffered timestamps. A chunk that fails goes back to the buffer for the next flush.
+     *
+     * @return number of inventories updated
+     */
+    public synchronized int flush() {
+        Map<Long, Activity> drained = new TreeMap<>();
+        for (Long inventoryId : pending.keySet()) {
+            Activity activity = pending.remove(inventoryId);
+            if (activity != null) {
+                drained.put(inventoryId, activity);
+            }
+        }
+
+        int updated = 0;
+        List<Long> ids = new ArrayList<>(drained.keySet());
+        for (int from = 0; from < ids.size(); from += properties.chunkSize()) {
+            Map<Long, Activity> chunk = new HashMap<>();
+            ids.subList(from, Math.min(from + properties.chunkSize(), ids.size()))
+                    .forEach(inventoryId -> chunk.put(inventoryId, drained.get(inventoryId)));
+            try {
+                transactionTemplate.executeWithoutResult(status -> record(chunk));
+                updated += chunk.size();
+            } catch (RuntimeException e) {
+                log.warn("Activity of {} inventories postponed to the next flush", chunk.size(), e);
+                chunk.forEach((inventoryId, activity) -> pending.merge(inventoryId, activity, Activity::latest));
+            }
+        }
+        return updated;
+    }
+
+    /**
+     * Fills {@code inventory_activity} from the latest movements in the ledger, on the calling thread.
+     */
+    public ActivityBackfillDTO backfill() {
+        if (!backfilling.compareAndSet(false, true)) {
+            throw new ActivityBackfillInProgressException("An inventory activity backfill is already running");
+        }
+        long started = System.nanoTime();
+        LongAdder inventories = new LongAdder();
+        try {
+            Long[] bounds = jdbcTemplate.queryForObject(BOOK_ID_BOUNDS,
+                    (rs, rowNum) -> new Long[]{rs.getObject(1, Long.class), rs.getObject(2, Long.class)});
+            if (bounds != null && bounds[0] != null) {
+                ForkJoinPool pool = new ForkJoinPool(properties.parallelism());
+                try {
+                    pool.invoke(new BackfillRange(bounds[0], bounds[1] + 1, inventories));
+                } finally {
+                    pool.shutdown();
+                }
+            }
+        } finally {
+            backfilling.set(false);
+        }
+        long durationMillis = (System.nanoTime() - started) / 1_000_000;
+        log.info("Backfilled the activity of {} inventories in {} ms", inventories.sum(), durationMillis);
+        return new ActivityBackfillDTO(inventories.sum(), durationMillis);
+    }
+
+    /**
+     * @param days days without a sale after which stock on hand counts as dead
+     */
+    @Transactional(readOnly = true)
+    public List<DeadStockDTO> deadStock(int days, int page, int size) {
+        return activityRepository.findDeadStock(LocalDateTime.now().minusDays(days), PageRequest.of(page, size));
+    }
+
+    private void record(Map<Long, Activity> activities) {
+        Map<Long, InventoryActivity> rows = activityRepository.findAllForUpdateByInventoryIdIn(activities.keySet())
+                .stream()
+                .collect(Collectors.toMap(InventoryActivity::getInventoryId, Function.identity()));
+        List<InventoryActivity> updated = new ArrayList<>(activities.size());
+        activities.forEach((inventoryId, activity) -> {
+            InventoryActivity row = rows.computeIfAbsent(inventoryId,
+                    id -> InventoryActivity.builder().inventoryId(id).build());
+            row.setLastMovedAt(latest(row.getLastMovedAt(), activity.movedAt()));
+            row.setLastSoldAt(latest(row.getLastSoldAt(), activity.soldAt()));
+            updated.add(row);
+        });
+        activityRepository.saveAll(updated);
+    }
+
+    private static LocalDateTime latest(LocalDateTime first, LocalDateTime second) {
+        if (first == null) {
+            return second;
+        }
+        return second == null || first.isAfter(second) ? first : second;
+    }
+
+    private record Activity(LocalDateTime movedAt, LocalDateTime soldAt) {
+
+        private Activity latest(Activity other) {
+            return new Activity(InventoryActivityTracker.latest(movedAt, other.movedAt),
+                    InventoryActivityTracker.latest(soldAt, other.soldAt));
+        }
+    }
+
+    /**
+     * Backfills the book ids {@code [from, to)}, splitting the range while it is larger than a chunk.
+     */
+    private final class BackfillRange extends RecursiveAction {
+
+        private final long from;
+        private final long to;
+        private final LongAdder inventories;
+
+        private BackfillRange(long from, long to, LongAdder inventories) {
+            this.from = from;
+            this.to = to;
+            this.inventories = inventories;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > properties.rangeSize()) {
+                long middle = from + (to - from) / 2;
+                invokeAll(new BackfillRange(from, middle, inventories), new BackfillRange(middle, to, inventories));
+                return;
+            }
+            Map<Long, Activity> activities = new HashMap<>();
+            jdbcTemplate.query(LATEST_RANGE, rs -> {
+                activities.put(rs.getLong(1), new Activity(toLocalDateTime(rs.getTimestamp(2)),
+                        toLocalDateTime(rs.getTimestamp(3))));
+            }, from, to);
+            if (activities.isEmpty()) {
+                return;
+            }
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> record(activities));
+                    break;
+                } catch (DataIntegrityViolationException e) {
+                    // a flush created some of the rows meanwhile, they are locked and merged on the next attempt
+                    if (attempt == BACKFILL_ATTEMPTS) {
+                        throw e;
+                    }
+                }
+            }
+            inventories.add(activities.size());
+        }
+
+        private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+            return timestamp == null ? null : timestamp.toLocalDateTime();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.bookstore.management.inventory.archive;
+
+import com.bookstore.management.inventory.model.MovementType;
+
+import java.time.LocalDateTime;
+
+/**
+ * A row of {@code inventory_movement} as stored in an archived segment.
+ */
+public record ArchivedMovement(
+        Long id,
+        Long inventoryId,
+        Integer affectedQuantity,
+        Integer quantityBefore,
+        Integer quantityAfter,
+        MovementType movementType,
+        String description,
+        String createBy,
+        LocalDateTime createdAt
+) {}
@@ -0,0 +1,449 @@
+package com.bookstore.management.inventory.archive;
+
+import com.bookstore.management.inventory.model.MovementArchiveSegment;
+import com.bookstore.management.inventory.model.MovementType;
+import com.bookstore.management.inventory.repository.MovementArchiveSegmentRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cold storage of {@code inventory_movement}.
+ * <p>
+ * The table is treated as monthly partitions on {@code created_at}: months older than
+ * {@code inventory.archive.retain-months} are exported, newest row first, to a gzipped NDJSON
+ * segment with a {@link SegmentIndex} sidecar, registered in {@code movement_archive_segment}
+ * and deleted from the table in the same transaction, only once both files and their names are
+ * on disk. Readers go through {@link #count(MovementQuery)}, {@link #read(MovementQuery, long, int)}
+ * and {@link #readBefore(MovementQuery, LocalDateTime, long, int)}; every archived row is older
+ * than every row still in the table.
+ */
+@Slf4j
+@Component
+public class MovementArchive {
+
+    private static final String OLDEST_MOVEMENT = "select min(created_at) from inventory_movement";
+    private static final String SELECT_MONTH = "select id, inventory_id, affected_quantity, quantity_before, " +
+            "quantity_after, movement_type, description, create_by, created_at from inventory_movement " +
+            "where created_at >= ? and created_at < ? order by created_at desc, id desc";
+    private static final String DELETE_MONTH = "delete from inventory_movement where created_at >= ? and created_at < ?";
+    private static final String SEGMENT_SUFFIX = ".ndjson.gz";
+    private static final String INDEX_SUFFIX = ".idx.json";
+    private static final boolean WINDOWS = System.getProperty("os.name", "").startsWith("Windows");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MovementArchiveSegmentRepository segmentRepository;
+    private final ObjectMapper objectMapper;
+    private final MovementArchiveProperties properties;
+    private final Map<Long, SegmentIndex> indexes = new ConcurrentHashMap<>();
+
+    public MovementArchive(JdbcTemplate jdbcTemplate,
+                           TransactionTemplate transactionTemplate,
+                           MovementArchiveSegmentRepository segmentRepository,
+                           ObjectMapper objectMapper,
+                           MovementArchiveProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.segmentRepository = segmentRepository;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+    }
+
+    @Scheduled(cron = "${inventory.archive.cron:0 30 3 * * *}")
+    public void archiveExpired() {
+        if (properties.enabled()) {
+            archiveBefore(YearMonth.now().minusMonths(properties.retainMonths()));
+        }
+    }
+
+    /**
+     * Archives, oldest first, every month before {@code cutoff} that still has rows in the table.
+     *
+     * @return number of segments written
+     */
+    public int archiveBefore(YearMonth cutoff) {
+        int archived = 0;
+        LocalDateTime oldest;
+        while ((oldest = oldestMovement()) != null && YearMonth.from(oldest).isBefore(cutoff)) {
+            archiveMonth(YearMonth.from(oldest));
+            archived++;
+        }
+        return archived;
+    }
+
+    public List<MovementArchiveSegment> segments() {
+        return segmentRepository.findAllByOrderByMonthDescIdDesc();
+    }
+
+    public long count(MovementQuery query) {
+        long count = 0;
+        for (MovementArchiveSegment segment : segments()) {
+            count += count(segment, query);
+        }
+        return count;
+    }
+
+    /**
+     * Rows matching the query, newest first, skipping the first {@code offset}.
+     */
+    public List<ArchivedMovement> read(MovementQuery query, long offset, int limit) {
+        List<ArchivedMovement> rows = new ArrayList<>(limit);
+        long toSkip = offset;
+        for (MovementArchiveSegment segment : segments()) {
+            if (rows.size() == limit) {
+                break;
+            }
+            long matching = count(segment, query);
+            if (matching <= toSkip) {
+                toSkip -= matching;
+                continue;
+            }
+            long skip = toSkip;
+            toSkip = 0;
+            scan(segment, query::matches, row -> rows.size() < limit, skip, rows::add);
+        }
+        return rows;
+    }
+
+    /**
+     * Rows matching the query that follow {@code (createdAt, id)} in newest-first order; used to
+     * continue a keyset page once the table has no older rows.
+     */
+    public List<ArchivedMovement> readBefore(MovementQuery query, LocalDateTime createdAt, long id, int limit) {
+        List<ArchivedMovement> rows = new ArrayList<>(limit);
+        Predicate<ArchivedMovement> filter = movement -> query.matches(movement)
+                && (movement.createdAt().isBefore(createdAt) || movement.createdAt().isEqual(createdAt) && movement.id() < id);
+        for (MovementArchiveSegment segment : segments()) {
+            if (rows.size() == limit) {
+                break;
+            }
+            if (segment.getRowCount() == 0 || segment.getFirstCreatedAt().isAfter(createdAt) || count(segment, query) == 0) {
+                continue;
+            }
+            scan(segment, filter, row -> rows.size() < limit, 0, rows::add);
+        }
+        return rows;
+    }
+
+    /**
+     * Visits every archived row matching the query, opening only the segments its range reaches.
+     */
+    public void forEach(MovementQuery query, Consumer<ArchivedMovement> consumer) {
+        for (MovementArchiveSegment segment : segments()) {
+            if (segment.getRowCount() == 0
+                    || query.from() != null && segment.getLastCreatedAt().isBefore(query.from())
+                    || query.to() != null && !segment.getFirstCreatedAt().isBefore(query.to())) {
+                continue;
+            }
+            scan(segment, query::matches, row -> true, 0, consumer);
+        }
+    }
+
+    private void archiveMonth(YearMonth month) {
+        Path directory = properties.directory();
+        LocalDateTime from = month.atDay(1).atStartOfDay();
+        LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay();
+        List<Path> written = new ArrayList<>();
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                MovementArchiveSegment segment = segmentRepository.save(MovementArchiveSegment.builder()
+                        .month(month.toString())
+                        .fileName("pending")
+                        .rowCount(0L)
+                        .archivedAt(LocalDateTime.now())
+                        .build());
+                String fileName = "movements-" + month + "-" + segment.getId();
+                SegmentWriter writer = new SegmentWriter(directory.resolve(fileName + SEGMENT_SUFFIX));
+                written.add(writer.target);
+                jdbcTemplate.query(SELECT_MONTH, rs -> {
+                    writer.write(movementFrom(rs));
+                }, Timestamp.valueOf(from), Timestamp.valueOf(to));
+                writer.close();
+
+                Path indexFile = directory.resolve(fileName + INDEX_SUFFIX);
+                written.add(indexFile);
+                SegmentIndex index = writer.index();
+                writeIndex(indexFile, index);
+
+                segment.setFileName(fileName);
+                segment.setRowCount(index.rowCount());
+                segment.setFirstCreatedAt(writer.firstCreatedAt);
+                segment.setLastCreatedAt(writer.lastCreatedAt);
+                int deleted = jdbcTemplate.update(DELETE_MONTH, Timestamp.valueOf(from), Timestamp.valueOf(to));
+                if (deleted != index.rowCount()) {
+                    throw new IllegalStateException("Movements of " + month + " changed while being archived");
+                }
+                indexes.put(segment.getId(), index);
+                log.info("Archived {} inventory movements of {} to {}", deleted, month, writer.target);
+            });
+        } catch (RuntimeException e) {
+            written.forEach(this::deleteQuietly);
+            throw e;
+        }
+    }
+
+    private long count(MovementArchiveSegment segment, MovementQuery query) {
+        if (segment.getRowCount() == 0
+                || query.from() != null && segment.getLastCreatedAt().isBefore(query.from())
+                || query.to() != null && !segment.getFirstCreatedAt().isBefore(query.to())) {
+            return 0;
+        }
+        Long indexed = countFromIndex(segment, index(segment), query);
+        if (indexed != null) {
+            return indexed;
+        }
+        long[] count = new long[1];
+        scan(segment, query::matches, row -> true, 0, row -> count[0]++);
+        return count[0];
+    }
+
+    /**
+     * The rows of a segment matching the query as its index counts them, or {@code null} when the
+     * segment has to be scanned: a range that cuts through a day or also filters, or an index
+     * written before it held the counts the query needs.
+     */
+    private static Long countFromIndex(MovementArchiveSegment segment, SegmentIndex index, MovementQuery query) {
+        boolean coversSegment = (query.from() == null || !segment.getFirstCreatedAt().isBefore(query.from()))
+                && (query.to() == null || segment.getLastCreatedAt().isBefore(query.to()));
+        if (!coversSegment) {
+            if (query.inventoryId() != null || query.movementType() != null || index.rowsByDay() == null
+                    || !startsDay(query.from()) || !startsDay(query.to())) {
+                return null;
+            }
+            return index.rowsByDay().entrySet().stream()
+                    .filter(day -> (query.from() == null || !day.getKey().isBefore(query.from().toLocalDate()))
+                            && (query.to() == null || day.getKey().isBefore(query.to().toLocalDate())))
+                    .mapToLong(Map.Entry::getValue)
+                    .sum();
+        }
+        if (query.inventoryId() != null && query.movementType() != null) {
+            if (index.rowsByInventoryIdAndMovementType() == null) {
+                return null;
+            }
+            return index.rowsByInventoryIdAndMovementType().getOrDefault(query.inventoryId(), Map.of())
+                    .getOrDefault(query.movementType(), 0L);
+        }
+        if (query.inventoryId() != null) {
+            return index.rowsByInventoryId().getOrDefault(query.inventoryId(), 0L);
+        }
+        if (query.movementType() != null) {
+            return index.rowsByMovementType().getOrDefault(query.movementType(), 0L);
+        }
+        return index.rowCount();
+    }
+
+    private static boolean startsDay(LocalDateTime instant) {
+        return instant == null || instant.toLocalTime().equals(LocalTime.MIDNIGHT);
+    }
+
+    private void scan(MovementArchiveSegment segment,
+                      Predicate<ArchivedMovement> filter,
+                      Predicate<ArchivedMovement> wanted,
+                      long skip,
+                      Consumer<ArchivedMovement> consumer) {
+        Path file = properties.directory().resolve(segment.getFileName() + SEGMENT_SUFFIX);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            long skipped = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                ArchivedMovement movement = objectMapper.readValue(line, ArchivedMovement.class);
+                if (!filter.test(movement)) {
+                    continue;
+                }
+                if (skipped < skip) {
+                    skipped++;
+                    continue;
+                }
+                if (!wanted.test(movement)) {
+                    return;
+                }
+                consumer.accept(movement);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read archived segment " + file, e);
+        }
+    }
+
+    private SegmentIndex index(MovementArchiveSegment segment) {
+        return indexes.computeIfAbsent(segment.getId(), id -> {
+            Path file = properties.directory().resolve(segment.getFileName() + INDEX_SUFFIX);
+            try {
+                return objectMapper.readValue(file.toFile(), SegmentIndex.class);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read archived segment index " + file, e);
+            }
+        });
+    }
+
+    private LocalDateTime oldestMovement() {
+        Timestamp oldest = jdbcTemplate.queryForObject(OLDEST_MOVEMENT, Timestamp.class);
+        return oldest != null ? oldest.toLocalDateTime() : null;
+    }
+
+    private static ArchivedMovement movementFrom(ResultSet rs) throws SQLException {
+        String movementType = rs.getString("movement_type");
+        return new ArchivedMovement(
+                rs.getLong("id"),
+                rs.getLong("inventory_id"),
+                rs.getInt("affected_quantity"),
+                rs.getInt("quantity_before"),
+                rs.getInt("quantity_after"),
+                movementType != null ? MovementType.valueOf(movementType) : null,
+                rs.getString("description"),
+                rs.getString("create_by"),
+                rs.getTimestamp("created_at").toLocalDateTime());
+    }
+
+    private void writeIndex(Path target, SegmentIndex index) {
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer content = ByteBuffer.wrap(objectMapper.writeValueAsBytes(index));
+            while (content.hasRemaining()) {
+                channel.write(content);
+            }
+            channel.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        moveDurably(temporary, target);
+    }
+
+    /**
+     * Moves a file that is already on disk into place and syncs the directory, so the new name
+     * survives a crash as well; the rows it holds are deleted from the table right after.
+     */
+    private static void moveDurably(Path temporary, Path target) {
+        try {
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            syncDirectory(target.toAbsolutePath().getParent());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void syncDirectory(Path directory) throws IOException {
+        // Windows cannot open a directory as a channel, and its renames are written through anyway
+        if (WINDOWS) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(file.resolveSibling(file.getFileName() + ".tmp"));
+        } catch (IOException e) {
+            log.warn("Could not delete {}", file, e);
+        }
+    }
+
+    /**
+     * Writes the rows to a temporary file, forced to disk and moved into place on close, and counts
+     * them for the index.
+     */
+    private final class SegmentWriter {
+
+        private final Path target;
+        private final Path temporary;
+        private final FileChannel channel;
+        private final GZIPOutputStream compressed;
+        private final Writer output;
+        private final ObjectWriter rowWriter = objectMapper.writerFor(ArchivedMovement.class);
+        private final Map<Long, Long> rowsByInventoryId = new HashMap<>();
+        private final Map<MovementType, Long> rowsByMovementType = new EnumMap<>(MovementType.class);
+        private final Map<Long, Map<MovementType, Long>> rowsByInventoryIdAndMovementType = new HashMap<>();
+        private final Map<LocalDate, Long> rowsByDay = new TreeMap<>();
+        private long rowCount;
+        private LocalDateTime firstCreatedAt;
+        private LocalDateTime lastCreatedAt;
+
+        private SegmentWriter(Path target) {
+            this.target = target;
+            this.temporary = target.resolveSibling(target.getFileName() + ".tmp");
+            try {
+                this.channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                this.compressed = new GZIPOutputStream(Channels.newOutputStream(channel));
+                this.output = new BufferedWriter(new OutputStreamWriter(compressed, StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void write(ArchivedMovement movement) {
+            try {
+                output.write(rowWriter.writeValueAsString(movement));
+                output.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            rowCount++;
+            rowsByInventoryId.merge(movement.inventoryId(), 1L, Long::sum);
+            if (movement.movementType() != null) {
+                rowsByMovementType.merge(movement.movementType(), 1L, Long::sum);
+                rowsByInventoryIdAndMovementType
+                        .computeIfAbsent(movement.inventoryId(), id -> new EnumMap<>(MovementType.class))
+                        .merge(movement.movementType(), 1L, Long::sum);
+            }
+            rowsByDay.merge(movement.createdAt().toLocalDate(), 1L, Long::sum);
+            if (lastCreatedAt == null) {
+                lastCreatedAt = movement.createdAt();
+            }
+            firstCreatedAt = movement.createdAt();
+        }
+
+        private void close() {
+            try (output) {
+                output.flush();
+                compressed.finish();
+                channel.force(true);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            moveDurably(temporary, target);
+        }
+
+        private SegmentIndex index() {
+            return new SegmentIndex(rowCount, rowsByInventoryId, rowsByMovementType,
+                    rowsByInventoryIdAndMovementType, rowsByDay);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.bookstore.management.inventory.archive;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+
+/**
+ * @param enabled      whether the scheduled job moves old months out of {@code inventory_movement}
+ * @param retainMonths months, besides the current one, kept in {@code inventory_movement}
+ * @param directory    where the archived segments and their indexes are written
+ * @param cron         when the archival job runs
+ */
+@ConfigurationProperties(prefix = "inventory.archive")
+public record MovementArchiveProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("12") int retainMonths,
+        @DefaultValue("data/movement-archive") Path directory,
+        @DefaultValue("0 30 3 * * *") String cron
+) {}
@@ -0,0 +1,37 @@
+package com.bookstore.management.inventory.archive;
+
+import com.bookstore.management.inventory.model.MovementType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filter of a movement query; {@code null} components do not filter.
+ *
+ * @param from first instant included
+ * @param to   first instant excluded
+ */
+public record MovementQuery(Long inventoryId, MovementType movementType, LocalDateTime from, LocalDateTime to) {
+
+    public static MovementQuery all() {
+        return new MovementQuery(null, null, null, null);
+    }
+
+    public static MovementQuery byInventory(Long inventoryId) {
+        return new MovementQuery(inventoryId, null, null, null);
+    }
+
+    public static MovementQuery byType(MovementType movementType) {
+        return new MovementQuery(null, movementType, null, null);
+    }
+
+    public static MovementQuery between(LocalDateTime from, LocalDateTime to) {
+        return new MovementQuery(null, null, from, to);
+    }
+
+    boolean matches(ArchivedMovement movement) {
+        return (inventoryId == null || inventoryId.equals(movement.inventoryId()))
+                && (movementType == null || movementType == movement.movementType())
+                && (from == null || !movement.createdAt().isBefore(from))
+                && (to == null || movement.createdAt().isBefore(to));
+    }
+}
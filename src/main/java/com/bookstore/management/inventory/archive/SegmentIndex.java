@@ -0,0 +1,19 @@
+package com.bookstore.management.inventory.archive;
+
+import com.bookstore.management.inventory.model.MovementType;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Sidecar of a segment file: how many of its rows belong to each inventory, movement type, pair
+ * of both and day, so queries can count a segment, or skip it, without decompressing it. Indexes
+ * written before the pair and day counts existed read them as {@code null}.
+ */
+record SegmentIndex(
+        long rowCount,
+        Map<Long, Long> rowsByInventoryId,
+        Map<MovementType, Long> rowsByMovementType,
+        Map<Long, Map<MovementType, Long>> rowsByInventoryIdAndMovementType,
+        Map<LocalDate, Long> rowsByDay
+) {}
@@ -0,0 +1,6 @@
+package com.bookstore.management.inventory.bulk;
+
+public enum BulkEntryFormat {
+    CSV,
+    NDJSON
+}
@@ -0,0 +1,128 @@
+package com.bookstore.management.inventory.bulk;
+
+import com.bookstore.management.inventory.dto.BulkEntryLineResultDTO;
+import com.bookstore.management.inventory.dto.BulkEntryReportDTO;
+import com.bookstore.management.inventory.dto.InventoryBookDTO;
+import com.bookstore.management.inventory.model.BulkEntryStatus;
+import com.bookstore.management.inventory.repository.InventoryRepository;
+import com.bookstore.management.inventory.service.InventoryService;
+import com.bookstore.management.shared.exception.custom.BusinessException;
+import com.bookstore.management.shared.exception.custom.ResourceNotFoundException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.util.*;
+
+/**
+ * Applies a streamed goods receipt: the body is read line by line and every
+ * {@code inventory.bulk-entry.chunk-size} lines are resolved to books with two queries and
+ * registered with {@link InventoryService#registerEntryBatch}, one transaction per chunk.
+ * A line that cannot be read or names a book without inventory is rejected on its own; a chunk
+ * the service refuses or fails to apply, an inventory removed meanwhile included, rejects its
+ * lines and the import carries on with the next chunk.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BulkEntryImporter {
+
+    private final InventoryService inventoryService;
+    private final InventoryRepository inventoryRepository;
+    private final ObjectMapper objectMapper;
+    private final BulkEntryProperties properties;
+
+    public BulkEntryReportDTO importEntries(InputStream body, BulkEntryFormat format) {
+        BulkEntryReader reader = new BulkEntryReader(body, format, objectMapper);
+        List<BulkEntryLineResultDTO> results = new ArrayList<>();
+        List<BulkEntryLine> chunk = new ArrayList<>(properties.chunkSize());
+
+        BulkEntryLine line;
+        while ((line = reader.next()) != null) {
+            chunk.add(line);
+            if (chunk.size() == properties.chunkSize()) {
+                applyChunk(chunk, results);
+                chunk.clear();
+            }
+        }
+        applyChunk(chunk, results);
+
+        int applied = (int) results.stream()
+                .filter(result -> result.status() == BulkEntryStatus.APPLIED)
+                .count();
+        log.info("Bulk entry applied {} of {} lines", applied, results.size());
+        return new BulkEntryReportDTO(results.size(), applied, results.size() - applied, results);
+    }
+
+    private void applyChunk(List<BulkEntryLine> chunk, List<BulkEntryLineResultDTO> results) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        Map<Long, InventoryBookDTO> booksById = new HashMap<>();
+        Map<String, InventoryBookDTO> booksByIsbn = new HashMap<>();
+        resolveBooks(chunk, booksById, booksByIsbn);
+
+        Map<Long, Integer> quantitiesByBookId = new HashMap<>();
+        List<BulkEntryLineResultDTO> chunkResults = new ArrayList<>(chunk.size());
+        for (BulkEntryLine line : chunk) {
+            if (line.error() != null) {
+                chunkResults.add(result(line, null, BulkEntryStatus.REJECTED, line.error()));
+                continue;
+            }
+            InventoryBookDTO book = line.bookId() != null ? booksById.get(line.bookId()) : booksByIsbn.get(line.isbn());
+            if (book == null) {
+                chunkResults.add(result(line, line.bookId(), BulkEntryStatus.REJECTED, "No inventory found for the book"));
+                continue;
+            }
+            quantitiesByBookId.merge(book.bookId(), line.quantity(), Integer::sum);
+            chunkResults.add(result(line, book.bookId(), BulkEntryStatus.APPLIED, null));
+        }
+
+        if (!quantitiesByBookId.isEmpty()) {
+            try {
+                inventoryService.registerEntryBatch(quantitiesByBookId);
+            } catch (BusinessException | ResourceNotFoundException e) {
+                log.warn("Bulk entry chunk of {} lines rejected: {}", chunk.size(), e.getMessage());
+                rejectApplied(chunkResults, e.getMessage());
+            } catch (RuntimeException e) {
+                log.error("Bulk entry chunk of {} lines failed", chunk.size(), e);
+                rejectApplied(chunkResults, "The entry could not be registered");
+            }
+        }
+        results.addAll(chunkResults);
+    }
+
+    private void resolveBooks(List<BulkEntryLine> chunk,
+                              Map<Long, InventoryBookDTO> booksById,
+                              Map<String, InventoryBookDTO> booksByIsbn) {
+        Set<Long> bookIds = new HashSet<>();
+        Set<String> isbns = new HashSet<>();
+        chunk.stream()
+                .filter(line -> line.error() == null)
+                .forEach(line -> {
+                    if (line.bookId() != null) {
+                        bookIds.add(line.bookId());
+                    } else {
+                        isbns.add(line.isbn());
+                    }
+                });
+        if (!bookIds.isEmpty()) {
+            inventoryRepository.findBooksByBookIdIn(bookIds).forEach(book -> booksById.put(book.bookId(), book));
+        }
+        if (!isbns.isEmpty()) {
+            inventoryRepository.findBooksByIsbnIn(isbns).forEach(book -> booksByIsbn.put(book.isbn(), book));
+        }
+    }
+
+    private static void rejectApplied(List<BulkEntryLineResultDTO> chunkResults, String message) {
+        chunkResults.replaceAll(result -> result.status() != BulkEntryStatus.APPLIED ? result
+                : new BulkEntryLineResultDTO(result.line(), result.bookId(), result.isbn(), result.quantity(),
+                BulkEntryStatus.REJECTED, message));
+    }
+
+    private static BulkEntryLineResultDTO result(BulkEntryLine line, Long bookId, BulkEntryStatus status, String message) {
+        return new BulkEntryLineResultDTO(line.line(), bookId, line.isbn(), line.quantity(), status, message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.bookstore.management.inventory.bulk;
+
+/**
+ * One parsed line of a bulk entry body; {@code error} is set when the line could not be read.
+ */
+record BulkEntryLine(int line, Long bookId, String isbn, Integer quantity, String error) {
+
+    static BulkEntryLine invalid(int line, String error) {
+        return new BulkEntryLine(line, null, null, null, error);
+    }
+}
@@ -0,0 +1,12 @@
+package com.bookstore.management.inventory.bulk;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param chunkSize lines applied per transaction, a failing chunk rejects only its own lines
+ */
+@ConfigurationProperties(prefix = "inventory.bulk-entry")
+public record BulkEntryProperties(
+        @DefaultValue("1000") int chunkSize
+) {}
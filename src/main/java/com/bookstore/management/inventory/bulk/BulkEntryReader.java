@@ -0,0 +1,138 @@
+package com.bookstore.management.inventory.bulk;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reads a bulk entry body one line at a time, so only the current line is held in memory.
+ * <p>
+ * CSV bodies start with a header naming the {@code quantity} column and at least one of
+ * {@code bookId} and {@code isbn}; NDJSON lines are objects with the same fields. Blank lines are
+ * skipped and a line that cannot be read is returned with its error instead of failing the body.
+ */
+class BulkEntryReader {
+
+    private final BufferedReader reader;
+    private final BulkEntryFormat format;
+    private final ObjectMapper objectMapper;
+    private int lineNumber;
+    private int bookIdColumn = -1;
+    private int isbnColumn = -1;
+    private int quantityColumn = -1;
+
+    BulkEntryReader(InputStream body, BulkEntryFormat format, ObjectMapper objectMapper) {
+        this.reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @return the next line, or {@code null} at the end of the body
+     */
+    BulkEntryLine next() {
+        String text;
+        while ((text = readLine()) != null) {
+            lineNumber++;
+            if (text.isBlank()) {
+                continue;
+            }
+            if (format == BulkEntryFormat.CSV && quantityColumn < 0) {
+                readHeader(text);
+                continue;
+            }
+            return format == BulkEntryFormat.CSV ? parseCsv(text) : parseJson(text);
+        }
+        return null;
+    }
+
+    private void readHeader(String text) {
+        List<String> columns = Arrays.stream(text.split(",", -1))
+                .map(column -> column.trim().toLowerCase(Locale.ROOT))
+                .toList();
+        bookIdColumn = columns.indexOf("bookid");
+        isbnColumn = columns.indexOf("isbn");
+        int quantity = columns.indexOf("quantity");
+        if (quantity < 0 || (bookIdColumn < 0 && isbnColumn < 0)) {
+            throw new IllegalArgumentException("The CSV header must name the quantity and the bookId or isbn columns");
+        }
+        quantityColumn = quantity;
+    }
+
+    private BulkEntryLine parseCsv(String text) {
+        String[] values = text.split(",", -1);
+        try {
+            return line(column(values, bookIdColumn), column(values, isbnColumn), column(values, quantityColumn));
+        } catch (IllegalArgumentException e) {
+            return BulkEntryLine.invalid(lineNumber, e.getMessage());
+        }
+    }
+
+    private BulkEntryLine parseJson(String text) {
+        try {
+            JsonNode node = objectMapper.readTree(text);
+            if (!node.isObject()) {
+                return BulkEntryLine.invalid(lineNumber, "Line is not a JSON object");
+            }
+            return line(field(node, "bookId"), field(node, "isbn"), field(node, "quantity"));
+        } catch (JsonProcessingException e) {
+            return BulkEntryLine.invalid(lineNumber, "Malformed JSON");
+        } catch (IllegalArgumentException e) {
+            return BulkEntryLine.invalid(lineNumber, e.getMessage());
+        }
+    }
+
+    private BulkEntryLine line(String bookId, String isbn, String quantity) {
+        if (bookId == null && isbn == null) {
+            throw new IllegalArgumentException("Book id or ISBN is required");
+        }
+        if (quantity == null) {
+            throw new IllegalArgumentException("Quantity is required");
+        }
+        long parsedQuantity = parseNumber(quantity, "Quantity");
+        if (parsedQuantity <= 0 || parsedQuantity > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Quantity must be between 1 and " + Integer.MAX_VALUE);
+        }
+        Long parsedBookId = bookId != null ? parseNumber(bookId, "Book id") : null;
+        return new BulkEntryLine(lineNumber, parsedBookId, parsedBookId == null ? isbn : null,
+                (int) parsedQuantity, null);
+    }
+
+    private static String column(String[] values, int index) {
+        if (index < 0 || index >= values.length || values[index].isBlank()) {
+            return null;
+        }
+        return values[index].trim();
+    }
+
+    private static String field(JsonNode node, String name) {
+        JsonNode value = node.get(name);
+        return value == null || value.isNull() || value.asText().isBlank() ? null : value.asText().trim();
+    }
+
+    private static long parseNumber(String value, String name) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " is not a valid number: " + value);
+        }
+    }
+
+    private String readLine() {
+        try {
+            return reader.readLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
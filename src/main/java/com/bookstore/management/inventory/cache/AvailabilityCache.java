@@ -0,0 +1,77 @@
+package com.bookstore.management.inventory.cache;
+
+import com.bookstore.management.inventory.dto.CheckAvailabilityResponseDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of book availability, so storefront polling does not query {@code inventory}.
+ * <p>
+ * Stock mutations invalidate the book once their transaction has completed. A load that read the
+ * row before that commit cannot outlive the invalidation: Caffeine makes the invalidation wait for
+ * an in-flight load of the same key. Hits and misses are published as {@code cache.gets} with
+ * {@code cache=inventory.availability}, the age of the entries served as
+ * {@code inventory.availability.cache.age}.
+ */
+@Component
+public class AvailabilityCache {
+
+    private final Cache<Long, CachedAvailability> cache;
+    private final Timer age;
+
+    public AvailabilityCache(AvailabilityCacheProperties properties, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfterWrite(properties.expireAfterWrite())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "inventory.availability");
+        this.age = Timer.builder("inventory.availability.cache.age")
+                .description("Age of the availability entries served from the cache")
+                .register(meterRegistry);
+    }
+
+    public CheckAvailabilityResponseDTO get(Long bookId, Function<Long, CheckAvailabilityResponseDTO> loader) {
+        long requestedAt = System.nanoTime();
+        CachedAvailability cached = cache.get(bookId, id -> new CachedAvailability(loader.apply(id), System.nanoTime()));
+        if (cached.loadedAt() < requestedAt) {
+            age.record(requestedAt - cached.loadedAt(), TimeUnit.NANOSECONDS);
+        }
+        return cached.availability();
+    }
+
+    public void invalidateAfterCompletion(Long bookId) {
+        invalidateAfterCompletion(List.of(bookId));
+    }
+
+    public void invalidateAfterCompletion(Collection<Long> bookIds) {
+        List<Long> invalidated = List.copyOf(bookIds);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.invalidateAll(invalidated);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                cache.invalidateAll(invalidated);
+            }
+        });
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private record CachedAvailability(CheckAvailabilityResponseDTO availability, long loadedAt) {}
+}
@@ -0,0 +1,16 @@
+package com.bookstore.management.inventory.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param maximumSize      books kept in the cache, the least recently used are evicted beyond it
+ * @param expireAfterWrite upper bound for the age of an entry, covers writes made by other instances
+ */
+@ConfigurationProperties(prefix = "inventory.availability-cache")
+public record AvailabilityCacheProperties(
+        @DefaultValue("100000") long maximumSize,
+        @DefaultValue("30s") Duration expireAfterWrite
+) {}
@@ -0,0 +1,19 @@
+package com.bookstore.management.inventory.checkpoint;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param enabled  whether the scheduled job records checkpoints
+ * @param interval time between two checkpoint runs
+ * @param settle   how far behind now a checkpoint is taken, so movements still in a journal
+ *                 buffer or an open transaction are not missed
+ */
+@ConfigurationProperties(prefix = "inventory.checkpoint")
+public record StockCheckpointProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("1h") Duration interval,
+        @DefaultValue("5m") Duration settle
+) {}
@@ -0,0 +1,76 @@
+package com.bookstore.management.inventory.checkpoint;
+
+import com.bookstore.management.inventory.model.StockCheckpoint;
+import com.bookstore.management.inventory.repository.StockCheckpointRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Records the stock of every inventory at regular instants, derived from the movement ledger
+ * rather than from the live rows: a run at {@code T} adds the movements created in
+ * {@code [previous run, T)} to the previous checkpoint of each inventory they touch. Inventories
+ * without movements in the range keep their previous checkpoint, so a run costs the movements
+ * since the last one. The first run sums the whole ledger, archive included.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StockCheckpointer {
+
+    private final StockCheckpointRepository checkpointRepository;
+    private final StockDeltas stockDeltas;
+    private final StockCheckpointProperties properties;
+
+    @Scheduled(fixedDelayString = "${inventory.checkpoint.interval:1h}",
+            initialDelayString = "${inventory.checkpoint.interval:1h}")
+    public void checkpointSettled() {
+        if (properties.enabled()) {
+            checkpoint(LocalDateTime.now().minus(properties.settle()).truncatedTo(ChronoUnit.SECONDS));
+        }
+    }
+
+    /**
+     * @return number of inventories checkpointed at {@code until}
+     */
+    @Transactional
+    public int checkpoint(LocalDateTime until) {
+        LocalDateTime since = checkpointRepository.findLatestTakenAt().orElse(null);
+        if (since != null && !until.isAfter(since)) {
+            return 0;
+        }
+        Map<Long, StockDelta> deltas = stockDeltas.between(since, until, null);
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+        Map<Long, StockCheckpoint> previous = since == null ? Map.of()
+                : checkpointRepository.findLatestNotAfter(deltas.keySet(), since).stream()
+                .collect(Collectors.toMap(StockCheckpoint::getInventoryId, Function.identity()));
+
+        List<StockCheckpoint> checkpoints = deltas.entrySet().stream()
+                .map(entry -> {
+                    StockCheckpoint last = previous.get(entry.getKey());
+                    StockDelta stock = last == null ? entry.getValue()
+                            : new StockDelta(last.getQuantityAvailable(), last.getQuantityReserved()).plus(entry.getValue());
+                    return StockCheckpoint.builder()
+                            .inventoryId(entry.getKey())
+                            .takenAt(until)
+                            .quantityAvailable(Math.toIntExact(stock.available()))
+                            .quantityReserved(Math.toIntExact(stock.reserved()))
+                            .build();
+                })
+                .toList();
+        checkpointRepository.saveAll(checkpoints);
+        log.info("Checkpointed the stock of {} inventories at {}", checkpoints.size(), until);
+        return checkpoints.size();
+    }
+}
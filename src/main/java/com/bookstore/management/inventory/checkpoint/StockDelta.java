@@ -0,0 +1,30 @@
+package com.bookstore.management.inventory.checkpoint;
+
+import com.bookstore.management.inventory.model.MovementType;
+
+/**
+ * Net change of the available and reserved quantities of one inventory over a time range.
+ * Every movement moves the available quantity by its affected quantity; reservations and their
+ * releases move the reserved quantity the opposite way. An EXIT that leaves the available
+ * quantity unchanged completed a reservation: its units come out of the reserved quantity instead.
+ */
+public record StockDelta(long available, long reserved) {
+
+    public static final StockDelta NONE = new StockDelta(0, 0);
+
+    static StockDelta of(MovementType movementType, int affectedQuantity, int quantityBefore, int quantityAfter) {
+        if (movementType == MovementType.EXIT && quantityBefore == quantityAfter) {
+            return new StockDelta(0, affectedQuantity);
+        }
+        boolean reservation = movementType == MovementType.RESERVE || movementType == MovementType.RELEASE_RESERVE;
+        return new StockDelta(affectedQuantity, reservation ? -affectedQuantity : 0);
+    }
+
+    public StockDelta plus(StockDelta other) {
+        return new StockDelta(available + other.available, reserved + other.reserved);
+    }
+
+    public StockDelta minus(StockDelta other) {
+        return new StockDelta(available - other.available, reserved - other.reserved);
+    }
+}
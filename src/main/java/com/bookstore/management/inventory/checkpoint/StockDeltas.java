@@ -0,0 +1,67 @@
+package com.bookstore.management.inventory.checkpoint;
+
+import com.bookstore.management.inventory.archive.MovementArchive;
+import com.bookstore.management.inventory.archive.MovementQuery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sums the movements of a half-open range {@code [from, to)} per inventory, in the database and,
+ * when the range reaches archived months, in the archive as well.
+ */
+@Component
+@RequiredArgsConstructor
+public class StockDeltas {
+
+    // Same rules as StockDelta.of: an EXIT with the same quantity before and after consumed a reservation.
+    private static final String SUM_MOVEMENTS = "select inventory_id, " +
+            "sum(case when movement_type = 'EXIT' and quantity_before = quantity_after then 0 " +
+            "else affected_quantity end), " +
+            "sum(case when movement_type in ('RESERVE', 'RELEASE_RESERVE') then -affected_quantity " +
+            "when movement_type = 'EXIT' and quantity_before = quantity_after then affected_quantity else 0 end) " +
+            "from inventory_movement where created_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MovementArchive movementArchive;
+
+    /**
+     * @param from        first instant included, {@code null} for the beginning of the ledger
+     * @param to          first instant excluded
+     * @param inventoryId inventory to sum, {@code null} for all of them
+     */
+    public Map<Long, StockDelta> between(LocalDateTime from, LocalDateTime to, Long inventoryId) {
+        Map<Long, StockDelta> deltas = new HashMap<>();
+        if (from != null && !from.isBefore(to)) {
+            return deltas;
+        }
+        StringBuilder sql = new StringBuilder(SUM_MOVEMENTS);
+        List<Object> arguments = new ArrayList<>(3);
+        arguments.add(Timestamp.valueOf(to));
+        if (from != null) {
+            sql.append(" and created_at >= ?");
+            arguments.add(Timestamp.valueOf(from));
+        }
+        if (inventoryId != null) {
+            sql.append(" and inventory_id = ?");
+            arguments.add(inventoryId);
+        }
+        sql.append(" group by inventory_id");
+        jdbcTemplate.query(sql.toString(), rs -> {
+            deltas.put(rs.getLong(1), new StockDelta(rs.getLong(2), rs.getLong(3)));
+        }, arguments.toArray());
+
+        movementArchive.forEach(new MovementQuery(inventoryId, null, from, to), movement -> deltas.merge(
+                movement.inventoryId(), StockDelta.of(movement.movementType(), movement.affectedQuantity(),
+                        movement.quantityBefore(), movement.quantityAfter()),
+                StockDelta::plus));
+        return deltas;
+    }
+}
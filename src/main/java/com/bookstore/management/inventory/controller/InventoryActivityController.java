@@ -0,0 +1,36 @@
+package com.bookstore.management.inventory.controller;
+
+import com.bookstore.management.inventory.activity.InventoryActivityTracker;
+import com.bookstore.management.inventory.dto.ActivityBackfillDTO;
+import com.bookstore.management.inventory.dto.DeadStockDTO;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@Tag(name = "Inventory")
+@RestController
+@RequestMapping("/api/inventory")
+@RequiredArgsConstructor
+public class InventoryActivityController {
+
+    private final InventoryActivityTracker activityTracker;
+
+    @GetMapping(value = "/dead-stock")
+    public ResponseEntity<List<DeadStockDTO>> getDeadStock(
+            @Positive @Max(3650) @RequestParam(defaultValue = "180") Integer days,
+            @PositiveOrZero @RequestParam(defaultValue = "0") Integer page,
+            @Positive @Max(1000) @RequestParam(defaultValue = "50") Integer size) {
+        return ResponseEntity.ok(activityTracker.deadStock(days, page, size));
+    }
+
+    @PostMapping(value = "/activity/backfill")
+    public ResponseEntity<ActivityBackfillDTO> backfill() {
+        return ResponseEntity.ok(activityTracker.backfill());
+    }
+}
@@ -1,14 +1,23 @@
 package com.bookstore.management.inventory.controller;
 
+import com.bookstore.management.inventory.bulk.BulkEntryFormat;
+import com.bookstore.management.inventory.bulk.BulkEntryImporter;
 import com.bookstore.management.inventory.dto.*;
-import com.bookstore.management.inventory.service.InventoryServiceImpl;
+import com.bookstore.management.inventory.service.InventoryService;
+import com.bookstore.management.inventory.service.StockHistoryService;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Tag(name = "Inventory")
@@ -17,34 +26,60 @@ import java.util.List;
 @RequiredArgsConstructor
 public class InventoryController {
 
-    private final InventoryServiceImpl inventoryServiceImpl;
+    private final InventoryService inventoryService;
+    private final BulkEntryImporter bulkEntryImporter;
+    private final StockHistoryService stockHistoryService;
 
     @GetMapping
     public ResponseEntity<List<InventorySummaryDTO>> getAll() {
-        return ResponseEntity.ok(inventoryServiceImpl.findAll());
+        return ResponseEntity.ok(inventoryService.findAll());
     }
 
     @GetMapping(value = "/book/{bookId}")
     public ResponseEntity<InventoryResponseDTO> getByBookId(
             @Positive @PathVariable Long bookId) {
-        return ResponseEntity.ok(inventoryServiceImpl.findByBookId(bookId));
+        return ResponseEntity.ok(inventoryService.findByBookId(bookId));
     }
 
     @GetMapping(value = "/status")
     public ResponseEntity<List<InventorySummaryDTO>> getAllByActiveStatus(
             @RequestParam(name = "active", defaultValue = "true") Boolean activeStatus) {
-        return ResponseEntity.ok(inventoryServiceImpl.findByActiveStatusList(activeStatus));
+        return ResponseEntity.ok(inventoryService.findByActiveStatusList(activeStatus));
     }
 
     @GetMapping(value = "/low-stock")
-    public ResponseEntity<List<InventorySummaryDTO>> getByAlertLowStock() {
-        return ResponseEntity.ok(inventoryServiceImpl.findByAlertLowStockList());
+    public ResponseEntity<List<InventorySummaryDTO>> getByAlertLowStock(
+            @PositiveOrZero @RequestParam(required = false) Integer page,
+            @Positive @RequestParam(defaultValue = "20") Integer size) {
+        if (page == null) {
+            return ResponseEntity.ok(inventoryService.findByAlertLowStockList());
+        }
+        return ResponseEntity.ok(inventoryService.findByAlertLowStockPage(page, size));
+    }
+
+    @GetMapping(value = "/low-stock/top")
+    public ResponseEntity<List<InventorySummaryDTO>> getMostCriticalLowStock(
+            @Positive @RequestParam(defaultValue = "10") Integer limit) {
+        return ResponseEntity.ok(inventoryService.findMostCriticalLowStock(limit));
     }
 
     @GetMapping(value = "/book/{bookId}/available")
     public ResponseEntity<CheckAvailabilityResponseDTO> getBookAvailability(
             @Positive @PathVariable Long bookId) {
-        return ResponseEntity.ok(inventoryServiceImpl.checkBookAvailability(bookId));
+        return ResponseEntity.ok(inventoryService.checkBookAvailability(bookId));
+    }
+
+    @GetMapping(value = "/book/{bookId}/as-of")
+    public ResponseEntity<StockAsOfDTO> getBookStockAsOf(
+            @Positive @PathVariable Long bookId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(stockHistoryService.findStockAsOf(bookId, endOf(date)));
+    }
+
+    @GetMapping(value = "/as-of")
+    public ResponseEntity<List<StockAsOfDTO>> getCatalogStockAsOf(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(stockHistoryService.findCatalogStockAsOf(endOf(date)));
     }
 
     @PostMapping(value = "/book/{bookId}/sales")
@@ -52,7 +87,7 @@ public class InventoryController {
             @RequestBody @Valid UpdateStockDTO stockDTO,
             @Positive @PathVariable Long bookId) {
 
-        return ResponseEntity.ok(inventoryServiceImpl.registerSale(stockDTO, bookId));
+        return ResponseEntity.ok(inventoryService.registerSale(stockDTO, bookId));
     }
 
     @PostMapping(value = "/book/{bookId}/entries")
@@ -60,7 +95,17 @@ public class InventoryController {
             @RequestBody @Valid UpdateStockDTO stockDTO,
             @Positive @PathVariable Long bookId) {
 
-        return ResponseEntity.ok(inventoryServiceImpl.registerEntry(stockDTO, bookId));
+        return ResponseEntity.ok(inventoryService.registerEntry(stockDTO, bookId));
+    }
+
+    @PostMapping(value = "/entries/bulk", consumes = "text/csv")
+    public ResponseEntity<BulkEntryReportDTO> registerEntriesFromCsv(InputStream body) {
+        return ResponseEntity.ok(bulkEntryImporter.importEntries(body, BulkEntryFormat.CSV));
+    }
+
+    @PostMapping(value = "/entries/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<BulkEntryReportDTO> registerEntriesFromNdjson(InputStream body) {
+        return ResponseEntity.ok(bulkEntryImporter.importEntries(body, BulkEntryFormat.NDJSON));
     }
 
     @PostMapping(value = "/book/{bookId}/adjustment/positive")
@@ -68,33 +113,33 @@ public class InventoryController {
             @RequestBody @Valid UpdateStockDTO stockDTO,
             @Positive @PathVariable Long bookId) {
 
-        return ResponseEntity.ok(inventoryServiceImpl.positiveAdjustment(stockDTO, bookId));
+        return ResponseEntity.ok(inventoryService.positiveAdjustment(stockDTO, bookId));
     }
 
     @PostMapping(value = "/book/{bookId}/adjustment/negative")
     public ResponseEntity<InventorySummaryDTO> negativeAdjustment(
             @RequestBody @Valid UpdateStockDTO stockDTO,
             @Positive @PathVariable Long bookId) {
-        return ResponseEntity.ok(inventoryServiceImpl.negativeAdjustment(stockDTO, bookId));
+        return ResponseEntity.ok(inventoryService.negativeAdjustment(stockDTO, bookId));
     }
 
     @PostMapping()
     public ResponseEntity<InventorySummaryDTO> create(
             @RequestBody @Valid CreateInventoryDTO inventoryDTO){
-        return ResponseEntity.ok(inventoryServiceImpl.create(inventoryDTO));
+        return ResponseEntity.ok(inventoryService.create(inventoryDTO));
     }
     @DeleteMapping(value = "/book/{bookId}/reservations")
     public ResponseEntity<String> releaseReservation(
             @Positive @PathVariable Long bookId,
             @Positive @RequestParam Integer quantity){
-        inventoryServiceImpl.releaseReservation(bookId, quantity);
+        inventoryService.releaseReservation(bookId, quantity);
         return ResponseEntity.noContent().build();
     }
     @PostMapping(value = "/book/{bookId}/reservations")
     public ResponseEntity<String> reserveStock(
             @Positive @PathVariable Long bookId,
             @Positive @RequestParam Integer quantity){
-        inventoryServiceImpl.reserveStock(bookId, quantity);
+        inventoryService.reserveStock(bookId, quantity);
         return ResponseEntity.noContent().build();
     }
     @PatchMapping(value = "/book/{bookId}/thresholds")
@@ -102,12 +147,16 @@ public class InventoryController {
             @Positive @PathVariable Long bookId,
             @Positive @RequestParam Integer stockMin,
             @Positive @RequestParam Integer stockMax){
-        return ResponseEntity.ok(inventoryServiceImpl.updateThresholds(bookId, stockMin, stockMax));
+        return ResponseEntity.ok(inventoryService.updateThresholds(bookId, stockMin, stockMax));
     }
     @PatchMapping(value = "/{inventoryId}/disable")
     public ResponseEntity<String> disableById(
             @Positive @PathVariable Long inventoryId){
-        inventoryServiceImpl.disableById(inventoryId);
+        inventoryService.disableById(inventoryId);
         return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+
+    private static LocalDateTime endOf(LocalDate date) {
+        return date.plusDays(1).atStartOfDay();
+    }
+}
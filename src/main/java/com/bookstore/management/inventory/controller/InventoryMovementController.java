@@ -1,6 +1,7 @@
 package com.bookstore.management.inventory.controller;
 
 import com.bookstore.management.inventory.dto.InventoryMovementResponseDTO;
+import com.bookstore.management.inventory.dto.MovementSliceDTO;
 import com.bookstore.management.inventory.model.MovementType;
 import com.bookstore.management.inventory.service.InventoryMovementServiceImpl;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -24,6 +25,7 @@ public class InventoryMovementController {
 
     private final static int DEFAULT_SIZE = 10;
     private final static String DEFAULT_SORT = "createdAT";
+    private final static String CURSOR = "cursor";
     private final InventoryMovementServiceImpl inventoryMovementServiceImpl;
 
     @GetMapping(value = "/by-inventory/{inventoryId}")
@@ -55,4 +57,46 @@ public class InventoryMovementController {
             @PageableDefault(size = DEFAULT_SIZE,sort =DEFAULT_SORT, direction = Sort.Direction.DESC) Pageable pageable) {
         return ResponseEntity.ok(inventoryMovementServiceImpl.findRecentMovements(pageable));
     }
+
+    // Keyset mode: chosen by sending the cursor parameter, empty for the first page.
+
+    @GetMapping(value = "/by-inventory/{inventoryId}", params = CURSOR)
+    public ResponseEntity<MovementSliceDTO> seekInventoryMovements(
+            @Positive @PathVariable Long inventoryId,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "" + DEFAULT_SIZE) int size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+
+        return ResponseEntity.ok(inventoryMovementServiceImpl.seekByInventoryId(inventoryId, cursor, size, withTotal));
+    }
+
+    @GetMapping(value = "/by-type", params = CURSOR)
+    public ResponseEntity<MovementSliceDTO> seekMovementsByType(
+            @RequestParam MovementType type,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "" + DEFAULT_SIZE) int size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+
+        return ResponseEntity.ok(inventoryMovementServiceImpl.seekByMovementType(type, cursor, size, withTotal));
+    }
+
+    @GetMapping(value = "/by-date-range", params = CURSOR)
+    public ResponseEntity<MovementSliceDTO> seekMovementsBetweenDates(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "" + DEFAULT_SIZE) int size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+
+        return ResponseEntity.ok(inventoryMovementServiceImpl.seekByDateRange(startDate, endDate, cursor, size, withTotal));
+    }
+
+    @GetMapping(value = "/recent", params = CURSOR)
+    public ResponseEntity<MovementSliceDTO> seekRecentMovements(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "" + DEFAULT_SIZE) int size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+
+        return ResponseEntity.ok(inventoryMovementServiceImpl.seekRecentMovements(cursor, size, withTotal));
+    }
 }
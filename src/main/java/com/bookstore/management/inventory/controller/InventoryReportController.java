@@ -0,0 +1,25 @@
+package com.bookstore.management.inventory.controller;
+
+import com.bookstore.management.inventory.dto.InventoryValuationReportDTO;
+import com.bookstore.management.inventory.report.InventoryValuationReporter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@Tag(name = "Inventory")
+@RestController
+@RequestMapping("/api/inventory/reports")
+@RequiredArgsConstructor
+public class InventoryReportController {
+
+    private final InventoryValuationReporter valuationReporter;
+
+    @GetMapping(value = "/valuation")
+    public ResponseEntity<InventoryValuationReportDTO> getValuation(
+            @Positive @Max(366) @RequestParam(defaultValue = "30") Integer days) {
+        return ResponseEntity.ok(valuationReporter.report(days));
+    }
+}
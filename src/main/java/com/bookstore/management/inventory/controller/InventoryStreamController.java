@@ -0,0 +1,26 @@
+package com.bookstore.management.inventory.controller;
+
+import com.bookstore.management.inventory.stream.InventoryStreamBroker;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Set;
+
+@Tag(name = "Inventory")
+@RestController
+@RequestMapping("/api/inventory/stream")
+@RequiredArgsConstructor
+public class InventoryStreamController {
+
+    private final InventoryStreamBroker inventoryStreamBroker;
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(
+            @RequestParam(required = false, defaultValue = "") Set<Long> bookIds,
+            @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+        return inventoryStreamBroker.subscribe(bookIds, lastEventId);
+    }
+}
@@ -0,0 +1,29 @@
+package com.bookstore.management.inventory.controller;
+
+import com.bookstore.management.inventory.dto.ReconciliationRunDTO;
+import com.bookstore.management.inventory.reconcile.LedgerReconciler;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Positive;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@Tag(name = "Inventory")
+@RestController
+@RequestMapping("/api/inventory/reconciliations")
+@RequiredArgsConstructor
+public class ReconciliationController {
+
+    private final LedgerReconciler ledgerReconciler;
+
+    @PostMapping
+    public ResponseEntity<ReconciliationRunDTO> start() {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(ledgerReconciler.start());
+    }
+
+    @GetMapping(value = "/{runId}")
+    public ResponseEntity<ReconciliationRunDTO> getReport(@Positive @PathVariable Long runId) {
+        return ResponseEntity.ok(ledgerReconciler.report(runId));
+    }
+}
@@ -0,0 +1,34 @@
+package com.bookstore.management.inventory.controller;
+
+import com.bookstore.management.inventory.dto.ReplenishmentSuggestionDTO;
+import com.bookstore.management.inventory.velocity.SalesVelocityTracker;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@Tag(name = "Inventory")
+@RestController
+@RequestMapping("/api/inventory")
+@RequiredArgsConstructor
+public class ReplenishmentController {
+
+    private final SalesVelocityTracker velocityTracker;
+
+    @GetMapping(value = "/replenishment")
+    public ResponseEntity<List<ReplenishmentSuggestionDTO>> getSuggestions(
+            @PositiveOrZero @RequestParam(defaultValue = "0") Integer page,
+            @Positive @Max(1000) @RequestParam(defaultValue = "50") Integer size) {
+        return ResponseEntity.ok(velocityTracker.suggestions(page, size));
+    }
+
+    @GetMapping(value = "/book/{bookId}/velocity")
+    public ResponseEntity<ReplenishmentSuggestionDTO> getVelocity(@Positive @PathVariable Long bookId) {
+        return ResponseEntity.ok(velocityTracker.findByBookId(bookId));
+    }
+}
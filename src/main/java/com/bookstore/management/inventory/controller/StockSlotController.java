@@ -0,0 +1,35 @@
+package com.bookstore.management.inventory.controller;
+
+import com.bookstore.management.inventory.dto.StockSlotsDTO;
+import com.bookstore.management.inventory.slot.StockSlots;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Positive;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@Tag(name = "Inventory")
+@RestController
+@RequestMapping("/api/inventory/book/{bookId}/slots")
+@RequiredArgsConstructor
+public class StockSlotController {
+
+    private final StockSlots stockSlots;
+
+    @GetMapping
+    public ResponseEntity<StockSlotsDTO> get(@Positive @PathVariable Long bookId) {
+        return ResponseEntity.ok(stockSlots.describe(bookId));
+    }
+
+    @PutMapping
+    public ResponseEntity<StockSlotsDTO> shard(
+            @Positive @PathVariable Long bookId,
+            @Positive @RequestParam Integer count) {
+        return ResponseEntity.ok(stockSlots.shard(bookId, count));
+    }
+
+    @DeleteMapping
+    public ResponseEntity<StockSlotsDTO> unshard(@Positive @PathVariable Long bookId) {
+        return ResponseEntity.ok(stockSlots.unshard(bookId));
+    }
+}
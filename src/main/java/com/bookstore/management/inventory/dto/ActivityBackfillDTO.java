@@ -0,0 +1,6 @@
+package com.bookstore.management.inventory.dto;
+
+public record ActivityBackfillDTO(
+        long inventories,
+        long durationMillis
+) {}
@@ -0,0 +1,12 @@
+package com.bookstore.management.inventory.dto;
+
+import com.bookstore.management.inventory.model.BulkEntryStatus;
+
+public record BulkEntryLineResultDTO(
+        Integer line,
+        Long bookId,
+        String isbn,
+        Integer quantity,
+        BulkEntryStatus status,
+        String message
+) {}
@@ -0,0 +1,10 @@
+package com.bookstore.management.inventory.dto;
+
+import java.util.List;
+
+public record BulkEntryReportDTO(
+        Integer received,
+        Integer applied,
+        Integer rejected,
+        List<BulkEntryLineResultDTO> lines
+) {}
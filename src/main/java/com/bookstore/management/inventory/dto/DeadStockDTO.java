@@ -0,0 +1,18 @@
+package com.bookstore.management.inventory.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * @param tiedUpValue stock on hand at the current net price
+ * @param lastSoldAt  latest EXIT movement, {@code null} when the book never sold
+ */
+public record DeadStockDTO(
+        Long bookId,
+        String isbn,
+        String title,
+        Integer quantityOnHand,
+        BigDecimal tiedUpValue,
+        LocalDateTime lastSoldAt,
+        LocalDateTime lastMovedAt
+) {}
@@ -0,0 +1,7 @@
+package com.bookstore.management.inventory.dto;
+
+public record InventoryBookDTO(
+        Long inventoryId,
+        Long bookId,
+        String isbn
+) {}
@@ -0,0 +1,15 @@
+package com.bookstore.management.inventory.dto;
+
+import java.time.LocalDateTime;
+
+public record InventoryDriftDTO(
+        Long bookId,
+        Long inventoryId,
+        Long expectedAvailable,
+        Integer actualAvailable,
+        Long expectedReserved,
+        Integer actualReserved,
+        Long firstDivergentMovementId,
+        LocalDateTime firstDivergentAt
+) {
+}
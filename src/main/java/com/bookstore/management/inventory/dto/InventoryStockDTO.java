@@ -0,0 +1,10 @@
+package com.bookstore.management.inventory.dto;
+
+public record InventoryStockDTO(
+        Long id,
+        Long bookId,
+        Integer quantityAvailable,
+        Integer quantityReserved,
+        Integer stockMin,
+        Boolean activeStatus
+) {}
@@ -0,0 +1,19 @@
+package com.bookstore.management.inventory.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * @param ledgerVersion committed stock changes counted when the report was built, it is reused
+ *                      until the count moves
+ * @param byGenre       lines ordered by stock value, most valuable first
+ * @param byAuthor      lines ordered by stock value, most valuable first
+ */
+public record InventoryValuationReportDTO(
+        LocalDateTime generatedAt,
+        Long ledgerVersion,
+        Integer windowDays,
+        ValuationLineDTO total,
+        List<ValuationLineDTO> byGenre,
+        List<ValuationLineDTO> byAuthor
+) {}
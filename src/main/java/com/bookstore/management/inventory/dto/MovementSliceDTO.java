@@ -0,0 +1,10 @@
+package com.bookstore.management.inventory.dto;
+
+import java.util.List;
+
+public record MovementSliceDTO(
+        List<InventoryMovementResponseDTO> content,
+        String nextCursor,
+        Long estimatedTotal
+) {
+}
@@ -0,0 +1,18 @@
+package com.bookstore.management.inventory.dto;
+
+import com.bookstore.management.inventory.model.ReconciliationStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record ReconciliationRunDTO(
+        Long id,
+        ReconciliationStatus status,
+        LocalDateTime startedAt,
+        LocalDateTime finishedAt,
+        Long inventoriesChecked,
+        Integer driftCount,
+        String failureReason,
+        List<InventoryDriftDTO> drifts
+) {
+}
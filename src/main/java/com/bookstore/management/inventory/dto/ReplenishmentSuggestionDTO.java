@@ -0,0 +1,20 @@
+package com.bookstore.management.inventory.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * @param dailyVelocity     units sold per day, exponentially smoothed
+ * @param stockOutDate      day the available stock runs out at that pace, {@code null} when it does not sell
+ * @param suggestedQuantity units to order to reach {@code stockMax}, 0 when no order is due
+ */
+public record ReplenishmentSuggestionDTO(
+        Long bookId,
+        Double dailyVelocity,
+        Integer quantityAvailable,
+        Integer stockMin,
+        Integer stockMax,
+        LocalDate stockOutDate,
+        Integer suggestedQuantity,
+        LocalDateTime updatedAt
+) {}
@@ -0,0 +1,12 @@
+package com.bookstore.management.inventory.dto;
+
+import java.time.LocalDateTime;
+
+public record StockAsOfDTO(
+        Long inventoryId,
+        Long bookId,
+        LocalDateTime at,
+        int quantityAvailable,
+        int quantityReserved
+) {
+}
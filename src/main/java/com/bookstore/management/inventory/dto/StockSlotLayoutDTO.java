@@ -0,0 +1,7 @@
+package com.bookstore.management.inventory.dto;
+
+public record StockSlotLayoutDTO(
+        Long inventoryId,
+        Long bookId,
+        Integer slots
+) {}
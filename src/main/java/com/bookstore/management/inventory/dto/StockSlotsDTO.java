@@ -0,0 +1,14 @@
+package com.bookstore.management.inventory.dto;
+
+import java.util.List;
+
+/**
+ * @param slotsAvailable available quantity of every slot, empty when the book is not sharded
+ */
+public record StockSlotsDTO(
+        Long bookId,
+        Integer slots,
+        Integer quantityAvailable,
+        Integer quantityReserved,
+        List<Integer> slotsAvailable
+) {}
@@ -0,0 +1,10 @@
+package com.bookstore.management.inventory.dto;
+
+public record StockUpdateDTO(
+        Long bookId,
+        Integer quantityAvailable,
+        Integer quantityReserved,
+        Integer availableDelta,
+        Boolean activeStatus,
+        Boolean alertLowStock
+) {}
@@ -0,0 +1,20 @@
+package com.bookstore.management.inventory.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * @param stockValue   units on hand at the current net price
+ * @param soldValue    units sold in the window at the current net price
+ * @param turnover     sold value over stock value for the window, {@code null} without stock
+ * @param daysOfSupply days the units on hand last at the window's sales rate, {@code null} without sales
+ */
+public record ValuationLineDTO(
+        String key,
+        Long inventories,
+        Long unitsOnHand,
+        BigDecimal stockValue,
+        Long unitsSold,
+        BigDecimal soldValue,
+        BigDecimal turnover,
+        BigDecimal daysOfSupply
+) {}
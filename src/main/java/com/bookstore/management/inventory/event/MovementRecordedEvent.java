@@ -0,0 +1,26 @@
+package com.bookstore.management.inventory.event;
+
+import com.bookstore.management.inventory.model.InventoryMovement;
+import com.bookstore.management.inventory.model.MovementType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Movement handed to the {@link com.bookstore.management.inventory.journal.MovementJournal}.
+ * Published inside the changing transaction, so listeners act on it only once it commits,
+ * whichever journal mode writes it to {@code inventory_movement}.
+ */
+public record MovementRecordedEvent(
+        Long inventoryId,
+        MovementType movementType,
+        int affectedQuantity,
+        LocalDateTime createdAt
+) {
+    public static MovementRecordedEvent of(InventoryMovement movement) {
+        return new MovementRecordedEvent(
+                movement.getInventory().getId(),
+                movement.getMovementType(),
+                movement.getAffectedQuantity(),
+                movement.getCreatedAt() != null ? movement.getCreatedAt() : LocalDateTime.now());
+    }
+}
@@ -0,0 +1,45 @@
+package com.bookstore.management.inventory.event;
+
+import com.bookstore.management.inventory.dto.InventoryStockDTO;
+import com.bookstore.management.inventory.model.Inventory;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stock of a book as a change left it. Published inside the changing transaction, while the row
+ * is still locked, so for one book a higher {@code sequence} always describes a later state;
+ * listeners act on it after commit.
+ *
+ * @param availableDelta change of the available quantity made by this event
+ */
+public record StockChangedEvent(
+        long sequence,
+        Long inventoryId,
+        Long bookId,
+        int quantityAvailable,
+        int quantityReserved,
+        int stockMin,
+        boolean activeStatus,
+        int availableDelta
+) {
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    public static long nextSequence() {
+        return SEQUENCE.incrementAndGet();
+    }
+
+    public static StockChangedEvent of(InventoryStockDTO stock, int availableDelta) {
+        return new StockChangedEvent(nextSequence(), stock.id(), stock.bookId(), stock.quantityAvailable(),
+                stock.quantityReserved(), stock.stockMin(), stock.activeStatus(), availableDelta);
+    }
+
+    public static StockChangedEvent of(Inventory inventory, int availableDelta) {
+        return new StockChangedEvent(nextSequence(), inventory.getId(), inventory.getBook().getId(),
+                inventory.getTotalAvailable(), inventory.getTotalReserved(),
+                inventory.getStockMin(), inventory.getActiveStatus(), availableDelta);
+    }
+
+    public boolean lowStock() {
+        return activeStatus && stockMin > quantityAvailable;
+    }
+}
@@ -0,0 +1,227 @@
+package com.bookstore.management.inventory.index;
+
+import com.bookstore.management.book.dto.BookSummaryDTO;
+import com.bookstore.management.book.event.AuthorChangedEvent;
+import com.bookstore.management.book.event.BookChangedEvent;
+import com.bookstore.management.book.mapper.BookMapper;
+import com.bookstore.management.book.repository.BookRepository;
+import com.bookstore.management.inventory.dto.InventorySummaryDTO;
+import com.bookstore.management.inventory.event.StockChangedEvent;
+import com.bookstore.management.inventory.repository.InventoryRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Active inventories whose available quantity is below their minimum stock, ordered by deficit
+ * ({@code stockMin - quantityAvailable}), most critical first.
+ * <p>
+ * Built from the database at startup and then kept up to date from {@link StockChangedEvent}s
+ * once their transaction commits; an event applied late never overwrites a newer one.
+ * Book summaries are refreshed on {@link BookChangedEvent} and {@link AuthorChangedEvent}.
+ */
+@Slf4j
+@Component
+public class LowStockIndex {
+
+    private static final Comparator<Entry> MOST_CRITICAL_FIRST = Comparator
+            .comparingInt(Entry::deficit).reversed()
+            .thenComparing(Entry::bookId);
+
+    private final InventoryRepository inventoryRepository;
+    private final BookRepository bookRepository;
+    private final BookMapper bookMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final NavigableSet<Entry> entries = new TreeSet<>(MOST_CRITICAL_FIRST);
+    private final Map<Long, Entry> entriesByBookId = new HashMap<>();
+    private final Map<Long, Long> stampsByBookId = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public LowStockIndex(InventoryRepository inventoryRepository,
+                         BookRepository bookRepository,
+                         BookMapper bookMapper,
+                         TransactionTemplate transactionTemplate) {
+        this.inventoryRepository = inventoryRepository;
+        this.bookRepository = bookRepository;
+        this.bookMapper = bookMapper;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        List<Entry> loaded = transactionTemplate.execute(status ->
+                inventoryRepository.findActiveInventoriesWithLowStock().stream()
+                        .map(inventory -> new Entry(inventory.getId(), inventory.getBook().getId(),
+                                inventory.getTotalAvailable(), inventory.getStockMin(),
+                                bookMapper.toBookSummaryDTO(inventory.getBook())))
+                        .toList());
+
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            entriesByBookId.clear();
+            stampsByBookId.clear();
+            loaded.forEach(this::put);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Low stock index rebuilt with {} inventories", loaded.size());
+    }
+
+    public List<InventorySummaryDTO> findAll() {
+        return find(0, Integer.MAX_VALUE);
+    }
+
+    public List<InventorySummaryDTO> findPage(int page, int size) {
+        return find((long) page * size, size);
+    }
+
+    public List<InventorySummaryDTO> findMostCritical(int limit) {
+        return find(0, limit);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        BookSummaryDTO book = summaryIfMissing(event);
+        lock.writeLock().lock();
+        try {
+            apply(event, book);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        refreshSummaries(List.of(event.bookId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAuthorChanged(AuthorChangedEvent event) {
+        lock.readLock().lock();
+        List<Long> bookIds;
+        try {
+            bookIds = List.copyOf(entriesByBookId.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+        refreshSummaries(bookIds);
+    }
+
+    private List<InventorySummaryDTO> find(long offset, int limit) {
+        lock.readLock().lock();
+        try {
+            return entries.stream()
+                    .skip(offset)
+                    .limit(limit)
+                    .map(Entry::toSummary)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(StockChangedEvent event, BookSummaryDTO loadedBook) {
+        Long latest = stampsByBookId.get(event.bookId());
+        if (latest != null && latest > event.sequence()) {
+            return;
+        }
+        stampsByBookId.put(event.bookId(), event.sequence());
+
+        Entry current = entriesByBookId.get(event.bookId());
+        BookSummaryDTO book = current != null ? current.book() : loadedBook;
+        remove(event.bookId());
+        if (event.lowStock() && book != null) {
+            put(new Entry(event.inventoryId(), event.bookId(), event.quantityAvailable(), event.stockMin(), book));
+        }
+    }
+
+    /**
+     * Loads the book summary outside the lock when the stock enters the index.
+     */
+    private BookSummaryDTO summaryIfMissing(StockChangedEvent event) {
+        if (!event.lowStock()) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            if (entriesByBookId.containsKey(event.bookId())) {
+                return null;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return bookRepository.findAllByIdIn(List.of(event.bookId())).stream()
+                .findFirst()
+                .map(bookMapper::toBookSummaryDTO)
+                .orElse(null);
+    }
+
+    private void refreshSummaries(Collection<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return;
+        }
+        Map<Long, BookSummaryDTO> books = new HashMap<>();
+        bookRepository.findAllByIdIn(bookIds)
+                .forEach(book -> books.put(book.getId(), bookMapper.toBookSummaryDTO(book)));
+
+        lock.writeLock().lock();
+        try {
+            bookIds.forEach(bookId -> {
+                Entry current = entriesByBookId.get(bookId);
+                if (current == null) {
+                    return;
+                }
+                remove(bookId);
+                BookSummaryDTO book = books.get(bookId);
+                if (book != null) {
+                    put(current.withBook(book));
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(Entry entry) {
+        entries.add(entry);
+        entriesByBookId.put(entry.bookId(), entry);
+    }
+
+    private void remove(Long bookId) {
+        Entry removed = entriesByBookId.remove(bookId);
+        if (removed != null) {
+            entries.remove(removed);
+        }
+    }
+
+    private record Entry(Long inventoryId, Long bookId, int quantityAvailable, int stockMin, BookSummaryDTO book) {
+
+        int deficit() {
+            return stockMin - quantityAvailable;
+        }
+
+        Entry withBook(BookSummaryDTO book) {
+            return new Entry(inventoryId, bookId, quantityAvailable, stockMin, book);
+        }
+
+        InventorySummaryDTO toSummary() {
+            return new InventorySummaryDTO(inventoryId, book, quantityAvailable, true);
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package com.bookstore.management.inventory.journal;
+
+import com.bookstore.management.inventory.event.MovementRecordedEvent;
+import com.bookstore.management.inventory.model.InventoryMovement;
+import com.bookstore.management.shared.exception.custom.JournalBatchTooLargeException;
+import com.bookstore.management.shared.exception.custom.JournalSaturatedException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Base of the journals that write movements outside the caller's transaction.
+ * <p>
+ * Capacity is reserved while the caller's transaction is still open, so a saturated journal
+ * rejects the whole inventory change with {@link JournalSaturatedException} instead of losing
+ * the movement after the inventory row was committed. A change with more movements than the whole
+ * capacity could never be admitted and is refused at once with {@link JournalBatchTooLargeException}. The entries are handed to a single writer
+ * thread only once the transaction has committed; the writer groups the entries of concurrent
+ * transactions into batches of up to {@code maxBatchSize} and passes them to {@link #flush(List)}.
+ * Capacity is given back with {@link #release(int)} once the entries are in {@code inventory_movement}.
+ * <p>
+ * A batch still failing after {@code maxFlushAttempts} is moved to {@code inventory_movement_dead_letter}
+ * and its capacity given back, so one bad batch cannot stop the writer from draining the others.
+ */
+@Slf4j
+public abstract class BufferedMovementJournal implements MovementJournal {
+
+    private static final Duration MAX_RETRY_BACKOFF = Duration.ofSeconds(5);
+
+    private final MovementJournalProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MovementDeadLetterWriter deadLetterWriter;
+    private final Semaphore capacity;
+    private final BlockingQueue<PendingEntries> queue = new LinkedBlockingQueue<>();
+    private final AtomicLong backlog = new AtomicLong();
+    private final AtomicLong recovered = new AtomicLong();
+    private final Timer flushTimer;
+    private final String mode;
+    private volatile boolean running;
+    private Thread writer;
+
+    protected BufferedMovementJournal(String mode,
+                                      MovementJournalProperties properties,
+                                      MeterRegistry meterRegistry,
+                                      MovementDeadLetterWriter deadLetterWriter,
+                                      ApplicationEventPublisher eventPublisher) {
+        this.mode = mode;
+        this.properties = properties;
+        this.eventPublisher = eventPublisher;
+        this.deadLetterWriter = deadLetterWriter;
+        this.capacity = new Semaphore(properties.capacity());
+        this.flushTimer = Timer.builder("inventory.journal.flush")
+                .description("Time to make a batch of movements durable")
+                .tag("mode", mode)
+                .register(meterRegistry);
+        Gauge.builder("inventory.journal.depth", backlog, AtomicLong::get)
+                .description("Movements accepted but not yet written to inventory_movement")
+                .tag("mode", mode)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() throws Exception {
+        recover();
+        running = true;
+        writer = new Thread(this::writeLoop, "movement-journal-" + mode);
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        writer.join(properties.flushTimeout().toMillis() * 5);
+    }
+
+    @Override
+    public void append(InventoryMovement movement) {
+        appendAll(List.of(movement));
+    }
+
+    @Override
+    public void appendAll(Collection<InventoryMovement> movements) {
+        if (movements.isEmpty()) {
+            return;
+        }
+        List<JournalEntry> entries = movements.stream().map(JournalEntry::from).toList();
+        reserve(entries.size());
+        movements.forEach(movement -> eventPublisher.publishEvent(MovementRecordedEvent.of(movement)));
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            submit(entries);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    submit(entries);
+                } else {
+                    release(entries.size());
+                }
+            }
+        });
+    }
+
+    /**
+     * Makes the entries durable. Throwing leaves them queued and the batch is retried, up to
+     * {@code maxFlushAttempts} times before it is dead-lettered.
+     */
+    protected abstract void flush(List<JournalEntry> entries) throws Exception;
+
+    /**
+     * Called on the writer thread once per batch, before its first {@link #flush(List)}; every
+     * retry flushes the entries returned here.
+     */
+    protected List<JournalEntry> prepare(List<JournalEntry> entries) {
+        return entries;
+    }
+
+    /**
+     * Called once before the writer starts, to account for entries left by a previous run.
+     */
+    protected void recover() throws Exception {
+    }
+
+    protected void release(int entries) {
+        backlog.addAndGet(-entries);
+        capacity.release(entries);
+    }
+
+    /**
+     * Accounts entries that are pending in durable storage from a previous run. They count towards
+     * the depth but not towards the capacity, so a large backlog cannot block startup.
+     */
+    protected void addRecoveredBacklog(long entries) {
+        backlog.addAndGet(entries);
+        recovered.addAndGet(entries);
+    }
+
+    /**
+     * Gives back capacity for entries that reached {@code inventory_movement}, recovered ones first.
+     */
+    protected void releaseDrained(int entries) {
+        long fromRecovered = Math.min(entries, recovered.get());
+        recovered.addAndGet(-fromRecovered);
+        backlog.addAndGet(-fromRecovered);
+        release(entries - (int) fromRecovered);
+    }
+
+    /**
+     * Accounts entries found in durable storage a second time, such as a batch written again after
+     * a failed flush. Only those counted as recovered backlog took part in the depth.
+     */
+    protected void releaseDuplicates(int entries) {
+        long fromRecovered = Math.min(entries, recovered.get());
+        recovered.addAndGet(-fromRecovered);
+        backlog.addAndGet(-fromRecovered);
+    }
+
+    protected Timer flushTimer() {
+        return flushTimer;
+    }
+
+    private void reserve(int entries) {
+        if (entries > properties.capacity()) {
+            throw new JournalBatchTooLargeException("A change of " + entries + " movements exceeds the inventory " +
+                    "movement journal capacity of " + properties.capacity());
+        }
+        try {
+            if (!capacity.tryAcquire(entries, properties.acquireTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new JournalSaturatedException("Inventory movement journal is full, retry later");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JournalSaturatedException("Interrupted while waiting for the inventory movement journal");
+        }
+        backlog.addAndGet(entries);
+    }
+
+    private void submit(List<JournalEntry> entries) {
+        PendingEntries pending = new PendingEntries(entries, new CompletableFuture<>());
+        queue.add(pending);
+        if (!properties.awaitFlush()) {
+            return;
+        }
+        try {
+            pending.written().get(properties.flushTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Movements still queued after {}, they will be written in the background", properties.flushTimeout());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.error("Movement journal failed to write movements", e.getCause());
+        }
+    }
+
+    private void writeLoop() {
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingEntries first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<PendingEntries> group = collectGroup(first);
+                List<JournalEntry> entries = new ArrayList<>();
+                group.forEach(pending -> entries.addAll(pending.entries()));
+
+                if (writeWithRetry(prepare(entries))) {
+                    group.forEach(pending -> pending.written().complete(null));
+                } else {
+                    IllegalStateException deadLettered = new IllegalStateException(
+                            "Movements moved to the dead letter after " + properties.maxFlushAttempts() + " failed attempts");
+                    group.forEach(pending -> pending.written().completeExceptionally(deadLettered));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private List<PendingEntries> collectGroup(PendingEntries first) throws InterruptedException {
+        List<PendingEntries> group = new ArrayList<>();
+        group.add(first);
+        int size = first.entries().size();
+        long deadline = System.nanoTime() + properties.maxBatchDelay().toNanos();
+
+        while (size < properties.maxBatchSize()) {
+            long remaining = deadline - System.nanoTime();
+            PendingEntries next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+            if (next == null) {
+                break;
+            }
+            group.add(next);
+            size += next.entries().size();
+        }
+        return group;
+    }
+
+    /**
+     * @return whether the entries were written, otherwise they were dead-lettered
+     */
+    private boolean writeWithRetry(List<JournalEntry> entries) throws InterruptedException {
+        Duration backoff = Duration.ofMillis(50);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                flushTimer.recordCallable(() -> {
+                    flush(entries);
+                    return null;
+                });
+                return true;
+            } catch (Exception e) {
+                if (attempt >= properties.maxFlushAttempts()) {
+                    log.error("Failed to write {} inventory movements after {} attempts, moving them to the dead letter",
+                            entries.size(), attempt, e);
+                    deadLetter(entries, e);
+                    return false;
+                }
+                log.error("Failed to write {} inventory movements, retrying in {}", entries.size(), backoff, e);
+                Thread.sleep(backoff.toMillis());
+                backoff = backoff.multipliedBy(2).compareTo(MAX_RETRY_BACKOFF) > 0 ? MAX_RETRY_BACKOFF : backoff.multipliedBy(2);
+            }
+        }
+    }
+
+    private void deadLetter(List<JournalEntry> entries, Exception failure) {
+        try {
+            deadLetterWriter.write(mode, entries, failure);
+        } catch (Exception e) {
+            log.error("Could not move {} inventory movements to the dead letter: {}", entries.size(), entries, e);
+        }
+        release(entries.size());
+    }
+
+    private record PendingEntries(List<JournalEntry> entries, CompletableFuture<Void> written) {}
+}
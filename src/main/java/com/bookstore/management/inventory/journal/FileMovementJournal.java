@@ -0,0 +1,360 @@
+package com.bookstore.management.inventory.journal;
+
+import com.bookstore.management.inventory.model.MovementJournalCheckpoint;
+import com.bookstore.management.inventory.repository.MovementJournalCheckpointRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Appends movements to local NDJSON segment files and drains them into {@code inventory_movement}
+ * in the background.
+ * <p>
+ * Durability: the movement is appended and fsynced after the inventory change commits. With the
+ * opt-in {@code await-flush} the caller returns only once its movement is on disk, so only a crash
+ * between the inventory commit and the fsync can lose it. A failed write is never truncated, since the
+ * drainer may already have read what reached the segment; the batch is written again to a new
+ * segment. Draining is exactly-once: every entry carries an increasing entry id, entries at or below
+ * the last id drained are skipped, and every drained chunk is inserted in the same transaction that
+ * advances the checkpoint stored in {@code movement_journal_checkpoint}. Entries of a dead-lettered
+ * batch that still reached a segment are skipped by the drainer. Movements are visible to the
+ * movement queries only once drained.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "inventory.journal.mode", havingValue = "file")
+public class FileMovementJournal extends BufferedMovementJournal {
+
+    private static final String JOURNAL_NAME = "inventory-movement";
+    private static final int READ_BUFFER_SIZE = 1024 * 1024;
+    private static final int TAIL_WINDOW_SIZE = 64 * 1024;
+
+    private final MovementJournalProperties.File fileProperties;
+    private final MovementBatchWriter movementBatchWriter;
+    private final MovementDeadLetterWriter deadLetterWriter;
+    private final MovementJournalCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Timer drainTimer;
+    private final ScheduledExecutorService drainer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "movement-journal-drainer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile long currentSegment;
+    private FileChannel segmentChannel;
+    private boolean rollSegment;
+    private long lastEntryId;
+    private MovementJournalCheckpoint checkpoint;
+
+    public FileMovementJournal(MovementJournalProperties properties,
+                               MeterRegistry meterRegistry,
+                               MovementBatchWriter movementBatchWriter,
+                               MovementDeadLetterWriter deadLetterWriter,
+                               MovementJournalCheckpointRepository checkpointRepository,
+                               TransactionTemplate transactionTemplate,
+                               ObjectMapper objectMapper,
+                               ApplicationEventPublisher eventPublisher) {
+        super("file", properties, meterRegistry, deadLetterWriter, eventPublisher);
+        this.fileProperties = properties.file();
+        this.movementBatchWriter = movementBatchWriter;
+        this.deadLetterWriter = deadLetterWriter;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.drainTimer = Timer.builder("inventory.journal.drain")
+                .description("Time to move a chunk of journaled movements into inventory_movement")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void recover() throws IOException {
+        Files.createDirectories(fileProperties.directory());
+
+        checkpoint = checkpointRepository.findById(JOURNAL_NAME)
+                .orElseGet(() -> new MovementJournalCheckpoint(JOURNAL_NAME, 0L, 0L, 0L));
+
+        long lastSegment = checkpoint.getSegmentNumber();
+        try (Stream<Path> segments = Files.list(fileProperties.directory())) {
+            lastSegment = Math.max(lastSegment, segments
+                    .map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith("segment-") && name.endsWith(".ndjson"))
+                    .mapToLong(name -> Long.parseLong(name.substring(8, name.length() - 7)))
+                    .max()
+                    .orElse(lastSegment));
+        }
+        currentSegment = lastSegment;
+        segmentChannel = openForAppend(currentSegment);
+        truncateIncompleteLine(segmentChannel);
+
+        long pending = 0;
+        lastEntryId = checkpoint.getLastEntryId();
+        for (long segment = checkpoint.getSegmentNumber(); segment <= currentSegment; segment++) {
+            long from = segment == checkpoint.getSegmentNumber() ? checkpoint.getSegmentPosition() : 0;
+            pending += countLines(segmentPath(segment), from);
+            lastEntryId = Math.max(lastEntryId, lastEntryIdIn(segmentPath(segment)));
+        }
+        if (pending > 0) {
+            log.info("Movement journal recovered {} movements pending to be drained", pending);
+            addRecoveredBacklog(pending);
+        }
+    }
+
+    @PostConstruct
+    void startDrainer() {
+        long interval = fileProperties.drainInterval().toMillis();
+        drainer.scheduleWithFixedDelay(this::drain, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stopDrainer() throws InterruptedException {
+        drainer.shutdown();
+        drainer.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Override
+    protected List<JournalEntry> prepare(List<JournalEntry> entries) {
+        return entries.stream().map(entry -> entry.withEntryId(++lastEntryId)).toList();
+    }
+
+    @Override
+    protected void flush(List<JournalEntry> entries) throws IOException {
+        if (rollSegment || segmentChannel.size() >= fileProperties.maxSegmentSize().toBytes()) {
+            rollSegment();
+        }
+
+        StringBuilder lines = new StringBuilder();
+        for (JournalEntry entry : entries) {
+            lines.append(objectMapper.writeValueAsString(entry)).append('\n');
+        }
+        ByteBuffer buffer = StandardCharsets.UTF_8.encode(lines.toString());
+
+        try {
+            long position = segmentChannel.size();
+            while (buffer.hasRemaining()) {
+                position += segmentChannel.write(buffer, position);
+            }
+            segmentChannel.force(false);
+        } catch (IOException e) {
+            // the retry starts a new segment, so a torn line stays last in this one
+            rollSegment = true;
+            throw e;
+        }
+    }
+
+    private void rollSegment() throws IOException {
+        FileChannel next = openForAppend(currentSegment + 1);
+        try {
+            segmentChannel.close();
+        } catch (IOException e) {
+            log.warn("Could not close movement journal segment {}", currentSegment, e);
+        }
+        segmentChannel = next;
+        currentSegment++;
+        rollSegment = false;
+    }
+
+    private void drain() {
+        try {
+            while (drainChunk()) {
+                // keep draining until caught up with the writer
+            }
+        } catch (Exception e) {
+            log.error("Failed to drain the movement journal, retrying in {}", fileProperties.drainInterval(), e);
+        }
+    }
+
+    private boolean drainChunk() throws IOException {
+        long writerSegment = currentSegment;
+        long segment = checkpoint.getSegmentNumber();
+        long position = checkpoint.getSegmentPosition();
+        Chunk chunk = readChunk(segmentPath(segment), position);
+
+        if (chunk.entries().isEmpty()) {
+            if (segment >= writerSegment) {
+                return false;
+            }
+            MovementJournalCheckpoint next = new MovementJournalCheckpoint(JOURNAL_NAME, segment + 1, 0L,
+                    checkpoint.getLastEntryId());
+            checkpointRepository.save(next);
+            checkpoint = next;
+            Files.deleteIfExists(segmentPath(segment));
+            return true;
+        }
+
+        // entries written again after a failed flush repeat ids already drained or seen in this chunk
+        long drainedEntryId = checkpoint.getLastEntryId();
+        Set<Long> deadLettered = deadLetteredIn(chunk.entries());
+        List<JournalEntry> fresh = new ArrayList<>(chunk.entries().size());
+        for (JournalEntry entry : chunk.entries()) {
+            if (entry.entryId() == null || entry.entryId() > drainedEntryId) {
+                if (entry.entryId() == null || !deadLettered.contains(entry.entryId())) {
+                    fresh.add(entry);
+                }
+                drainedEntryId = entry.entryId() != null ? entry.entryId() : drainedEntryId;
+            }
+        }
+        MovementJournalCheckpoint next = new MovementJournalCheckpoint(JOURNAL_NAME, segment, position + chunk.bytes(),
+                drainedEntryId);
+        drainTimer.record(() -> transactionTemplate.executeWithoutResult(status -> {
+            if (!fresh.isEmpty()) {
+                movementBatchWriter.write(fresh);
+            }
+            checkpointRepository.save(next);
+        }));
+        checkpoint = next;
+        releaseDrained(fresh.size());
+        releaseDuplicates(chunk.entries().size() - fresh.size());
+        return true;
+    }
+
+    private Set<Long> deadLetteredIn(List<JournalEntry> entries) {
+        long from = Long.MAX_VALUE;
+        long to = Long.MIN_VALUE;
+        for (JournalEntry entry : entries) {
+            if (entry.entryId() != null) {
+                from = Math.min(from, entry.entryId());
+                to = Math.max(to, entry.entryId());
+            }
+        }
+        return from <= to ? deadLetterWriter.deadLetteredEntryIds(from, to) : Set.of();
+    }
+
+    private Chunk readChunk(Path segment, long position) throws IOException {
+        if (!Files.exists(segment)) {
+            return new Chunk(List.of(), 0);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            channel.read(buffer, position);
+        }
+        buffer.flip();
+
+        List<JournalEntry> entries = new ArrayList<>();
+        int consumed = 0;
+        int lineStart = 0;
+        while (buffer.hasRemaining() && entries.size() < fileProperties.drainBatchSize()) {
+            if (buffer.get() == '\n') {
+                int lineEnd = buffer.position() - 1;
+                String line = new String(buffer.array(), lineStart, lineEnd - lineStart, StandardCharsets.UTF_8);
+                entries.add(objectMapper.readValue(line, JournalEntry.class));
+                lineStart = buffer.position();
+                consumed = lineStart;
+            }
+        }
+        return new Chunk(entries, consumed);
+    }
+
+    private long countLines(Path segment, long position) throws IOException {
+        if (!Files.exists(segment)) {
+            return 0;
+        }
+        long lines = 0;
+        ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            channel.position(position);
+            while (channel.read(buffer) > 0) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    if (buffer.get() == '\n') {
+                        lines++;
+                    }
+                }
+                buffer.clear();
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Entry id of the last complete line of a segment, the highest it holds since ids grow in write
+     * order and a batch written again repeats lower ones.
+     */
+    private long lastEntryIdIn(Path segment) throws IOException {
+        if (!Files.exists(segment)) {
+            return 0;
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long window = Math.min(size, TAIL_WINDOW_SIZE);
+            while (true) {
+                ByteBuffer buffer = ByteBuffer.allocate((int) window);
+                while (buffer.hasRemaining() && channel.read(buffer, size - window + buffer.position()) > 0) {
+                    // keep reading until the window is full
+                }
+                byte[] tail = buffer.array();
+                int end = lastNewline(tail, tail.length - 1);
+                int start = end < 0 ? -1 : lastNewline(tail, end - 1) + 1;
+                if (end >= 0 && (start > 0 || window == size)) {
+                    Long entryId = objectMapper.readValue(tail, start, end - start, JournalEntry.class).entryId();
+                    return entryId != null ? entryId : 0;
+                }
+                if (window == size) {
+                    return 0;
+                }
+                window = Math.min(size, window * 2);
+            }
+        }
+    }
+
+    private static int lastNewline(byte[] bytes, int from) {
+        for (int i = from; i >= 0; i--) {
+            if (bytes[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void truncateIncompleteLine(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long end = size;
+        ByteBuffer single = ByteBuffer.allocate(1);
+        while (end > 0) {
+            single.clear();
+            channel.read(single, end - 1);
+            if (single.get(0) == '\n') {
+                break;
+            }
+            end--;
+        }
+        if (end < size) {
+            log.warn("Discarding {} bytes of an incomplete movement journal entry", size - end);
+            channel.truncate(end);
+        }
+    }
+
+    private FileChannel openForAppend(long segment) throws IOException {
+        return FileChannel.open(segmentPath(segment),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private Path segmentPath(long segment) {
+        return fileProperties.directory().resolve(String.format("segment-%019d.ndjson", segment));
+    }
+
+    private record Chunk(List<JournalEntry> entries, long bytes) {}
+}
@@ -0,0 +1,41 @@
+package com.bookstore.management.inventory.journal;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Inserts the movements of concurrent transactions together in one JDBC batch.
+ * <p>
+ * Durability: the movement is written after the inventory change commits. With the opt-in
+ * {@code await-flush} the caller returns only once the batch holding its movement has
+ * committed; a crash between the two commits loses the movements still in memory.
+ */
+@Component
+@ConditionalOnProperty(name = "inventory.journal.mode", havingValue = "group-commit")
+public class GroupCommitMovementJournal extends BufferedMovementJournal {
+
+    private final MovementBatchWriter movementBatchWriter;
+    private final TransactionTemplate transactionTemplate;
+
+    public GroupCommitMovementJournal(MovementJournalProperties properties,
+                                      MeterRegistry meterRegistry,
+                                      MovementBatchWriter movementBatchWriter,
+                                      MovementDeadLetterWriter deadLetterWriter,
+                                      TransactionTemplate transactionTemplate,
+                                      ApplicationEventPublisher eventPublisher) {
+        super("group-commit", properties, meterRegistry, deadLetterWriter, eventPublisher);
+        this.movementBatchWriter = movementBatchWriter;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    protected void flush(List<JournalEntry> entries) {
+        transactionTemplate.executeWithoutResult(status -> movementBatchWriter.write(entries));
+        release(entries.size());
+    }
+}
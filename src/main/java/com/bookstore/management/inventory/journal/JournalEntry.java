@@ -0,0 +1,51 @@
+package com.bookstore.management.inventory.journal;
+
+import com.bookstore.management.inventory.model.InventoryMovement;
+import com.bookstore.management.inventory.model.MovementType;
+
+import java.time.LocalDateTime;
+
+/**
+ * @param entryId id given by journals that can write an entry more than once, increasing in write
+ *                order; {@code null} for entries written before ids were assigned
+ */
+public record JournalEntry(
+        Long inventoryId,
+        Integer affectedQuantity,
+        Integer quantityBefore,
+        Integer quantityAfter,
+        MovementType movementType,
+        String description,
+        String createBy,
+        LocalDateTime createdAt,
+        Long entryId
+) {
+    public JournalEntry(Long inventoryId,
+                        Integer affectedQuantity,
+                        Integer quantityBefore,
+                        Integer quantityAfter,
+                        MovementType movementType,
+                        String description,
+                        String createBy,
+                        LocalDateTime createdAt) {
+        this(inventoryId, affectedQuantity, quantityBefore, quantityAfter, movementType, description, createBy,
+                createdAt, null);
+    }
+
+    public static JournalEntry from(InventoryMovement movement) {
+        return new JournalEntry(
+                movement.getInventory().getId(),
+                movement.getAffectedQuantity(),
+                movement.getQuantityBefore(),
+                movement.getQuantityAfter(),
+                movement.getMovementType(),
+                movement.getDescription(),
+                movement.getCreateBy(),
+                movement.getCreatedAt() != null ? movement.getCreatedAt() : LocalDateTime.now());
+    }
+
+    public JournalEntry withEntryId(long entryId) {
+        return new JournalEntry(inventoryId, affectedQuantity, quantityBefore, quantityAfter, movementType,
+                description, createBy, createdAt, entryId);
+    }
+}
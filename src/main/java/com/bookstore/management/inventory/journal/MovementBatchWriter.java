@@ -0,0 +1,84 @@
+package com.bookstore.management.inventory.journal;
+
+import com.bookstore.management.inventory.model.InventoryMovement;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Inserts journal entries with a single JDBC batch, bypassing the persistence context.
+ * Ids are taken from {@code inventory_movement_seq} the way Hibernate's pooled-lo optimizer takes
+ * them: every value read from the sequence is the low end of a block of its increment, handed out
+ * one id at a time, so both writers can share the sequence and a batch reads it once per block
+ * instead of once per row.
+ */
+@Component
+public class MovementBatchWriter {
+
+    private static final String INSERT_MOVEMENT = "insert into inventory_movement " +
+            "(id, inventory_id, affected_quantity, quantity_before, quantity_after, movement_type, description, create_by, created_at) " +
+            "values (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String selectNextBlock;
+    private final int blockSize;
+    private long nextId;
+    private long blockEnd;
+
+    public MovementBatchWriter(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.selectNextBlock = sessionFactory.getJdbcServices().getDialect().getSequenceSupport()
+                .getSequenceNextValString("inventory_movement_seq");
+        this.blockSize = ((SequenceStyleGenerator) sessionFactory.getMappingMetamodel()
+                .getEntityDescriptor(InventoryMovement.class).getGenerator())
+                .getOptimizer().getIncrementSize();
+    }
+
+    public void write(List<JournalEntry> entries) {
+        long[] ids = nextIds(entries.size());
+        jdbcTemplate.batchUpdate(INSERT_MOVEMENT, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                JournalEntry entry = entries.get(i);
+                ps.setLong(1, ids[i]);
+                ps.setLong(2, entry.inventoryId());
+                ps.setInt(3, entry.affectedQuantity());
+                ps.setInt(4, entry.quantityBefore());
+                ps.setInt(5, entry.quantityAfter());
+                ps.setString(6, entry.movementType() != null ? entry.movementType().name() : null);
+                ps.setString(7, entry.description());
+                ps.setString(8, entry.createBy());
+                ps.setTimestamp(9, Timestamp.valueOf(entry.createdAt()));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return entries.size();
+            }
+        });
+    }
+
+    /**
+     * Ids taken for a batch that rolls back are skipped, never handed out again.
+     */
+    private synchronized long[] nextIds(int count) {
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            if (nextId == blockEnd) {
+                nextId = jdbcTemplate.queryForObject(selectNextBlock, Long.class);
+                blockEnd = nextId + blockSize;
+            }
+            ids[i] = nextId++;
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,61 @@
+package com.bookstore.management.inventory.journal;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps in {@code inventory_movement_dead_letter} the entries a journal gave up writing, with the
+ * failure of the last attempt, so they can be replayed by hand.
+ */
+@Component
+public class MovementDeadLetterWriter {
+
+    private static final String INSERT_DEAD_LETTER = "insert into inventory_movement_dead_letter " +
+            "(inventory_id, affected_quantity, quantity_before, quantity_after, movement_type, description, create_by, " +
+            "created_at, entry_id, journal_mode, failure, failed_at) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MovementDeadLetterWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void write(String journalMode, List<JournalEntry> entries, Throwable failure) {
+        Timestamp failedAt = Timestamp.valueOf(LocalDateTime.now());
+        String reason = String.valueOf(failure);
+        jdbcTemplate.batchUpdate(INSERT_DEAD_LETTER, entries, entries.size(), (ps, entry) -> {
+            ps.setLong(1, entry.inventoryId());
+            ps.setInt(2, entry.affectedQuantity());
+            ps.setInt(3, entry.quantityBefore());
+            ps.setInt(4, entry.quantityAfter());
+            ps.setString(5, entry.movementType() != null ? entry.movementType().name() : null);
+            ps.setString(6, entry.description());
+            ps.setString(7, entry.createBy());
+            ps.setTimestamp(8, Timestamp.valueOf(entry.createdAt()));
+            if (entry.entryId() != null) {
+                ps.setLong(9, entry.entryId());
+            } else {
+                ps.setNull(9, Types.BIGINT);
+            }
+            ps.setString(10, journalMode);
+            ps.setString(11, reason);
+            ps.setTimestamp(12, failedAt);
+        });
+    }
+
+    /**
+     * Entry ids between {@code from} and {@code to}, both included, that were dead-lettered.
+     */
+    public Set<Long> deadLetteredEntryIds(long from, long to) {
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "select entry_id from inventory_movement_dead_letter where entry_id between ? and ?",
+                Long.class, from, to));
+    }
+}
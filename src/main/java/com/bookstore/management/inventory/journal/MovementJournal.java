@@ -0,0 +1,28 @@
+package com.bookstore.management.inventory.journal;
+
+import com.bookstore.management.inventory.model.InventoryMovement;
+
+import java.util.Collection;
+
+/**
+ * Destination of every {@link InventoryMovement} written by the inventory service.
+ * <p>
+ * The implementation is chosen with {@code inventory.journal.mode}:
+ * <ul>
+ *     <li>{@code synchronous} (default): the movement is inserted in the caller's transaction
+ *     and commits or rolls back together with the inventory row.</li>
+ *     <li>{@code group-commit}: the movement is handed over after the caller commits and inserted
+ *     together with the movements of other transactions in one JDBC batch.</li>
+ *     <li>{@code file}: the movement is appended to a local append-only file after the caller
+ *     commits and drained into {@code inventory_movement} in the background.</li>
+ * </ul>
+ * Movements of a rolled back transaction are never written in any mode. Every mode publishes a
+ * {@link com.bookstore.management.inventory.event.MovementRecordedEvent} per movement in the
+ * caller's transaction.
+ */
+public interface MovementJournal {
+
+    void append(InventoryMovement movement);
+
+    void appendAll(Collection<InventoryMovement> movements);
+}
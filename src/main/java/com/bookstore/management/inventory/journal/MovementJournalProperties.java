@@ -0,0 +1,44 @@
+package com.bookstore.management.inventory.journal;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * @param capacity         movements accepted but not yet in {@code inventory_movement}, beyond which writers wait
+ * @param acquireTimeout   how long a writer waits for capacity before its transaction is rejected
+ * @param awaitFlush       whether the caller waits, after its commit, until its movements are durable; the
+ *                         wait runs before the transaction gives its connection back to the pool
+ * @param flushTimeout     upper bound for that wait, the movements stay queued when it expires
+ * @param maxBatchSize     movements written per batch
+ * @param maxBatchDelay    how long the writer waits for more movements before flushing a partial batch
+ * @param maxFlushAttempts attempts to write a batch before it is moved to the dead letter
+ */
+@ConfigurationProperties(prefix = "inventory.journal")
+public record MovementJournalProperties(
+        @DefaultValue("synchronous") String mode,
+        @DefaultValue("10000") int capacity,
+        @DefaultValue("500ms") Duration acquireTimeout,
+        @DefaultValue("false") boolean awaitFlush,
+        @DefaultValue("2s") Duration flushTimeout,
+        @DefaultValue("500") int maxBatchSize,
+        @DefaultValue("5ms") Duration maxBatchDelay,
+        @DefaultValue("5") int maxFlushAttempts,
+        @DefaultValue File file
+) {
+    /**
+     * @param directory      where the journal segments are written
+     * @param maxSegmentSize size after which the writer starts a new segment
+     * @param drainBatchSize movements inserted per drain transaction
+     * @param drainInterval  pause of the drainer once it has caught up with the writer
+     */
+    public record File(
+            @DefaultValue("data/movement-journal") Path directory,
+            @DefaultValue("64MB") DataSize maxSegmentSize,
+            @DefaultValue("1000") int drainBatchSize,
+            @DefaultValue("200ms") Duration drainInterval
+    ) {}
+}
@@ -0,0 +1,35 @@
+package com.bookstore.management.inventory.journal;
+
+import com.bookstore.management.inventory.event.MovementRecordedEvent;
+import com.bookstore.management.inventory.model.InventoryMovement;
+import com.bookstore.management.inventory.repository.InventoryMovementRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * Inserts the movement in the caller's transaction: it is durable exactly when the inventory change is.
+ */
+@RequiredArgsConstructor
+@Component
+@ConditionalOnProperty(name = "inventory.journal.mode", havingValue = "synchronous", matchIfMissing = true)
+public class SynchronousMovementJournal implements MovementJournal {
+
+    private final InventoryMovementRepository inventoryMovementRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public void append(InventoryMovement movement) {
+        inventoryMovementRepository.save(movement);
+        eventPublisher.publishEvent(MovementRecordedEvent.of(movement));
+    }
+
+    @Override
+    public void appendAll(Collection<InventoryMovement> movements) {
+        inventoryMovementRepository.saveAll(movements);
+        movements.forEach(movement -> eventPublisher.publishEvent(MovementRecordedEvent.of(movement)));
+    }
+}
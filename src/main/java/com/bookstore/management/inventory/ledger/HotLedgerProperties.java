@@ -0,0 +1,20 @@
+package com.bookstore.management.inventory.ledger;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param flushInterval     pause between two writes of the pending stock changes to {@code inventory}
+ * @param flushBatchSize    rows updated per JDBC batch
+ * @param reconcileInterval pause between two comparisons of the counters with {@code inventory}
+ * @param loadFetchSize     rows fetched per round trip while loading the counters
+ */
+@ConfigurationProperties(prefix = "inventory.ledger")
+public record HotLedgerProperties(
+        @DefaultValue("100ms") Duration flushInterval,
+        @DefaultValue("500") int flushBatchSize,
+        @DefaultValue("5m") Duration reconcileInterval,
+        @DefaultValue("1000") int loadFetchSize
+) {}
@@ -0,0 +1,425 @@
+package com.bookstore.management.inventory.ledger;
+
+import com.bookstore.management.inventory.ledger.StockCounter.StockDelta;
+import com.bookstore.management.shared.exception.custom.InsufficientReservedStockException;
+import com.bookstore.management.shared.exception.custom.InsufficientStockException;
+import com.bookstore.management.shared.exception.custom.ResourceNotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory stock counters that are authoritative while {@code inventory.stock.mode=hot-ledger}.
+ * <p>
+ * Reservations and releases are a compare-and-set on the book's counter, so they never wait on
+ * the {@code inventory} row. Once its transaction commits the change is kept as a pending delta
+ * and written by a background flusher as an additive update; a change whose transaction rolls
+ * back is undone in memory and never reaches the table.
+ * A reconciliation pass compares the counters with the table and, when the same difference is
+ * seen on two consecutive passes, rewrites the row to match the counter.
+ * <p>
+ * The counters are loaded once at startup, so this mode requires a single application instance
+ * writing stock.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "inventory.stock.mode", havingValue = "hot-ledger")
+public class HotStockLedger {
+
+    private static final String SELECT_INVENTORY =
+            "select id, book_id, quantity_available, reserved_quantity, stock_min, active_status from inventory";
+    private static final String APPLY_DELTA = "update inventory set " +
+            "quantity_available = quantity_available + ?, " +
+            "reserved_quantity = reserved_quantity + ?, " +
+            "alert_low_stock = case when quantity_available + ? <= stock_min then true else false end, " +
+            "version = version + 1 " +
+            "where id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final HotLedgerProperties properties;
+    private final Map<Long, StockCounter> counters = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    private final Map<Long, StockDelta> suspectedDrift = new HashMap<>();
+    private final Timer flushTimer;
+    private final Counter repairedDrift;
+    private ScheduledExecutorService flusher;
+
+    public HotStockLedger(JdbcTemplate jdbcTemplate,
+                          TransactionTemplate transactionTemplate,
+                          HotLedgerProperties properties,
+                          MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.flushTimer = Timer.builder("inventory.ledger.flush")
+                .description("Time to write the pending stock changes to inventory")
+                .register(meterRegistry);
+        this.repairedDrift = Counter.builder("inventory.ledger.drift.repaired")
+                .description("Inventory rows rewritten because they disagreed with the ledger")
+                .register(meterRegistry);
+        Gauge.builder("inventory.ledger.books", counters, Map::size)
+                .description("Books held by the hot stock ledger")
+                .register(meterRegistry);
+        Gauge.builder("inventory.ledger.dirty", dirty, Set::size)
+                .description("Books with stock changes not yet written to inventory")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        load();
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hot-stock-ledger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long flushInterval = properties.flushInterval().toMillis();
+        long reconcileInterval = properties.reconcileInterval().toMillis();
+        flusher.scheduleWithFixedDelay(() -> runSafely("flush", this::flushPending),
+                flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+        flusher.scheduleWithFixedDelay(() -> runSafely("reconciliation", this::reconcile),
+                reconcileInterval, reconcileInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(properties.flushInterval().toMillis() * 10, TimeUnit.MILLISECONDS);
+        flushPending();
+    }
+
+    void load() {
+        counters.clear();
+        readInventory(rs -> {
+            StockCounter counter = counterFrom(rs);
+            counters.put(counter.bookId(), counter);
+        });
+        log.info("Hot stock ledger loaded {} inventories", counters.size());
+    }
+
+    public Optional<StockSnapshot> find(Long bookId) {
+        return Optional.ofNullable(counters.get(bookId)).map(StockCounter::snapshot);
+    }
+
+    public StockChange reserve(Long bookId, int quantity) {
+        StockCounter counter = counterOrThrow(bookId);
+        if (!counter.activeStatus()) {
+            throw new InsufficientStockException("Inventory is disabled");
+        }
+        StockChange change = applyPending(counter, -quantity, quantity);
+        if (change == null) {
+            throw new InsufficientStockException("Insufficient stock");
+        }
+        return change;
+    }
+
+    /**
+     * Reserves every line or none, in book id order.
+     */
+    public List<StockChange> reserveAll(Map<Long, Integer> quantitiesByBookId) {
+        Map<Long, Integer> requested = new TreeMap<>(quantitiesByBookId);
+        List<StockCounter> lineCounters = new ArrayList<>(requested.size());
+        requested.forEach((bookId, quantity) -> {
+            StockCounter counter = counterOrThrow(bookId);
+            if (!counter.activeStatus()) {
+                throw new InsufficientStockException("Inventory is disabled for book id: " + bookId);
+            }
+            lineCounters.add(counter);
+        });
+
+        List<StockChange> changes = new ArrayList<>(requested.size());
+        for (StockCounter counter : lineCounters) {
+            int quantity = requested.get(counter.bookId());
+            StockChange change = counter.tryChange(-quantity, quantity);
+            if (change == null) {
+                changes.forEach(applied -> {
+                    int undo = requested.get(applied.bookId());
+                    counters.get(applied.bookId()).forceChange(undo, -undo);
+                });
+                throw new InsufficientStockException("Insufficient stock for book id: " + counter.bookId());
+            }
+            changes.add(change);
+        }
+        lineCounters.forEach(counter -> {
+            int quantity = requested.get(counter.bookId());
+            markPending(counter, -quantity, quantity);
+        });
+        return changes;
+    }
+
+    public StockChange release(Long bookId, int quantity) {
+        StockChange change = applyPending(counterOrThrow(bookId), quantity, -quantity);
+        if (change == null) {
+            throw new InsufficientReservedStockException("Not enough reserved stock to release");
+        }
+        return change;
+    }
+
+    /**
+     * Takes the reserved units of a completed sale out of the counter; the available quantity
+     * does not change, so the change has the same quantity before and after.
+     */
+    public StockChange consume(Long bookId, int quantity) {
+        StockChange change = applyPending(counterOrThrow(bookId), 0, -quantity);
+        if (change == null) {
+            throw new InsufficientReservedStockException("Not enough reserved stock to complete the sale");
+        }
+        return change;
+    }
+
+    /**
+     * Takes stock out of the counter ahead of a change the caller writes to {@code inventory}
+     * itself, so concurrent reservations cannot use it. Undone if the transaction rolls back.
+     *
+     * @return {@code false} when the book does not have that much stock available
+     */
+    public boolean claim(Long bookId, int quantity) {
+        StockCounter counter = counters.get(bookId);
+        if (counter == null) {
+            return true;
+        }
+        if (counter.tryChange(-quantity, 0) == null) {
+            return false;
+        }
+        onRollback(() -> counter.forceChange(quantity, 0));
+        return true;
+    }
+
+    /**
+     * Adds stock the caller wrote to {@code inventory} itself, once its transaction commits.
+     */
+    public void credit(Long bookId, int quantity) {
+        afterCommit(() -> {
+            StockCounter counter = counters.get(bookId);
+            if (counter != null) {
+                counter.forceChange(quantity, 0);
+            }
+        });
+    }
+
+    /**
+     * Writes the book's pending changes within the caller's transaction, so that a read of the
+     * {@code inventory} row which follows sees them.
+     */
+    public void flush(Long bookId) {
+        StockCounter counter = counters.get(bookId);
+        if (counter == null) {
+            return;
+        }
+        StockDelta delta = counter.drainPending();
+        if (delta == null) {
+            return;
+        }
+        try {
+            writeDeltas(List.of(delta));
+        } catch (RuntimeException e) {
+            restore(delta);
+            throw e;
+        }
+        onRollback(() -> restore(delta));
+    }
+
+    public void register(StockSnapshot snapshot) {
+        afterCommit(() -> counters.putIfAbsent(snapshot.bookId(), new StockCounter(
+                snapshot.inventoryId(), snapshot.bookId(), snapshot.quantityAvailable(),
+                snapshot.quantityReserved(), snapshot.stockMin(), snapshot.activeStatus())));
+    }
+
+    public void updateStockMin(Long bookId, int stockMin) {
+        afterCommit(() -> Optional.ofNullable(counters.get(bookId))
+                .ifPresent(counter -> counter.setStockMin(stockMin)));
+    }
+
+    public void disable(Long bookId) {
+        afterCommit(() -> Optional.ofNullable(counters.get(bookId))
+                .ifPresent(counter -> counter.setActiveStatus(false)));
+    }
+
+    void flushPending() {
+        List<StockDelta> deltas = new ArrayList<>();
+        Iterator<Long> bookIds = dirty.iterator();
+        while (bookIds.hasNext()) {
+            Long bookId = bookIds.next();
+            bookIds.remove();
+            StockCounter counter = counters.get(bookId);
+            StockDelta delta = counter != null ? counter.drainPending() : null;
+            if (delta != null) {
+                deltas.add(delta);
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+        try {
+            flushTimer.record(() -> transactionTemplate.executeWithoutResult(status -> writeDeltas(deltas)));
+        } catch (RuntimeException e) {
+            deltas.forEach(this::restore);
+            throw e;
+        }
+    }
+
+    void reconcile() {
+        flushPending();
+        Set<Long> missing = new HashSet<>(counters.keySet());
+        Map<Long, StockDelta> observed = new HashMap<>();
+        readInventory(rs -> {
+            Long bookId = rs.getLong("book_id");
+            missing.remove(bookId);
+            StockCounter counter = counters.get(bookId);
+            if (counter == null) {
+                counters.putIfAbsent(bookId, counterFrom(rs));
+                return;
+            }
+            StockDelta drift = counter.driftFrom(rs.getInt("quantity_available"), rs.getInt("reserved_quantity"));
+            if (drift != null) {
+                observed.put(bookId, drift);
+            }
+        });
+        counters.keySet().removeAll(missing);
+
+        List<StockDelta> repairs = observed.values().stream()
+                .filter(drift -> drift.equals(suspectedDrift.get(drift.bookId())))
+                .toList();
+        suspectedDrift.clear();
+        suspectedDrift.putAll(observed);
+        if (repairs.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> writeDeltas(repairs));
+        repairs.forEach(repair -> suspectedDrift.remove(repair.bookId()));
+        repairedDrift.increment(repairs.size());
+        log.warn("Hot stock ledger rewrote {} inventory rows that drifted from the counters: {}", repairs.size(), repairs);
+    }
+
+    private StockChange applyPending(StockCounter counter, int availableDelta, int reservedDelta) {
+        StockChange change = counter.tryChange(availableDelta, reservedDelta);
+        if (change != null) {
+            markPending(counter, availableDelta, reservedDelta);
+        }
+        return change;
+    }
+
+    /**
+     * Hands a change to the flusher once its transaction commits, so {@code inventory} never holds
+     * a change that may still roll back; until then it is in flight and the reconciliation does
+     * not take it for drift. A rolled back change is taken out of the counter again.
+     */
+    private void markPending(StockCounter counter, int availableDelta, int reservedDelta) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publishPending(counter, availableDelta, reservedDelta);
+            return;
+        }
+        counter.addInFlight(availableDelta, reservedDelta);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    publishPending(counter, availableDelta, reservedDelta);
+                } else {
+                    counter.forceChange(-availableDelta, -reservedDelta);
+                }
+                counter.addInFlight(-availableDelta, -reservedDelta);
+            }
+        });
+    }
+
+    private void publishPending(StockCounter counter, int availableDelta, int reservedDelta) {
+        counter.addPending(availableDelta, reservedDelta);
+        dirty.add(counter.bookId());
+    }
+
+    private void restore(StockDelta delta) {
+        StockCounter counter = counters.get(delta.bookId());
+        if (counter != null) {
+            counter.addPending(delta.available(), delta.reserved());
+            dirty.add(delta.bookId());
+        }
+    }
+
+    private StockCounter counterOrThrow(Long bookId) {
+        StockCounter counter = counters.get(bookId);
+        if (counter == null) {
+            throw new ResourceNotFoundException("Book","Id",bookId);
+        }
+        return counter;
+    }
+
+    private void writeDeltas(List<StockDelta> deltas) {
+        jdbcTemplate.batchUpdate(APPLY_DELTA, deltas, properties.flushBatchSize(), (ps, delta) -> {
+            ps.setInt(1, delta.available());
+            ps.setInt(2, delta.reserved());
+            ps.setInt(3, delta.available());
+            ps.setLong(4, delta.inventoryId());
+        });
+    }
+
+    private void readInventory(RowCallbackHandler handler) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_INVENTORY);
+            statement.setFetchSize(properties.loadFetchSize());
+            return statement;
+        }, handler));
+    }
+
+    private static StockCounter counterFrom(ResultSet rs) throws SQLException {
+        return new StockCounter(rs.getLong("id"), rs.getLong("book_id"),
+                rs.getInt("quantity_available"), rs.getInt("reserved_quantity"),
+                rs.getInt("stock_min"), rs.getBoolean("active_status"));
+    }
+
+    private static void runSafely(String task, Runnable action) {
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            log.error("Hot stock ledger {} failed", task, e);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static void onRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    action.run();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,11 @@
+package com.bookstore.management.inventory.ledger;
+
+/**
+ * Available quantity of a book before and after a change applied to the hot ledger.
+ */
+public record StockChange(Long inventoryId, Long bookId, int quantityBefore, int quantityAfter) {
+
+    public int affectedQuantity() {
+        return quantityAfter - quantityBefore;
+    }
+}
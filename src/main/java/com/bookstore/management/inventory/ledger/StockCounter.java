@@ -0,0 +1,128 @@
+package com.bookstore.management.inventory.ledger;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stock of one book. Available and reserved quantities share a single {@code long} so both
+ * move together in one compare-and-set; the pending deltas are what {@code inventory} has
+ * not seen yet, the in-flight ones what transactions still open have changed.
+ */
+final class StockCounter {
+
+    private final Long inventoryId;
+    private final Long bookId;
+    private final AtomicLong quantities;
+    private final AtomicInteger pendingAvailable = new AtomicInteger();
+    private final AtomicInteger pendingReserved = new AtomicInteger();
+    private final AtomicInteger inFlightAvailable = new AtomicInteger();
+    private final AtomicInteger inFlightReserved = new AtomicInteger();
+    private volatile int stockMin;
+    private volatile boolean activeStatus;
+
+    StockCounter(Long inventoryId, Long bookId, int quantityAvailable, int quantityReserved,
+                 int stockMin, boolean activeStatus) {
+        this.inventoryId = inventoryId;
+        this.bookId = bookId;
+        this.quantities = new AtomicLong(pack(quantityAvailable, quantityReserved));
+        this.stockMin = stockMin;
+        this.activeStatus = activeStatus;
+    }
+
+    /**
+     * Applies the deltas unless either quantity would become negative.
+     *
+     * @return the change, or {@code null} when it was refused
+     */
+    StockChange tryChange(int availableDelta, int reservedDelta) {
+        while (true) {
+            long current = quantities.get();
+            int available = available(current) + availableDelta;
+            int reserved = reserved(current) + reservedDelta;
+            if (available < 0 || reserved < 0) {
+                return null;
+            }
+            if (quantities.compareAndSet(current, pack(available, reserved))) {
+                return new StockChange(inventoryId, bookId, available(current), available);
+            }
+        }
+    }
+
+    /**
+     * Applies the deltas unconditionally, used to undo a change whose transaction rolled back.
+     */
+    void forceChange(int availableDelta, int reservedDelta) {
+        quantities.getAndUpdate(current ->
+                pack(available(current) + availableDelta, reserved(current) + reservedDelta));
+    }
+
+    void addPending(int availableDelta, int reservedDelta) {
+        pendingAvailable.addAndGet(availableDelta);
+        pendingReserved.addAndGet(reservedDelta);
+    }
+
+    void addInFlight(int availableDelta, int reservedDelta) {
+        inFlightAvailable.addAndGet(availableDelta);
+        inFlightReserved.addAndGet(reservedDelta);
+    }
+
+    /**
+     * Takes the pending deltas; the caller must hand them back with {@link #addPending} if it
+     * fails to write them.
+     */
+    StockDelta drainPending() {
+        int available = pendingAvailable.getAndSet(0);
+        int reserved = pendingReserved.getAndSet(0);
+        return available == 0 && reserved == 0 ? null : new StockDelta(inventoryId, bookId, available, reserved);
+    }
+
+    /**
+     * Difference between the counter, less what is still pending or in flight, and the persisted
+     * quantities.
+     */
+    StockDelta driftFrom(int persistedAvailable, int persistedReserved) {
+        long current = quantities.get();
+        int available = available(current) - pendingAvailable.get() - inFlightAvailable.get() - persistedAvailable;
+        int reserved = reserved(current) - pendingReserved.get() - inFlightReserved.get() - persistedReserved;
+        return available == 0 && reserved == 0 ? null : new StockDelta(inventoryId, bookId, available, reserved);
+    }
+
+    StockSnapshot snapshot() {
+        long current = quantities.get();
+        return new StockSnapshot(inventoryId, bookId, available(current), reserved(current), stockMin, activeStatus);
+    }
+
+    Long inventoryId() {
+        return inventoryId;
+    }
+
+    Long bookId() {
+        return bookId;
+    }
+
+    boolean activeStatus() {
+        return activeStatus;
+    }
+
+    void setActiveStatus(boolean activeStatus) {
+        this.activeStatus = activeStatus;
+    }
+
+    void setStockMin(int stockMin) {
+        this.stockMin = stockMin;
+    }
+
+    private static long pack(int available, int reserved) {
+        return ((long) available << 32) | (reserved & 0xFFFFFFFFL);
+    }
+
+    private static int available(long quantities) {
+        return (int) (quantities >> 32);
+    }
+
+    private static int reserved(long quantities) {
+        return (int) quantities;
+    }
+
+    record StockDelta(Long inventoryId, Long bookId, int available, int reserved) {}
+}
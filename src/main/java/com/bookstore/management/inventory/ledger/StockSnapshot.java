@@ -0,0 +1,10 @@
+package com.bookstore.management.inventory.ledger;
+
+public record StockSnapshot(
+        Long inventoryId,
+        Long bookId,
+        int quantityAvailable,
+        int quantityReserved,
+        int stockMin,
+        boolean activeStatus
+) {}
@@ -0,0 +1,92 @@
+package com.bookstore.management.inventory.locking;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Chooses the locking mode of a book and retries the changes that lost an optimistic race.
+ * <p>
+ * A change is only retried when it runs in its own transaction: inside a caller's transaction
+ * the conflict has already marked that transaction for rollback, so it is passed on and the
+ * caller sees a {@code 409 Conflict}. Retries wait a random pause below an exponentially
+ * growing bound ("full jitter"), so writers that collided do not collide again in step.
+ */
+@Slf4j
+@Component
+public class InventoryLocking {
+
+    private final InventoryLockingProperties properties;
+    private final Counter conflicts;
+    private final Counter retries;
+    private final Counter exhausted;
+
+    public InventoryLocking(InventoryLockingProperties properties, MeterRegistry meterRegistry) {
+        if (properties.maxAttempts() < 1) {
+            throw new IllegalArgumentException("inventory.locking.max-attempts must be at least 1");
+        }
+        this.properties = properties;
+        this.conflicts = Counter.builder("inventory.locking.conflicts")
+                .description("Optimistic inventory changes that found the row changed by another transaction")
+                .register(meterRegistry);
+        this.retries = Counter.builder("inventory.locking.retries")
+                .description("Optimistic inventory changes attempted again after a conflict")
+                .register(meterRegistry);
+        this.exhausted = Counter.builder("inventory.locking.exhausted")
+                .description("Optimistic inventory changes given up after the last attempt")
+                .register(meterRegistry);
+    }
+
+    public LockingMode modeFor(Long bookId) {
+        return properties.books().getOrDefault(bookId, properties.mode());
+    }
+
+    public <T> T withRetry(Long bookId, Supplier<T> change) {
+        if (modeFor(bookId) != LockingMode.OPTIMISTIC
+                || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return change.get();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return change.get();
+            } catch (OptimisticLockingFailureException e) {
+                conflicts.increment();
+                if (attempt >= properties.maxAttempts()) {
+                    exhausted.increment();
+                    log.warn("Inventory of book {} still changed concurrently after {} attempts", bookId, attempt);
+                    throw e;
+                }
+                retries.increment();
+                pause(attempt, e);
+            }
+        }
+    }
+
+    public void withRetry(Long bookId, Runnable change) {
+        withRetry(bookId, () -> {
+            change.run();
+            return null;
+        });
+    }
+
+    private void pause(int attempt, OptimisticLockingFailureException conflict) {
+        long bound = Math.min(properties.maxBackoff().toNanos(),
+                properties.initialBackoff().toNanos() << Math.min(attempt - 1, 20));
+        if (bound <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(ThreadLocalRandom.current().nextLong(bound + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw conflict;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.bookstore.management.inventory.locking;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * @param mode           locking mode of every book without an entry in {@code books}
+ * @param books          locking mode per book id, e.g. {@code inventory.locking.books.42=pessimistic}
+ * @param maxAttempts    attempts of an optimistic change before the conflict is reported
+ * @param initialBackoff upper bound of the random pause before the first retry, doubled on every retry
+ * @param maxBackoff     cap of the random pause between two attempts
+ */
+@ConfigurationProperties(prefix = "inventory.locking")
+public record InventoryLockingProperties(
+        @DefaultValue("pessimistic") LockingMode mode,
+        @DefaultValue Map<Long, LockingMode> books,
+        @DefaultValue("4") int maxAttempts,
+        @DefaultValue("5ms") Duration initialBackoff,
+        @DefaultValue("100ms") Duration maxBackoff
+) {}
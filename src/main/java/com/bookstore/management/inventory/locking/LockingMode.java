@@ -0,0 +1,11 @@
+package com.bookstore.management.inventory.locking;
+
+/**
+ * How the inventory service guards the read-modify-write of an {@code inventory} row.
+ */
+public enum LockingMode {
+    /** The row is read with {@code SELECT ... FOR UPDATE}; concurrent writers wait. */
+    PESSIMISTIC,
+    /** The row is read without a lock and written only if its version did not change. */
+    OPTIMISTIC
+}
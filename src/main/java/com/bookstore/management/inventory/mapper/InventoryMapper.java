@@ -17,10 +17,13 @@ public interface InventoryMapper {
     @Mapping(target = "id", ignore = true)
     Inventory toEntity(CreateInventoryDTO createInventoryDto);
 
-    @Mapping(target = "realStockAvailable", expression = "java(inventory.getQuantityAvailable() - inventory.getQuantityReserved())")
+    @Mapping(target = "quantityAvailable", source = "totalAvailable")
+    @Mapping(target = "quantityReserved", source = "totalReserved")
+    @Mapping(target = "realStockAvailable", expression = "java(inventory.getTotalAvailable() - inventory.getTotalReserved())")
     @Mapping(target = "bookSummaryDTO",source = "book")
     InventoryResponseDTO toInventoryResponseDTO(Inventory inventory);
 
+    @Mapping(target = "quantityAvailable", source = "totalAvailable")
     @Mapping(target = "bookSummaryDTO",source = "book")
     InventorySummaryDTO toInventorySummaryDTO(Inventory inventory);
 
@@ -0,0 +1,19 @@
+package com.bookstore.management.inventory.mapper;
+
+import com.bookstore.management.inventory.dto.InventoryDriftDTO;
+import com.bookstore.management.inventory.dto.ReconciliationRunDTO;
+import com.bookstore.management.inventory.model.InventoryDrift;
+import com.bookstore.management.inventory.model.ReconciliationRun;
+import org.mapstruct.Mapper;
+
+import java.util.List;
+
+@Mapper(componentModel = "spring")
+public interface ReconciliationMapper {
+
+    ReconciliationRunDTO toReconciliationRunDTO(ReconciliationRun run, List<InventoryDriftDTO> drifts);
+
+    InventoryDriftDTO toInventoryDriftDTO(InventoryDrift drift);
+
+    List<InventoryDriftDTO> toInventoryDriftDTOs(List<InventoryDrift> drifts);
+}
@@ -0,0 +1,17 @@
+package com.bookstore.management.inventory.mapper;
+
+import com.bookstore.management.inventory.dto.ReplenishmentSuggestionDTO;
+import com.bookstore.management.inventory.model.SalesVelocity;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import java.util.List;
+
+@Mapper(componentModel = "spring")
+public interface SalesVelocityMapper {
+
+    @Mapping(target = "dailyVelocity", source = "velocity")
+    ReplenishmentSuggestionDTO toReplenishmentSuggestionDTO(SalesVelocity velocity);
+
+    List<ReplenishmentSuggestionDTO> toReplenishmentSuggestionDTOs(List<SalesVelocity> velocities);
+}
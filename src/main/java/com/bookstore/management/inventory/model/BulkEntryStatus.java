@@ -0,0 +1,15 @@
+package com.bookstore.management.inventory.model;
+
+import lombok.Getter;
+
+@Getter
+public enum BulkEntryStatus {
+    APPLIED("Applied"),
+    REJECTED("Rejected");
+
+    private final String description;
+
+    BulkEntryStatus(String description) {
+        this.description = description;
+    }
+}
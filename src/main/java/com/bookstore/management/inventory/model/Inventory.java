@@ -3,6 +3,8 @@ package com.bookstore.management.inventory.model;
 import com.bookstore.management.book.model.Book;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.Formula;
 import org.springframework.data.annotation.LastModifiedDate;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -15,7 +17,8 @@ import java.util.List;
 @Entity
 public class Inventory {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_seq")
+    @SequenceGenerator(name = "inventory_seq", sequenceName = "inventory_seq", allocationSize = 50)
     private Long id;
 
     @OneToOne(fetch = FetchType.LAZY)
@@ -50,6 +53,39 @@ public class Inventory {
     @Builder.Default
     private Boolean alertLowStock = false;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
+    /**
+     * Number of {@link InventoryStockSlot} rows holding part of the stock, 0 when the whole stock is
+     * on this row.
+     */
+    @Column(name = "stock_slots", nullable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Integer stockSlots = 0;
+
+    @Formula("(select coalesce(sum(s.quantity_available), 0) from inventory_stock_slot s where s.inventory_id = id)")
+    @Builder.Default
+    private Integer slottedAvailable = 0;
+
+    @Formula("(select coalesce(sum(s.quantity_reserved), 0) from inventory_stock_slot s where s.inventory_id = id)")
+    @Builder.Default
+    private Integer slottedReserved = 0;
+
     @OneToMany(mappedBy = "inventory", cascade = CascadeType.ALL)
     private List<InventoryMovement> movements;
+
+    /**
+     * Available stock of the book: this row's share plus what its stock slots held when loaded.
+     */
+    public int getTotalAvailable() {
+        return quantityAvailable + slottedAvailable;
+    }
+
+    public int getTotalReserved() {
+        return quantityReserved + slottedReserved;
+    }
 }
\ No newline at end of file
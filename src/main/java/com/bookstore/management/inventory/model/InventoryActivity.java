@@ -0,0 +1,36 @@
+package com.bookstore.management.inventory.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Latest movement and latest sale of an inventory, see
+ * {@link com.bookstore.management.inventory.activity.InventoryActivityTracker}.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "inventory_activity", indexes = {
+        @Index(name = "idx_inventory_activity_inventory", columnList = "inventory_id", unique = true),
+        @Index(name = "idx_inventory_activity_last_sold_at", columnList = "last_sold_at")
+})
+public class InventoryActivity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_activity_seq")
+    @SequenceGenerator(name = "inventory_activity_seq", sequenceName = "inventory_activity_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "inventory_id", nullable = false, updatable = false)
+    private Long inventoryId;
+
+    @Column(name = "last_moved_at")
+    private LocalDateTime lastMovedAt;
+
+    @Column(name = "last_sold_at")
+    private LocalDateTime lastSoldAt;
+}
@@ -0,0 +1,47 @@
+package com.bookstore.management.inventory.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "inventory_drift", indexes = @Index(name = "idx_inventory_drift_run", columnList = "run_id, book_id"))
+public class InventoryDrift {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_drift_seq")
+    @SequenceGenerator(name = "inventory_drift_seq", sequenceName = "inventory_drift_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "run_id", nullable = false, updatable = false)
+    private Long runId;
+
+    @Column(name = "inventory_id", nullable = false, updatable = false)
+    private Long inventoryId;
+
+    @Column(name = "book_id", nullable = false, updatable = false)
+    private Long bookId;
+
+    @Column(name = "expected_available", nullable = false, updatable = false)
+    private Long expectedAvailable;
+
+    @Column(name = "actual_available", nullable = false, updatable = false)
+    private Integer actualAvailable;
+
+    @Column(name = "expected_reserved", nullable = false, updatable = false)
+    private Long expectedReserved;
+
+    @Column(name = "actual_reserved", nullable = false, updatable = false)
+    private Integer actualReserved;
+
+    @Column(name = "first_divergent_movement_id", updatable = false)
+    private Long firstDivergentMovementId;
+
+    @Column(name = "first_divergent_at", updatable = false)
+    private LocalDateTime firstDivergentAt;
+}
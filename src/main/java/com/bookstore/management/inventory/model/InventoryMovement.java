@@ -11,10 +11,15 @@ import java.time.LocalDateTime;
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @AllArgsConstructor(access = AccessLevel.PRIVATE)
 @Entity
-@Table(name = "inventory_movement")
+@Table(name = "inventory_movement", indexes = {
+        @Index(name = "idx_movement_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_movement_inventory_created_at_id", columnList = "inventory_id, created_at, id"),
+        @Index(name = "idx_movement_type_created_at_id", columnList = "movement_type, created_at, id")
+})
 public class InventoryMovement {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_movement_seq")
+    @SequenceGenerator(name = "inventory_movement_seq", sequenceName = "inventory_movement_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
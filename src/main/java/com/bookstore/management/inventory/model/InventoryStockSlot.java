@@ -0,0 +1,38 @@
+package com.bookstore.management.inventory.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * One share of the stock of a book in the sharded stock mode, see
+ * {@link com.bookstore.management.inventory.slot.StockSlots}.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "inventory_stock_slot", indexes = {
+        @Index(name = "idx_inventory_stock_slot_inventory_slot", columnList = "inventory_id, slot", unique = true)
+})
+public class InventoryStockSlot {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_stock_slot_seq")
+    @SequenceGenerator(name = "inventory_stock_slot_seq", sequenceName = "inventory_stock_slot_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "inventory_id", nullable = false, updatable = false)
+    private Long inventoryId;
+
+    @Column(name = "slot", nullable = false, updatable = false)
+    private Integer slot;
+
+    @Column(name = "quantity_available", nullable = false)
+    @Builder.Default
+    private Integer quantityAvailable = 0;
+
+    @Column(name = "quantity_reserved", nullable = false)
+    @Builder.Default
+    private Integer quantityReserved = 0;
+}
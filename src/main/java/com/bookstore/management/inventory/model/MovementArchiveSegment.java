@@ -0,0 +1,38 @@
+package com.bookstore.management.inventory.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "movement_archive_segment")
+public class MovementArchiveSegment {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "movement_archive_segment_seq")
+    @SequenceGenerator(name = "movement_archive_segment_seq", sequenceName = "movement_archive_segment_seq", allocationSize = 1)
+    private Long id;
+
+    @Column(name = "archived_month", nullable = false, length = 7)
+    private String month;
+
+    @Column(name = "file_name", nullable = false)
+    private String fileName;
+
+    @Column(name = "row_count", nullable = false)
+    private Long rowCount;
+
+    @Column(name = "first_created_at")
+    private LocalDateTime firstCreatedAt;
+
+    @Column(name = "last_created_at")
+    private LocalDateTime lastCreatedAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
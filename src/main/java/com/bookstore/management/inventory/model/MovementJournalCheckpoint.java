@@ -0,0 +1,26 @@
+package com.bookstore.management.inventory.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "movement_journal_checkpoint")
+public class MovementJournalCheckpoint {
+    @Id
+    @Column(name = "journal_name", length = 100)
+    private String journalName;
+
+    @Column(name = "segment_number", nullable = false)
+    private Long segmentNumber;
+
+    @Column(name = "segment_position", nullable = false)
+    private Long segmentPosition;
+
+    @Column(name = "last_entry_id", nullable = false)
+    private Long lastEntryId;
+}
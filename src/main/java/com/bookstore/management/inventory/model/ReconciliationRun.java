@@ -0,0 +1,41 @@
+package com.bookstore.management.inventory.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "reconciliation_run")
+public class ReconciliationRun {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reconciliation_run_seq")
+    @SequenceGenerator(name = "reconciliation_run_seq", sequenceName = "reconciliation_run_seq", allocationSize = 1)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ReconciliationStatus status;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Column(name = "inventories_checked", nullable = false)
+    @Builder.Default
+    private Long inventoriesChecked = 0L;
+
+    @Column(name = "drift_count", nullable = false)
+    @Builder.Default
+    private Integer driftCount = 0;
+
+    @Column(name = "failure_reason", columnDefinition = "TEXT")
+    private String failureReason;
+}
@@ -0,0 +1,7 @@
+package com.bookstore.management.inventory.model;
+
+public enum ReconciliationStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,67 @@
+package com.bookstore.management.inventory.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Smoothed daily sales of an inventory and the replenishment projected from it, see
+ * {@link com.bookstore.management.inventory.velocity.SalesVelocityTracker}.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "sales_velocity", indexes = {
+        @Index(name = "idx_sales_velocity_inventory", columnList = "inventory_id", unique = true),
+        @Index(name = "idx_sales_velocity_book", columnList = "book_id"),
+        @Index(name = "idx_sales_velocity_stock_out_book", columnList = "stock_out_date, book_id")
+})
+public class SalesVelocity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sales_velocity_seq")
+    @SequenceGenerator(name = "sales_velocity_seq", sequenceName = "sales_velocity_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "inventory_id", nullable = false, updatable = false)
+    private Long inventoryId;
+
+    @Column(name = "book_id", nullable = false)
+    private Long bookId;
+
+    /** Units sold per day, smoothed over the days before {@link #day}. */
+    @Column(name = "velocity", nullable = false)
+    @Builder.Default
+    private Double velocity = 0.0;
+
+    /** Day still open: its sales are in {@link #dayUnits} and not yet in the velocity. */
+    @Column(name = "sales_day", nullable = false)
+    private LocalDate day;
+
+    @Column(name = "day_units", nullable = false)
+    @Builder.Default
+    private Long dayUnits = 0L;
+
+    @Column(name = "quantity_available", nullable = false)
+    private Integer quantityAvailable;
+
+    @Column(name = "stock_min", nullable = false)
+    private Integer stockMin;
+
+    @Column(name = "stock_max", nullable = false)
+    private Integer stockMax;
+
+    @Column(name = "stock_out_date")
+    private LocalDate stockOutDate;
+
+    @Column(name = "suggested_quantity", nullable = false)
+    @Builder.Default
+    private Integer suggestedQuantity = 0;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,35 @@
+package com.bookstore.management.inventory.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "stock_checkpoint", indexes = {
+        @Index(name = "idx_stock_checkpoint_inventory_taken_at", columnList = "inventory_id, taken_at", unique = true),
+        @Index(name = "idx_stock_checkpoint_taken_at", columnList = "taken_at")
+})
+public class StockCheckpoint {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_checkpoint_seq")
+    @SequenceGenerator(name = "stock_checkpoint_seq", sequenceName = "stock_checkpoint_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "inventory_id", nullable = false, updatable = false)
+    private Long inventoryId;
+
+    @Column(name = "taken_at", nullable = false, updatable = false)
+    private LocalDateTime takenAt;
+
+    @Column(name = "quantity_available", nullable = false, updatable = false)
+    private Integer quantityAvailable;
+
+    @Column(name = "quantity_reserved", nullable = false, updatable = false)
+    private Integer quantityReserved;
+}
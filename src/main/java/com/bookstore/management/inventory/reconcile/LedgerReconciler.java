@@ -0,0 +1,310 @@
+package com.bookstore.management.inventory.reconcile;
+
+import com.bookstore.management.inventory.checkpoint.StockCheckpointProperties;
+import com.bookstore.management.inventory.checkpoint.StockCheckpointer;
+import com.bookstore.management.inventory.dto.ReconciliationRunDTO;
+import com.bookstore.management.inventory.mapper.ReconciliationMapper;
+import com.bookstore.management.inventory.model.InventoryDrift;
+import com.bookstore.management.inventory.model.MovementType;
+import com.bookstore.management.inventory.model.ReconciliationRun;
+import com.bookstore.management.inventory.model.ReconciliationStatus;
+import com.bookstore.management.inventory.repository.InventoryDriftRepository;
+import com.bookstore.management.inventory.repository.ReconciliationRunRepository;
+import com.bookstore.management.inventory.repository.StockCheckpointRepository;
+import com.bookstore.management.shared.exception.custom.ReconciliationInProgressException;
+import com.bookstore.management.shared.exception.custom.ResourceNotFoundException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compares every inventory row, stock slots included, with what its movements add up to and
+ * records the rows that drifted.
+ * <p>
+ * A run first takes a stock checkpoint, so the expected quantities are the latest checkpoint of
+ * each inventory plus the movements since: a single aggregated query per book id range, whatever
+ * the size of the ledger. The book id space is split in halves on a fork-join pool until a range
+ * is at most {@code inventory.reconciliation.range-size} ids, and a shared throttle caps how many
+ * ranges start per second. Drifted rows are compared again after a short delay so in-flight
+ * writes are not reported, and for the rest the movement chain is walked to find the first
+ * movement that does not follow from the one before.
+ */
+@Slf4j
+@Component
+public class LedgerReconciler {
+
+    private static final LocalDateTime LEDGER_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final String COMPARE = "select i.id, i.book_id, i.quantity_available + coalesce(sl.available, 0), " +
+            "i.reserved_quantity + coalesce(sl.reserved, 0), " +
+            "coalesce(max(c.quantity_available), 0) + coalesce(sum(case when m.movement_type = 'EXIT' " +
+            "and m.quantity_before = m.quantity_after then 0 else m.affected_quantity end), 0), " +
+            "coalesce(max(c.quantity_reserved), 0) + coalesce(sum(case when m.movement_type in " +
+            "('RESERVE', 'RELEASE_RESERVE') then -m.affected_quantity when m.movement_type = 'EXIT' " +
+            "and m.quantity_before = m.quantity_after then m.affected_quantity else 0 end), 0) " +
+            "from inventory i " +
+            "left join stock_checkpoint c on c.inventory_id = i.id and c.taken_at = " +
+            "(select max(c2.taken_at) from stock_checkpoint c2 where c2.inventory_id = i.id and c2.taken_at <= ?) " +
+            "left join (select inventory_id, sum(quantity_available) available, sum(quantity_reserved) reserved " +
+            "from inventory_stock_slot group by inventory_id) sl on sl.inventory_id = i.id " +
+            "left join inventory_movement m on m.inventory_id = i.id and m.created_at >= ? ";
+    private static final String GROUP_BY_INVENTORY = " group by i.id, i.book_id, i.quantity_available, i.reserved_quantity, " +
+            "sl.available, sl.reserved";
+    private static final String COMPARE_RANGE = COMPARE + "where i.book_id >= ? and i.book_id < ?" + GROUP_BY_INVENTORY;
+    private static final String COMPARE_ONE = COMPARE + "where i.id = ?" + GROUP_BY_INVENTORY;
+    private static final String BOOK_ID_BOUNDS = "select min(book_id), max(book_id) from inventory";
+    private static final String MOVEMENT_CHAIN = "select id, created_at, affected_quantity, quantity_before, " +
+            "quantity_after, movement_type from inventory_movement where inventory_id = ? order by created_at, id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StockCheckpointer stockCheckpointer;
+    private final StockCheckpointRepository checkpointRepository;
+    private final ReconciliationRunRepository runRepository;
+    private final InventoryDriftRepository driftRepository;
+    private final ReconciliationMapper reconciliationMapper;
+    private final ReconciliationProperties properties;
+    private final StockCheckpointProperties checkpointProperties;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "inventory-reconciliation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public LedgerReconciler(JdbcTemplate jdbcTemplate,
+                            StockCheckpointer stockCheckpointer,
+                            StockCheckpointRepository checkpointRepository,
+                            ReconciliationRunRepository runRepository,
+                            InventoryDriftRepository driftRepository,
+                            ReconciliationMapper reconciliationMapper,
+                            ReconciliationProperties properties,
+                            StockCheckpointProperties checkpointProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.stockCheckpointer = stockCheckpointer;
+        this.checkpointRepository = checkpointRepository;
+        this.runRepository = runRepository;
+        this.driftRepository = driftRepository;
+        this.reconciliationMapper = reconciliationMapper;
+        this.properties = properties;
+        this.checkpointProperties = checkpointProperties;
+    }
+
+    @Scheduled(cron = "${inventory.reconciliation.cron:0 15 4 * * *}")
+    public void reconcileScheduled() {
+        if (!properties.enabled()) {
+            return;
+        }
+        try {
+            start();
+        } catch (ReconciliationInProgressException e) {
+            log.info("Scheduled reconciliation skipped: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Starts a run in the background.
+     */
+    public ReconciliationRunDTO start() {
+        ReconciliationRun run = begin();
+        executor.execute(() -> execute(run));
+        return reconciliationMapper.toReconciliationRunDTO(run, List.of());
+    }
+
+    /**
+     * Runs a reconciliation on the calling thread.
+     */
+    public ReconciliationRunDTO run() {
+        ReconciliationRun run = begin();
+        execute(run);
+        return report(run.getId());
+    }
+
+    public ReconciliationRunDTO report(Long runId) {
+        ReconciliationRun run = runRepository.findById(runId)
+                .orElseThrow(() -> new ResourceNotFoundException("Reconciliation", "Id", runId));
+        return reconciliationMapper.toReconciliationRunDTO(run,
+                reconciliationMapper.toInventoryDriftDTOs(driftRepository.findAllByRunIdOrderByBookId(runId)));
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    private ReconciliationRun begin() {
+        if (!running.compareAndSet(false, true)) {
+            throw new ReconciliationInProgressException("A reconciliation is already running");
+        }
+        try {
+            return runRepository.save(ReconciliationRun.builder()
+                    .status(ReconciliationStatus.RUNNING)
+                    .startedAt(LocalDateTime.now())
+                    .build());
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+    }
+
+    private void execute(ReconciliationRun run) {
+        try {
+            stockCheckpointer.checkpoint(LocalDateTime.now().minus(checkpointProperties.settle())
+                    .truncatedTo(ChronoUnit.SECONDS));
+            LocalDateTime since = checkpointRepository.findLatestTakenAt().orElse(LEDGER_START);
+
+            LongAdder checked = new LongAdder();
+            Queue<StockComparison> suspects = new ConcurrentLinkedQueue<>();
+            compareAll(since, checked, suspects);
+
+            List<InventoryDrift> drifts = confirm(run.getId(), since, suspects);
+            driftRepository.saveAll(drifts);
+
+            run.setInventoriesChecked(checked.sum());
+            run.setDriftCount(drifts.size());
+            run.setStatus(ReconciliationStatus.COMPLETED);
+            log.info("Reconciliation {} checked {} inventories and found {} drifted", run.getId(), checked.sum(), drifts.size());
+        } catch (RuntimeException e) {
+            log.error("Reconciliation {} failed", run.getId(), e);
+            run.setStatus(ReconciliationStatus.FAILED);
+            run.setFailureReason(e.getMessage());
+        } finally {
+            run.setFinishedAt(LocalDateTime.now());
+            runRepository.save(run);
+            running.set(false);
+        }
+    }
+
+    private void compareAll(LocalDateTime since, LongAdder checked, Queue<StockComparison> suspects) {
+        Long[] bounds = jdbcTemplate.queryForObject(BOOK_ID_BOUNDS,
+                (rs, rowNum) -> new Long[]{rs.getObject(1, Long.class), rs.getObject(2, Long.class)});
+        if (bounds == null || bounds[0] == null) {
+            return;
+        }
+        RangeThrottle throttle = new RangeThrottle(properties.maxRangesPerSecond());
+        ForkJoinPool pool = new ForkJoinPool(properties.parallelism());
+        try {
+            pool.invoke(new RangeTask(bounds[0], bounds[1] + 1, since, throttle, checked, suspects));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private List<InventoryDrift> confirm(Long runId, LocalDateTime since, Queue<StockComparison> suspects) {
+        if (suspects.isEmpty()) {
+            return List.of();
+        }
+        pause(properties.recheckDelay().toMillis());
+        List<InventoryDrift> drifts = new ArrayList<>();
+        for (StockComparison suspect : suspects) {
+            List<StockComparison> again = jdbcTemplate.query(COMPARE_ONE, (rs, rowNum) -> comparisonFrom(rs),
+                    Timestamp.valueOf(since), Timestamp.valueOf(since), suspect.inventoryId());
+            if (again.isEmpty() || !again.get(0).drifted()) {
+                continue;
+            }
+            StockComparison drifted = again.get(0);
+            InventoryDrift.InventoryDriftBuilder drift = InventoryDrift.builder()
+                    .runId(runId)
+                    .inventoryId(drifted.inventoryId())
+                    .bookId(drifted.bookId())
+                    .expectedAvailable(drifted.expectedAvailable())
+                    .actualAvailable(drifted.actualAvailable())
+                    .expectedReserved(drifted.expectedReserved())
+                    .actualReserved(drifted.actualReserved());
+            jdbcTemplate.query(MOVEMENT_CHAIN, rs -> {
+                Integer previousAfter = null;
+                while (rs.next()) {
+                    int before = rs.getInt("quantity_before");
+                    int after = rs.getInt("quantity_after");
+                    // a completed reservation leaves the available quantity as it was
+                    boolean consumed = MovementType.EXIT.name().equals(rs.getString("movement_type")) && after == before;
+                    if (!consumed && after != before + rs.getInt("affected_quantity")
+                            || previousAfter != null && before != previousAfter) {
+                        drift.firstDivergentMovementId(rs.getLong("id"))
+                                .firstDivergentAt(rs.getTimestamp("created_at").toLocalDateTime());
+                        return null;
+                    }
+                    previousAfter = after;
+                }
+                return null;
+            }, drifted.inventoryId());
+            drifts.add(drift.build());
+        }
+        return drifts;
+    }
+
+    private static StockComparison comparisonFrom(ResultSet rs) throws SQLException {
+        return new StockComparison(rs.getLong(1), rs.getLong(2), rs.getInt(3), rs.getInt(4),
+                rs.getLong(5), rs.getLong(6));
+    }
+
+    private static void pause(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Reconciliation interrupted", e);
+        }
+    }
+
+    /**
+     * Compares the book ids {@code [from, to)}, splitting the range while it is larger than a chunk.
+     */
+    private final class RangeTask extends RecursiveAction {
+
+        private final long from;
+        private final long to;
+        private final LocalDateTime since;
+        private final RangeThrottle throttle;
+        private final LongAdder checked;
+        private final Queue<StockComparison> suspects;
+
+        private RangeTask(long from, long to, LocalDateTime since, RangeThrottle throttle,
+                          LongAdder checked, Queue<StockComparison> suspects) {
+            this.from = from;
+            this.to = to;
+            this.since = since;
+            this.throttle = throttle;
+            this.checked = checked;
+            this.suspects = suspects;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > properties.rangeSize()) {
+                long middle = from + (to - from) / 2;
+                invokeAll(new RangeTask(from, middle, since, throttle, checked, suspects),
+                        new RangeTask(middle, to, since, throttle, checked, suspects));
+                return;
+            }
+            throttle.acquire();
+            jdbcTemplate.query(COMPARE_RANGE, rs -> {
+                checked.increment();
+                StockComparison comparison = comparisonFrom(rs);
+                if (comparison.drifted()) {
+                    suspects.add(comparison);
+                }
+            }, Timestamp.valueOf(since), Timestamp.valueOf(since), from, to);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.bookstore.management.inventory.reconcile;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spaces the start of ranges evenly, so a reconciliation never puts more than the configured
+ * query rate on the database however many workers it has.
+ */
+final class RangeThrottle {
+
+    private final long intervalNanos;
+    private long nextSlot = System.nanoTime();
+
+    RangeThrottle(double permitsPerSecond) {
+        this.intervalNanos = permitsPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond) : 0;
+    }
+
+    void acquire() {
+        if (intervalNanos == 0) {
+            return;
+        }
+        long wait;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long slot = Math.max(nextSlot, now);
+            nextSlot = slot + intervalNanos;
+            wait = slot - now;
+        }
+        if (wait > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Reconciliation interrupted", e);
+            }
+        }
+    }
+}
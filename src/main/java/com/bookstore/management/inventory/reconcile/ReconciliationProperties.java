@@ -0,0 +1,25 @@
+package com.bookstore.management.inventory.reconcile;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param enabled            whether the scheduled reconciliation runs
+ * @param cron               when the scheduled reconciliation runs
+ * @param parallelism        workers of the fork-join pool
+ * @param rangeSize          book ids compared by one query
+ * @param maxRangesPerSecond ranges started per second across all workers, {@code 0} for no limit
+ * @param recheckDelay       wait before drifted inventories are compared again, to let in-flight
+ *                           writes land
+ */
+@ConfigurationProperties(prefix = "inventory.reconciliation")
+public record ReconciliationProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("0 15 4 * * *") String cron,
+        @DefaultValue("2") int parallelism,
+        @DefaultValue("10000") int rangeSize,
+        @DefaultValue("20") double maxRangesPerSecond,
+        @DefaultValue("2s") Duration recheckDelay
+) {}
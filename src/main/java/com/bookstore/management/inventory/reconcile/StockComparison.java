@@ -0,0 +1,12 @@
+package com.bookstore.management.inventory.reconcile;
+
+/**
+ * Quantities of one inventory row next to the ones its movements add up to.
+ */
+record StockComparison(Long inventoryId, Long bookId, int actualAvailable, int actualReserved,
+                       long expectedAvailable, long expectedReserved) {
+
+    boolean drifted() {
+        return actualAvailable != expectedAvailable || actualReserved != expectedReserved;
+    }
+}
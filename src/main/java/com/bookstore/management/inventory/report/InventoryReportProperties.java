@@ -0,0 +1,23 @@
+package com.bookstore.management.inventory.report;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param parallelism   workers of the fork-join pool aggregating a report
+ * @param rangeSize     book ids read by one query
+ * @param fetchSize     rows fetched per round trip while streaming a range
+ * @param cachedReports reports kept, one per ledger version and window
+ * @param cacheTtl      longest a cached report is served, bounding how late it shows stock written
+ *                      after its commit event
+ */
+@ConfigurationProperties(prefix = "inventory.report")
+public record InventoryReportProperties(
+        @DefaultValue("2") int parallelism,
+        @DefaultValue("10000") int rangeSize,
+        @DefaultValue("1000") int fetchSize,
+        @DefaultValue("16") int cachedReports,
+        @DefaultValue("30s") Duration cacheTtl
+) {}
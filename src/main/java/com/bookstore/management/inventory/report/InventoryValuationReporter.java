@@ -0,0 +1,223 @@
+package com.bookstore.management.inventory.report;
+
+import com.bookstore.management.book.event.AuthorChangedEvent;
+import com.bookstore.management.book.event.BookChangedEvent;
+import com.bookstore.management.inventory.dto.InventoryValuationReportDTO;
+import com.bookstore.management.inventory.dto.ValuationLineDTO;
+import com.bookstore.management.inventory.event.MovementRecordedEvent;
+import com.bookstore.management.inventory.event.StockChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stock valuation at the current net price ({@code price} less {@code discountPercent}) with
+ * turnover and days of supply, in total and by genre and author.
+ * <p>
+ * The book id space is split in ranges on a fork-join pool, like the ledger reconciliation; every
+ * range is streamed from a cursor and folded into primitive accumulators, one per genre and
+ * author, so memory does not grow with the catalogue. Reports are cached by the ledger version, the
+ * day and the window: a repeated request between two stock changes is served from the cache.
+ * The ledger version counts stock changes and movements as their transactions commit; movement
+ * ids are taken before commit, so the highest id says nothing about which movements are visible.
+ * Changes that reach the tables after their event, a buffered journal draining or the hot ledger
+ * flushing, can be missing from a cached report for up to {@code inventory.report.cache-ttl}.
+ * Catalogue changes drop the cache.
+ */
+@Slf4j
+@Component
+public class InventoryValuationReporter {
+
+    private static final String UNCATEGORIZED = "Uncategorized";
+    private static final String BOOK_ID_BOUNDS = "select min(book_id), max(book_id) from inventory";
+    private static final String VALUATION_RANGE = "select b.genre, a.id, a.name, " +
+            "i.quantity_available + i.reserved_quantity + coalesce(sl.on_hand, 0), " +
+            "cast(round(coalesce(b.price, 0) * (100 - coalesce(b.discount_percent, 0))) as bigint), " +
+            "coalesce(s.sold, 0) " +
+            "from inventory i " +
+            "join books b on b.id = i.book_id " +
+            "join authors a on a.id = b.author_id " +
+            "left join (select inventory_id, sum(quantity_available + quantity_reserved) on_hand " +
+            "from inventory_stock_slot group by inventory_id) sl on sl.inventory_id = i.id " +
+            "left join (select m.inventory_id, -sum(m.affected_quantity) sold from inventory_movement m " +
+            "join inventory mi on mi.id = m.inventory_id " +
+            "where m.movement_type = 'EXIT' and m.created_at >= ? and mi.book_id >= ? and mi.book_id < ? " +
+            "group by m.inventory_id) s on s.inventory_id = i.id " +
+            "where i.book_id >= ? and i.book_id < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final InventoryReportProperties properties;
+    private final Cache<ReportKey, InventoryValuationReportDTO> reports;
+    private final AtomicLong ledgerVersion = new AtomicLong();
+    private final AtomicLong catalogueVersion = new AtomicLong();
+
+    public InventoryValuationReporter(JdbcTemplate jdbcTemplate,
+                                      TransactionTemplate transactionTemplate,
+                                      InventoryReportProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.reports = Caffeine.newBuilder()
+                .maximumSize(properties.cachedReports())
+                .expireAfterWrite(properties.cacheTtl())
+                .build();
+    }
+
+    /**
+     * @param windowDays days before today whose sales count for turnover and days of supply
+     */
+    public InventoryValuationReportDTO report(int windowDays) {
+        return reports.get(new ReportKey(ledgerVersion.get(), catalogueVersion.get(), LocalDate.now(), windowDays),
+                this::compute);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        ledgerVersion.incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMovementRecorded(MovementRecordedEvent event) {
+        ledgerVersion.incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        catalogueVersion.incrementAndGet();
+        reports.invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAuthorChanged(AuthorChangedEvent event) {
+        catalogueVersion.incrementAndGet();
+        reports.invalidateAll();
+    }
+
+    private InventoryValuationReportDTO compute(ReportKey key) {
+        long started = System.nanoTime();
+        LocalDateTime since = key.day().minusDays(key.windowDays()).atStartOfDay();
+        Long[] bounds = jdbcTemplate.queryForObject(BOOK_ID_BOUNDS,
+                (rs, rowNum) -> new Long[]{rs.getObject(1, Long.class), rs.getObject(2, Long.class)});
+
+        Partial partial = new Partial();
+        if (bounds != null && bounds[0] != null) {
+            ForkJoinPool pool = new ForkJoinPool(properties.parallelism());
+            try {
+                partial = pool.invoke(new RangeTask(bounds[0], bounds[1] + 1, since));
+            } finally {
+                pool.shutdown();
+            }
+        }
+        log.info("Valuation report at ledger version {} aggregated in {} ms", key.ledgerVersion(),
+                (System.nanoTime() - started) / 1_000_000);
+        return new InventoryValuationReportDTO(LocalDateTime.now(), key.ledgerVersion(), key.windowDays(),
+                partial.total.toLine(key.windowDays()),
+                lines(partial.byGenre.values(), key.windowDays()),
+                lines(partial.byAuthor.values(), key.windowDays()));
+    }
+
+    private static List<ValuationLineDTO> lines(Collection<ValuationAccumulator> accumulators, int windowDays) {
+        return accumulators.stream()
+                .sorted(Comparator.comparingLong(ValuationAccumulator::stockValueCents).reversed())
+                .map(accumulator -> accumulator.toLine(windowDays))
+                .toList();
+    }
+
+    private record ReportKey(long ledgerVersion, long catalogueVersion, LocalDate day, int windowDays) {}
+
+    /**
+     * Accumulators of a range of book ids, merged pairwise as the ranges complete.
+     */
+    private static final class Partial {
+
+        private final ValuationAccumulator total = new ValuationAccumulator("Total");
+        private final Map<String, ValuationAccumulator> byGenre = new HashMap<>();
+        private final Map<Long, ValuationAccumulator> byAuthor = new HashMap<>();
+
+        private void add(ResultSet rs) throws SQLException {
+            String genre = rs.getString(1);
+            long authorId = rs.getLong(2);
+            String authorName = rs.getString(3);
+            long onHand = rs.getLong(4);
+            long netPriceCents = rs.getLong(5);
+            long sold = rs.getLong(6);
+
+            total.add(onHand, netPriceCents, sold);
+            byGenre.computeIfAbsent(genre == null ? UNCATEGORIZED : genre, ValuationAccumulator::new)
+                    .add(onHand, netPriceCents, sold);
+            byAuthor.computeIfAbsent(authorId, id -> new ValuationAccumulator(authorName))
+                    .add(onHand, netPriceCents, sold);
+        }
+
+        private Partial merge(Partial other) {
+            total.merge(other.total);
+            other.byGenre.forEach((genre, accumulator) ->
+                    byGenre.computeIfAbsent(genre, ValuationAccumulator::new).merge(accumulator));
+            other.byAuthor.forEach((authorId, accumulator) ->
+                    byAuthor.merge(authorId, accumulator, (mine, theirs) -> {
+                        mine.merge(theirs);
+                        return mine;
+                    }));
+            return this;
+        }
+    }
+
+    /**
+     * Aggregates the book ids {@code [from, to)}, splitting the range while it is larger than a chunk.
+     */
+    private final class RangeTask extends RecursiveTask<Partial> {
+
+        private final long from;
+        private final long to;
+        private final LocalDateTime since;
+
+        private RangeTask(long from, long to, LocalDateTime since) {
+            this.from = from;
+            this.to = to;
+            this.since = since;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (to - from > properties.rangeSize()) {
+                long middle = from + (to - from) / 2;
+                RangeTask lower = new RangeTask(from, middle, since);
+                lower.fork();
+                Partial upper = new RangeTask(middle, to, since).compute();
+                return lower.join().merge(upper);
+            }
+            Partial partial = new Partial();
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(VALUATION_RANGE);
+                statement.setFetchSize(properties.fetchSize());
+                statement.setTimestamp(1, Timestamp.valueOf(since));
+                statement.setLong(2, from);
+                statement.setLong(3, to);
+                statement.setLong(4, from);
+                statement.setLong(5, to);
+                return statement;
+            }, partial::add));
+            return partial;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.bookstore.management.inventory.report;
+
+import com.bookstore.management.inventory.dto.ValuationLineDTO;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Running totals of one report line, values in cents.
+ */
+final class ValuationAccumulator {
+
+    private final String key;
+    private long inventories;
+    private long unitsOnHand;
+    private long stockValueCents;
+    private long unitsSold;
+    private long soldValueCents;
+
+    ValuationAccumulator(String key) {
+        this.key = key;
+    }
+
+    void add(long onHand, long netPriceCents, long sold) {
+        inventories++;
+        unitsOnHand += onHand;
+        stockValueCents += onHand * netPriceCents;
+        unitsSold += sold;
+        soldValueCents += sold * netPriceCents;
+    }
+
+    void merge(ValuationAccumulator other) {
+        inventories += other.inventories;
+        unitsOnHand += other.unitsOnHand;
+        stockValueCents += other.stockValueCents;
+        unitsSold += other.unitsSold;
+        soldValueCents += other.soldValueCents;
+    }
+
+    long stockValueCents() {
+        return stockValueCents;
+    }
+
+    /**
+     * @param windowDays days the sold quantities were counted over
+     */
+    ValuationLineDTO toLine(int windowDays) {
+        BigDecimal turnover = stockValueCents == 0 ? null
+                : BigDecimal.valueOf(soldValueCents).divide(BigDecimal.valueOf(stockValueCents), 2, RoundingMode.HALF_UP);
+        BigDecimal daysOfSupply = unitsSold == 0 ? null
+                : BigDecimal.valueOf(unitsOnHand * windowDays).divide(BigDecimal.valueOf(unitsSold), 1, RoundingMode.HALF_UP);
+        return new ValuationLineDTO(key, inventories, unitsOnHand, BigDecimal.valueOf(stockValueCents, 2),
+                unitsSold, BigDecimal.valueOf(soldValueCents, 2), turnover, daysOfSupply);
+    }
+}
@@ -0,0 +1,41 @@
+package com.bookstore.management.inventory.repository;
+
+import com.bookstore.management.inventory.dto.DeadStockDTO;
+import com.bookstore.management.inventory.model.InventoryActivity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static com.bookstore.management.inventory.repository.InventoryRepository.SLOTTED_AVAILABLE;
+import static com.bookstore.management.inventory.repository.InventoryRepository.SLOTTED_RESERVED;
+
+public interface InventoryActivityRepository extends JpaRepository<InventoryActivity, Long> {
+
+    String ON_HAND = "(i.quantityAvailable + i.quantityReserved + " + SLOTTED_AVAILABLE + " + " + SLOTTED_RESERVED + ")";
+    String TIED_UP_VALUE = ON_HAND + " * coalesce(b.price, 0) * (100 - coalesce(b.discountPercent, 0)) / 100";
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from InventoryActivity a where a.inventoryId in :inventoryIds order by a.inventoryId")
+    List<InventoryActivity> findAllForUpdateByInventoryIdIn(@Param("inventoryIds") Collection<Long> inventoryIds);
+
+    Optional<InventoryActivity> findFirstByOrderByIdAsc();
+
+    /**
+     * Active books with stock on hand and no sale since {@code soldBefore}, the most value tied up first.
+     */
+    @Query("select new com.bookstore.management.inventory.dto.DeadStockDTO(b.id, b.isbn, b.title, " +
+            "cast(" + ON_HAND + " as Integer), " + TIED_UP_VALUE + ", a.lastSoldAt, a.lastMovedAt) " +
+            "from InventoryActivity a join Inventory i on i.id = a.inventoryId join i.book b " +
+            "where i.activeStatus = true and (a.lastSoldAt is null or a.lastSoldAt < :soldBefore) " +
+            "and " + ON_HAND + " > 0 " +
+            "order by " + TIED_UP_VALUE + " desc, b.id")
+    List<DeadStockDTO> findDeadStock(@Param("soldBefore") LocalDateTime soldBefore, Pageable pageable);
+}
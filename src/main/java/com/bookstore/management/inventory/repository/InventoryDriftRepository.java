@@ -0,0 +1,13 @@
+package com.bookstore.management.inventory.repository;
+
+import com.bookstore.management.inventory.model.InventoryDrift;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface InventoryDriftRepository extends JpaRepository<InventoryDrift, Long> {
+
+    List<InventoryDrift> findAllByRunIdOrderByBookId(Long runId);
+}
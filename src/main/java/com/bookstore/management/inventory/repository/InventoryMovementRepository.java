@@ -2,6 +2,7 @@ package com.bookstore.management.inventory.repository;
 
 import com.bookstore.management.inventory.model.InventoryMovement;
 import com.bookstore.management.inventory.model.MovementType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
@@ -10,23 +11,62 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 
 @Repository
 public interface InventoryMovementRepository extends JpaRepository<InventoryMovement, Long> {
 
+    String BEFORE_CURSOR = " im.createdAt <= :createdAt AND (im.createdAt < :createdAt OR im.id < :id) ";
+    String NEWEST_FIRST = " ORDER BY im.createdAt DESC, im.id DESC";
+
     @EntityGraph(attributePaths = {"inventory", "inventory.book"})
     @Query("SELECT im FROM InventoryMovement as im WHERE im.inventory.id = :inventoryId")
     Page<InventoryMovement> findAllByInventoryId(@Param("inventoryId")Long inventoryId, Pageable pageable);
 
     @EntityGraph(attributePaths = {"inventory", "inventory.book"})
-    Page<InventoryMovement> findByCreatedAtBetween(@Param("startDate") LocalDate startDate,
-                                                   @Param("endDate") LocalDate endDate,
-                                                   Pageable pageable);
+    Page<InventoryMovement> findByCreatedAtGreaterThanEqualAndCreatedAtLessThan(LocalDateTime from,
+                                                                                LocalDateTime to,
+                                                                                Pageable pageable);
 
     @EntityGraph(attributePaths = {"inventory", "inventory.book"})
     Page<InventoryMovement> findByMovementType(@Param("movementType") MovementType movementType, Pageable pageable);
 
     @EntityGraph(attributePaths = {"inventory", "inventory.book"})
     Page<InventoryMovement> findAllBy(Pageable pageable);
+
+    @EntityGraph(attributePaths = {"inventory", "inventory.book"})
+    @Query("SELECT im FROM InventoryMovement im WHERE im.inventory.id = :inventoryId AND" + BEFORE_CURSOR + NEWEST_FIRST)
+    List<InventoryMovement> findByInventoryIdBefore(@Param("inventoryId") Long inventoryId,
+                                                    @Param("createdAt") LocalDateTime createdAt,
+                                                    @Param("id") Long id,
+                                                    Limit limit);
+
+    @EntityGraph(attributePaths = {"inventory", "inventory.book"})
+    @Query("SELECT im FROM InventoryMovement im WHERE im.movementType = :movementType AND" + BEFORE_CURSOR + NEWEST_FIRST)
+    List<InventoryMovement> findByMovementTypeBefore(@Param("movementType") MovementType movementType,
+                                                     @Param("createdAt") LocalDateTime createdAt,
+                                                     @Param("id") Long id,
+                                                     Limit limit);
+
+    @EntityGraph(attributePaths = {"inventory", "inventory.book"})
+    @Query("SELECT im FROM InventoryMovement im WHERE im.createdAt >= :from AND im.createdAt < :to AND"
+            + BEFORE_CURSOR + NEWEST_FIRST)
+    List<InventoryMovement> findBetweenBefore(@Param("from") LocalDateTime from,
+                                              @Param("to") LocalDateTime to,
+                                              @Param("createdAt") LocalDateTime createdAt,
+                                              @Param("id") Long id,
+                                              Limit limit);
+
+    @EntityGraph(attributePaths = {"inventory", "inventory.book"})
+    @Query("SELECT im FROM InventoryMovement im WHERE" + BEFORE_CURSOR + NEWEST_FIRST)
+    List<InventoryMovement> findAllBefore(@Param("createdAt") LocalDateTime createdAt,
+                                          @Param("id") Long id,
+                                          Limit limit);
+
+    long countByInventoryId(Long inventoryId);
+
+    long countByMovementType(MovementType movementType);
+
+    long countByCreatedAtGreaterThanEqualAndCreatedAtLessThan(LocalDateTime from, LocalDateTime to);
 }
@@ -1,26 +1,139 @@
 package com.bookstore.management.inventory.repository;
 
+import com.bookstore.management.inventory.dto.InventoryBookDTO;
+import com.bookstore.management.inventory.dto.InventoryStockDTO;
+import com.bookstore.management.inventory.dto.StockSlotLayoutDTO;
 import com.bookstore.management.inventory.model.Inventory;
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface InventoryRepository extends JpaRepository<Inventory, Long> {
 
+    String SLOTTED_AVAILABLE = "coalesce((select sum(s.quantityAvailable) from InventoryStockSlot s where s.inventoryId = i.id), 0)";
+    String SLOTTED_RESERVED = "coalesce((select sum(s.quantityReserved) from InventoryStockSlot s where s.inventoryId = i.id), 0)";
+
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("select i from Inventory i JOIN FETCH i.book WHERE i.book.id = :bookId")
     Optional<Inventory> findByBookId(@Param("bookId") Long bookId);
 
-    @Query("select i from Inventory i JOIN FETCH i.book where i.stockMin > i.quantityAvailable AND i.activeStatus = true")
+    /**
+     * Unlocked counterpart of {@link #findByBookId(Long)} for the optimistic locking mode: the
+     * change is written only if the row's version is still the one read here.
+     */
+    @Query("select i from Inventory i JOIN FETCH i.book WHERE i.book.id = :bookId")
+    Optional<Inventory> findVersionedByBookId(@Param("bookId") Long bookId);
+
+    /**
+     * Read-only counterpart of {@link #findByBookId(Long)} for lookups that do not modify the row.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("select i from Inventory i JOIN FETCH i.book b JOIN FETCH b.author WHERE b.id = :bookId")
+    Optional<Inventory> findReadOnlyByBookId(@Param("bookId") Long bookId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Inventory i WHERE i.book.id in :bookIds order by i.book.id")
+    List<Inventory> findAllByBookIdInOrderByBookId(@Param("bookIds") Collection<Long> bookIds);
+
+    @Query("select i from Inventory i JOIN FETCH i.book b JOIN FETCH b.author where i.id in :ids")
+    List<Inventory> findAllWithBookByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select i from Inventory i JOIN FETCH i.book b JOIN FETCH b.author " +
+            "where i.stockMin > i.quantityAvailable + " + SLOTTED_AVAILABLE + " AND i.activeStatus = true")
     List<Inventory> findActiveInventoriesWithLowStock();
 
     @Query("select i from Inventory i JOIN FETCH i.book where i.activeStatus = :activeStatus")
     List<Inventory> findByActiveStatus(@Param("activeStatus") Boolean activeStatus);
+
+    /**
+     * Reads the stock columns without locking the row or loading the entity, stock slots included.
+     */
+    @Query("select new com.bookstore.management.inventory.dto.InventoryStockDTO(i.id, i.book.id, " +
+            "cast(i.quantityAvailable + " + SLOTTED_AVAILABLE + " as Integer), " +
+            "cast(i.quantityReserved + " + SLOTTED_RESERVED + " as Integer), i.stockMin, i.activeStatus) " +
+            "from Inventory i where i.book.id = :bookId")
+    Optional<InventoryStockDTO> findStockByBookId(@Param("bookId") Long bookId);
+
+    /**
+     * Reads the stock columns of the inventory row alone, leaving out its stock slots. Called after
+     * a guarded update, while that update still locks the row, it returns the values the update left.
+     */
+    @Query("select new com.bookstore.management.inventory.dto.InventoryStockDTO(" +
+            "i.id, i.book.id, i.quantityAvailable, i.quantityReserved, i.stockMin, i.activeStatus) " +
+            "from Inventory i where i.book.id = :bookId")
+    Optional<InventoryStockDTO> findRowStockByBookId(@Param("bookId") Long bookId);
+
+    @Query("select new com.bookstore.management.inventory.dto.InventoryBookDTO(i.id, b.id, b.isbn) " +
+            "from Inventory i join i.book b where b.id in :bookIds")
+    List<InventoryBookDTO> findBooksByBookIdIn(@Param("bookIds") Collection<Long> bookIds);
+
+    @Query("select new com.bookstore.management.inventory.dto.InventoryBookDTO(i.id, b.id, b.isbn) " +
+            "from Inventory i join i.book b where b.isbn in :isbns")
+    List<InventoryBookDTO> findBooksByIsbnIn(@Param("isbns") Collection<String> isbns);
+
+    @Query("select new com.bookstore.management.inventory.dto.InventoryBookDTO(i.id, b.id, b.isbn) " +
+            "from Inventory i join i.book b")
+    List<InventoryBookDTO> findAllBooks();
+
+    @Query("select new com.bookstore.management.inventory.dto.StockSlotLayoutDTO(i.id, i.book.id, i.stockSlots) " +
+            "from Inventory i where i.stockSlots > 0")
+    List<StockSlotLayoutDTO> findSlotLayouts();
+
+    @Query("select new com.bookstore.management.inventory.dto.StockSlotLayoutDTO(i.id, i.book.id, i.stockSlots) " +
+            "from Inventory i where i.book.id = :bookId and i.stockSlots > 0")
+    Optional<StockSlotLayoutDTO> findSlotLayoutByBookId(@Param("bookId") Long bookId);
+
+    /**
+     * Reserves stock in a single guarded statement, the database checks the available quantity.
+     *
+     * @return 1 when the reservation was applied, 0 when the inventory does not exist,
+     * is disabled or has less available stock than requested
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("update Inventory i set " +
+            "i.quantityAvailable = i.quantityAvailable - :quantity, " +
+            "i.quantityReserved = i.quantityReserved + :quantity, " +
+            "i.alertLowStock = case when i.quantityAvailable - :quantity <= i.stockMin then true else false end, " +
+            "i.version = i.version + 1 " +
+            "where i.book.id = :bookId and i.quantityAvailable >= :quantity and i.activeStatus = true")
+    int reserveStock(@Param("bookId") Long bookId, @Param("quantity") Integer quantity);
+
+    /**
+     * Takes reserved stock out of the inventory when the sale holding it completes, in a single
+     * guarded statement; the available quantity does not change.
+     *
+     * @return 1 when the reservation was consumed, 0 when the inventory does not exist or has less
+     * reserved stock than requested
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("update Inventory i set " +
+            "i.quantityReserved = i.quantityReserved - :quantity, " +
+            "i.version = i.version + 1 " +
+            "where i.book.id = :bookId and i.quantityReserved >= :quantity")
+    int consumeReservation(@Param("bookId") Long bookId, @Param("quantity") Integer quantity);
+
+    /**
+     * Moves stock collected from the stock slots of an inventory onto its row.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("update Inventory i set " +
+            "i.quantityAvailable = i.quantityAvailable + :available, " +
+            "i.quantityReserved = i.quantityReserved + :reserved, " +
+            "i.version = i.version + 1 " +
+            "where i.id = :inventoryId")
+    int addToRow(@Param("inventoryId") Long inventoryId,
+                 @Param("available") Integer available,
+                 @Param("reserved") Integer reserved);
 }
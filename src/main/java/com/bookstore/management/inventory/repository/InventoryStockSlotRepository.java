@@ -0,0 +1,38 @@
+package com.bookstore.management.inventory.repository;
+
+import com.bookstore.management.inventory.model.InventoryStockSlot;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface InventoryStockSlotRepository extends JpaRepository<InventoryStockSlot, Long> {
+
+    /**
+     * Applies a change to one slot in a single guarded statement.
+     *
+     * @return 1 when the change was applied, 0 when the slot does not exist or would go negative
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("update InventoryStockSlot s set " +
+            "s.quantityAvailable = s.quantityAvailable + :availableDelta, " +
+            "s.quantityReserved = s.quantityReserved + :reservedDelta " +
+            "where s.inventoryId = :inventoryId and s.slot = :slot " +
+            "and s.quantityAvailable + :availableDelta >= 0 and s.quantityReserved + :reservedDelta >= 0")
+    int applyDelta(@Param("inventoryId") Long inventoryId,
+                   @Param("slot") Integer slot,
+                   @Param("availableDelta") Integer availableDelta,
+                   @Param("reservedDelta") Integer reservedDelta);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from InventoryStockSlot s where s.inventoryId = :inventoryId order by s.slot")
+    List<InventoryStockSlot> findAllForUpdateByInventoryId(@Param("inventoryId") Long inventoryId);
+
+    List<InventoryStockSlot> findAllByInventoryIdOrderBySlot(Long inventoryId);
+}
@@ -0,0 +1,13 @@
+package com.bookstore.management.inventory.repository;
+
+import com.bookstore.management.inventory.model.MovementArchiveSegment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface MovementArchiveSegmentRepository extends JpaRepository<MovementArchiveSegment, Long> {
+
+    List<MovementArchiveSegment> findAllByOrderByMonthDescIdDesc();
+}
@@ -0,0 +1,9 @@
+package com.bookstore.management.inventory.repository;
+
+import com.bookstore.management.inventory.model.ReconciliationRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ReconciliationRunRepository extends JpaRepository<ReconciliationRun, Long> {
+}
@@ -0,0 +1,36 @@
+package com.bookstore.management.inventory.repository;
+
+import com.bookstore.management.inventory.model.SalesVelocity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface SalesVelocityRepository extends JpaRepository<SalesVelocity, Long> {
+
+    List<SalesVelocity> findAllByInventoryIdIn(Collection<Long> inventoryIds);
+
+    Optional<SalesVelocity> findByBookId(Long bookId);
+
+    /**
+     * Next chunk of rows whose open day is over and that still have sales to smooth, in id order.
+     */
+    @Query("""
+            select s from SalesVelocity s
+            where s.day < :today and (s.velocity > 0 or s.dayUnits > 0) and s.id > :afterId
+            order by s.id
+            """)
+    List<SalesVelocity> findStale(@Param("today") LocalDate today, @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("""
+            select s from SalesVelocity s
+            where s.suggestedQuantity > 0
+            order by s.stockOutDate asc nulls last, s.bookId
+            """)
+    List<SalesVelocity> findSuggestions(Pageable pageable);
+}
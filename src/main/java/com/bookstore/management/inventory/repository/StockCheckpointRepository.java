@@ -0,0 +1,43 @@
+package com.bookstore.management.inventory.repository;
+
+import com.bookstore.management.inventory.model.StockCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StockCheckpointRepository extends JpaRepository<StockCheckpoint, Long> {
+
+    String LATEST_PER_INVENTORY = "c.takenAt = (SELECT MAX(c2.takenAt) FROM StockCheckpoint c2 " +
+            "WHERE c2.inventoryId = c.inventoryId AND c2.takenAt <= :at)";
+
+    @Query("SELECT MAX(c.takenAt) FROM StockCheckpoint c WHERE c.takenAt <= :at")
+    Optional<LocalDateTime> findLatestTakenAtNotAfter(@Param("at") LocalDateTime at);
+
+    @Query("SELECT MIN(c.takenAt) FROM StockCheckpoint c WHERE c.takenAt > :at")
+    Optional<LocalDateTime> findEarliestTakenAtAfter(@Param("at") LocalDateTime at);
+
+    @Query("SELECT MAX(c.takenAt) FROM StockCheckpoint c")
+    Optional<LocalDateTime> findLatestTakenAt();
+
+    @Query("SELECT c FROM StockCheckpoint c WHERE " + LATEST_PER_INVENTORY)
+    List<StockCheckpoint> findLatestNotAfter(@Param("at") LocalDateTime at);
+
+    @Query("SELECT c FROM StockCheckpoint c WHERE c.inventoryId IN :inventoryIds AND " + LATEST_PER_INVENTORY)
+    List<StockCheckpoint> findLatestNotAfter(@Param("inventoryIds") Collection<Long> inventoryIds,
+                                             @Param("at") LocalDateTime at);
+
+    List<StockCheckpoint> findAllByTakenAt(LocalDateTime takenAt);
+
+    Optional<StockCheckpoint> findFirstByInventoryIdAndTakenAtLessThanEqualOrderByTakenAtDesc(Long inventoryId,
+                                                                                             LocalDateTime at);
+
+    Optional<StockCheckpoint> findFirstByInventoryIdAndTakenAtGreaterThanOrderByTakenAtAsc(Long inventoryId,
+                                                                                          LocalDateTime at);
+}
@@ -0,0 +1,260 @@
+package com.bookstore.management.inventory.service;
+
+import com.bookstore.management.inventory.dto.*;
+import com.bookstore.management.inventory.event.StockChangedEvent;
+import com.bookstore.management.inventory.journal.MovementJournal;
+import com.bookstore.management.inventory.ledger.HotStockLedger;
+import com.bookstore.management.inventory.ledger.StockChange;
+import com.bookstore.management.inventory.ledger.StockSnapshot;
+import com.bookstore.management.inventory.model.AvailabilityStatus;
+import com.bookstore.management.inventory.model.InventoryMovement;
+import com.bookstore.management.inventory.model.MovementType;
+import com.bookstore.management.inventory.repository.InventoryRepository;
+import com.bookstore.management.shared.exception.custom.InsufficientStockException;
+import com.bookstore.management.shared.exception.custom.InvalidAdjustmentException;
+import com.bookstore.management.shared.exception.custom.ResourceNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Inventory service of the {@code hot-ledger} stock mode. Reservations, releases and availability
+ * checks are served by the {@link HotStockLedger}; every other operation keeps the locking path of
+ * {@link InventoryServiceImpl}, after writing the book's pending changes so it reads current stock.
+ */
+@Primary
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "inventory.stock.mode", havingValue = "hot-ledger")
+public class HotLedgerInventoryService implements InventoryService {
+
+    private final InventoryServiceImpl inventoryServiceImpl;
+    private final HotStockLedger hotStockLedger;
+    private final InventoryRepository inventoryRepository;
+    private final MovementJournal movementJournal;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public List<InventorySummaryDTO> findAll() {
+        return inventoryServiceImpl.findAll();
+    }
+
+    @Override
+    public InventoryResponseDTO findByBookId(Long bookId) {
+        return inventoryServiceImpl.findByBookId(bookId);
+    }
+
+    @Override
+    public List<InventorySummaryDTO> findByActiveStatusList(Boolean activeStatus) {
+        return inventoryServiceImpl.findByActiveStatusList(activeStatus);
+    }
+
+    @Override
+    public List<InventorySummaryDTO> findByAlertLowStockList() {
+        return inventoryServiceImpl.findByAlertLowStockList();
+    }
+
+    @Override
+    public List<InventorySummaryDTO> findByAlertLowStockPage(int page, int size) {
+        return inventoryServiceImpl.findByAlertLowStockPage(page, size);
+    }
+
+    @Override
+    public List<InventorySummaryDTO> findMostCriticalLowStock(int limit) {
+        return inventoryServiceImpl.findMostCriticalLowStock(limit);
+    }
+
+    @Override
+    public CheckAvailabilityResponseDTO checkBookAvailability(Long bookId) {
+        StockSnapshot stock = hotStockLedger.find(bookId)
+                .orElseThrow(() -> new ResourceNotFoundException("Book","Id",bookId));
+
+        int quantity = stock.quantityAvailable();
+        AvailabilityStatus status;
+        if (quantity > stock.stockMin()) {
+            status = AvailabilityStatus.AVAILABLE;
+        } else if (quantity > 0) {
+            status = AvailabilityStatus.FEW_UNITS;
+        } else {
+            status = AvailabilityStatus.UNAVAILABLE;
+        }
+
+        return CheckAvailabilityResponseDTO.builder()
+                .bookId(stock.bookId())
+                .isAvailable(quantity > 0)
+                .status(status)
+                .quantityAvailable(quantity)
+                .build();
+    }
+
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    @Override
+    public InventorySummaryDTO registerSale(UpdateStockDTO updateStockDTO, Long bookId) {
+        if (!hotStockLedger.claim(bookId, updateStockDTO.quantityAdjustment())) {
+            throw new InsufficientStockException("Insufficient Stock");
+        }
+        hotStockLedger.flush(bookId);
+        return inventoryServiceImpl.registerSale(updateStockDTO, bookId);
+    }
+
+    @Transactional
+    @Override
+    public InventorySummaryDTO registerEntry(UpdateStockDTO updateStockDTO, Long bookId) {
+        hotStockLedger.flush(bookId);
+        InventorySummaryDTO inventory = inventoryServiceImpl.registerEntry(updateStockDTO, bookId);
+        hotStockLedger.credit(bookId, updateStockDTO.quantityAdjustment());
+        return inventory;
+    }
+
+    @Transactional
+    @Override
+    public InventorySummaryDTO positiveAdjustment(UpdateStockDTO updateStockDTO, Long bookId) {
+        hotStockLedger.flush(bookId);
+        InventorySummaryDTO inventory = inventoryServiceImpl.positiveAdjustment(updateStockDTO, bookId);
+        hotStockLedger.credit(bookId, updateStockDTO.quantityAdjustment());
+        return inventory;
+    }
+
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    @Override
+    public InventorySummaryDTO negativeAdjustment(UpdateStockDTO updateStockDTO, Long bookId) {
+        if (!hotStockLedger.claim(bookId, updateStockDTO.quantityAdjustment())) {
+            throw new InvalidAdjustmentException("The adjustment would leave negative stock.");
+        }
+        hotStockLedger.flush(bookId);
+        return inventoryServiceImpl.negativeAdjustment(updateStockDTO, bookId);
+    }
+
+    @Transactional
+    @Override
+    public InventorySummaryDTO create(CreateInventoryDTO createInventoryDTO) {
+        InventorySummaryDTO inventory = inventoryServiceImpl.create(createInventoryDTO);
+        hotStockLedger.register(new StockSnapshot(inventory.id(), createInventoryDTO.bookId(),
+                inventory.quantityAvailable(), 0, createInventoryDTO.stockMin(), true));
+        return inventory;
+    }
+
+    @Transactional
+    @Override
+    public void releaseReservation(Long bookId, Integer quantity) {
+        StockChange change = hotStockLedger.release(bookId, quantity);
+        journal(change, MovementType.RELEASE_RESERVE);
+        publishStockChanged(bookId, change.affectedQuantity());
+    }
+
+    /**
+     * Releases in book id order; a failed line throws and the rollback gives the released lines
+     * back to the counters.
+     */
+    @Transactional
+    @Override
+    public void releaseReservationBatch(Map<Long, Integer> quantitiesByBookId) {
+        if (quantitiesByBookId.isEmpty()) {
+            return;
+        }
+        List<StockChange> changes = new TreeMap<>(quantitiesByBookId).entrySet().stream()
+                .map(line -> hotStockLedger.release(line.getKey(), line.getValue()))
+                .toList();
+        movementJournal.appendAll(changes.stream()
+                .map(change -> movement(change, MovementType.RELEASE_RESERVE))
+                .toList());
+        changes.forEach(change ->
+                publishStockChanged(change.bookId(), change.affectedQuantity()));
+    }
+
+    @Transactional
+    @Override
+    public void reserveStock(Long bookId, Integer quantity) {
+        StockChange change = hotStockLedger.reserve(bookId, quantity);
+        journal(change, MovementType.RESERVE);
+        publishStockChanged(bookId, change.affectedQuantity());
+    }
+
+    @Transactional
+    @Override
+    public void reserveStockBatch(Map<Long, Integer> quantitiesByBookId) {
+        if (quantitiesByBookId.isEmpty()) {
+            return;
+        }
+        List<StockChange> changes = hotStockLedger.reserveAll(quantitiesByBookId);
+        movementJournal.appendAll(changes.stream()
+                .map(change -> movement(change, MovementType.RESERVE))
+                .toList());
+        changes.forEach(change ->
+                publishStockChanged(change.bookId(), change.affectedQuantity()));
+    }
+
+    @Transactional
+    @Override
+    public void consumeReservation(Long bookId, Integer quantity) {
+        StockChange change = hotStockLedger.consume(bookId, quantity);
+        movementJournal.append(InventoryMovement.builder()
+                .inventory(inventoryRepository.getReferenceById(change.inventoryId()))
+                .affectedQuantity(-quantity)
+                .quantityBefore(change.quantityBefore())
+                .quantityAfter(change.quantityAfter())
+                .movementType(MovementType.EXIT)
+                .description(MovementType.EXIT.getDescription())
+                .build());
+        publishStockChanged(bookId, 0);
+    }
+
+    @Transactional
+    @Override
+    public void registerEntryBatch(Map<Long, Integer> quantitiesByBookId) {
+        quantitiesByBookId.keySet().forEach(hotStockLedger::flush);
+        inventoryServiceImpl.registerEntryBatch(quantitiesByBookId);
+        quantitiesByBookId.forEach(hotStockLedger::credit);
+    }
+
+    @Transactional
+    @Override
+    public InventoryResponseDTO updateThresholds(Long bookId, Integer stockMin, Integer stockMax) {
+        hotStockLedger.flush(bookId);
+        InventoryResponseDTO inventory = inventoryServiceImpl.updateThresholds(bookId, stockMin, stockMax);
+        hotStockLedger.updateStockMin(bookId, stockMin);
+        return inventory;
+    }
+
+    @Transactional
+    @Override
+    public void disableById(Long inventoryId) {
+        inventoryServiceImpl.disableById(inventoryId);
+        inventoryRepository.findById(inventoryId)
+                .ifPresent(inventory -> hotStockLedger.disable(inventory.getBook().getId()));
+    }
+
+    /**
+     * Reservations never touch the row, so their event is built from the counter. The locking
+     * operations publish from the row they write, which the flush has brought up to date.
+     */
+    private void publishStockChanged(Long bookId, int availableDelta) {
+        long sequence = StockChangedEvent.nextSequence();
+        hotStockLedger.find(bookId).ifPresent(stock -> eventPublisher.publishEvent(new StockChangedEvent(sequence,
+                stock.inventoryId(), stock.bookId(), stock.quantityAvailable(), stock.quantityReserved(),
+                stock.stockMin(), stock.activeStatus(), availableDelta)));
+    }
+
+    private void journal(StockChange change, MovementType movementType) {
+        movementJournal.append(movement(change, movementType));
+    }
+
+    private InventoryMovement movement(StockChange change, MovementType movementType) {
+        return InventoryMovement.builder()
+                .inventory(inventoryRepository.getReferenceById(change.inventoryId()))
+                .affectedQuantity(change.affectedQuantity())
+                .quantityBefore(change.quantityBefore())
+                .quantityAfter(change.quantityAfter())
+                .movementType(movementType)
+                .description(movementType.getDescription())
+                .build();
+    }
+}
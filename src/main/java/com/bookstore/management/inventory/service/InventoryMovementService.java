@@ -1,6 +1,7 @@
 package com.bookstore.management.inventory.service;
 
 import com.bookstore.management.inventory.dto.InventoryMovementResponseDTO;
+import com.bookstore.management.inventory.dto.MovementSliceDTO;
 import com.bookstore.management.inventory.model.MovementType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -12,4 +13,8 @@ public interface InventoryMovementService {
     Page<InventoryMovementResponseDTO> findByMovementType(MovementType movementType, Pageable pageable);
     Page<InventoryMovementResponseDTO> findByDateRange(LocalDate startDate, LocalDate endDate, Pageable pageable);
     Page<InventoryMovementResponseDTO> findRecentMovements(Pageable pageable);
+    MovementSliceDTO seekByInventoryId(Long inventoryId, String cursor, int size, boolean withTotal);
+    MovementSliceDTO seekByMovementType(MovementType movementType, String cursor, int size, boolean withTotal);
+    MovementSliceDTO seekByDateRange(LocalDate startDate, LocalDate endDate, String cursor, int size, boolean withTotal);
+    MovementSliceDTO seekRecentMovements(String cursor, int size, boolean withTotal);
 }
@@ -1,16 +1,30 @@
 package com.bookstore.management.inventory.service;
 
+import com.bookstore.management.inventory.archive.ArchivedMovement;
+import com.bookstore.management.inventory.archive.MovementArchive;
+import com.bookstore.management.inventory.archive.MovementQuery;
 import com.bookstore.management.inventory.dto.InventoryMovementResponseDTO;
+import com.bookstore.management.inventory.dto.InventorySummaryDTO;
+import com.bookstore.management.inventory.dto.MovementSliceDTO;
+import com.bookstore.management.inventory.mapper.InventoryMapper;
 import com.bookstore.management.inventory.mapper.InventoryMovementMapper;
+import com.bookstore.management.inventory.model.Inventory;
 import com.bookstore.management.inventory.model.InventoryMovement;
 import com.bookstore.management.inventory.model.MovementType;
 import com.bookstore.management.inventory.repository.InventoryMovementRepository;
+import com.bookstore.management.inventory.repository.InventoryRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
 
 @Transactional(readOnly = true)
 @RequiredArgsConstructor
@@ -19,37 +33,181 @@ public class InventoryMovementServiceImpl implements InventoryMovementService {
 
     private final InventoryMovementMapper inventoryMovementMapper;
     private final InventoryMovementRepository inventoryMovementRepository;
+    private final InventoryMapper inventoryMapper;
+    private final InventoryRepository inventoryRepository;
+    private final MovementArchive movementArchive;
+
+    private static final int MAX_SLICE_SIZE = 100;
+    private static final LocalDateTime NEWEST = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
     @Override
     public Page<InventoryMovementResponseDTO> findAllByInventoryId(Long inventoryId, Pageable pageable) {
 
         Page<InventoryMovement> page =  inventoryMovementRepository.findAllByInventoryId(inventoryId, pageable);
-        return page.map(inventoryMovementMapper::toInventoryMovementResponseDTO);
+        return withArchive(page, MovementQuery.byInventory(inventoryId), pageable);
     }
 
     @Override
     public Page<InventoryMovementResponseDTO> findByMovementType(MovementType movementType, Pageable pageable) {
 
         Page<InventoryMovement> page =  inventoryMovementRepository.findByMovementType(movementType, pageable);
-        return page.map(inventoryMovementMapper::toInventoryMovementResponseDTO);
+        return withArchive(page, MovementQuery.byType(movementType), pageable);
     }
 
     @Override
     public Page<InventoryMovementResponseDTO> findByDateRange(LocalDate startDate, LocalDate endDate, Pageable pageable) {
+        validateDateRange(startDate, endDate);
+        LocalDateTime from = startDate.atStartOfDay();
+        LocalDateTime to = endDate.plusDays(1).atStartOfDay();
+        Page<InventoryMovement> page =
+                inventoryMovementRepository.findByCreatedAtGreaterThanEqualAndCreatedAtLessThan(from, to, pageable);
+        return withArchive(page, MovementQuery.between(from, to), pageable);
+    }
+
+    @Override
+    public Page<InventoryMovementResponseDTO> findRecentMovements(Pageable pageable) {
+        Page<InventoryMovement> page = inventoryMovementRepository.findAllBy(pageable);
+        return withArchive(page, MovementQuery.all(), pageable);
+    }
+
+    @Override
+    public MovementSliceDTO seekByInventoryId(Long inventoryId, String cursor, int size, boolean withTotal) {
+        return seek(MovementQuery.byInventory(inventoryId), cursor, size, withTotal,
+                (createdAt, id, limit) -> inventoryMovementRepository.findByInventoryIdBefore(inventoryId, createdAt, id, limit),
+                () -> inventoryMovementRepository.countByInventoryId(inventoryId));
+    }
+
+    @Override
+    public MovementSliceDTO seekByMovementType(MovementType movementType, String cursor, int size, boolean withTotal) {
+        return seek(MovementQuery.byType(movementType), cursor, size, withTotal,
+                (createdAt, id, limit) -> inventoryMovementRepository.findByMovementTypeBefore(movementType, createdAt, id, limit),
+                () -> inventoryMovementRepository.countByMovementType(movementType));
+    }
+
+    @Override
+    public MovementSliceDTO seekByDateRange(LocalDate startDate, LocalDate endDate, String cursor, int size,
+                                            boolean withTotal) {
+        validateDateRange(startDate, endDate);
+        LocalDateTime from = startDate.atStartOfDay();
+        LocalDateTime to = endDate.plusDays(1).atStartOfDay();
+        return seek(MovementQuery.between(from, to), cursor, size, withTotal,
+                (createdAt, id, limit) -> inventoryMovementRepository.findBetweenBefore(from, to, createdAt, id, limit),
+                () -> inventoryMovementRepository.countByCreatedAtGreaterThanEqualAndCreatedAtLessThan(from, to));
+    }
+
+    @Override
+    public MovementSliceDTO seekRecentMovements(String cursor, int size, boolean withTotal) {
+        return seek(MovementQuery.all(), cursor, size, withTotal,
+                inventoryMovementRepository::findAllBefore,
+                inventoryMovementRepository::count);
+    }
+
+    /**
+     * Keyset page on {@code (created_at, id)} descending: each page starts right after the cursor,
+     * so it costs the same however deep it is, and no count runs unless the first page asks for one.
+     * Once the table runs out of older rows the page continues into the archive.
+     */
+    private MovementSliceDTO seek(MovementQuery query, String token, int size, boolean withTotal,
+                                  SliceQuery sliceQuery, LongSupplier counter) {
+        if (size < 1 || size > MAX_SLICE_SIZE) {
+            throw new IllegalArgumentException("Size must be between 1 and " + MAX_SLICE_SIZE);
+        }
+        MovementCursor cursor = MovementCursor.decode(token);
+        LocalDateTime createdAt = cursor != null ? cursor.createdAt() : NEWEST;
+        long id = cursor != null ? cursor.id() : Long.MAX_VALUE;
+        Long total = cursor != null ? cursor.total()
+                : withTotal ? counter.getAsLong() + movementArchive.count(query) : null;
+
+        List<InventoryMovementResponseDTO> content = new ArrayList<>(size + 1);
+        sliceQuery.before(createdAt, id, Limit.of(size + 1)).stream()
+                .map(inventoryMovementMapper::toInventoryMovementResponseDTO)
+                .forEach(content::add);
+        if (content.size() <= size && !movementArchive.segments().isEmpty()) {
+            InventoryMovementResponseDTO last = content.isEmpty() ? null : content.get(content.size() - 1);
+            content.addAll(toResponses(movementArchive.readBefore(query,
+                    last != null ? last.createdAt() : createdAt,
+                    last != null ? last.id() : id,
+                    size + 1 - content.size())));
+        }
+
+        if (content.size() <= size) {
+            return new MovementSliceDTO(content, null, total);
+        }
+        List<InventoryMovementResponseDTO> slice = List.copyOf(content.subList(0, size));
+        InventoryMovementResponseDTO last = slice.get(size - 1);
+        return new MovementSliceDTO(slice, new MovementCursor(last.createdAt(), last.id(), total).encode(), total);
+    }
+
+    private static void validateDateRange(LocalDate startDate, LocalDate endDate) {
         if (startDate == null || endDate == null) {
             throw new IllegalArgumentException("Dates cannot be null");
         }
         if (startDate.isAfter(endDate)) {
             throw new IllegalArgumentException("Start date must be before or equal to end date");
         }
-        Page<InventoryMovement> page = inventoryMovementRepository.findByCreatedAtBetween(startDate, endDate, pageable);
-        return page.map(inventoryMovementMapper::toInventoryMovementResponseDTO);
     }
 
-    @Override
-    public Page<InventoryMovementResponseDTO> findRecentMovements(Pageable pageable) {
-        Page<InventoryMovement> page = inventoryMovementRepository.findAllBy(pageable);
-        return page.map(inventoryMovementMapper::toInventoryMovementResponseDTO);
+    /**
+     * Archived movements are all older than the ones in the table, so they continue the page
+     * once the table runs out of rows. That only holds newest first: a page in any other order
+     * that reaches archived movements is refused.
+     */
+    private Page<InventoryMovementResponseDTO> withArchive(Page<InventoryMovement> page, MovementQuery query,
+                                                           Pageable pageable) {
+        if (movementArchive.segments().isEmpty()) {
+            return page.map(inventoryMovementMapper::toInventoryMovementResponseDTO);
+        }
+        long archivedTotal = movementArchive.count(query);
+        if (archivedTotal == 0) {
+            return page.map(inventoryMovementMapper::toInventoryMovementResponseDTO);
+        }
+        if (!isNewestFirst(pageable.getSort())) {
+            throw new IllegalArgumentException("Movements reaching the archive can only be sorted by createdAt descending");
+        }
+        List<InventoryMovementResponseDTO> content = new ArrayList<>(page.getContent().stream()
+                .map(inventoryMovementMapper::toInventoryMovementResponseDTO)
+                .toList());
+
+        if (pageable.isPaged() && content.size() < pageable.getPageSize()) {
+            long archiveOffset = Math.max(0, pageable.getOffset() - page.getTotalElements());
+            List<ArchivedMovement> archived = movementArchive.read(query, archiveOffset,
+                    pageable.getPageSize() - content.size());
+            content.addAll(toResponses(archived));
+        }
+        return new PageImpl<>(content, pageable, page.getTotalElements() + archivedTotal);
     }
-}
 
+    private static boolean isNewestFirst(Sort sort) {
+        return sort.isUnsorted() || sort.stream().findFirst()
+                .filter(order -> order.isDescending() && order.getProperty().equalsIgnoreCase("createdAt"))
+                .isPresent();
+    }
 
+    private List<InventoryMovementResponseDTO> toResponses(List<ArchivedMovement> archived) {
+        if (archived.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, InventorySummaryDTO> inventories = inventoryRepository.findAllWithBookByIdIn(archived.stream()
+                        .map(ArchivedMovement::inventoryId)
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Inventory::getId, inventoryMapper::toInventorySummaryDTO));
+
+        return archived.stream()
+                .map(movement -> new InventoryMovementResponseDTO(
+                        movement.id(),
+                        inventories.get(movement.inventoryId()),
+                        movement.affectedQuantity(),
+                        movement.quantityBefore(),
+                        movement.quantityAfter(),
+                        movement.movementType(),
+                        movement.description(),
+                        movement.createBy(),
+                        movement.createdAt()))
+                .toList();
+    }
+
+    @FunctionalInterface
+    private interface SliceQuery {
+        List<InventoryMovement> before(LocalDateTime createdAt, Long id, Limit limit);
+    }
+}
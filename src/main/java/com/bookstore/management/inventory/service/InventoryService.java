@@ -3,6 +3,7 @@ package com.bookstore.management.inventory.service;
 import com.bookstore.management.inventory.dto.*;
 
 import java.util.List;
+import java.util.Map;
 
 public interface InventoryService {
 
@@ -10,6 +11,8 @@ public interface InventoryService {
     InventoryResponseDTO findByBookId(Long bookId);
     List<InventorySummaryDTO> findByActiveStatusList(Boolean activeStatus);
     List<InventorySummaryDTO> findByAlertLowStockList();
+    List<InventorySummaryDTO> findByAlertLowStockPage(int page, int size);
+    List<InventorySummaryDTO> findMostCriticalLowStock(int limit);
     CheckAvailabilityResponseDTO checkBookAvailability (Long bookId);
     InventorySummaryDTO registerSale(UpdateStockDTO updateStockDTO, Long bookId);
     InventorySummaryDTO registerEntry(UpdateStockDTO updateStockDTO, Long bookId);
@@ -17,7 +20,11 @@ public interface InventoryService {
     InventorySummaryDTO negativeAdjustment(UpdateStockDTO updateStockDTO, Long bookId);
     InventorySummaryDTO create(CreateInventoryDTO createInventoryDTO);
     void releaseReservation(Long bookId, Integer quantity);
+    void releaseReservationBatch(Map<Long, Integer> quantitiesByBookId);
     void reserveStock(Long bookId, Integer quantity);
+    void reserveStockBatch(Map<Long, Integer> quantitiesByBookId);
+    void consumeReservation(Long bookId, Integer quantity);
+    void registerEntryBatch(Map<Long, Integer> quantitiesByBookId);
     InventoryResponseDTO updateThresholds(Long BookId,Integer stockMin, Integer stockMax);
     void disableById(Long inventoryId);
 }
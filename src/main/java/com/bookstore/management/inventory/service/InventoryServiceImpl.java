@@ -2,22 +2,34 @@ package com.bookstore.management.inventory.service;
 
 import com.bookstore.management.book.model.Book;
 import com.bookstore.management.book.repository.BookRepository;
+import com.bookstore.management.inventory.cache.AvailabilityCache;
 import com.bookstore.management.inventory.dto.*;
+import com.bookstore.management.inventory.event.StockChangedEvent;
+import com.bookstore.management.inventory.index.LowStockIndex;
+import com.bookstore.management.inventory.journal.MovementJournal;
+import com.bookstore.management.inventory.locking.InventoryLocking;
+import com.bookstore.management.inventory.locking.LockingMode;
 import com.bookstore.management.inventory.mapper.InventoryMapper;
 import com.bookstore.management.inventory.model.AvailabilityStatus;
 import com.bookstore.management.inventory.model.Inventory;
 import com.bookstore.management.inventory.model.InventoryMovement;
 import com.bookstore.management.inventory.model.MovementType;
-import com.bookstore.management.inventory.repository.InventoryMovementRepository;
 import com.bookstore.management.inventory.repository.InventoryRepository;
+import com.bookstore.management.inventory.slot.StockSlots;
 import com.bookstore.management.shared.exception.custom.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
+import java.util.*;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 
 @Slf4j
@@ -29,7 +41,12 @@ public class InventoryServiceImpl implements InventoryService {
     private final InventoryRepository inventoryRepository;
     private final BookRepository bookRepository;
     private final InventoryMapper inventoryMapper;
-    private final InventoryMovementRepository inventoryMovementRepository;
+    private final MovementJournal movementJournal;
+    private final AvailabilityCache availabilityCache;
+    private final LowStockIndex lowStockIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final InventoryLocking inventoryLocking;
+    private final StockSlots stockSlots;
 
     @Override
     public List<InventorySummaryDTO> findAll() {
@@ -39,12 +56,16 @@ public class InventoryServiceImpl implements InventoryService {
 
     @Override
     public InventoryResponseDTO findByBookId(Long bookId) {
-        return inventoryMapper.toInventoryResponseDTO(findByBookIdOrThrow(bookId));
+        Inventory inventory = inventoryRepository.findReadOnlyByBookId(bookId)
+                .orElseThrow(() -> new ResourceNotFoundException("Book","Id",bookId));
+        return inventoryMapper.toInventoryResponseDTO(inventory);
     }
 
     private Inventory findByBookIdOrThrow(Long bookId) {
-        return inventoryRepository.findByBookId(bookId)
-                .orElseThrow(() -> new ResourceNotFoundException("Book","Id",bookId));
+        Optional<Inventory> inventory = inventoryLocking.modeFor(bookId) == LockingMode.OPTIMISTIC
+                ? inventoryRepository.findVersionedByBookId(bookId)
+                : inventoryRepository.findByBookId(bookId);
+        return inventory.orElseThrow(() -> new ResourceNotFoundException("Book","Id",bookId));
     }
 
     @Override
@@ -56,22 +77,36 @@ public class InventoryServiceImpl implements InventoryService {
 
     @Override
     public List<InventorySummaryDTO> findByAlertLowStockList() {
-        List<Inventory> activeInventories = inventoryRepository.findActiveInventoriesWithLowStock();
-        return inventoryMapper.toInventorySummaryDTOList(activeInventories);
+        return lowStockIndex.findAll();
     }
 
+    @Override
+    public List<InventorySummaryDTO> findByAlertLowStockPage(int page, int size) {
+        return lowStockIndex.findPage(page, size);
+    }
+
+    @Override
+    public List<InventorySummaryDTO> findMostCriticalLowStock(int limit) {
+        return lowStockIndex.findMostCritical(limit);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
     @Override
     public CheckAvailabilityResponseDTO checkBookAvailability(Long bookId) {
-        Inventory inventory = findByBookIdOrThrow(bookId);
+        return availabilityCache.get(bookId, this::loadAvailability);
+    }
+
+    private CheckAvailabilityResponseDTO loadAvailability(Long bookId) {
+        InventoryStockDTO stock = findStockByBookIdOrThrow(bookId);
 
-        int quantity = inventory.getQuantityAvailable();
-        AvailabilityStatus status = determinateAvailabilityStatus(quantity, inventory.getStockMin());
+        int quantity = stock.quantityAvailable();
+        AvailabilityStatus status = determinateAvailabilityStatus(quantity, stock.stockMin());
 
         return CheckAvailabilityResponseDTO.builder()
-                .bookId(inventory.getBook().getId())
+                .bookId(stock.bookId())
                 .isAvailable(quantity > 0)
                 .status(status)
-                .quantityAvailable(inventory.getQuantityAvailable())
+                .quantityAvailable(quantity)
                 .build();
     }
     private AvailabilityStatus determinateAvailabilityStatus(Integer quantity, Integer stockMin) {
@@ -90,15 +125,18 @@ public class InventoryServiceImpl implements InventoryService {
     @Override
     public InventorySummaryDTO registerEntry(UpdateStockDTO updateStockDTO, Long bookId) {
 
+        int slotted = distributeToSlots(bookId, updateStockDTO.quantityAdjustment());
         Inventory inventory = findByBookIdOrThrow(bookId);
+        availabilityCache.invalidateAfterCompletion(bookId);
 
-        int quantityBefore = inventory.getQuantityAvailable();
-        int quantityAfter = inventory.getQuantityAvailable() + updateStockDTO.quantityAdjustment();
+        int quantityBefore = inventory.getTotalAvailable() - slotted;
+        int quantityAfter = quantityBefore + updateStockDTO.quantityAdjustment();
         int affectedQuantity = quantityAfter - quantityBefore;
 
-        inventory.setQuantityAvailable(quantityAfter);
+        inventory.setQuantityAvailable(inventory.getQuantityAvailable() + affectedQuantity - slotted);
         inventory.setAlertLowStock(quantityAfter <= inventory.getStockMin());
         inventoryRepository.save(inventory);
+        eventPublisher.publishEvent(StockChangedEvent.of(inventory, affectedQuantity));
 
         InventoryMovement inventoryMovement = InventoryMovement.builder()
                 .inventory(inventory)
@@ -109,7 +147,7 @@ public class InventoryServiceImpl implements InventoryService {
                 .description(updateStockDTO.movementType().getDescription())
                 .build();
 
-        inventoryMovementRepository.save(inventoryMovement);
+        movementJournal.append(inventoryMovement);
 
         return inventoryMapper.toInventorySummaryDTO(inventory);
     }
@@ -118,19 +156,27 @@ public class InventoryServiceImpl implements InventoryService {
     @Override
     public InventorySummaryDTO registerSale(UpdateStockDTO updateStockDTO, Long bookId) {
 
+        if (changeSlots(bookId, -updateStockDTO.quantityAdjustment(), 0)) {
+            availabilityCache.invalidateAfterCompletion(bookId);
+            movementJournal.append(slotMovement(findStockByBookIdOrThrow(bookId),
+                    -updateStockDTO.quantityAdjustment(), updateStockDTO.movementType()));
+            return findSummaryByBookIdOrThrow(bookId);
+        }
         Inventory inventory = findByBookIdOrThrow(bookId);
+        availabilityCache.invalidateAfterCompletion(bookId);
 
         if (inventory.getQuantityAvailable() < updateStockDTO.quantityAdjustment()){
             throw new InsufficientStockException("Insufficient Stock");
         }
-        int quantityBefore = inventory.getQuantityAvailable();
-        int quantityAfter = inventory.getQuantityAvailable() - updateStockDTO.quantityAdjustment();
+        int quantityBefore = inventory.getTotalAvailable();
+        int quantityAfter = quantityBefore - updateStockDTO.quantityAdjustment();
         int affectedQuantity = quantityAfter - quantityBefore;
 
-        inventory.setQuantityAvailable(quantityAfter);
+        inventory.setQuantityAvailable(inventory.getQuantityAvailable() + affectedQuantity);
         inventory.setAlertLowStock(quantityAfter <= inventory.getStockMin());
 
         inventoryRepository.save(inventory);
+        eventPublisher.publishEvent(StockChangedEvent.of(inventory, affectedQuantity));
 
         InventoryMovement inventoryMovement = InventoryMovement.builder()
                 .inventory(inventory)
@@ -141,7 +187,7 @@ public class InventoryServiceImpl implements InventoryService {
                 .description(updateStockDTO.movementType().getDescription())
                 .build();
 
-        inventoryMovementRepository.save(inventoryMovement);
+        movementJournal.append(inventoryMovement);
 
         return inventoryMapper.toInventorySummaryDTO(inventory);
     }
@@ -150,15 +196,18 @@ public class InventoryServiceImpl implements InventoryService {
     @Override
     public InventorySummaryDTO positiveAdjustment(UpdateStockDTO updateStockDTO, Long bookId) {
 
+        int slotted = distributeToSlots(bookId, updateStockDTO.quantityAdjustment());
         Inventory inventory = findByBookIdOrThrow(bookId);
+        availabilityCache.invalidateAfterCompletion(bookId);
 
-        int quantityBefore = inventory.getQuantityAvailable();
-        int quantityAfter = inventory.getQuantityAvailable() + updateStockDTO.quantityAdjustment();
+        int quantityBefore = inventory.getTotalAvailable() - slotted;
+        int quantityAfter = quantityBefore + updateStockDTO.quantityAdjustment();
         int affectedQuantity = quantityAfter - quantityBefore;
 
-        inventory.setQuantityAvailable(quantityAfter);
+        inventory.setQuantityAvailable(inventory.getQuantityAvailable() + affectedQuantity - slotted);
         inventory.setAlertLowStock(quantityAfter <= inventory.getStockMin());
         inventoryRepository.save(inventory);
+        eventPublisher.publishEvent(StockChangedEvent.of(inventory, affectedQuantity));
 
         InventoryMovement inventoryMovement = InventoryMovement.builder()
                 .inventory(inventory)
@@ -169,7 +218,7 @@ public class InventoryServiceImpl implements InventoryService {
                 .description(updateStockDTO.movementType().getDescription())
                 .build();
 
-        inventoryMovementRepository.save(inventoryMovement);
+        movementJournal.append(inventoryMovement);
 
         return inventoryMapper.toInventorySummaryDTO(inventory);
     }
@@ -178,19 +227,26 @@ public class InventoryServiceImpl implements InventoryService {
     @Override
     public InventorySummaryDTO negativeAdjustment(UpdateStockDTO updateStockDTO, Long bookId) {
 
+        if (changeSlots(bookId, -updateStockDTO.quantityAdjustment(), 0)) {
+            availabilityCache.invalidateAfterCompletion(bookId);
+            movementJournal.append(slotMovement(findStockByBookIdOrThrow(bookId),
+                    -updateStockDTO.quantityAdjustment(), updateStockDTO.movementType()));
+            return findSummaryByBookIdOrThrow(bookId);
+        }
         Inventory inventory = findByBookIdOrThrow(bookId);
+        availabilityCache.invalidateAfterCompletion(bookId);
 
-        int quantityAfter = inventory.getQuantityAvailable() - updateStockDTO.quantityAdjustment();
-
-        if ( quantityAfter < 0){
+        if (inventory.getQuantityAvailable() < updateStockDTO.quantityAdjustment()){
             throw new InvalidAdjustmentException("The adjustment would leave negative stock.");
         }
-        int quantityBefore = inventory.getQuantityAvailable();
+        int quantityBefore = inventory.getTotalAvailable();
+        int quantityAfter = quantityBefore - updateStockDTO.quantityAdjustment();
         int affectedQuantity = quantityAfter - quantityBefore;
 
-        inventory.setQuantityAvailable(quantityAfter);
+        inventory.setQuantityAvailable(inventory.getQuantityAvailable() + affectedQuantity);
         inventory.setAlertLowStock(quantityAfter <= inventory.getStockMin());
         inventoryRepository.save(inventory);
+        eventPublisher.publishEvent(StockChangedEvent.of(inventory, affectedQuantity));
 
         InventoryMovement inventoryMovement = InventoryMovement.builder()
                 .inventory(inventory)
@@ -201,7 +257,7 @@ public class InventoryServiceImpl implements InventoryService {
                 .description(updateStockDTO.movementType().getDescription())
                 .build();
 
-        inventoryMovementRepository.save(inventoryMovement);
+        movementJournal.append(inventoryMovement);
 
         return inventoryMapper.toInventorySummaryDTO(inventory);
     }
@@ -226,6 +282,7 @@ public class InventoryServiceImpl implements InventoryService {
                 inventoryMapper.toEntity(createInventoryDTO);
 
         inventoryRepository.save(inventory);
+        eventPublisher.publishEvent(StockChangedEvent.of(inventory, inventory.getQuantityAvailable()));
 
         InventoryMovement inventoryMovement = InventoryMovement.builder()
                 .inventory(inventory)
@@ -236,7 +293,7 @@ public class InventoryServiceImpl implements InventoryService {
                 .description(MovementType.INITIAL_INVENTORY.getDescription())
                 .build();
 
-        inventoryMovementRepository.save(inventoryMovement);
+        movementJournal.append(inventoryMovement);
 
         return inventoryMapper.toInventorySummaryDTO(inventory);
     }
@@ -244,19 +301,26 @@ public class InventoryServiceImpl implements InventoryService {
     @Transactional
     @Override
     public void releaseReservation(Long bookId, Integer quantity) {
+        if (changeSlots(bookId, quantity, -quantity)) {
+            availabilityCache.invalidateAfterCompletion(bookId);
+            movementJournal.append(slotMovement(findStockByBookIdOrThrow(bookId), quantity, MovementType.RELEASE_RESERVE));
+            return;
+        }
         Inventory inventory = findByBookIdOrThrow(bookId);
+        availabilityCache.invalidateAfterCompletion(bookId);
         if (inventory.getQuantityReserved() < quantity) {
             throw new InsufficientReservedStockException("Not enough reserved stock to release");
         }
 
-        int quantityBefore = inventory.getQuantityAvailable();
-        int quantityAfter = inventory.getQuantityAvailable() + quantity;
+        int quantityBefore = inventory.getTotalAvailable();
+        int quantityAfter = quantityBefore + quantity;
         int affectedQuantity = quantityAfter - quantityBefore;
 
         inventory.setQuantityReserved(inventory.getQuantityReserved() - quantity);
-        inventory.setQuantityAvailable(quantityAfter);
+        inventory.setQuantityAvailable(inventory.getQuantityAvailable() + quantity);
         inventory.setAlertLowStock(quantityAfter <= inventory.getStockMin());
         inventoryRepository.save(inventory);
+        eventPublisher.publishEvent(StockChangedEvent.of(inventory, affectedQuantity));
 
         InventoryMovement inventoryMovement = InventoryMovement.builder()
                 .inventory(inventory)
@@ -267,28 +331,110 @@ public class InventoryServiceImpl implements InventoryService {
                 .description(MovementType.RELEASE_RESERVE.getDescription())
                 .build();
 
-        inventoryMovementRepository.save(inventoryMovement);
+        movementJournal.append(inventoryMovement);
+    }
+
+    /**
+     * Releases the reservations of many books in one transaction: the rows and slots are locked in
+     * book id order, the rows with a single query, and the updates and movements are written as
+     * JDBC batches.
+     */
+    @Transactional
+    @Override
+    public void releaseReservationBatch(Map<Long, Integer> quantitiesByBookId) {
+
+        if (quantitiesByBookId.isEmpty()) {
+            return;
+        }
+        Map<Long, Integer> requested = new TreeMap<>(quantitiesByBookId);
+        availabilityCache.invalidateAfterCompletion(requested.keySet());
+
+        List<InventoryMovement> inventoryMovements = new ArrayList<>(requested.size());
+        changeInBookIdOrder(requested,
+                (bookId, quantity) -> changeSlots(bookId, quantity, -quantity)
+                        && inventoryMovements.add(slotMovement(findStockByBookIdOrThrow(bookId),
+                                quantity, MovementType.RELEASE_RESERVE)),
+                rows -> releaseRows(rows, inventoryMovements));
+        movementJournal.appendAll(inventoryMovements);
+    }
+
+    private void releaseRows(Map<Long, Integer> requested, List<InventoryMovement> inventoryMovements) {
+
+        Map<Long, Inventory> inventoriesByBookId = inventoryRepository
+                .findAllByBookIdInOrderByBookId(requested.keySet()).stream()
+                .collect(Collectors.toMap(inventory -> inventory.getBook().getId(), Function.identity()));
+
+        requested.forEach((bookId, quantity) -> {
+            Inventory inventory = inventoriesByBookId.get(bookId);
+            if (inventory == null) {
+                throw new ResourceNotFoundException("Book","Id",bookId);
+            }
+            if (inventory.getQuantityReserved() < quantity) {
+                throw new InsufficientReservedStockException("Not enough reserved stock to release for book id: " + bookId);
+            }
+        });
+
+        requested.forEach((bookId, quantity) -> {
+            Inventory inventory = inventoriesByBookId.get(bookId);
+
+            int quantityBefore = inventory.getTotalAvailable();
+            int quantityAfter = quantityBefore + quantity;
+
+            inventory.setQuantityReserved(inventory.getQuantityReserved() - quantity);
+            inventory.setQuantityAvailable(inventory.getQuantityAvailable() + quantity);
+            inventory.setAlertLowStock(quantityAfter <= inventory.getStockMin());
+
+            inventoryMovements.add(InventoryMovement.builder()
+                    .inventory(inventory)
+                    .affectedQuantity(quantity)
+                    .quantityBefore(quantityBefore)
+                    .quantityAfter(quantityAfter)
+                    .movementType(MovementType.RELEASE_RESERVE)
+                    .description(MovementType.RELEASE_RESERVE.getDescription())
+                    .build());
+        });
+
+        inventoryRepository.saveAll(inventoriesByBookId.values());
+        requested.forEach((bookId, quantity) -> eventPublisher.publishEvent(
+                StockChangedEvent.of(inventoriesByBookId.get(bookId), quantity)));
     }
 
     @Transactional
     @Override
     public void reserveStock(Long bookId, Integer quantity) {
-        Inventory inventory = findByBookIdOrThrow(bookId);
-        if (inventory.getQuantityAvailable() < quantity) {
-            throw new InsufficientStockException("Insufficient stock");
+
+        availabilityCache.invalidateAfterCompletion(bookId);
+        if (changeSlots(bookId, -quantity, quantity)) {
+            movementJournal.append(slotMovement(findActiveStockByBookIdOrThrow(bookId), -quantity, MovementType.RESERVE));
+            return;
+        }
+        if (inventoryRepository.reserveStock(bookId, quantity) == 0) {
+            InventoryStockDTO stock = findActiveStockByBookIdOrThrow(bookId);
+            if (stock.quantityAvailable() < quantity || stockSlots.refresh(bookId).isEmpty()) {
+                throw new InsufficientStockException("Insufficient stock");
+            }
+            // sharded since this instance last looked
+            if (changeSlots(bookId, -quantity, quantity)) {
+                movementJournal.append(slotMovement(findStockByBookIdOrThrow(bookId), -quantity, MovementType.RESERVE));
+                return;
+            }
+            if (inventoryRepository.reserveStock(bookId, quantity) == 0) {
+                throw new InsufficientStockException("Insufficient stock");
+            }
         }
 
-        int quantityBefore = inventory.getQuantityAvailable();
-        int quantityAfter = inventory.getQuantityAvailable() - quantity;
+        // The update still locks the row; the stock slots are not locked and would let concurrent
+        // changes into the figures, so the movement is built from the row and the delta alone.
+        InventoryStockDTO stock = findRowStockByBookIdOrThrow(bookId);
+
+        int quantityAfter = stock.quantityAvailable();
+        int quantityBefore = quantityAfter + quantity;
         int affectedQuantity = quantityAfter - quantityBefore;
 
-        inventory.setQuantityAvailable(quantityBefore);
-        inventory.setQuantityReserved(inventory.getQuantityReserved() + quantity);
-        inventory.setAlertLowStock(quantityAfter <= inventory.getStockMin());
-        inventoryRepository.save(inventory);
+        eventPublisher.publishEvent(StockChangedEvent.of(stock, affectedQuantity));
 
         InventoryMovement inventoryMovement = InventoryMovement.builder()
-                .inventory(inventory)
+                .inventory(inventoryRepository.getReferenceById(stock.id()))
                 .affectedQuantity(affectedQuantity)
                 .quantityBefore(quantityBefore)
                 .quantityAfter(quantityAfter)
@@ -296,7 +442,258 @@ public class InventoryServiceImpl implements InventoryService {
                 .description(MovementType.RESERVE.getDescription())
                 .build();
 
-        inventoryMovementRepository.save(inventoryMovement);
+        movementJournal.append(inventoryMovement);
+    }
+
+    @Transactional
+    @Override
+    public void reserveStockBatch(Map<Long, Integer> quantitiesByBookId) {
+
+        if (quantitiesByBookId.isEmpty()) {
+            return;
+        }
+        Map<Long, Integer> requested = new TreeMap<>(quantitiesByBookId);
+        availabilityCache.invalidateAfterCompletion(requested.keySet());
+
+        List<InventoryMovement> inventoryMovements = new ArrayList<>(requested.size());
+        changeInBookIdOrder(requested,
+                (bookId, quantity) -> changeSlots(bookId, -quantity, quantity)
+                        && inventoryMovements.add(slotMovement(findActiveStockByBookIdOrThrow(bookId),
+                                -quantity, MovementType.RESERVE)),
+                rows -> reserveRows(rows, inventoryMovements));
+        movementJournal.appendAll(inventoryMovements);
+    }
+
+    private void reserveRows(Map<Long, Integer> requested, List<InventoryMovement> inventoryMovements) {
+
+        Map<Long, Inventory> inventoriesByBookId = inventoryRepository
+                .findAllByBookIdInOrderByBookId(requested.keySet()).stream()
+                .collect(Collectors.toMap(inventory -> inventory.getBook().getId(), Function.identity()));
+
+        requested.forEach((bookId, quantity) -> {
+            Inventory inventory = inventoriesByBookId.get(bookId);
+            if (inventory == null) {
+                throw new ResourceNotFoundException("Book","Id",bookId);
+            }
+            if (!inventory.getActiveStatus()) {
+                throw new InsufficientStockException("Inventory is disabled for book id: " + bookId);
+            }
+            if (inventory.getQuantityAvailable() < quantity) {
+                throw new InsufficientStockException("Insufficient stock for book id: " + bookId);
+            }
+        });
+
+        requested.forEach((bookId, quantity) -> {
+            Inventory inventory = inventoriesByBookId.get(bookId);
+
+            int quantityBefore = inventory.getTotalAvailable();
+            int quantityAfter = quantityBefore - quantity;
+            int affectedQuantity = quantityAfter - quantityBefore;
+
+            inventory.setQuantityAvailable(inventory.getQuantityAvailable() - quantity);
+            inventory.setQuantityReserved(inventory.getQuantityReserved() + quantity);
+            inventory.setAlertLowStock(quantityAfter <= inventory.getStockMin());
+
+            inventoryMovements.add(InventoryMovement.builder()
+                    .inventory(inventory)
+                    .affectedQuantity(affectedQuantity)
+                    .quantityBefore(quantityBefore)
+                    .quantityAfter(quantityAfter)
+                    .movementType(MovementType.RESERVE)
+                    .description(MovementType.RESERVE.getDescription())
+                    .build());
+        });
+
+        inventoryRepository.saveAll(inventoriesByBookId.values());
+        requested.forEach((bookId, quantity) -> eventPublisher.publishEvent(
+                StockChangedEvent.of(inventoriesByBookId.get(bookId), -quantity)));
+    }
+
+    /**
+     * Completes a reservation: the reserved units leave the inventory and the available quantity
+     * stays as it is, since the reservation already took them out of it. The EXIT movement
+     * records the units sold with the available quantity unchanged before and after.
+     */
+    @Transactional
+    @Override
+    public void consumeReservation(Long bookId, Integer quantity) {
+
+        availabilityCache.invalidateAfterCompletion(bookId);
+        if (changeSlots(bookId, 0, -quantity)) {
+            movementJournal.append(exitMovement(findStockByBookIdOrThrow(bookId), quantity));
+            return;
+        }
+        if (inventoryRepository.consumeReservation(bookId, quantity) == 0) {
+            InventoryStockDTO stock = findStockByBookIdOrThrow(bookId);
+            if (stock.quantityReserved() < quantity || stockSlots.refresh(bookId).isEmpty()) {
+                throw new InsufficientReservedStockException("Not enough reserved stock to complete the sale");
+            }
+            // sharded since this instance last looked
+            if (changeSlots(bookId, 0, -quantity)) {
+                movementJournal.append(exitMovement(findStockByBookIdOrThrow(bookId), quantity));
+                return;
+            }
+            if (inventoryRepository.consumeReservation(bookId, quantity) == 0) {
+                throw new InsufficientReservedStockException("Not enough reserved stock to complete the sale");
+            }
+        }
+        // read from the row the update locked, like reserveStock
+        movementJournal.append(exitMovement(findRowStockByBookIdOrThrow(bookId), quantity));
+    }
+
+    /**
+     * Registers the entries of many books in one transaction: the rows are locked in book id order
+     * with a single query and the updates and movements are written as JDBC batches.
+     */
+    @Transactional
+    @Override
+    public void registerEntryBatch(Map<Long, Integer> quantitiesByBookId) {
+
+        if (quantitiesByBookId.isEmpty()) {
+            return;
+        }
+        Map<Long, Integer> requested = new TreeMap<>(quantitiesByBookId);
+        availabilityCache.invalidateAfterCompletion(requested.keySet());
+
+        Map<Long, Integer> slottedByBookId = new HashMap<>();
+        requested.forEach((bookId, quantity) -> stockSlots.layout(bookId).ifPresent(layout ->
+                slottedByBookId.put(bookId, stockSlots.distribute(layout, quantity))));
+
+        Map<Long, Inventory> inventoriesByBookId = inventoryRepository
+                .findAllByBookIdInOrderByBookId(requested.keySet()).stream()
+                .collect(Collectors.toMap(inventory -> inventory.getBook().getId(), Function.identity()));
+
+        requested.keySet().forEach(bookId -> {
+            if (!inventoriesByBookId.containsKey(bookId)) {
+                throw new ResourceNotFoundException("Book","Id",bookId);
+            }
+        });
+
+        List<InventoryMovement> inventoryMovements = new ArrayList<>(requested.size());
+        requested.forEach((bookId, quantity) -> {
+            Inventory inventory = inventoriesByBookId.get(bookId);
+            int slotted = slottedByBookId.getOrDefault(bookId, 0);
+
+            int quantityBefore = inventory.getTotalAvailable() - slotted;
+            int quantityAfter = quantityBefore + quantity;
+
+            inventory.setQuantityAvailable(inventory.getQuantityAvailable() + quantity - slotted);
+            inventory.setAlertLowStock(quantityAfter <= inventory.getStockMin());
+
+            inventoryMovements.add(InventoryMovement.builder()
+                    .inventory(inventory)
+                    .affectedQuantity(quantity)
+                    .quantityBefore(quantityBefore)
+                    .quantityAfter(quantityAfter)
+                    .movementType(MovementType.ENTRY)
+                    .description(MovementType.ENTRY.getDescription())
+                    .build());
+        });
+
+        inventoryRepository.saveAll(inventoriesByBookId.values());
+        requested.forEach((bookId, quantity) -> eventPublisher.publishEvent(
+                StockChangedEvent.of(inventoriesByBookId.get(bookId), quantity)));
+        movementJournal.appendAll(inventoryMovements);
+    }
+
+    private InventoryStockDTO findStockByBookIdOrThrow(Long bookId) {
+        return inventoryRepository.findStockByBookId(bookId)
+                .orElseThrow(() -> new ResourceNotFoundException("Book","Id",bookId));
+    }
+
+    private InventoryStockDTO findRowStockByBookIdOrThrow(Long bookId) {
+        return inventoryRepository.findRowStockByBookId(bookId)
+                .orElseThrow(() -> new ResourceNotFoundException("Book","Id",bookId));
+    }
+
+    private InventoryStockDTO findActiveStockByBookIdOrThrow(Long bookId) {
+        InventoryStockDTO stock = findStockByBookIdOrThrow(bookId);
+        if (!stock.activeStatus()) {
+            throw new InsufficientStockException("Inventory is disabled");
+        }
+        return stock;
+    }
+
+    private InventorySummaryDTO findSummaryByBookIdOrThrow(Long bookId) {
+        return inventoryRepository.findReadOnlyByBookId(bookId)
+                .map(inventoryMapper::toInventorySummaryDTO)
+                .orElseThrow(() -> new ResourceNotFoundException("Book","Id",bookId));
+    }
+
+    /**
+     * Applies a change to the stock slots of a sharded book. When the slots cannot take it they are
+     * moved onto the inventory row, which the caller then changes instead.
+     *
+     * @return true when the slots took the change
+     */
+    private boolean changeSlots(Long bookId, int availableDelta, int reservedDelta) {
+        Optional<StockSlotLayoutDTO> layout = stockSlots.layout(bookId);
+        if (layout.isEmpty()) {
+            return false;
+        }
+        if (stockSlots.apply(layout.get(), availableDelta, reservedDelta)) {
+            return true;
+        }
+        stockSlots.collapse(layout.get());
+        return false;
+    }
+
+    /**
+     * Walks the books of a batch in id order so that slot and row locks are taken in that one
+     * order: the run of unsharded books before a sharded one is locked and changed by
+     * {@code rowChange} with a single query before {@code slotChange} locks the sharded book's
+     * slots. A sharded book whose slots cannot take the change joins the next run.
+     */
+    private void changeInBookIdOrder(Map<Long, Integer> requested, BiPredicate<Long, Integer> slotChange,
+                                     Consumer<Map<Long, Integer>> rowChange) {
+        Map<Long, Integer> rows = new TreeMap<>();
+        requested.forEach((bookId, quantity) -> {
+            if (stockSlots.layout(bookId).isPresent()) {
+                if (!rows.isEmpty()) {
+                    rowChange.accept(new TreeMap<>(rows));
+                    rows.clear();
+                }
+                if (slotChange.test(bookId, quantity)) {
+                    return;
+                }
+            }
+            rows.put(bookId, quantity);
+        });
+        if (!rows.isEmpty()) {
+            rowChange.accept(rows);
+        }
+    }
+
+    private int distributeToSlots(Long bookId, int quantity) {
+        return stockSlots.layout(bookId).map(layout -> stockSlots.distribute(layout, quantity)).orElse(0);
+    }
+
+    /**
+     * Publishes a change the stock slots took and builds its movement from the book's whole stock
+     * as {@code stock} read it afterwards.
+     */
+    private InventoryMovement slotMovement(InventoryStockDTO stock, int availableDelta, MovementType movementType) {
+        eventPublisher.publishEvent(StockChangedEvent.of(stock, availableDelta));
+        return InventoryMovement.builder()
+                .inventory(inventoryRepository.getReferenceById(stock.id()))
+                .affectedQuantity(availableDelta)
+                .quantityBefore(stock.quantityAvailable() - availableDelta)
+                .quantityAfter(stock.quantityAvailable())
+                .movementType(movementType)
+                .description(movementType.getDescription())
+                .build();
+    }
+
+    private InventoryMovement exitMovement(InventoryStockDTO stock, int quantity) {
+        eventPublisher.publishEvent(StockChangedEvent.of(stock, 0));
+        return InventoryMovement.builder()
+                .inventory(inventoryRepository.getReferenceById(stock.id()))
+                .affectedQuantity(-quantity)
+                .quantityBefore(stock.quantityAvailable())
+                .quantityAfter(stock.quantityAvailable())
+                .movementType(MovementType.EXIT)
+                .description(MovementType.EXIT.getDescription())
+                .build();
     }
 
     @Transactional
@@ -304,25 +701,27 @@ public class InventoryServiceImpl implements InventoryService {
     public InventoryResponseDTO updateThresholds(Long bookId, Integer stockMin, Integer stockMax) {
 
         Inventory inventory = findByBookIdOrThrow(bookId);
+        availabilityCache.invalidateAfterCompletion(bookId);
 
         if (stockMin >= stockMax){
             throw new InvalidStockThresholdException ("Minimum stock cannot be greater than or equal to the maximum stock");
         }
         inventory.setStockMin(stockMin);
         inventory.setStockMax(stockMax);
-        inventory.setAlertLowStock(inventory.getQuantityAvailable() <= inventory.getStockMin());
+        inventory.setAlertLowStock(inventory.getTotalAvailable() <= inventory.getStockMin());
         inventoryRepository.save(inventory);
+        eventPublisher.publishEvent(StockChangedEvent.of(inventory, 0));
 
         InventoryMovement inventoryMovement = InventoryMovement.builder()
                 .inventory(inventory)
                 .affectedQuantity(0)
-                .quantityBefore(inventory.getQuantityAvailable())
-                .quantityAfter(inventory.getQuantityAvailable())
+                .quantityBefore(inventory.getTotalAvailable())
+                .quantityAfter(inventory.getTotalAvailable())
                 .movementType(MovementType.UPDATE_THRESHOLD)
                 .description(MovementType.UPDATE_THRESHOLD.getDescription())
                 .build();
 
-        inventoryMovementRepository.save(inventoryMovement);
+        movementJournal.append(inventoryMovement);
 
         return inventoryMapper.toInventoryResponseDTO(inventory);
     }
@@ -334,18 +733,20 @@ public class InventoryServiceImpl implements InventoryService {
                 .orElseThrow(()-> new ResourceNotFoundException("Inventory","Id", inventoryId));
 
         inventory.setActiveStatus(false);
+        availabilityCache.invalidateAfterCompletion(inventory.getBook().getId());
 
         inventoryRepository.save(inventory);
+        eventPublisher.publishEvent(StockChangedEvent.of(inventory, 0));
 
         InventoryMovement inventoryMovement = InventoryMovement.builder()
                 .inventory(inventory)
                 .affectedQuantity(0)
-                .quantityBefore(inventory.getQuantityAvailable())
-                .quantityAfter(inventory.getQuantityAvailable())
+                .quantityBefore(inventory.getTotalAvailable())
+                .quantityAfter(inventory.getTotalAvailable())
                 .movementType(MovementType.DISABLE)
                 .description(MovementType.DISABLE.getDescription())
                 .build();
 
-        inventoryMovementRepository.save(inventoryMovement);
+        movementJournal.append(inventoryMovement);
     }
 }
@@ -0,0 +1,40 @@
+package com.bookstore.management.inventory.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position after the last movement of a keyset page, ordered by {@code (created_at, id)} descending.
+ * The total counted for the first page travels with the cursor so later pages do not count again.
+ * Clients only see it as an opaque token.
+ */
+record MovementCursor(LocalDateTime createdAt, long id, Long total) {
+
+    private static final String VERSION = "m1";
+
+    String encode() {
+        String raw = VERSION + "|" + createdAt + "|" + id + "|" + (total != null ? total : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the decoded cursor, or {@code null} for a blank token, which asks for the first page
+     */
+    static MovementCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|", -1);
+            if (parts.length != 4 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new MovementCursor(LocalDateTime.parse(parts[1]), Long.parseLong(parts[2]),
+                    parts[3].isEmpty() ? null : Long.valueOf(parts[3]));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
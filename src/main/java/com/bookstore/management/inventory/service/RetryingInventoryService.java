@@ -0,0 +1,127 @@
+package com.bookstore.management.inventory.service;
+
+import com.bookstore.management.inventory.dto.*;
+import com.bookstore.management.inventory.locking.InventoryLocking;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inventory service of the {@code database} stock mode. Each change of a single book runs in its
+ * own {@link InventoryServiceImpl} transaction and, for books in the optimistic locking mode, is
+ * run again by {@link InventoryLocking} when another transaction changed the row first. Batch
+ * operations keep locking their rows in book id order.
+ */
+@Primary
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "inventory.stock.mode", havingValue = "database", matchIfMissing = true)
+public class RetryingInventoryService implements InventoryService {
+
+    private final InventoryServiceImpl inventoryServiceImpl;
+    private final InventoryLocking inventoryLocking;
+
+    @Override
+    public List<InventorySummaryDTO> findAll() {
+        return inventoryServiceImpl.findAll();
+    }
+
+    @Override
+    public InventoryResponseDTO findByBookId(Long bookId) {
+        return inventoryServiceImpl.findByBookId(bookId);
+    }
+
+    @Override
+    public List<InventorySummaryDTO> findByActiveStatusList(Boolean activeStatus) {
+        return inventoryServiceImpl.findByActiveStatusList(activeStatus);
+    }
+
+    @Override
+    public List<InventorySummaryDTO> findByAlertLowStockList() {
+        return inventoryServiceImpl.findByAlertLowStockList();
+    }
+
+    @Override
+    public List<InventorySummaryDTO> findByAlertLowStockPage(int page, int size) {
+        return inventoryServiceImpl.findByAlertLowStockPage(page, size);
+    }
+
+    @Override
+    public List<InventorySummaryDTO> findMostCriticalLowStock(int limit) {
+        return inventoryServiceImpl.findMostCriticalLowStock(limit);
+    }
+
+    @Override
+    public CheckAvailabilityResponseDTO checkBookAvailability(Long bookId) {
+        return inventoryServiceImpl.checkBookAvailability(bookId);
+    }
+
+    @Override
+    public InventorySummaryDTO registerSale(UpdateStockDTO updateStockDTO, Long bookId) {
+        return inventoryLocking.withRetry(bookId, () -> inventoryServiceImpl.registerSale(updateStockDTO, bookId));
+    }
+
+    @Override
+    public InventorySummaryDTO registerEntry(UpdateStockDTO updateStockDTO, Long bookId) {
+        return inventoryLocking.withRetry(bookId, () -> inventoryServiceImpl.registerEntry(updateStockDTO, bookId));
+    }
+
+    @Override
+    public InventorySummaryDTO positiveAdjustment(UpdateStockDTO updateStockDTO, Long bookId) {
+        return inventoryLocking.withRetry(bookId, () -> inventoryServiceImpl.positiveAdjustment(updateStockDTO, bookId));
+    }
+
+    @Override
+    public InventorySummaryDTO negativeAdjustment(UpdateStockDTO updateStockDTO, Long bookId) {
+        return inventoryLocking.withRetry(bookId, () -> inventoryServiceImpl.negativeAdjustment(updateStockDTO, bookId));
+    }
+
+    @Override
+    public InventorySummaryDTO create(CreateInventoryDTO createInventoryDTO) {
+        return inventoryServiceImpl.create(createInventoryDTO);
+    }
+
+    @Override
+    public void releaseReservation(Long bookId, Integer quantity) {
+        inventoryLocking.withRetry(bookId, () -> inventoryServiceImpl.releaseReservation(bookId, quantity));
+    }
+
+    @Override
+    public void releaseReservationBatch(Map<Long, Integer> quantitiesByBookId) {
+        inventoryServiceImpl.releaseReservationBatch(quantitiesByBookId);
+    }
+
+    @Override
+    public void reserveStock(Long bookId, Integer quantity) {
+        inventoryServiceImpl.reserveStock(bookId, quantity);
+    }
+
+    @Override
+    public void reserveStockBatch(Map<Long, Integer> quantitiesByBookId) {
+        inventoryServiceImpl.reserveStockBatch(quantitiesByBookId);
+    }
+
+    @Override
+    public void consumeReservation(Long bookId, Integer quantity) {
+        inventoryServiceImpl.consumeReservation(bookId, quantity);
+    }
+
+    @Override
+    public void registerEntryBatch(Map<Long, Integer> quantitiesByBookId) {
+        inventoryServiceImpl.registerEntryBatch(quantitiesByBookId);
+    }
+
+    @Override
+    public InventoryResponseDTO updateThresholds(Long bookId, Integer stockMin, Integer stockMax) {
+        return inventoryLocking.withRetry(bookId, () -> inventoryServiceImpl.updateThresholds(bookId, stockMin, stockMax));
+    }
+
+    @Override
+    public void disableById(Long inventoryId) {
+        inventoryServiceImpl.disableById(inventoryId);
+    }
+}
@@ -0,0 +1,11 @@
+package com.bookstore.management.inventory.service;
+
+import com.bookstore.management.inventory.dto.StockAsOfDTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface StockHistoryService {
+    StockAsOfDTO findStockAsOf(Long bookId, LocalDateTime at);
+    List<StockAsOfDTO> findCatalogStockAsOf(LocalDateTime at);
+}
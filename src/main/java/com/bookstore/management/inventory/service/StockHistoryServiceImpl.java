@@ -0,0 +1,106 @@
+package com.bookstore.management.inventory.service;
+
+import com.bookstore.management.inventory.checkpoint.StockDelta;
+import com.bookstore.management.inventory.checkpoint.StockDeltas;
+import com.bookstore.management.inventory.dto.InventoryStockDTO;
+import com.bookstore.management.inventory.dto.StockAsOfDTO;
+import com.bookstore.management.inventory.model.StockCheckpoint;
+import com.bookstore.management.inventory.repository.InventoryRepository;
+import com.bookstore.management.inventory.repository.StockCheckpointRepository;
+import com.bookstore.management.shared.exception.custom.ResourceNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Answers "what was the stock at {@code at}" from the nearest checkpoint: the latest one not
+ * after {@code at} plus the movements since, or, before the first checkpoint run, the earliest
+ * one after {@code at} minus the movements in between. Checkpoint runs are at most one interval
+ * apart, so either way only a bounded slice of the ledger is read.
+ */
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+@Service
+public class StockHistoryServiceImpl implements StockHistoryService {
+
+    private final StockCheckpointRepository checkpointRepository;
+    private final InventoryRepository inventoryRepository;
+    private final StockDeltas stockDeltas;
+
+    @Override
+    public StockAsOfDTO findStockAsOf(Long bookId, LocalDateTime at) {
+        InventoryStockDTO inventory = inventoryRepository.findStockByBookId(bookId)
+                .orElseThrow(() -> new ResourceNotFoundException("Inventory", "BookId", bookId));
+        Long inventoryId = inventory.id();
+
+        Optional<StockCheckpoint> before = checkpointRepository
+                .findFirstByInventoryIdAndTakenAtLessThanEqualOrderByTakenAtDesc(inventoryId, at);
+        StockDelta stock;
+        if (before.isPresent()) {
+            stock = stockOf(before.get()).plus(delta(before.get().getTakenAt(), at, inventoryId));
+        } else {
+            // No checkpoint of its own yet: either it had no movements before the last run, or no run covers it.
+            Optional<LocalDateTime> lastRun = checkpointRepository.findLatestTakenAtNotAfter(at);
+            Optional<StockCheckpoint> after = lastRun.isPresent() ? Optional.empty() : checkpointRepository
+                    .findFirstByInventoryIdAndTakenAtGreaterThanOrderByTakenAtAsc(inventoryId, at);
+            if (after.isPresent()) {
+                stock = stockOf(after.get()).minus(delta(at, after.get().getTakenAt(), inventoryId));
+            } else {
+                stock = delta(lastRun.orElse(null), at, inventoryId);
+            }
+        }
+        return toStockAsOf(inventoryId, bookId, at, stock);
+    }
+
+    @Override
+    public List<StockAsOfDTO> findCatalogStockAsOf(LocalDateTime at) {
+        Map<Long, StockDelta> stocks = new HashMap<>();
+        Optional<LocalDateTime> lastRun = checkpointRepository.findLatestTakenAtNotAfter(at);
+        if (lastRun.isPresent()) {
+            checkpointRepository.findLatestNotAfter(at)
+                    .forEach(checkpoint -> stocks.put(checkpoint.getInventoryId(), stockOf(checkpoint)));
+            stockDeltas.between(lastRun.get(), at, null).forEach((inventoryId, delta) ->
+                    stocks.merge(inventoryId, delta, StockDelta::plus));
+        } else {
+            Optional<LocalDateTime> firstRun = checkpointRepository.findEarliestTakenAtAfter(at);
+            if (firstRun.isPresent()) {
+                checkpointRepository.findAllByTakenAt(firstRun.get())
+                        .forEach(checkpoint -> stocks.put(checkpoint.getInventoryId(), stockOf(checkpoint)));
+                stockDeltas.between(at, firstRun.get(), null).forEach((inventoryId, delta) ->
+                        stocks.merge(inventoryId, StockDelta.NONE.minus(delta), StockDelta::plus));
+            } else {
+                stocks.putAll(stockDeltas.between(null, at, null));
+            }
+        }
+
+        Map<Long, Long> bookIdsByInventoryId = new HashMap<>();
+        inventoryRepository.findAllBooks()
+                .forEach(book -> bookIdsByInventoryId.put(book.inventoryId(), book.bookId()));
+        return stocks.entrySet().stream()
+                .filter(entry -> !StockDelta.NONE.equals(entry.getValue()))
+                .filter(entry -> bookIdsByInventoryId.containsKey(entry.getKey()))
+                .map(entry -> toStockAsOf(entry.getKey(), bookIdsByInventoryId.get(entry.getKey()), at, entry.getValue()))
+                .sorted(Comparator.comparing(StockAsOfDTO::bookId))
+                .toList();
+    }
+
+    private StockDelta delta(LocalDateTime from, LocalDateTime to, Long inventoryId) {
+        return stockDeltas.between(from, to, inventoryId).getOrDefault(inventoryId, StockDelta.NONE);
+    }
+
+    private static StockDelta stockOf(StockCheckpoint checkpoint) {
+        return new StockDelta(checkpoint.getQuantityAvailable(), checkpoint.getQuantityReserved());
+    }
+
+    private static StockAsOfDTO toStockAsOf(Long inventoryId, Long bookId, LocalDateTime at, StockDelta stock) {
+        return new StockAsOfDTO(inventoryId, bookId, at, Math.toIntExact(stock.available()),
+                Math.toIntExact(stock.reserved()));
+    }
+}
@@ -0,0 +1,12 @@
+package com.bookstore.management.inventory.slot;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param maxSlots largest number of slots a book can be split across
+ */
+@ConfigurationProperties(prefix = "inventory.stock-slots")
+public record StockSlotProperties(
+        @DefaultValue("64") int maxSlots
+) {}
@@ -0,0 +1,252 @@
+package com.bookstore.management.inventory.slot;
+
+import com.bookstore.management.inventory.dto.InventoryStockDTO;
+import com.bookstore.management.inventory.dto.StockSlotLayoutDTO;
+import com.bookstore.management.inventory.dto.StockSlotsDTO;
+import com.bookstore.management.inventory.model.Inventory;
+import com.bookstore.management.inventory.model.InventoryStockSlot;
+import com.bookstore.management.inventory.repository.InventoryRepository;
+import com.bookstore.management.inventory.repository.InventoryStockSlotRepository;
+import com.bookstore.management.shared.exception.custom.InvalidStockSlotsException;
+import com.bookstore.management.shared.exception.custom.ResourceNotFoundException;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sharded stock of hot titles: the available stock of a sharded book is split across
+ * {@code inventory_stock_slot} rows, so concurrent reservations of the book update different rows
+ * instead of queueing on its inventory row.
+ * <p>
+ * A change starts at the slot picked by the calling thread and moves on to the neighbouring slots
+ * when one cannot take it; when no single slot can, the slots are locked together and the change
+ * is spread over them. The inventory row keeps what is not in a slot, so the stock of a book is
+ * always its row plus its slots. Slots are locked before the inventory row everywhere.
+ * <p>
+ * Sharding and unsharding move the quantities between the row and the slots in one transaction.
+ * The sharded books are cached here and updated after commit; callers with a stale view fall back
+ * to the row and {@link #refresh(Long)}.
+ */
+@Slf4j
+@Component
+public class StockSlots {
+
+    private final InventoryRepository inventoryRepository;
+    private final InventoryStockSlotRepository slotRepository;
+    private final StockSlotProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean hotLedger;
+    private final Map<Long, StockSlotLayoutDTO> layoutsByBookId = new ConcurrentHashMap<>();
+
+    public StockSlots(InventoryRepository inventoryRepository,
+                      InventoryStockSlotRepository slotRepository,
+                      StockSlotProperties properties,
+                      TransactionTemplate transactionTemplate,
+                      @Value("${inventory.stock.mode:database}") String stockMode) {
+        this.inventoryRepository = inventoryRepository;
+        this.slotRepository = slotRepository;
+        this.properties = properties;
+        this.transactionTemplate = transactionTemplate;
+        this.hotLedger = "hot-ledger".equals(stockMode);
+    }
+
+    @PostConstruct
+    public void load() {
+        List<StockSlotLayoutDTO> layouts = transactionTemplate.execute(status -> inventoryRepository.findSlotLayouts());
+        layoutsByBookId.clear();
+        if (layouts != null) {
+            layouts.forEach(layout -> layoutsByBookId.put(layout.bookId(), layout));
+        }
+        log.info("Loaded the stock slots of {} sharded books", layoutsByBookId.size());
+    }
+
+    public Optional<StockSlotLayoutDTO> layout(Long bookId) {
+        return Optional.ofNullable(layoutsByBookId.get(bookId));
+    }
+
+    /**
+     * Reads whether the book is sharded from the database, for callers that suspect the cached
+     * view is stale.
+     */
+    public Optional<StockSlotLayoutDTO> refresh(Long bookId) {
+        Optional<StockSlotLayoutDTO> layout = inventoryRepository.findSlotLayoutByBookId(bookId);
+        layout.ifPresentOrElse(found -> layoutsByBookId.put(bookId, found), () -> layoutsByBookId.remove(bookId));
+        return layout;
+    }
+
+    /**
+     * Applies a change of the available and reserved quantities to the slots of a book, taking the
+     * decreased quantity from one slot or, failing that, from several. One of the deltas must be
+     * negative, added stock goes through {@link #distribute}.
+     *
+     * @return false when the slots together do not hold the decreased quantity
+     */
+    public boolean apply(StockSlotLayoutDTO layout, int availableDelta, int reservedDelta) {
+        int slots = layout.slots();
+        int first = (int) Math.floorMod(Thread.currentThread().getId(), (long) slots);
+        for (int i = 0; i < slots; i++) {
+            if (slotRepository.applyDelta(layout.inventoryId(), (first + i) % slots, availableDelta, reservedDelta) == 1) {
+                return true;
+            }
+        }
+        return spread(layout.inventoryId(), availableDelta, reservedDelta);
+    }
+
+    /**
+     * Adds available stock to the slots of a book in equal shares.
+     *
+     * @return the quantity added, less than {@code quantity} when the book was unsharded meanwhile
+     */
+    public int distribute(StockSlotLayoutDTO layout, int quantity) {
+        int slots = layout.slots();
+        int added = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            int share = quantity / slots + (slot < quantity % slots ? 1 : 0);
+            if (share > 0 && slotRepository.applyDelta(layout.inventoryId(), slot, share, 0) == 1) {
+                added += share;
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Moves everything the slots of a book hold onto its inventory row, for changes the slots
+     * cannot take alone.
+     */
+    public void collapse(StockSlotLayoutDTO layout) {
+        List<InventoryStockSlot> slots = slotRepository.findAllForUpdateByInventoryId(layout.inventoryId());
+        int available = 0;
+        int reserved = 0;
+        for (InventoryStockSlot slot : slots) {
+            available += slot.getQuantityAvailable();
+            reserved += slot.getQuantityReserved();
+            slot.setQuantityAvailable(0);
+            slot.setQuantityReserved(0);
+        }
+        if (available > 0 || reserved > 0) {
+            inventoryRepository.addToRow(layout.inventoryId(), available, reserved);
+        }
+    }
+
+    /**
+     * Splits the available stock of a book across {@code slots} slots, reserved stock stays on the
+     * row. A sharded book is first unsharded, so this also changes the number of slots.
+     */
+    @Transactional
+    public StockSlotsDTO shard(Long bookId, int slots) {
+        if (hotLedger) {
+            throw new InvalidStockSlotsException("Stock slots are not available in the hot-ledger stock mode");
+        }
+        if (slots < 1 || slots > properties.maxSlots()) {
+            throw new InvalidStockSlotsException("The number of slots must be between 1 and " + properties.maxSlots());
+        }
+        Inventory inventory = unshardLocked(bookId);
+
+        int available = inventory.getQuantityAvailable();
+        List<InventoryStockSlot> created = new ArrayList<>(slots);
+        for (int slot = 0; slot < slots; slot++) {
+            created.add(InventoryStockSlot.builder()
+                    .inventoryId(inventory.getId())
+                    .slot(slot)
+                    .quantityAvailable(available / slots + (slot < available % slots ? 1 : 0))
+                    .build());
+        }
+        slotRepository.saveAll(created);
+        inventory.setQuantityAvailable(0);
+        inventory.setStockSlots(slots);
+        inventoryRepository.save(inventory);
+
+        StockSlotLayoutDTO layout = new StockSlotLayoutDTO(inventory.getId(), bookId, slots);
+        afterCommit(() -> layoutsByBookId.put(bookId, layout));
+        log.info("Book {} sharded across {} stock slots", bookId, slots);
+        return describe(bookId);
+    }
+
+    /**
+     * Moves the stock of a sharded book back onto its inventory row and drops its slots.
+     */
+    @Transactional
+    public StockSlotsDTO unshard(Long bookId) {
+        unshardLocked(bookId);
+        afterCommit(() -> layoutsByBookId.remove(bookId));
+        return describe(bookId);
+    }
+
+    @Transactional(readOnly = true)
+    public StockSlotsDTO describe(Long bookId) {
+        InventoryStockDTO stock = inventoryRepository.findStockByBookId(bookId)
+                .orElseThrow(() -> new ResourceNotFoundException("Book", "Id", bookId));
+        List<Integer> slotsAvailable = slotRepository.findAllByInventoryIdOrderBySlot(stock.id()).stream()
+                .map(InventoryStockSlot::getQuantityAvailable)
+                .toList();
+        return new StockSlotsDTO(bookId, slotsAvailable.size(), stock.quantityAvailable(),
+                stock.quantityReserved(), slotsAvailable);
+    }
+
+    private Inventory unshardLocked(Long bookId) {
+        Optional<StockSlotLayoutDTO> layout = inventoryRepository.findSlotLayoutByBookId(bookId);
+        List<InventoryStockSlot> slots = List.of();
+        if (layout.isPresent()) {
+            slots = slotRepository.findAllForUpdateByInventoryId(layout.get().inventoryId());
+            int available = slots.stream().mapToInt(InventoryStockSlot::getQuantityAvailable).sum();
+            int reserved = slots.stream().mapToInt(InventoryStockSlot::getQuantityReserved).sum();
+            inventoryRepository.addToRow(layout.get().inventoryId(), available, reserved);
+        }
+        Inventory inventory = inventoryRepository.findByBookId(bookId)
+                .orElseThrow(() -> new ResourceNotFoundException("Book", "Id", bookId));
+        if (!slots.isEmpty()) {
+            slotRepository.deleteAllInBatch(slots);
+        }
+        inventory.setStockSlots(0);
+        return inventory;
+    }
+
+    private boolean spread(Long inventoryId, int availableDelta, int reservedDelta) {
+        List<InventoryStockSlot> slots = slotRepository.findAllForUpdateByInventoryId(inventoryId);
+        boolean fromAvailable = availableDelta < 0;
+        int remaining = fromAvailable ? -availableDelta : -reservedDelta;
+        int held = slots.stream()
+                .mapToInt(slot -> fromAvailable ? slot.getQuantityAvailable() : slot.getQuantityReserved())
+                .sum();
+        if (slots.isEmpty() || held < remaining) {
+            return false;
+        }
+        for (InventoryStockSlot slot : slots) {
+            if (remaining <= 0) {
+                break;
+            }
+            int taken = Math.min(remaining, fromAvailable ? slot.getQuantityAvailable() : slot.getQuantityReserved());
+            int availableTaken = fromAvailable ? -taken : (availableDelta == 0 ? 0 : taken);
+            int reservedTaken = fromAvailable ? (reservedDelta == 0 ? 0 : taken) : -taken;
+            slot.setQuantityAvailable(slot.getQuantityAvailable() + availableTaken);
+            slot.setQuantityReserved(slot.getQuantityReserved() + reservedTaken);
+            remaining -= taken;
+        }
+        slotRepository.saveAll(slots);
+        return true;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
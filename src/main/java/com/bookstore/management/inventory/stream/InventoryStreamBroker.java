@@ -0,0 +1,276 @@
+package com.bookstore.management.inventory.stream;
+
+import com.bookstore.management.inventory.dto.StockUpdateDTO;
+import com.bookstore.management.inventory.event.StockChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fans committed stock changes out to server-sent event subscribers.
+ * <p>
+ * Changes of the same book arriving within {@code coalesceWindow} are merged into one update
+ * carrying the latest quantities and the summed delta. Each update gets an increasing id and is
+ * kept in a bounded replay buffer, so a client reconnecting with {@code Last-Event-ID} receives
+ * what it missed; when that is no longer available it receives a {@code reset} event and should
+ * reload the inventory. Every subscriber has a bounded queue drained by the sender pool; a client
+ * that lets it fill up is disconnected rather than slowing down the others, and resumes from its
+ * last id.
+ */
+@Slf4j
+@Component
+public class InventoryStreamBroker {
+
+    static final String UPDATE_EVENT = "stock";
+    static final String RESET_EVENT = "reset";
+
+    private final InventoryStreamProperties properties;
+    private final Executor sender;
+    private final Map<Long, StockChangedEvent> pending = new ConcurrentHashMap<>();
+    private final Deque<Update> replay = new ArrayDeque<>();
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final Object publishLock = new Object();
+    private final Counter sentUpdates;
+    private final Counter slowDisconnects;
+    private long lastEventId;
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public InventoryStreamBroker(InventoryStreamProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, Executors.newFixedThreadPool(properties.senderThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "inventory-stream-sender");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    InventoryStreamBroker(InventoryStreamProperties properties, MeterRegistry meterRegistry, Executor sender) {
+        this.properties = properties;
+        this.sender = sender;
+        this.sentUpdates = Counter.builder("inventory.stream.updates")
+                .description("Coalesced stock updates published to the inventory stream")
+                .register(meterRegistry);
+        this.slowDisconnects = Counter.builder("inventory.stream.slow.disconnects")
+                .description("Stream clients disconnected because their buffer was full")
+                .register(meterRegistry);
+        Gauge.builder("inventory.stream.subscribers", subscribers, List::size)
+                .description("Clients connected to the inventory stream")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "inventory-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long coalesceWindow = properties.coalesceWindow().toMillis();
+        long heartbeatInterval = properties.heartbeatInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(() -> runSafely("flush", this::flush),
+                coalesceWindow, coalesceWindow, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(() -> runSafely("heartbeat", this::heartbeat),
+                heartbeatInterval, heartbeatInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        if (sender instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        pending.merge(event.bookId(), event, InventoryStreamBroker::coalesce);
+    }
+
+    /**
+     * @param bookIds     books to follow, every book when empty
+     * @param lastEventId id of the last update the client received, {@code null} on first connect
+     */
+    public SseEmitter subscribe(Set<Long> bookIds, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(properties.emitterTimeout().toMillis());
+        register(emitter, bookIds, lastEventId);
+        return emitter;
+    }
+
+    void register(SseEmitter emitter, Set<Long> bookIds, Long lastEventId) {
+        Subscriber subscriber = new Subscriber(emitter, Set.copyOf(bookIds));
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+
+        synchronized (publishLock) {
+            if (lastEventId != null) {
+                resume(subscriber, lastEventId);
+            }
+            subscribers.add(subscriber);
+        }
+        subscriber.schedule();
+    }
+
+    /**
+     * Publishes the changes coalesced since the previous flush.
+     */
+    void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<StockChangedEvent> events = new ArrayList<>(pending.size());
+        for (Long bookId : pending.keySet()) {
+            StockChangedEvent event = pending.remove(bookId);
+            if (event != null) {
+                events.add(event);
+            }
+        }
+        events.sort(Comparator.comparingLong(StockChangedEvent::sequence));
+
+        synchronized (publishLock) {
+            for (StockChangedEvent event : events) {
+                Update update = new Update(++lastEventId, toUpdate(event));
+                replay.addLast(update);
+                if (replay.size() > properties.replayCapacity()) {
+                    replay.removeFirst();
+                }
+                subscribers.forEach(subscriber -> subscriber.offer(update));
+            }
+        }
+        sentUpdates.increment(events.size());
+        subscribers.forEach(Subscriber::schedule);
+    }
+
+    void heartbeat() {
+        subscribers.forEach(Subscriber::offerHeartbeat);
+    }
+
+    int subscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Queues the updates the subscriber missed, or a reset when they are no longer buffered.
+     */
+    private void resume(Subscriber subscriber, long lastEventId) {
+        long oldestBuffered = replay.isEmpty() ? lastEventId + 1 : replay.peekFirst().id();
+        List<Update> missed = replay.stream()
+                .filter(update -> update.id() > lastEventId)
+                .filter(update -> subscriber.accepts(update.stock().bookId()))
+                .toList();
+
+        if (lastEventId > this.lastEventId || oldestBuffered > lastEventId + 1
+                || missed.size() > properties.subscriberBuffer()) {
+            subscriber.queue.offer(SseEmitter.event()
+                    .id(String.valueOf(this.lastEventId))
+                    .name(RESET_EVENT)
+                    .data(Map.of("lastEventId", this.lastEventId)));
+            return;
+        }
+        missed.forEach(subscriber::offer);
+    }
+
+    private static StockChangedEvent coalesce(StockChangedEvent previous, StockChangedEvent next) {
+        StockChangedEvent latest = next.sequence() > previous.sequence() ? next : previous;
+        return new StockChangedEvent(latest.sequence(), latest.inventoryId(), latest.bookId(),
+                latest.quantityAvailable(), latest.quantityReserved(), latest.stockMin(), latest.activeStatus(),
+                previous.availableDelta() + next.availableDelta());
+    }
+
+    private static StockUpdateDTO toUpdate(StockChangedEvent event) {
+        return new StockUpdateDTO(event.bookId(), event.quantityAvailable(), event.quantityReserved(),
+                event.availableDelta(), event.activeStatus(), event.lowStock());
+    }
+
+    private void runSafely(String task, Runnable runnable) {
+        try {
+            runnable.run();
+        } catch (RuntimeException e) {
+            log.error("Inventory stream {} failed", task, e);
+        }
+    }
+
+    private record Update(long id, StockUpdateDTO stock) {}
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Set<Long> bookIds;
+        private final BlockingQueue<SseEventBuilder> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter, Set<Long> bookIds) {
+            this.emitter = emitter;
+            this.bookIds = bookIds;
+            this.queue = new ArrayBlockingQueue<>(properties.subscriberBuffer() + 1);
+        }
+
+        private boolean accepts(Long bookId) {
+            return bookIds.isEmpty() || bookIds.contains(bookId);
+        }
+
+        private void offer(Update update) {
+            if (closed || !accepts(update.stock().bookId())) {
+                return;
+            }
+            SseEventBuilder event = SseEmitter.event()
+                    .id(String.valueOf(update.id()))
+                    .name(UPDATE_EVENT)
+                    .data(update.stock());
+            if (!queue.offer(event)) {
+                slowDisconnects.increment();
+                log.warn("Disconnecting inventory stream client with {} queued updates", queue.size());
+                close();
+                emitter.complete();
+            }
+        }
+
+        private void offerHeartbeat() {
+            if (!closed && queue.isEmpty() && queue.offer(SseEmitter.event().comment("heartbeat"))) {
+                schedule();
+            }
+        }
+
+        private void schedule() {
+            if (!closed && !queue.isEmpty() && draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                SseEventBuilder event;
+                while (!closed && (event = queue.poll()) != null) {
+                    emitter.send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Inventory stream client gone: {}", e.getMessage());
+                close();
+            } finally {
+                draining.set(false);
+            }
+            schedule();
+        }
+
+        private void close() {
+            closed = true;
+            queue.clear();
+            subscribers.remove(this);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.bookstore.management.inventory.stream;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param coalesceWindow    changes of one book within the window are sent as a single update
+ * @param replayCapacity    updates kept to resume a client from its {@code Last-Event-ID}
+ * @param subscriberBuffer  updates queued for one client before it is disconnected as too slow
+ * @param heartbeatInterval idle connections get a comment at this interval to keep proxies open
+ * @param emitterTimeout    connections are closed after this time and the client reconnects
+ * @param senderThreads     threads writing queued updates to the clients
+ */
+@ConfigurationProperties(prefix = "inventory.stream")
+public record InventoryStreamProperties(
+        @DefaultValue("250ms") Duration coalesceWindow,
+        @DefaultValue("10000") int replayCapacity,
+        @DefaultValue("256") int subscriberBuffer,
+        @DefaultValue("15s") Duration heartbeatInterval,
+        @DefaultValue("30m") Duration emitterTimeout,
+        @DefaultValue("4") int senderThreads
+) {}
@@ -0,0 +1,20 @@
+package com.bookstore.management.inventory.velocity;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param alpha         weight of the last closed day in the smoothed velocity
+ * @param horizonDays   an order is suggested when the stock runs out within this many days
+ * @param flushInterval time sales are buffered in memory before the velocities are updated
+ * @param chunkSize     inventories updated per transaction
+ */
+@ConfigurationProperties(prefix = "inventory.velocity")
+public record SalesVelocityProperties(
+        @DefaultValue("0.2") double alpha,
+        @DefaultValue("14") int horizonDays,
+        @DefaultValue("30s") Duration flushInterval,
+        @DefaultValue("500") int chunkSize
+) {}
@@ -0,0 +1,239 @@
+package com.bookstore.management.inventory.velocity;
+
+import com.bookstore.management.inventory.dto.ReplenishmentSuggestionDTO;
+import com.bookstore.management.inventory.event.MovementRecordedEvent;
+import com.bookstore.management.inventory.mapper.SalesVelocityMapper;
+import com.bookstore.management.inventory.model.Inventory;
+import com.bookstore.management.inventory.model.MovementType;
+import com.bookstore.management.inventory.model.SalesVelocity;
+import com.bookstore.management.inventory.repository.InventoryRepository;
+import com.bookstore.management.inventory.repository.SalesVelocityRepository;
+import com.bookstore.management.shared.exception.custom.ResourceNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Exponentially smoothed daily sales of every inventory and the replenishment projected from it.
+ * <p>
+ * The velocity is kept incrementally from the movements as they commit, the ledger is never
+ * rescanned: units sold on EXIT movements are summed in memory per inventory and day, and every
+ * {@code flush-interval} the inventories that moved are updated in {@code sales_velocity}. A row
+ * holds the velocity over its closed days and the units of its open day; when a later day is
+ * reached the open day is folded in with {@code v = alpha * units + (1 - alpha) * v}, and every
+ * day without sales decays it by {@code 1 - alpha}. Sales of a day already closed, which only
+ * happens when a flush straddles midnight, count on the open day.
+ * <p>
+ * With the velocity, each flush projects the stock-out date of the available stock and suggests
+ * ordering up to {@code stockMax} when the stock is at or below {@code stockMin} or runs out within
+ * {@code horizon-days}. A nightly job rolls the rows of books that sold recently and did not move
+ * since, in id chunks, so the projections age without waiting for a movement. Suggestions are read
+ * in stock-out order from an index, so a page costs its rows whatever the size of the catalogue.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SalesVelocityTracker {
+
+    private static final double MIN_VELOCITY = 0.001;
+    private static final int MAX_PROJECTED_DAYS = 3650;
+    /**
+     * Movements that change what a row holds: sales feed the velocity, the others the stock or
+     * thresholds it is projected from. Reservations are left out, they come with every sale and
+     * end in its EXIT or in a release; until then the nightly roll catches them up.
+     */
+    private static final Set<MovementType> PROJECTED_MOVEMENTS = EnumSet.of(
+            MovementType.EXIT, MovementType.ENTRY, MovementType.RETURN, MovementType.INITIAL_INVENTORY,
+            MovementType.POSITIVE_ADJUSTMENT, MovementType.NEGATIVE_ADJUSTMENT,
+            MovementType.UPDATE_THRESHOLD, MovementType.DISABLE);
+
+    private final SalesVelocityRepository velocityRepository;
+    private final InventoryRepository inventoryRepository;
+    private final SalesVelocityMapper velocityMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final SalesVelocityProperties properties;
+    private final Map<DailySales, Long> pendingSales = new ConcurrentHashMap<>();
+    private final Set<Long> dirtyInventoryIds = ConcurrentHashMap.newKeySet();
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMovementRecorded(MovementRecordedEvent event) {
+        if (event.movementType() == MovementType.EXIT && event.affectedQuantity() < 0) {
+            pendingSales.merge(new DailySales(event.inventoryId(), event.createdAt().toLocalDate()),
+                    (long) -event.affectedQuantity(), Long::sum);
+        }
+        if (PROJECTED_MOVEMENTS.contains(event.movementType())) {
+            dirtyInventoryIds.add(event.inventoryId());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.velocity.flush-interval:30s}",
+            initialDelayString = "${inventory.velocity.flush-interval:30s}")
+    public void flushPending() {
+        flush(LocalDate.now());
+    }
+
+    @Scheduled(cron = "${inventory.velocity.roll-cron:0 5 0 * * *}")
+    public void rollOver() {
+        roll(LocalDate.now());
+    }
+
+    /**
+     * Updates the velocity and the projection of every inventory that moved since the last flush.
+     * A chunk that fails goes back to the buffer for the next flush.
+     *
+     * @return number of inventories updated
+     */
+    public synchronized int flush(LocalDate today) {
+        Set<Long> inventoryIds = new TreeSet<>();
+        for (Iterator<Long> iterator = dirtyInventoryIds.iterator(); iterator.hasNext(); ) {
+            inventoryIds.add(iterator.next());
+            iterator.remove();
+        }
+        Map<Long, SortedMap<LocalDate, Long>> sales = new HashMap<>();
+        for (DailySales key : pendingSales.keySet()) {
+            Long units = pendingSales.remove(key);
+            if (units != null) {
+                sales.computeIfAbsent(key.inventoryId(), id -> new TreeMap<>()).put(key.day(), units);
+                inventoryIds.add(key.inventoryId());
+            }
+        }
+
+        int updated = 0;
+        List<Long> ids = new ArrayList<>(inventoryIds);
+        for (int from = 0; from < ids.size(); from += properties.chunkSize()) {
+            List<Long> chunk = ids.subList(from, Math.min(from + properties.chunkSize(), ids.size()));
+            try {
+                transactionTemplate.executeWithoutResult(status -> update(chunk, sales, today));
+                updated += chunk.size();
+            } catch (RuntimeException e) {
+                log.warn("Sales velocity of {} inventories postponed to the next flush", chunk.size(), e);
+                chunk.forEach(inventoryId -> sales.getOrDefault(inventoryId, Collections.emptySortedMap())
+                        .forEach((day, units) -> pendingSales.merge(new DailySales(inventoryId, day), units, Long::sum)));
+                dirtyInventoryIds.addAll(chunk);
+            }
+        }
+        return updated;
+    }
+
+    /**
+     * Closes the open day of the rows still selling as of {@code today} and projects them again.
+     *
+     * @return number of rows rolled
+     */
+    public synchronized int roll(LocalDate today) {
+        flush(today);
+        int rolled = 0;
+        long afterId = 0;
+        while (true) {
+            long after = afterId;
+            List<SalesVelocity> chunk = transactionTemplate.execute(status -> {
+                List<SalesVelocity> rows = velocityRepository.findStale(today, after,
+                        PageRequest.ofSize(properties.chunkSize()));
+                Map<Long, Inventory> inventories = inventoryRepository
+                        .findAllById(rows.stream().map(SalesVelocity::getInventoryId).toList()).stream()
+                        .collect(Collectors.toMap(Inventory::getId, Function.identity()));
+                for (SalesVelocity row : rows) {
+                    rollTo(row, today);
+                    Inventory inventory = inventories.get(row.getInventoryId());
+                    if (inventory != null) {
+                        project(row, inventory, today);
+                    }
+                }
+                return rows;
+            });
+            if (chunk == null || chunk.isEmpty()) {
+                break;
+            }
+            rolled += chunk.size();
+            afterId = chunk.get(chunk.size() - 1).getId();
+        }
+        log.info("Rolled the sales velocity of {} inventories to {}", rolled, today);
+        return rolled;
+    }
+
+    /**
+     * Books to reorder, the soonest to run out first.
+     */
+    @Transactional(readOnly = true)
+    public List<ReplenishmentSuggestionDTO> suggestions(int page, int size) {
+        return velocityMapper.toReplenishmentSuggestionDTOs(
+                velocityRepository.findSuggestions(PageRequest.of(page, size)));
+    }
+
+    @Transactional(readOnly = true)
+    public ReplenishmentSuggestionDTO findByBookId(Long bookId) {
+        return velocityRepository.findByBookId(bookId)
+                .map(velocityMapper::toReplenishmentSuggestionDTO)
+                .orElseThrow(() -> new ResourceNotFoundException("Sales velocity", "Book Id", bookId));
+    }
+
+    private void update(List<Long> inventoryIds, Map<Long, SortedMap<LocalDate, Long>> sales, LocalDate today) {
+        Map<Long, SalesVelocity> rows = velocityRepository.findAllByInventoryIdIn(inventoryIds).stream()
+                .collect(Collectors.toMap(SalesVelocity::getInventoryId, Function.identity()));
+        List<SalesVelocity> updated = new ArrayList<>(inventoryIds.size());
+        for (Inventory inventory : inventoryRepository.findAllById(inventoryIds)) {
+            SortedMap<LocalDate, Long> dailySales = sales.getOrDefault(inventory.getId(), Collections.emptySortedMap());
+            SalesVelocity row = rows.computeIfAbsent(inventory.getId(), inventoryId -> SalesVelocity.builder()
+                    .inventoryId(inventoryId)
+                    .day(dailySales.isEmpty() ? today : dailySales.firstKey())
+                    .build());
+            dailySales.forEach((day, units) -> {
+                if (day.isAfter(row.getDay())) {
+                    rollTo(row, day);
+                }
+                row.setDayUnits(row.getDayUnits() + units);
+            });
+            rollTo(row, today);
+            project(row, inventory, today);
+            updated.add(row);
+        }
+        velocityRepository.saveAll(updated);
+    }
+
+    private void rollTo(SalesVelocity row, LocalDate day) {
+        long days = ChronoUnit.DAYS.between(row.getDay(), day);
+        if (days <= 0) {
+            return;
+        }
+        double keep = 1 - properties.alpha();
+        double velocity = (properties.alpha() * row.getDayUnits() + keep * row.getVelocity()) * Math.pow(keep, days - 1);
+        row.setVelocity(velocity < MIN_VELOCITY ? 0.0 : velocity);
+        row.setDay(day);
+        row.setDayUnits(0L);
+    }
+
+    private void project(SalesVelocity row, Inventory inventory, LocalDate today) {
+        int available = inventory.getTotalAvailable();
+        Integer daysLeft = null;
+        if (available <= 0) {
+            daysLeft = 0;
+        } else if (row.getVelocity() > 0 && available / row.getVelocity() <= MAX_PROJECTED_DAYS) {
+            daysLeft = (int) (available / row.getVelocity());
+        }
+        boolean reorder = Boolean.TRUE.equals(inventory.getActiveStatus())
+                && (available <= inventory.getStockMin() || (daysLeft != null && daysLeft <= properties.horizonDays()));
+
+        row.setBookId(inventory.getBook().getId());
+        row.setQuantityAvailable(available);
+        row.setStockMin(inventory.getStockMin());
+        row.setStockMax(inventory.getStockMax());
+        row.setStockOutDate(daysLeft == null ? null : today.plusDays(daysLeft));
+        row.setSuggestedQuantity(reorder ? Math.max(0, inventory.getStockMax() - available) : 0);
+        row.setUpdatedAt(LocalDateTime.now());
+    }
+
+    private record DailySales(Long inventoryId, LocalDate day) {}
+}
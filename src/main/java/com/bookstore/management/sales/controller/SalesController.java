@@ -1,21 +1,36 @@
 package com.bookstore.management.sales.controller;
 
+import com.bookstore.management.sales.dto.IdempotentSaleDTO;
+import com.bookstore.management.sales.dto.SaleExportFilterDTO;
 import com.bookstore.management.sales.dto.SaleRequestDTO;
 import com.bookstore.management.sales.dto.SaleResponseDTO;
+import com.bookstore.management.sales.dto.SaleSearchDTO;
+import com.bookstore.management.sales.dto.SaleSliceDTO;
+import com.bookstore.management.sales.export.SaleExportFormat;
+import com.bookstore.management.sales.export.SaleExporter;
+import com.bookstore.management.sales.idempotency.SaleIdempotency;
+import com.bookstore.management.sales.model.PaymentMethod;
 import com.bookstore.management.sales.model.SalesStatus;
 import com.bookstore.management.sales.service.SaleService;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Locale;
 
 @Tag(name = "Sales")
 @RestController
@@ -24,10 +39,27 @@ import java.util.List;
 @Validated
 public class SalesController {
 
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+    private static final int DEFAULT_SIZE = 20;
+
     private final SaleService saleService;
+    private final SaleIdempotency saleIdempotency;
+    private final SaleExporter saleExporter;
+
+    // Keyset listing: a blank cursor asks for the first page, each page returns the cursor of the next.
     @GetMapping
-    public ResponseEntity<List<SaleResponseDTO>> getAllSales() {
-        return ResponseEntity.ok(saleService.findAll());
+    public ResponseEntity<SaleSliceDTO> getSales(
+            @RequestParam(required = false) SalesStatus status,
+            @RequestParam(required = false) @Positive Long customerId,
+            @RequestParam(required = false) PaymentMethod paymentMethod,
+            @RequestParam(required = false) @PositiveOrZero BigDecimal minTotal,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + DEFAULT_SIZE) int size) {
+        SaleSearchDTO filter = new SaleSearchDTO(status, customerId, paymentMethod, minTotal, start, end);
+        return ResponseEntity.ok(saleService.search(filter, cursor, size));
     }
     @GetMapping(value = "/{id}")
     public ResponseEntity<SaleResponseDTO> getSaleById(@PathVariable @Positive Long id) {
@@ -50,9 +82,41 @@ public class SalesController {
         return ResponseEntity.ok(saleService.findByDateRange(start, end));
     }
 
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportSales(
+            @RequestParam(required = false) SalesStatus status,
+            @RequestParam(required = false) @Positive Long customerId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
+            @RequestParam(defaultValue = "NDJSON") SaleExportFormat format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        SaleExportFilterDTO filter = new SaleExportFilterDTO(status, customerId, start, end);
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(format.mediaType());
+        headers.setContentDisposition(ContentDisposition.attachment()
+                .filename("sales." + format.extension())
+                .build());
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(output -> saleExporter.export(filter, format, gzip, output));
+    }
+
     @PostMapping
-    public ResponseEntity<SaleResponseDTO> createSale(@RequestBody @Valid SaleRequestDTO saleRequestDTO) {
-        return ResponseEntity.status(HttpStatus.CREATED).body(saleService.createSale(saleRequestDTO));
+    public ResponseEntity<SaleResponseDTO> createSale(
+            @RequestBody @Valid SaleRequestDTO saleRequestDTO,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) @Size(min = 1, max = 255) String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return ResponseEntity.status(HttpStatus.CREATED).body(saleService.createSale(saleRequestDTO));
+        }
+        IdempotentSaleDTO idempotentSale = saleIdempotency.createSale(idempotencyKey, saleRequestDTO);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header(IDEMPOTENT_REPLAYED, String.valueOf(idempotentSale.replayed()))
+                .body(idempotentSale.sale());
     }
 
     @PatchMapping("/{id}/complete")
@@ -0,0 +1,3 @@
+package com.bookstore.management.sales.dto;
+
+public record BookQuantityDTO(Long bookId, Long quantity) {}
@@ -0,0 +1,10 @@
+package com.bookstore.management.sales.dto;
+
+/**
+ * @param replayed whether the sale was created by an earlier request with the same key
+ */
+public record IdempotentSaleDTO(
+        SaleResponseDTO sale,
+        boolean replayed
+) {
+}
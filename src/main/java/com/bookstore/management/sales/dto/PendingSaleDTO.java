@@ -0,0 +1,5 @@
+package com.bookstore.management.sales.dto;
+
+import java.time.LocalDateTime;
+
+public record PendingSaleDTO(Long id, LocalDateTime expiredAt) {}
@@ -0,0 +1,21 @@
+package com.bookstore.management.sales.dto;
+
+import com.bookstore.management.sales.model.SalesStatus;
+
+import java.time.LocalDate;
+
+/**
+ * Filters of a sales export, every one optional; {@code start} and {@code end} are inclusive days.
+ */
+public record SaleExportFilterDTO(
+        SalesStatus status,
+        Long customerId,
+        LocalDate start,
+        LocalDate end
+) {
+    public SaleExportFilterDTO {
+        if (start != null && end != null && start.isAfter(end)) {
+            throw new IllegalArgumentException("Start date must be before or equal to end date");
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.bookstore.management.sales.dto;
+
+import com.bookstore.management.sales.model.PaymentMethod;
+import com.bookstore.management.sales.model.SalesStatus;
+
+import java.math.BigDecimal;
+
+/**
+ * One line of a sale flattened with its sale, customer and book, as read by the projection
+ * queries of {@link com.bookstore.management.sales.repository.SaleRepository}. The line columns
+ * are {@code null} for a sale without lines, the customer columns for a sale without customer.
+ */
+public record SaleLineDTO(
+        Long saleId,
+        Long customerId,
+        String customerName,
+        String customerLastName,
+        String customerEmail,
+        SalesStatus status,
+        PaymentMethod paymentMethod,
+        BigDecimal total,
+        String observation,
+        Long detailId,
+        Long bookId,
+        String bookIsbn,
+        String bookTitle,
+        BigDecimal bookPrice,
+        String bookAuthor,
+        Integer quantity,
+        BigDecimal unitPrice,
+        BigDecimal discountPercent,
+        BigDecimal lineTotal
+) {
+}
@@ -0,0 +1,26 @@
+package com.bookstore.management.sales.dto;
+
+import com.bookstore.management.sales.model.PaymentMethod;
+import com.bookstore.management.sales.model.SalesStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Filters of the sales listing, every one optional and combined with AND; {@code start} and
+ * {@code end} are inclusive days and {@code minTotal} is inclusive.
+ */
+public record SaleSearchDTO(
+        SalesStatus status,
+        Long customerId,
+        PaymentMethod paymentMethod,
+        BigDecimal minTotal,
+        LocalDate start,
+        LocalDate end
+) {
+    public SaleSearchDTO {
+        if (start != null && end != null && start.isAfter(end)) {
+            throw new IllegalArgumentException("Start date must be before or equal to end date");
+        }
+    }
+}
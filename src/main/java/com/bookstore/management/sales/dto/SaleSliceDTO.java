@@ -0,0 +1,9 @@
+package com.bookstore.management.sales.dto;
+
+import java.util.List;
+
+public record SaleSliceDTO(
+        List<SaleResponseDTO> content,
+        String nextCursor
+) {
+}
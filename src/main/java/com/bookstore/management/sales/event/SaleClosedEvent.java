@@ -0,0 +1,6 @@
+package com.bookstore.management.sales.event;
+
+/**
+ * Published when a pending sale is completed or cancelled.
+ */
+public record SaleClosedEvent(Long saleId) {}
@@ -0,0 +1,8 @@
+package com.bookstore.management.sales.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published when a sale is created and holds its reservation until {@code expiredAt}.
+ */
+public record SalePendingEvent(Long saleId, LocalDateTime expiredAt) {}
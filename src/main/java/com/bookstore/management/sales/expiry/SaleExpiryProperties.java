@@ -0,0 +1,22 @@
+package com.bookstore.management.sales.expiry;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param enabled       whether pending sales are cancelled from the in-process timer wheel
+ * @param tick          resolution of the timer wheel; a sale is cancelled at most one tick late
+ * @param wheelSize     number of slots in the wheel; deadlines further than a full turn wait extra rounds
+ * @param sweepInterval time between two database sweeps for pending sales the wheel did not cancel
+ * @param sweepChunk    expired sales cancelled by the sweep in one transaction
+ */
+@ConfigurationProperties(prefix = "sales.expiry")
+public record SaleExpiryProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("1s") Duration tick,
+        @DefaultValue("512") int wheelSize,
+        @DefaultValue("10m") Duration sweepInterval,
+        @DefaultValue("500") int sweepChunk
+) {}
@@ -0,0 +1,124 @@
+package com.bookstore.management.sales.expiry;
+
+import com.bookstore.management.sales.dto.PendingSaleDTO;
+import com.bookstore.management.sales.event.SaleClosedEvent;
+import com.bookstore.management.sales.event.SalePendingEvent;
+import com.bookstore.management.sales.model.SalesStatus;
+import com.bookstore.management.sales.repository.SaleRepository;
+import com.bookstore.management.sales.service.SaleService;
+import com.bookstore.management.shared.exception.custom.InsufficientReservedStockException;
+import com.bookstore.management.shared.exception.custom.InvalidSalesStatusException;
+import com.bookstore.management.shared.exception.custom.ResourceNotFoundException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cancels pending sales when their reservation expires, at most one tick late.
+ * <p>
+ * Every pending sale sits in a {@link TimingWheel} keyed by sale id: the wheel is rebuilt from the
+ * database at startup, a sale is added once the transaction creating it commits and removed once
+ * it is completed or cancelled. A single daemon thread advances the wheel every tick and cancels
+ * what expired through {@link SaleService#cancelSale}. Sales the wheel does not know of, such as
+ * those created by another instance, are left to the low-frequency {@link SaleExpirySweeper}.
+ */
+@Slf4j
+@Component
+public class SaleExpiryScheduler {
+
+    private final SaleService saleService;
+    private final SaleRepository saleRepository;
+    private final SaleExpiryProperties properties;
+    private final TimingWheel<Long> wheel;
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "sale-expiry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public SaleExpiryScheduler(SaleService saleService,
+                               SaleRepository saleRepository,
+                               SaleExpiryProperties properties) {
+        this.saleService = saleService;
+        this.saleRepository = saleRepository;
+        this.properties = properties;
+        this.wheel = new TimingWheel<>(properties.tick().toMillis(), properties.wheelSize(), System.currentTimeMillis());
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.enabled()) {
+            return;
+        }
+        List<PendingSaleDTO> pending = saleRepository.findPendingExpiries(SalesStatus.PENDING);
+        synchronized (wheel) {
+            pending.forEach(sale -> scheduleLocked(sale.id(), sale.expiredAt()));
+        }
+        log.info("Sale expiry wheel rebuilt with {} pending sales", pending.size());
+        long tick = properties.tick().toMillis();
+        ticker.scheduleWithFixedDelay(this::tick, tick, tick, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        ticker.shutdownNow();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSalePending(SalePendingEvent event) {
+        if (!properties.enabled()) {
+            return;
+        }
+        synchronized (wheel) {
+            scheduleLocked(event.saleId(), event.expiredAt());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSaleClosed(SaleClosedEvent event) {
+        synchronized (wheel) {
+            wheel.cancel(event.saleId());
+        }
+    }
+
+    public int pendingCount() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+
+    void tick() {
+        List<Long> expired;
+        synchronized (wheel) {
+            expired = wheel.advance(System.currentTimeMillis());
+        }
+        expired.forEach(this::expire);
+    }
+
+    private void expire(Long saleId) {
+        try {
+            saleService.cancelSale(saleId);
+            log.info("Cancelled expired sale with id: {}", saleId);
+        } catch (InsufficientReservedStockException | InvalidSalesStatusException | ResourceNotFoundException e) {
+            log.warn("Expired sale {} not cancelled: {}", saleId, e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("Failed to cancel expired sale {}, leaving it to the sweep", saleId, e);
+        }
+    }
+
+    private void scheduleLocked(Long saleId, LocalDateTime expiredAt) {
+        if (saleId == null || expiredAt == null) {
+            return;
+        }
+        wheel.schedule(saleId, expiredAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+}
@@ -0,0 +1,121 @@
+package com.bookstore.management.sales.expiry;
+
+import com.bookstore.management.inventory.service.InventoryService;
+import com.bookstore.management.sales.dto.BookQuantityDTO;
+import com.bookstore.management.sales.event.SaleClosedEvent;
+import com.bookstore.management.sales.model.SalesStatus;
+import com.bookstore.management.sales.repository.SaleRepository;
+import com.bookstore.management.sales.service.SaleService;
+import com.bookstore.management.shared.exception.custom.BusinessException;
+import com.bookstore.management.shared.exception.custom.InvalidSalesStatusException;
+import com.bookstore.management.shared.exception.custom.ResourceNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Cancels the pending sales whose reservation has expired, in chunks of
+ * {@code sales.expiry.sweep-chunk} sales with a handful of set-based statements each: the chunk
+ * is marked cancelled with one update, its lines are summed per book with one query and the
+ * reservations are given back with {@link InventoryService#releaseReservationBatch}, one row
+ * update and one movement per book.
+ * <p>
+ * A chunk that cannot be released as a whole, because a sale was closed concurrently, an
+ * inventory has less reserved stock than its sales hold or any other statement failed, is rolled
+ * back and cancelled sale by sale so the others still expire. Chunks are read in id order, so a
+ * sale that keeps failing is passed over until the next sweep.
+ */
+@Slf4j
+@Component
+public class SaleExpirySweeper {
+
+    private final SaleRepository saleRepository;
+    private final InventoryService inventoryService;
+    private final SaleService saleService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final SaleExpiryProperties properties;
+
+    public SaleExpirySweeper(SaleRepository saleRepository,
+                             InventoryService inventoryService,
+                             SaleService saleService,
+                             ApplicationEventPublisher eventPublisher,
+                             TransactionTemplate transactionTemplate,
+                             SaleExpiryProperties properties) {
+        this.saleRepository = saleRepository;
+        this.inventoryService = inventoryService;
+        this.saleService = saleService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+    }
+
+    @Scheduled(fixedDelayString = "${sales.expiry.sweep-interval:10m}",
+            initialDelayString = "${sales.expiry.sweep-interval:10m}")
+    public void sweepScheduled() {
+        sweep();
+    }
+
+    /**
+     * @return the number of sales cancelled
+     */
+    public int sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        int cancelled = 0;
+        Long afterId = 0L;
+        List<Long> chunk;
+        while (!(chunk = saleRepository.findIdsByStatusAndExpiredAtBefore(
+                SalesStatus.PENDING, now, afterId, Limit.of(properties.sweepChunk()))).isEmpty()) {
+            cancelled += expire(chunk, now);
+            afterId = chunk.get(chunk.size() - 1);
+        }
+        if (cancelled > 0) {
+            log.info("Expiry sweep cancelled {} expired sales", cancelled);
+        }
+        return cancelled;
+    }
+
+    private int expire(List<Long> saleIds, LocalDateTime now) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> expireChunk(saleIds, now));
+            return saleIds.size();
+        } catch (RuntimeException e) {
+            log.warn("Expiring {} sales at once failed, cancelling them one by one: {}", saleIds.size(), e.getMessage());
+            return (int) saleIds.stream().filter(this::cancelOne).count();
+        }
+    }
+
+    private void expireChunk(List<Long> saleIds, LocalDateTime now) {
+        Map<Long, Integer> quantitiesByBookId = saleRepository.sumQuantitiesByBookForSales(saleIds).stream()
+                .collect(Collectors.toMap(BookQuantityDTO::bookId, line -> Math.toIntExact(line.quantity())));
+
+        int updated = saleRepository.updateStatusByIdIn(saleIds, SalesStatus.PENDING, SalesStatus.CANCELLED, now);
+        if (updated != saleIds.size()) {
+            throw new InvalidSalesStatusException(saleIds.size() - updated + " of the sales are no longer pending");
+        }
+
+        inventoryService.releaseReservationBatch(quantitiesByBookId);
+        saleIds.forEach(saleId -> eventPublisher.publishEvent(new SaleClosedEvent(saleId)));
+    }
+
+    private boolean cancelOne(Long saleId) {
+        try {
+            saleService.cancelSale(saleId);
+            return true;
+        } catch (BusinessException | ResourceNotFoundException e) {
+            log.error("Failed to cancel expired sale with id: {}. Reason: {}", saleId, e.getMessage());
+            return false;
+        } catch (RuntimeException e) {
+            log.error("Failed to cancel expired sale with id: {}, leaving it to the next sweep", saleId, e);
+            return false;
+        }
+    }
+}
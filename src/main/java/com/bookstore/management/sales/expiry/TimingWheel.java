@@ -0,0 +1,83 @@
+package com.bookstore.management.sales.expiry;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hashed timing wheel: a deadline falls in slot {@code tick % size} and an entry more than one
+ * turn away waits in its slot until the wheel has gone round enough times. Scheduling and
+ * cancelling are O(1); advancing visits only the slots between the last tick and now.
+ * Not thread safe.
+ */
+class TimingWheel<K> {
+
+    private final long tickMillis;
+    private final List<Map<K, Long>> slots;
+    private final Map<K, Integer> slotsByKey = new HashMap<>();
+    private long nextTick;
+
+    TimingWheel(long tickMillis, int size, long nowMillis) {
+        if (tickMillis <= 0 || size <= 0) {
+            throw new IllegalArgumentException("Tick and size of a timing wheel must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.slots = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            slots.add(new LinkedHashMap<>());
+        }
+        this.nextTick = Math.floorDiv(nowMillis, tickMillis);
+    }
+
+    /**
+     * Schedules {@code key} to expire at {@code deadlineMillis}, replacing an earlier schedule.
+     * A deadline already past expires on the next advance.
+     */
+    void schedule(K key, long deadlineMillis) {
+        cancel(key);
+        long tick = Math.max(-Math.floorDiv(-deadlineMillis, tickMillis), nextTick);
+        int slot = (int) Math.floorMod(tick, slots.size());
+        slots.get(slot).put(key, tick);
+        slotsByKey.put(key, slot);
+    }
+
+    boolean cancel(K key) {
+        Integer slot = slotsByKey.remove(key);
+        return slot != null && slots.get(slot).remove(key) != null;
+    }
+
+    /**
+     * Moves the wheel to {@code nowMillis}.
+     *
+     * @return the keys whose deadline is not after now, in deadline order per slot
+     */
+    List<K> advance(long nowMillis) {
+        long nowTick = Math.floorDiv(nowMillis, tickMillis);
+        if (nowTick < nextTick) {
+            return List.of();
+        }
+        List<K> expired = new ArrayList<>();
+        long turns = Math.min(nowTick - nextTick + 1, slots.size());
+        for (long i = 0; i < turns; i++) {
+            Map<K, Long> slot = slots.get((int) Math.floorMod(nextTick + i, slots.size()));
+            Iterator<Map.Entry<K, Long>> entries = slot.entrySet().iterator();
+            while (entries.hasNext()) {
+                Map.Entry<K, Long> entry = entries.next();
+                if (entry.getValue() <= nowTick) {
+                    entries.remove();
+                    slotsByKey.remove(entry.getKey());
+                    expired.add(entry.getKey());
+                }
+            }
+        }
+        nextTick = nowTick + 1;
+        return expired;
+    }
+
+    int size() {
+        return slotsByKey.size();
+    }
+}
@@ -0,0 +1,12 @@
+package com.bookstore.management.sales.export;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param fetchSize rows the export cursor fetches per round trip
+ */
+@ConfigurationProperties(prefix = "sales.export")
+public record SaleExportProperties(
+        @DefaultValue("500") int fetchSize
+) {}
@@ -0,0 +1,283 @@
+package com.bookstore.management.sales.export;
+
+import com.bookstore.management.sales.dto.SaleExportFilterDTO;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes the sales matching a filter as NDJSON or CSV, one record per sale line with the sale,
+ * customer and book columns repeated; a sale without lines gives one record with empty line columns.
+ * <p>
+ * Rows are read from a forward-only cursor in a read-only transaction and written to the output as
+ * they arrive, through a Jackson generator or a CSV writer, so memory does not grow with the
+ * number of sales exported.
+ */
+@Slf4j
+@Component
+public class SaleExporter {
+
+    private static final List<Column> COLUMNS = List.of(
+            new Column("saleId", ColumnType.LONG),
+            new Column("createdAt", ColumnType.TIMESTAMP),
+            new Column("status", ColumnType.TEXT),
+            new Column("paymentMethod", ColumnType.TEXT),
+            new Column("customerId", ColumnType.LONG),
+            new Column("customerName", ColumnType.TEXT),
+            new Column("customerLastName", ColumnType.TEXT),
+            new Column("customerEmail", ColumnType.TEXT),
+            new Column("total", ColumnType.DECIMAL),
+            new Column("observation", ColumnType.TEXT),
+            new Column("detailId", ColumnType.LONG),
+            new Column("bookId", ColumnType.LONG),
+            new Column("isbn", ColumnType.TEXT),
+            new Column("title", ColumnType.TEXT),
+            new Column("quantity", ColumnType.LONG),
+            new Column("unitPrice", ColumnType.DECIMAL),
+            new Column("discountPercent", ColumnType.DECIMAL),
+            new Column("lineTotal", ColumnType.DECIMAL));
+    private static final String SALE_LINES = "select s.id, s.created_at, s.status, s.payment_method, " +
+            "s.customer_id, c.name, c.surname, c.email, s.total, s.observation, " +
+            "d.id, d.book_id, b.isbn, b.title, d.quantity, d.unit_price, d.discount_percent, d.line_total " +
+            "from sale s " +
+            "left join customers c on c.id = s.customer_id " +
+            "left join sales_detail d on d.sale_id = s.id " +
+            "left join books b on b.id = d.book_id " +
+            "where 1 = 1";
+    private static final String CREATION_ORDER = " order by s.created_at, s.id, d.id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    private final SaleExportProperties properties;
+
+    public SaleExporter(JdbcTemplate jdbcTemplate,
+                        PlatformTransactionManager transactionManager,
+                        ObjectMapper objectMapper,
+                        SaleExportProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+    }
+
+    /**
+     * @param gzip whether to compress the output
+     * @return the number of records written
+     */
+    public long export(SaleExportFilterDTO filter, SaleExportFormat format, boolean gzip, OutputStream output)
+            throws IOException {
+        long started = System.nanoTime();
+        OutputStream target = gzip ? new GZIPOutputStream(output, 8192) : output;
+        RecordWriter writer = format == SaleExportFormat.CSV ? new CsvWriter(target) : new NdjsonWriter(target);
+
+        List<Object> parameters = new ArrayList<>();
+        String sql = SALE_LINES + where(filter, parameters) + CREATION_ORDER;
+        long[] records = new long[1];
+        writer.start();
+        readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(properties.fetchSize());
+            for (int i = 0; i < parameters.size(); i++) {
+                statement.setObject(i + 1, parameters.get(i));
+            }
+            return statement;
+        }, rs -> {
+            writer.write(rs);
+            records[0]++;
+        }));
+        writer.finish();
+        if (gzip) {
+            ((GZIPOutputStream) target).finish();
+        }
+        target.flush();
+        log.info("Exported {} sale lines as {} in {} ms", records[0], format, (System.nanoTime() - started) / 1_000_000);
+        return records[0];
+    }
+
+    private static String where(SaleExportFilterDTO filter, List<Object> parameters) {
+        StringBuilder where = new StringBuilder();
+        if (filter.status() != null) {
+            where.append(" and s.status = ?");
+            parameters.add(filter.status().name());
+        }
+        if (filter.customerId() != null) {
+            where.append(" and s.customer_id = ?");
+            parameters.add(filter.customerId());
+        }
+        if (filter.start() != null) {
+            where.append(" and s.created_at >= ?");
+            parameters.add(Timestamp.valueOf(filter.start().atStartOfDay()));
+        }
+        if (filter.end() != null) {
+            where.append(" and s.created_at < ?");
+            parameters.add(Timestamp.valueOf(filter.end().plusDays(1).atStartOfDay()));
+        }
+        return where.toString();
+    }
+
+    private enum ColumnType { LONG, DECIMAL, TEXT, TIMESTAMP }
+
+    private record Column(String name, ColumnType type) {}
+
+    private interface RecordWriter {
+
+        void start() throws IOException;
+
+        void write(ResultSet rs) throws SQLException;
+
+        void finish() throws IOException;
+    }
+
+    /**
+     * One JSON object per line, columns without a value are written as {@code null}.
+     */
+    private final class NdjsonWriter implements RecordWriter {
+
+        private final JsonGenerator generator;
+
+        private NdjsonWriter(OutputStream output) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(output)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException {
+            try {
+                generator.writeStartObject();
+                for (int i = 0; i < COLUMNS.size(); i++) {
+                    Column column = COLUMNS.get(i);
+                    generator.writeFieldName(column.name());
+                    switch (column.type()) {
+                        case LONG -> {
+                            long value = rs.getLong(i + 1);
+                            if (rs.wasNull()) {
+                                generator.writeNull();
+                            } else {
+                                generator.writeNumber(value);
+                            }
+                        }
+                        case DECIMAL -> {
+                            BigDecimal value = rs.getBigDecimal(i + 1);
+                            if (value == null) {
+                                generator.writeNull();
+                            } else {
+                                generator.writeNumber(value);
+                            }
+                        }
+                        case TEXT, TIMESTAMP -> {
+                            String value = text(rs, i + 1, column.type());
+                            if (value == null) {
+                                generator.writeNull();
+                            } else {
+                                generator.writeString(value);
+                            }
+                        }
+                    }
+                }
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.close();
+        }
+    }
+
+    /**
+     * RFC 4180 CSV with a header of the column names; columns without a value are left empty.
+     */
+    private static final class CsvWriter implements RecordWriter {
+
+        private final Writer output;
+
+        private CsvWriter(OutputStream output) {
+            this.output = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void start() throws IOException {
+            for (int i = 0; i < COLUMNS.size(); i++) {
+                if (i > 0) {
+                    output.write(',');
+                }
+                output.write(COLUMNS.get(i).name());
+            }
+            output.write("\r\n");
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException {
+            try {
+                for (int i = 0; i < COLUMNS.size(); i++) {
+                    if (i > 0) {
+                        output.write(',');
+                    }
+                    String value = text(rs, i + 1, COLUMNS.get(i).type());
+                    if (value != null) {
+                        output.write(escape(value));
+                    }
+                }
+                output.write("\r\n");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void finish() throws IOException {
+            output.flush();
+        }
+
+        private static String escape(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+
+    private static String text(ResultSet rs, int index, ColumnType type) throws SQLException {
+        return switch (type) {
+            case TIMESTAMP -> {
+                Timestamp value = rs.getTimestamp(index);
+                yield value == null ? null : value.toLocalDateTime().toString();
+            }
+            case DECIMAL -> {
+                BigDecimal value = rs.getBigDecimal(index);
+                yield value == null ? null : value.toPlainString();
+            }
+            default -> rs.getString(index);
+        };
+    }
+}
@@ -0,0 +1,170 @@
+package com.bookstore.management.sales.idempotency;
+
+import com.bookstore.management.sales.dto.IdempotentSaleDTO;
+import com.bookstore.management.sales.dto.SaleRequestDTO;
+import com.bookstore.management.sales.dto.SaleResponseDTO;
+import com.bookstore.management.sales.model.SaleIdempotencyKey;
+import com.bookstore.management.sales.repository.SaleIdempotencyKeyRepository;
+import com.bookstore.management.sales.service.SaleService;
+import com.bookstore.management.shared.exception.custom.IdempotencyKeyReusedException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Creates a sale at most once per {@code Idempotency-Key}, so a terminal retrying
+ * {@code POST /api/sales} does not reserve the stock again.
+ * <p>
+ * Keys are looked up in a bounded in-memory cache first. Concurrent requests with the same key
+ * share one future: the first one creates the sale and the others wait for its response. The key
+ * and the response are stored in {@code sale_idempotency_key} in the transaction that creates the
+ * sale, so a key survives restarts exactly when its sale does, and an instance that loses the race
+ * for a key on the unique index rolls its sale back and answers with the stored one. A failed
+ * creation is not remembered, a retry runs it again.
+ * <p>
+ * The key is bound to a hash of the request; reusing it with a different request is refused.
+ */
+@Slf4j
+@Component
+public class SaleIdempotency {
+
+    private final SaleService saleService;
+    private final SaleIdempotencyKeyRepository keyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final SaleIdempotencyProperties properties;
+    private final AsyncCache<String, StoredSale> sales;
+
+    public SaleIdempotency(SaleService saleService,
+                           SaleIdempotencyKeyRepository keyRepository,
+                           TransactionTemplate transactionTemplate,
+                           ObjectMapper objectMapper,
+                           SaleIdempotencyProperties properties) {
+        this.saleService = saleService;
+        this.keyRepository = keyRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.sales = Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfterWrite(properties.expireAfterWrite())
+                .buildAsync();
+    }
+
+    public IdempotentSaleDTO createSale(String idempotencyKey, SaleRequestDTO saleRequestDTO) {
+        String requestHash = hash(saleRequestDTO);
+        CompletableFuture<StoredSale> own = new CompletableFuture<>();
+        CompletableFuture<StoredSale> shared = sales.get(idempotencyKey, (key, executor) -> own);
+        boolean first = shared == own;
+        if (first) {
+            try {
+                own.complete(findOrCreate(idempotencyKey, requestHash, saleRequestDTO));
+            } catch (RuntimeException e) {
+                own.completeExceptionally(e);
+            }
+        }
+
+        StoredSale stored;
+        try {
+            stored = shared.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new IdempotencyKeyReusedException(
+                    "The Idempotency-Key " + idempotencyKey + " was already used for a different sale");
+        }
+        return new IdempotentSaleDTO(stored.sale(), !(first && stored.created()));
+    }
+
+    @Scheduled(fixedDelayString = "${sales.idempotency.purge-interval:1h}",
+            initialDelayString = "${sales.idempotency.purge-interval:1h}")
+    public void purgeScheduled() {
+        purge(LocalDateTime.now().minus(properties.retention()));
+    }
+
+    /**
+     * @return the number of keys deleted
+     */
+    public int purge(LocalDateTime before) {
+        Integer deleted = transactionTemplate.execute(status -> keyRepository.deleteByCreatedAtBefore(before));
+        if (deleted != null && deleted > 0) {
+            log.info("Purged {} idempotency keys created before {}", deleted, before);
+        }
+        return deleted == null ? 0 : deleted;
+    }
+
+    private StoredSale findOrCreate(String idempotencyKey, String requestHash, SaleRequestDTO saleRequestDTO) {
+        Optional<StoredSale> stored = find(idempotencyKey);
+        if (stored.isPresent()) {
+            return stored.get();
+        }
+        try {
+            return transactionTemplate.execute(status -> {
+                SaleResponseDTO sale = saleService.createSale(saleRequestDTO);
+                keyRepository.saveAndFlush(SaleIdempotencyKey.builder()
+                        .idempotencyKey(idempotencyKey)
+                        .requestHash(requestHash)
+                        .saleId(sale.id())
+                        .response(write(sale))
+                        .build());
+                return new StoredSale(requestHash, sale, true);
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.info("Sale for Idempotency-Key {} was created by another instance", idempotencyKey);
+            return find(idempotencyKey).orElseThrow(() -> e);
+        }
+    }
+
+    private Optional<StoredSale> find(String idempotencyKey) {
+        return keyRepository.findByIdempotencyKey(idempotencyKey)
+                .map(key -> new StoredSale(key.getRequestHash(), read(key.getResponse()), false));
+    }
+
+    private String hash(SaleRequestDTO saleRequestDTO) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(objectMapper.writeValueAsBytes(saleRequestDTO)));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot hash the sale request", e);
+        }
+    }
+
+    private String write(SaleResponseDTO sale) {
+        try {
+            return objectMapper.writeValueAsString(sale);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot store the sale response", e);
+        }
+    }
+
+    private SaleResponseDTO read(String response) {
+        try {
+            return objectMapper.readValue(response, SaleResponseDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot read the stored sale response", e);
+        }
+    }
+
+    /**
+     * @param created whether this instance created the sale, rather than finding it stored
+     */
+    private record StoredSale(String requestHash, SaleResponseDTO sale, boolean created) {}
+}
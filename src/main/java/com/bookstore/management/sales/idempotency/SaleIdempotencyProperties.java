@@ -0,0 +1,21 @@
+package com.bookstore.management.sales.idempotency;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param maximumSize      keys kept in memory
+ * @param expireAfterWrite time a key stays in memory after its sale was created
+ * @param retention        time a key is kept in {@code sale_idempotency_key}, the window in which
+ *                         a retry is recognised across restarts and instances
+ * @param purgeInterval    time between two purges of the expired keys
+ */
+@ConfigurationProperties(prefix = "sales.idempotency")
+public record SaleIdempotencyProperties(
+        @DefaultValue("10000") long maximumSize,
+        @DefaultValue("10m") Duration expireAfterWrite,
+        @DefaultValue("24h") Duration retention,
+        @DefaultValue("1h") Duration purgeInterval
+) {}
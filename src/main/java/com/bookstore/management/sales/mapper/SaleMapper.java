@@ -1,16 +1,58 @@
 package com.bookstore.management.sales.mapper;
 
+import com.bookstore.management.book.dto.BookSummaryDTO;
 import com.bookstore.management.book.mapper.BookMapper;
+import com.bookstore.management.customer.dto.CustomerSummaryDTO;
 import com.bookstore.management.customer.mapper.CustomerMapper;
+import com.bookstore.management.sales.dto.SaleLineDTO;
 import com.bookstore.management.sales.dto.SaleResponseDTO;
+import com.bookstore.management.sales.dto.SalesDetailResponseDTO;
 import com.bookstore.management.sales.model.Sale;
 import org.mapstruct.Mapper;
 
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Mapper(componentModel = "spring", uses = {CustomerMapper.class, BookMapper.class})
 public interface SaleMapper {
 
     SaleResponseDTO toResponseDto(Sale  sale);
     List<SaleResponseDTO> toResponseDtoList(List<Sale> sales);
+
+    /**
+     * Builds the sales from their lines in one pass; the lines of a sale must be adjacent.
+     */
+    default List<SaleResponseDTO> fromLines(Stream<SaleLineDTO> lines) {
+        List<SaleResponseDTO> sales = new ArrayList<>();
+        SaleLineDTO first = null;
+        List<SalesDetailResponseDTO> details = new ArrayList<>();
+        for (Iterator<SaleLineDTO> iterator = lines.iterator(); iterator.hasNext(); ) {
+            SaleLineDTO line = iterator.next();
+            if (first != null && !first.saleId().equals(line.saleId())) {
+                sales.add(toResponseDto(first, details));
+                details = new ArrayList<>();
+            }
+            if (first == null || !first.saleId().equals(line.saleId())) {
+                first = line;
+            }
+            if (line.detailId() != null) {
+                details.add(new SalesDetailResponseDTO(line.detailId(),
+                        new BookSummaryDTO(line.bookId(), line.bookIsbn(), line.bookTitle(), line.bookPrice(), line.bookAuthor()),
+                        line.quantity(), line.unitPrice(), line.discountPercent(), line.lineTotal()));
+            }
+        }
+        if (first != null) {
+            sales.add(toResponseDto(first, details));
+        }
+        return sales;
+    }
+
+    private static SaleResponseDTO toResponseDto(SaleLineDTO line, List<SalesDetailResponseDTO> details) {
+        CustomerSummaryDTO customer = line.customerId() == null ? null
+                : new CustomerSummaryDTO(line.customerId(), line.customerName(), line.customerLastName(), line.customerEmail());
+        return new SaleResponseDTO(line.saleId(), customer, line.status(), line.paymentMethod(), details,
+                line.total(), line.observation());
+    }
 }
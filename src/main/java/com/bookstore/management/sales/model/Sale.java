@@ -18,7 +18,8 @@ import java.util.List;
 @Table(name = "sale")
 public class Sale {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sale_seq")
+    @SequenceGenerator(name = "sale_seq", sequenceName = "sale_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -47,7 +48,8 @@ public class Sale {
     private LocalDateTime createdAt;
 
     @Column(nullable = false)
-    private Long createdBy;
+    @Builder.Default
+    private Long createdBy = 0L;
 
     @UpdateTimestamp
     private LocalDateTime updatedAt;
@@ -0,0 +1,44 @@
+package com.bookstore.management.sales.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Response of a sale created with an {@code Idempotency-Key}, see
+ * {@link com.bookstore.management.sales.idempotency.SaleIdempotency}.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "sale_idempotency_key", indexes = {
+        @Index(name = "idx_sale_idempotency_key_key", columnList = "idempotency_key", unique = true),
+        @Index(name = "idx_sale_idempotency_key_created_at", columnList = "created_at")
+})
+public class SaleIdempotencyKey {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sale_idempotency_key_seq")
+    @SequenceGenerator(name = "sale_idempotency_key_seq", sequenceName = "sale_idempotency_key_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "idempotency_key", nullable = false, updatable = false, length = 255)
+    private String idempotencyKey;
+
+    @Column(name = "request_hash", nullable = false, updatable = false, length = 64)
+    private String requestHash;
+
+    @Column(name = "sale_id", nullable = false, updatable = false)
+    private Long saleId;
+
+    @Column(name = "response", nullable = false, updatable = false, columnDefinition = "TEXT")
+    private String response;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -15,7 +15,8 @@ import java.math.BigDecimal;
 public class SalesDetail {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sales_detail_seq")
+    @SequenceGenerator(name = "sales_detail_seq", sequenceName = "sales_detail_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -1,32 +1,75 @@
 package com.bookstore.management.sales.repository;
 
+import com.bookstore.management.sales.dto.BookQuantityDTO;
+import com.bookstore.management.sales.dto.PendingSaleDTO;
+import com.bookstore.management.sales.dto.SaleLineDTO;
 import com.bookstore.management.sales.model.Sale;
 import com.bookstore.management.sales.model.SalesStatus;
-import org.springframework.data.jpa.repository.EntityGraph;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface SaleRepository extends JpaRepository<Sale,Long> {
 
-    @EntityGraph(attributePaths = {"customer","details","details.book"})
-    List<Sale> findByCustomerId(Long customerId);
+    String SALE_LINES = "SELECT new com.bookstore.management.sales.dto.SaleLineDTO(" +
+            "s.id, c.id, c.name, c.lastName, c.email, s.status, s.paymentMethod, s.total, s.observation, " +
+            "d.id, b.id, b.isbn, b.title, b.price, a.name, d.quantity, d.unitPrice, d.discountPercent, d.lineTotal) " +
+            "FROM Sale s LEFT JOIN s.customer c LEFT JOIN s.details d LEFT JOIN d.book b LEFT JOIN b.author a ";
+    String BY_SALE_AND_LINE = " ORDER BY s.id, d.id";
+    String FETCH_SIZE = "500";
 
-    @Query("SELECT s FROM Sale s WHERE DATE(s.createdAt) BETWEEN :start AND :end")
-    @EntityGraph(attributePaths = {"customer","details","details.book"})
-    List<Sale> findByDateRange(@Param("start") LocalDate start,@Param("end") LocalDate end);
+    // Read-only projections: one row per sale line, ordered by sale so the lines of a sale are adjacent.
 
-    @EntityGraph(attributePaths = {"customer","details","details.book"})
-    List<Sale> findByStatus(SalesStatus status);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FETCH_SIZE))
+    @Query(SALE_LINES + "WHERE s.customer.id = :customerId" + BY_SALE_AND_LINE)
+    Stream<SaleLineDTO> streamLinesByCustomerId(@Param("customerId") Long customerId);
 
-    @EntityGraph(attributePaths = {"customer","details","details.book"})
-    List<Sale> findByCustomerIdAndStatus(Long customerId, SalesStatus status);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FETCH_SIZE))
+    @Query(SALE_LINES + "WHERE s.status = :status" + BY_SALE_AND_LINE)
+    Stream<SaleLineDTO> streamLinesByStatus(@Param("status") SalesStatus status);
 
-    List<Sale> findByStatusAndExpiredAtBefore(SalesStatus status, LocalDateTime now);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FETCH_SIZE))
+    @Query(SALE_LINES + "WHERE s.createdAt >= :from AND s.createdAt < :to" + BY_SALE_AND_LINE)
+    Stream<SaleLineDTO> streamLinesByCreatedAt(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Lines of one listing page, in the page's newest-first order.
+    @Query(SALE_LINES + "WHERE s.id IN :saleIds ORDER BY s.createdAt DESC, s.id DESC, d.id")
+    List<SaleLineDTO> findLinesBySaleIdIn(@Param("saleIds") Collection<Long> saleIds);
+
+    @Query("SELECT new com.bookstore.management.sales.dto.PendingSaleDTO(s.id, s.expiredAt) " +
+            "FROM Sale s WHERE s.status = :status AND s.expiredAt IS NOT NULL")
+    List<PendingSaleDTO> findPendingExpiries(@Param("status") SalesStatus status);
+
+    @Query("SELECT s.id FROM Sale s WHERE s.status = :status AND s.expiredAt < :now AND s.id > :afterId ORDER BY s.id")
+    List<Long> findIdsByStatusAndExpiredAtBefore(@Param("status") SalesStatus status,
+                                                @Param("now") LocalDateTime now,
+                                                @Param("afterId") Long afterId,
+                                                Limit limit);
+
+    @Query("SELECT new com.bookstore.management.sales.dto.BookQuantityDTO(d.book.id, SUM(d.quantity)) " +
+            "FROM SalesDetail d WHERE d.sale.id IN :saleIds GROUP BY d.book.id")
+    List<BookQuantityDTO> sumQuantitiesByBookForSales(@Param("saleIds") Collection<Long> saleIds);
+
+    /**
+     * Moves the given sales from {@code from} to {@code to} in one statement; a sale another
+     * transaction has already moved is left alone and not counted.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Sale s SET s.status = :to, s.updatedAt = :now WHERE s.id IN :saleIds AND s.status = :from")
+    int updateStatusByIdIn(@Param("saleIds") Collection<Long> saleIds,
+                           @Param("from") SalesStatus from,
+                           @Param("to") SalesStatus to,
+                           @Param("now") LocalDateTime now);
 }
@@ -0,0 +1,75 @@
+package com.bookstore.management.sales.repository;
+
+import com.bookstore.management.sales.dto.SaleKeyDTO;
+import com.bookstore.management.sales.dto.SaleSearchDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keys of a page of sales, newest first on {@code (created_at, id)}, with only the filters that are
+ * set in the WHERE clause, so each combination gets its own plan and the status, customer and
+ * creation range can be served by an index instead of an {@code IS NULL OR} predicate the planner cannot use.
+ */
+@Repository
+public class SaleSearchRepository {
+
+    private static final String SALE_KEYS =
+            "SELECT new com.bookstore.management.sales.dto.SaleKeyDTO(s.id, s.createdAt) FROM Sale s WHERE 1 = 1";
+    private static final String BEFORE_CURSOR =
+            " AND s.createdAt <= :createdAt AND (s.createdAt < :createdAt OR s.id < :id)";
+    private static final String NEWEST_FIRST = " ORDER BY s.createdAt DESC, s.id DESC";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * @param createdAt creation time of the last sale of the previous page, {@code null} for the first page
+     * @param id        id of the last sale of the previous page, ignored for the first page
+     */
+    public List<SaleKeyDTO> findKeysBefore(SaleSearchDTO filter, LocalDateTime createdAt, Long id, int limit) {
+        StringBuilder jpql = new StringBuilder(SALE_KEYS);
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        if (filter.status() != null) {
+            jpql.append(" AND s.status = :status");
+            parameters.put("status", filter.status());
+        }
+        if (filter.customerId() != null) {
+            jpql.append(" AND s.customer.id = :customerId");
+            parameters.put("customerId", filter.customerId());
+        }
+        if (filter.paymentMethod() != null) {
+            jpql.append(" AND s.paymentMethod = :paymentMethod");
+            parameters.put("paymentMethod", filter.paymentMethod());
+        }
+        if (filter.minTotal() != null) {
+            jpql.append(" AND s.total >= :minTotal");
+            parameters.put("minTotal", filter.minTotal());
+        }
+        if (filter.start() != null) {
+            jpql.append(" AND s.createdAt >= :from");
+            parameters.put("from", filter.start().atStartOfDay());
+        }
+        if (filter.end() != null) {
+            jpql.append(" AND s.createdAt < :to");
+            parameters.put("to", filter.end().plusDays(1).atStartOfDay());
+        }
+        if (createdAt != null) {
+            jpql.append(BEFORE_CURSOR);
+            parameters.put("createdAt", createdAt);
+            parameters.put("id", id);
+        }
+        jpql.append(NEWEST_FIRST);
+
+        TypedQuery<SaleKeyDTO> query = entityManager.createQuery(jpql.toString(), SaleKeyDTO.class)
+                .setMaxResults(limit);
+        parameters.forEach(query::setParameter);
+        return query.getResultList();
+    }
+}
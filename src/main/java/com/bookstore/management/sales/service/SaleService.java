@@ -2,6 +2,8 @@ package com.bookstore.management.sales.service;
 
 import com.bookstore.management.sales.dto.SaleRequestDTO;
 import com.bookstore.management.sales.dto.SaleResponseDTO;
+import com.bookstore.management.sales.dto.SaleSearchDTO;
+import com.bookstore.management.sales.dto.SaleSliceDTO;
 import com.bookstore.management.sales.model.SalesStatus;
 
 import java.time.LocalDate;
@@ -10,7 +12,7 @@ import java.util.List;
 public interface SaleService {
 
     SaleResponseDTO findById(Long id);
-    List<SaleResponseDTO> findAll();
+    SaleSliceDTO search(SaleSearchDTO filter, String cursor, int size);
     List<SaleResponseDTO> findByCustomerId(Long customerId);
     List<SaleResponseDTO> findByStatus(SalesStatus status);
     List<SaleResponseDTO> findByDateRange(LocalDate start, LocalDate end);
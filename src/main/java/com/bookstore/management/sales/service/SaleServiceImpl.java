@@ -4,22 +4,27 @@ import com.bookstore.management.book.model.Book;
 import com.bookstore.management.book.repository.BookRepository;
 import com.bookstore.management.customer.model.Customer;
 import com.bookstore.management.customer.repository.CustomerRepository;
-import com.bookstore.management.inventory.dto.UpdateStockDTO;
-import com.bookstore.management.inventory.model.MovementType;
 import com.bookstore.management.inventory.service.InventoryService;
+import com.bookstore.management.sales.dto.SaleKeyDTO;
+import com.bookstore.management.sales.dto.SaleLineDTO;
 import com.bookstore.management.sales.dto.SaleRequestDTO;
 import com.bookstore.management.sales.dto.SaleResponseDTO;
+import com.bookstore.management.sales.dto.SaleSearchDTO;
+import com.bookstore.management.sales.dto.SaleSliceDTO;
+import com.bookstore.management.sales.dto.SalesDetailRequestDTO;
+import com.bookstore.management.sales.event.SaleClosedEvent;
+import com.bookstore.management.sales.event.SalePendingEvent;
 import com.bookstore.management.sales.mapper.SaleMapper;
 import com.bookstore.management.sales.model.Sale;
 import com.bookstore.management.sales.model.SalesDetail;
 import com.bookstore.management.sales.model.SalesStatus;
 import com.bookstore.management.sales.repository.SaleRepository;
-import com.bookstore.management.shared.exception.custom.InsufficientReservedStockException;
+import com.bookstore.management.sales.repository.SaleSearchRepository;
 import com.bookstore.management.shared.exception.custom.InvalidSalesStatusException;
 import com.bookstore.management.shared.exception.custom.ResourceNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -27,7 +32,13 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Transactional(readOnly=true)
@@ -35,11 +46,15 @@ import java.util.List;
 @Service
 public class SaleServiceImpl implements SaleService {
 
+    private static final int MAX_SLICE_SIZE = 100;
+
     private final SaleRepository saleRepository;
+    private final SaleSearchRepository saleSearchRepository;
     private final CustomerRepository customerRepository;
     private final BookRepository bookRepository;
     private final InventoryService inventoryService;
     private final SaleMapper saleMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public SaleResponseDTO findById(Long id) {
@@ -52,10 +67,34 @@ public class SaleServiceImpl implements SaleService {
                 .orElseThrow(() -> new ResourceNotFoundException("Sale","Id",saleId));
     }
 
+    /**
+     * Keyset page on {@code (created_at, id)} descending: the keys of the page are read first, then
+     * the lines of just those sales in one query, so a page costs two statements whatever its size
+     * or depth and never loads a lazy association.
+     */
     @Override
-    public List<SaleResponseDTO> findAll() {
-        List<Sale> saleList = saleRepository.findAll();
-        return saleMapper.toResponseDtoList(saleList);
+    public SaleSliceDTO search(SaleSearchDTO filter, String token, int size) {
+        if (size < 1 || size > MAX_SLICE_SIZE) {
+            throw new IllegalArgumentException("Size must be between 1 and " + MAX_SLICE_SIZE);
+        }
+        SaleCursor cursor = SaleCursor.decode(token);
+        List<SaleKeyDTO> keys = saleSearchRepository.findKeysBefore(filter,
+                cursor != null ? cursor.createdAt() : null,
+                cursor != null ? cursor.id() : null,
+                size + 1);
+        if (keys.isEmpty()) {
+            return new SaleSliceDTO(List.of(), null);
+        }
+
+        List<SaleKeyDTO> page = keys.size() > size ? keys.subList(0, size) : keys;
+        List<SaleResponseDTO> content = saleMapper.fromLines(saleRepository.findLinesBySaleIdIn(page.stream()
+                .map(SaleKeyDTO::id)
+                .toList()).stream());
+        if (keys.size() <= size) {
+            return new SaleSliceDTO(content, null);
+        }
+        SaleKeyDTO last = page.get(size - 1);
+        return new SaleSliceDTO(content, new SaleCursor(last.createdAt(), last.id()).encode());
     }
 
     @Override
@@ -64,20 +103,24 @@ public class SaleServiceImpl implements SaleService {
         customerRepository.findById(customerId)
                 .orElseThrow(() -> new ResourceNotFoundException("Customer","Id",customerId));
 
-        List<Sale> sales = saleRepository.findByCustomerId(customerId);
-        return saleMapper.toResponseDtoList(sales);
+        try (Stream<SaleLineDTO> lines = saleRepository.streamLinesByCustomerId(customerId)) {
+            return saleMapper.fromLines(lines);
+        }
     }
 
     @Override
     public List<SaleResponseDTO> findByStatus(SalesStatus status) {
-        List<Sale> sales = saleRepository.findByStatus(status);
-        return saleMapper.toResponseDtoList(sales);
+        try (Stream<SaleLineDTO> lines = saleRepository.streamLinesByStatus(status)) {
+            return saleMapper.fromLines(lines);
+        }
     }
 
     @Override
     public List<SaleResponseDTO> findByDateRange(LocalDate start, LocalDate end) {
-        List<Sale> sales = saleRepository.findByDateRange(start,end);
-        return saleMapper.toResponseDtoList(sales);
+        try (Stream<SaleLineDTO> lines = saleRepository.streamLinesByCreatedAt(
+                start.atStartOfDay(), end.plusDays(1).atStartOfDay())) {
+            return saleMapper.fromLines(lines);
+        }
     }
 
     @Transactional
@@ -102,11 +145,28 @@ public class SaleServiceImpl implements SaleService {
                 .expiredAt(LocalDateTime.now().plusMinutes(5))
                 .build();
 
+        Map<Long, Integer> quantitiesByBookId = saleRequestDTO.items().stream()
+                .collect(Collectors.toMap(
+                        SalesDetailRequestDTO::bookId,
+                        SalesDetailRequestDTO::quantity,
+                        Integer::sum,
+                        LinkedHashMap::new));
+
+        Map<Long, Book> booksById = bookRepository.findAllByIdIn(quantitiesByBookId.keySet()).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+
+        quantitiesByBookId.keySet().forEach(bookId -> {
+            if (!booksById.containsKey(bookId)) {
+                throw new ResourceNotFoundException("Book","Id",bookId);
+            }
+        });
+
+        inventoryService.reserveStockBatch(quantitiesByBookId);
+
         List<SalesDetail> details = saleRequestDTO.items().stream()
                 .map(detailDto ->{
 
-                    Book book = bookRepository.findById(detailDto.bookId())
-                            .orElseThrow(() -> new ResourceNotFoundException("Book","Id",detailDto.bookId()));
+                    Book book = booksById.get(detailDto.bookId());
 
                     SalesDetail salesDetail = SalesDetail.builder()
                             .book(book)
@@ -116,8 +176,6 @@ public class SaleServiceImpl implements SaleService {
                             .sale(sale)
                             .build();
 
-                    inventoryService.reserveStock(book.getId(), detailDto.quantity());
-
                     salesDetail.setLineTotal(calculateLineTotal(salesDetail));
                     return salesDetail;
                 })
@@ -127,6 +185,7 @@ public class SaleServiceImpl implements SaleService {
         calculateTotal(sale);
 
         Sale saleSaved = saleRepository.save(sale);
+        eventPublisher.publishEvent(new SalePendingEvent(saleSaved.getId(), saleSaved.getExpiredAt()));
 
         return saleMapper.toResponseDto(saleSaved);
     }
@@ -140,15 +199,15 @@ public class SaleServiceImpl implements SaleService {
 
         verifyStatusIsPending(sale.getStatus());
 
-        for (SalesDetail salesDetail : sale.getDetails()) {
-            UpdateStockDTO updateStockDTO = new UpdateStockDTO(
-                    salesDetail.getQuantity(),
-                    MovementType.EXIT
-            );
-            inventoryService.registerSale(updateStockDTO, salesDetail.getBook().getId());
-        }
-        sale.setStatus(SalesStatus.COMPLETED);
-        Sale saleSaved = saleRepository.save(sale);
+        // The stock was reserved when the sale was created, completing it consumes the reservation.
+        // Books in id order, like the reservation, so concurrent completions lock rows in the same order.
+        Map<Long, Integer> quantitiesByBookId = new TreeMap<>();
+        sale.getDetails().forEach(detail ->
+                quantitiesByBookId.merge(detail.getBook().getId(), detail.getQuantity(), Integer::sum));
+        transitionFromPending(saleId, SalesStatus.COMPLETED);
+        quantitiesByBookId.forEach(inventoryService::consumeReservation);
+        Sale saleSaved = findByIdOrThrow(saleId);
+        eventPublisher.publishEvent(new SaleClosedEvent(saleId));
 
         log.info("Sale {} completed successfully with {} items", saleSaved.getId(), saleSaved.getDetails().size());
         return saleMapper.toResponseDto(saleSaved);
@@ -163,32 +222,31 @@ public class SaleServiceImpl implements SaleService {
         Sale sale = findByIdOrThrow(saleId);
         verifyStatusIsPending(sale.getStatus());
 
-        sale.getDetails().forEach(
-                detail -> inventoryService
-                        .releaseReservation( detail.getBook().getId(), detail.getQuantity()));
+        // Books in id order and released together, like the reservation, so a cancellation locks
+        // rows in the same order as the sales reserving and completing them.
+        Map<Long, Integer> quantitiesByBookId = new TreeMap<>();
+        sale.getDetails().forEach(detail ->
+                quantitiesByBookId.merge(detail.getBook().getId(), detail.getQuantity(), Integer::sum));
+        transitionFromPending(saleId, SalesStatus.CANCELLED);
+        inventoryService.releaseReservationBatch(quantitiesByBookId);
 
-        sale.setStatus(SalesStatus.CANCELLED);
-        Sale saleSaved = saleRepository.save(sale);
+        Sale saleSaved = findByIdOrThrow(saleId);
+        eventPublisher.publishEvent(new SaleClosedEvent(saleId));
 
         log.info("sale cancelled successfully with {} id", saleSaved.getId());
         return saleMapper.toResponseDto(saleSaved);
     }
 
-    @Scheduled(fixedRate = 60000)
-    public void expirePendingSales() {
-
-        LocalDateTime now = LocalDateTime.now();
-        List<Sale> expired = saleRepository
-                .findByStatusAndExpiredAtBefore(SalesStatus.PENDING, now);
-        expired.forEach(sale -> {
-            try {
-                cancelSale(sale.getId());
-                log.info("Successfully cancelled expired sale with id: {}", sale.getId());
-            }catch (InsufficientReservedStockException | InvalidSalesStatusException | ResourceNotFoundException e) {
-                log.error("Failed to cancel expired sale with id: {}. Reason: {}", sale.getId(), e.getMessage());
-            }
-        });
-
+    /**
+     * Moves a pending sale to {@code to} with the guarded update the expiry sweeper uses: of two
+     * transactions completing or cancelling the same sale, the second waits for the first and then
+     * finds the sale no longer pending, so its stock is never released or consumed twice. The
+     * update clears the persistence context, the sale is read again afterwards.
+     */
+    private void transitionFromPending(Long saleId, SalesStatus to) {
+        if (saleRepository.updateStatusByIdIn(List.of(saleId), SalesStatus.PENDING, to, LocalDateTime.now()) == 0) {
+            throw new InvalidSalesStatusException("Sale " + saleId + " is no longer pending");
+        }
     }
 
     private void verifyStatusIsPending(SalesStatus status) {
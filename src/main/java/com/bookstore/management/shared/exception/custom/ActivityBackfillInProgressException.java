@@ -0,0 +1,9 @@
+package com.bookstore.management.shared.exception.custom;
+
+import org.springframework.http.HttpStatus;
+
+public class ActivityBackfillInProgressException extends BusinessException {
+    public ActivityBackfillInProgressException(String message) {
+        super(message, HttpStatus.CONFLICT);
+    }
+}
@@ -0,0 +1,9 @@
+package com.bookstore.management.shared.exception.custom;
+
+import org.springframework.http.HttpStatus;
+
+public class IdempotencyKeyReusedException extends BusinessException {
+    public IdempotencyKeyReusedException(String message) {
+        super(message, HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+}
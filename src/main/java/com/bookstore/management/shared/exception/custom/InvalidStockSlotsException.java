@@ -0,0 +1,9 @@
+package com.bookstore.management.shared.exception.custom;
+
+import org.springframework.http.HttpStatus;
+
+public class InvalidStockSlotsException extends BusinessException {
+    public InvalidStockSlotsException(String message) {
+        super(message, HttpStatus.BAD_REQUEST);
+    }
+}
@@ -0,0 +1,9 @@
+package com.bookstore.management.shared.exception.custom;
+
+import org.springframework.http.HttpStatus;
+
+public class JournalBatchTooLargeException extends BusinessException {
+    public JournalBatchTooLargeException(String message) {
+        super(message, HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+}
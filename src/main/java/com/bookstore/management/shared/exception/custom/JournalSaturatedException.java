@@ -0,0 +1,9 @@
+package com.bookstore.management.shared.exception.custom;
+
+import org.springframework.http.HttpStatus;
+
+public class JournalSaturatedException extends BusinessException {
+    public JournalSaturatedException(String message) {
+        super(message, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+}
@@ -0,0 +1,93 @@
+-- Schema as created by ddl-auto=update before the migrations took over; databases that already
+-- hold it are baselined on this version, so it must not change.
+
+create table authors (
+    birth_date date not null,
+    id bigint generated by default as identity,
+    name varchar(100) not null,
+    nationality varchar(100) not null,
+    biography text,
+    gender varchar(255) not null check (gender in ('MALE','FEMALE','OTHER','PREFER_NOT_TO_SAY')),
+    primary key (id)
+);
+
+create table books (
+    discount_percent numeric(10,2),
+    pages integer not null,
+    price numeric(10,2),
+    publish_date date not null,
+    author_id bigint not null,
+    id bigint generated by default as identity,
+    genre varchar(100),
+    description varchar(1024),
+    isbn varchar(255) not null unique,
+    title varchar(255) not null,
+    primary key (id)
+);
+
+create table customers (
+    birth_date date,
+    id bigint generated by default as identity,
+    name varchar(100) not null,
+    surname varchar(100) not null,
+    email varchar(150) not null unique,
+    primary key (id)
+);
+
+create table inventory (
+    active_status boolean not null,
+    alert_low_stock boolean not null,
+    quantity_available integer not null,
+    reserved_quantity integer not null,
+    stock_max integer not null,
+    stock_min integer not null,
+    book_id bigint not null unique,
+    id bigint generated by default as identity,
+    last_update timestamp(6),
+    primary key (id)
+);
+
+create table inventory_movement (
+    affected_quantity integer not null,
+    quantity_after integer not null,
+    quantity_before integer not null,
+    created_at timestamp(6),
+    id bigint generated by default as identity,
+    inventory_id bigint not null,
+    create_by varchar(100) not null,
+    description text,
+    movement_type varchar(255) check (movement_type in ('ENTRY','EXIT','POSITIVE_ADJUSTMENT','NEGATIVE_ADJUSTMENT','RETURN','RESERVE','RELEASE_RESERVE','INITIAL_INVENTORY','UPDATE_THRESHOLD','DISABLE')),
+    primary key (id)
+);
+
+create table sale (
+    total numeric(10,2) not null,
+    created_at timestamp(6) not null,
+    created_by bigint not null,
+    customer_id bigint,
+    expired_at timestamp(6),
+    id bigint generated by default as identity,
+    updated_at timestamp(6),
+    observation varchar(255),
+    payment_method varchar(255) check (payment_method in ('CASH','CARD','TRANSFER')),
+    status varchar(255) not null check (status in ('PENDING','COMPLETED','CANCELLED')),
+    primary key (id)
+);
+
+create table sales_detail (
+    discount_percent numeric(10,2) not null,
+    line_total numeric(10,2) not null,
+    quantity integer not null,
+    unit_price numeric(10,2) not null,
+    book_id bigint not null,
+    id bigint generated by default as identity,
+    sale_id bigint not null,
+    primary key (id)
+);
+
+alter table books add constraint fk_books_author foreign key (author_id) references authors (id);
+alter table inventory add constraint fk_inventory_book foreign key (book_id) references books (id);
+alter table inventory_movement add constraint fk_inventory_movement_inventory foreign key (inventory_id) references inventory (id);
+alter table sale add constraint fk_sale_customer foreign key (customer_id) references customers (id);
+alter table sales_detail add constraint fk_sales_detail_book foreign key (book_id) references books (id);
+alter table sales_detail add constraint fk_sales_detail_sale foreign key (sale_id) references sale (id);
@@ -0,0 +1,132 @@
+-- Tables, columns and sequences added on top of the baseline: sequence id generators, optimistic
+-- locking and stock slots on inventory, and the checkpoint, reconciliation, archive, journal,
+-- activity, velocity and idempotency tables.
+
+create sequence authors_seq start with 1 increment by 50;
+create sequence books_seq start with 1 increment by 50;
+create sequence customers_seq start with 1 increment by 50;
+create sequence inventory_activity_seq start with 1 increment by 50;
+create sequence inventory_drift_seq start with 1 increment by 50;
+create sequence inventory_movement_seq start with 1 increment by 50;
+create sequence inventory_seq start with 1 increment by 50;
+create sequence inventory_stock_slot_seq start with 1 increment by 50;
+create sequence movement_archive_segment_seq start with 1 increment by 1;
+create sequence reconciliation_run_seq start with 1 increment by 1;
+create sequence sale_idempotency_key_seq start with 1 increment by 50;
+create sequence sale_seq start with 1 increment by 50;
+create sequence sales_detail_seq start with 1 increment by 50;
+create sequence sales_velocity_seq start with 1 increment by 50;
+create sequence stock_checkpoint_seq start with 1 increment by 50;
+
+alter table inventory add column version bigint default 0 not null;
+alter table inventory add column stock_slots integer default 0 not null;
+
+create table inventory_activity (
+    id bigint not null,
+    inventory_id bigint not null,
+    last_moved_at timestamp(6),
+    last_sold_at timestamp(6),
+    primary key (id),
+    constraint idx_inventory_activity_inventory unique (inventory_id)
+);
+
+create table inventory_drift (
+    actual_available integer not null,
+    actual_reserved integer not null,
+    book_id bigint not null,
+    expected_available bigint not null,
+    expected_reserved bigint not null,
+    first_divergent_at timestamp(6),
+    first_divergent_movement_id bigint,
+    id bigint not null,
+    inventory_id bigint not null,
+    run_id bigint not null,
+    primary key (id)
+);
+
+create table inventory_stock_slot (
+    quantity_available integer not null,
+    quantity_reserved integer not null,
+    slot integer not null,
+    id bigint not null,
+    inventory_id bigint not null,
+    primary key (id),
+    constraint idx_inventory_stock_slot_inventory_slot unique (inventory_id, slot)
+);
+
+create table movement_archive_segment (
+    archived_month varchar(7) not null,
+    archived_at timestamp(6) not null,
+    first_created_at timestamp(6),
+    id bigint not null,
+    last_created_at timestamp(6),
+    row_count bigint not null,
+    file_name varchar(255) not null,
+    primary key (id)
+);
+
+create table movement_journal_checkpoint (
+    segment_number bigint not null,
+    segment_position bigint not null,
+    journal_name varchar(100) not null,
+    primary key (journal_name)
+);
+
+create table reconciliation_run (
+    drift_count integer not null,
+    finished_at timestamp(6),
+    id bigint not null,
+    inventories_checked bigint not null,
+    started_at timestamp(6) not null,
+    status varchar(20) not null check (status in ('RUNNING','COMPLETED','FAILED')),
+    failure_reason text,
+    primary key (id)
+);
+
+create table sale_idempotency_key (
+    created_at timestamp(6) not null,
+    id bigint not null,
+    sale_id bigint not null,
+    request_hash varchar(64) not null,
+    idempotency_key varchar(255) not null,
+    response text not null,
+    primary key (id),
+    constraint idx_sale_idempotency_key_key unique (idempotency_key)
+);
+
+create table sales_velocity (
+    quantity_available integer not null,
+    sales_day date not null,
+    stock_max integer not null,
+    stock_min integer not null,
+    stock_out_date date,
+    suggested_quantity integer not null,
+    velocity float(53) not null,
+    book_id bigint not null,
+    day_units bigint not null,
+    id bigint not null,
+    inventory_id bigint not null,
+    updated_at timestamp(6) not null,
+    primary key (id),
+    constraint idx_sales_velocity_inventory unique (inventory_id)
+);
+
+create table stock_checkpoint (
+    quantity_available integer not null,
+    quantity_reserved integer not null,
+    id bigint not null,
+    inventory_id bigint not null,
+    taken_at timestamp(6) not null,
+    primary key (id),
+    constraint idx_stock_checkpoint_inventory_taken_at unique (inventory_id, taken_at)
+);
+
+create index idx_movement_created_at_id on inventory_movement (created_at, id);
+create index idx_movement_inventory_created_at_id on inventory_movement (inventory_id, created_at, id);
+create index idx_movement_type_created_at_id on inventory_movement (movement_type, created_at, id);
+create index idx_inventory_activity_last_sold_at on inventory_activity (last_sold_at);
+create index idx_inventory_drift_run on inventory_drift (run_id, book_id);
+create index idx_sale_idempotency_key_created_at on sale_idempotency_key (created_at);
+create index idx_sales_velocity_book on sales_velocity (book_id);
+create index idx_sales_velocity_stock_out_book on sales_velocity (stock_out_date, book_id);
+create index idx_stock_checkpoint_taken_at on stock_checkpoint (taken_at);
@@ -0,0 +1,3 @@
+-- Sales listing pages newest first on (created_at, id), alone or narrowed to a status or a customer.
+create index if not exists idx_sale_status_created_at_id on sale (status, created_at, id);
+create index if not exists idx_sale_customer_created_at_id on sale (customer_id, created_at, id);
@@ -0,0 +1,2 @@
+-- Last journal entry id drained into inventory_movement, so entries written twice are inserted once.
+alter table movement_journal_checkpoint add column last_entry_id bigint default 0 not null;
@@ -0,0 +1,19 @@
+-- Movements a buffered journal gave up writing after its last attempt, kept for replay by hand.
+create table inventory_movement_dead_letter (
+    affected_quantity integer not null,
+    quantity_after integer not null,
+    quantity_before integer not null,
+    created_at timestamp(6),
+    failed_at timestamp(6) not null,
+    entry_id bigint,
+    id bigint generated by default as identity,
+    inventory_id bigint not null,
+    create_by varchar(100) not null,
+    journal_mode varchar(20) not null,
+    description text,
+    failure text,
+    movement_type varchar(255),
+    primary key (id)
+);
+
+create index idx_movement_dead_letter_entry_id on inventory_movement_dead_letter (entry_id);
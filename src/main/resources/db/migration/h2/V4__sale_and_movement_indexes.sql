@@ -0,0 +1,7 @@
+-- Same as the PostgreSQL migration; H2 has no partial indexes, idx_movement_inventory_created_at_id
+-- serves the EXIT lookups instead.
+create index if not exists idx_sale_customer_status on sale (customer_id, status);
+create index if not exists idx_sale_status_expired_at on sale (status, expired_at, id);
+create index if not exists idx_sale_created_at_id on sale (created_at, id);
+create index if not exists idx_sales_detail_sale on sales_detail (sale_id);
+create index if not exists idx_sales_detail_book on sales_detail (book_id);
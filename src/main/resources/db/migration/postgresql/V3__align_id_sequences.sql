@@ -0,0 +1,10 @@
+-- Moves the id sequences created by V2 past the ids the baseline identity columns already generated;
+-- a sequence is only ever moved forward.
+
+select setval('authors_seq', greatest((select coalesce(max(id), 0) from authors) + 50, (select last_value from authors_seq)));
+select setval('books_seq', greatest((select coalesce(max(id), 0) from books) + 50, (select last_value from books_seq)));
+select setval('customers_seq', greatest((select coalesce(max(id), 0) from customers) + 50, (select last_value from customers_seq)));
+select setval('inventory_seq', greatest((select coalesce(max(id), 0) from inventory) + 50, (select last_value from inventory_seq)));
+select setval('inventory_movement_seq', greatest((select coalesce(max(id), 0) from inventory_movement) + 50, (select last_value from inventory_movement_seq)));
+select setval('sale_seq', greatest((select coalesce(max(id), 0) from sale) + 50, (select last_value from sale_seq)));
+select setval('sales_detail_seq', greatest((select coalesce(max(id), 0) from sales_detail) + 50, (select last_value from sales_detail_seq)));
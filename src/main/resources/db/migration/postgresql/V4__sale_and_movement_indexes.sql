@@ -0,0 +1,10 @@
+-- Sales by customer (and status), by status, by expiry and by creation time; sale lines by sale and book.
+create index if not exists idx_sale_customer_status on sale (customer_id, status);
+create index if not exists idx_sale_status_expired_at on sale (status, expired_at, id);
+create index if not exists idx_sale_created_at_id on sale (created_at, id);
+create index if not exists idx_sales_detail_sale on sales_detail (sale_id);
+create index if not exists idx_sales_detail_book on sales_detail (book_id);
+
+-- Sales per inventory for the activity backfill and the valuation report, which filter on EXIT literally.
+create index if not exists idx_movement_exit_inventory_created_at on inventory_movement (inventory_id, created_at)
+    where movement_type = 'EXIT';
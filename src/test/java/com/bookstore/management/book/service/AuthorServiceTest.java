@@ -16,6 +16,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDate;
 import java.util.Arrays;
@@ -32,6 +33,8 @@ class AuthorServiceTest {
     private AuthorRepository authorRepository;
     @Spy
     private AuthorMapper authorMapper = Mappers.getMapper(AuthorMapper.class);
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
     @InjectMocks
     private AuthorService authorService;
 
@@ -0,0 +1,173 @@
+package com.bookstore.management.inventory.activity;
+
+import com.bookstore.management.book.model.Author;
+import com.bookstore.management.book.model.Book;
+import com.bookstore.management.book.model.Gender;
+import com.bookstore.management.book.repository.AuthorRepository;
+import com.bookstore.management.book.repository.BookRepository;
+import com.bookstore.management.inventory.dto.ActivityBackfillDTO;
+import com.bookstore.management.inventory.dto.DeadStockDTO;
+import com.bookstore.management.inventory.dto.UpdateStockDTO;
+import com.bookstore.management.inventory.model.Inventory;
+import com.bookstore.management.inventory.model.InventoryActivity;
+import com.bookstore.management.inventory.model.MovementType;
+import com.bookstore.management.inventory.repository.InventoryActivityRepository;
+import com.bookstore.management.inventory.repository.InventoryRepository;
+import com.bookstore.management.inventory.service.InventoryService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:inventoryactivity;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "inventory.activity.flush-interval=1h",
+        "inventory.activity.range-size=1",
+        "inventory.activity.parallelism=3"
+})
+public class InventoryActivityTrackerTest {
+
+    private static final LocalDateTime LONG_AGO = LocalDateTime.now().minusDays(400).truncatedTo(ChronoUnit.SECONDS);
+
+    @Autowired
+    private InventoryActivityTracker activityTracker;
+    @Autowired
+    private InventoryActivityRepository activityRepository;
+    @Autowired
+    private InventoryService inventoryService;
+    @Autowired
+    private InventoryRepository inventoryRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Author author;
+
+    @BeforeEach
+    void setUp() {
+        author = authorRepository.save(Author.builder()
+                .name("Tsitsi Dangarembga")
+                .nationality("Zimbabwean")
+                .birthDate(LocalDate.of(1959, 2, 4))
+                .gender(Gender.FEMALE)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        activityTracker.flush();
+        jdbcTemplate.update("delete from inventory_activity");
+        jdbcTemplate.update("delete from inventory_movement");
+        jdbcTemplate.update("delete from inventory");
+        jdbcTemplate.update("delete from books");
+        jdbcTemplate.update("delete from authors");
+    }
+
+    @Test
+    @DisplayName("Should keep the latest movement and the latest sale as movements are written")
+    void shouldKeepTheLatestMovementAndSaleAsMovementsAreWritten() {
+        Long bookId = stock("9780954702335", "Nervous Conditions", "15.00", 10);
+        Long inventoryId = inventoryRepository.findReadOnlyByBookId(bookId).orElseThrow().getId();
+
+        activityTracker.flush();
+        InventoryActivity entered = activity(inventoryId);
+        assertThat(entered.getLastMovedAt()).isNotNull();
+        assertThat(entered.getLastSoldAt()).isNull();
+
+        inventoryService.registerSale(new UpdateStockDTO(1, MovementType.EXIT), bookId);
+        inventoryService.reserveStock(bookId, 1);
+        activityTracker.flush();
+
+        InventoryActivity sold = activity(inventoryId);
+        assertThat(sold.getLastSoldAt()).isNotNull();
+        assertThat(sold.getLastMovedAt()).isAfterOrEqualTo(sold.getLastSoldAt());
+        assertThat(activityTracker.deadStock(30, 0, 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should backfill the activity from the ledger in parallel ranges")
+    void shouldBackfillTheActivityFromTheLedger() {
+        Long soldLongAgo = stock("9780954702342", "The Book of Not", "20.00", 5);
+        Long neverSold = stock("9780954702359", "This Mournable Body", "18.00", 3);
+        inventoryService.registerSale(new UpdateStockDTO(1, MovementType.EXIT), soldLongAgo);
+        activityTracker.flush();
+        age(soldLongAgo);
+        age(neverSold);
+        jdbcTemplate.update("delete from inventory_activity");
+
+        ActivityBackfillDTO backfill = activityTracker.backfill();
+
+        assertThat(backfill.inventories()).isEqualTo(2);
+        List<DeadStockDTO> deadStock = activityTracker.deadStock(180, 0, 10);
+        assertThat(deadStock).extracting(DeadStockDTO::bookId).containsExactly(soldLongAgo, neverSold);
+        assertThat(deadStock.get(0).lastSoldAt()).isEqualTo(LONG_AGO);
+        assertThat(deadStock.get(1).lastSoldAt()).isNull();
+        assertThat(deadStock.get(1).lastMovedAt()).isEqualTo(LONG_AGO);
+    }
+
+    @Test
+    @DisplayName("Should rank dead stock by tied-up value and leave out books without stock or with recent sales")
+    void shouldRankDeadStockByTiedUpValue() {
+        Long cheap = stock("9780954702366", "She No Longer Weeps", "10.00", 4);
+        Long valuable = stock("9780954702373", "Black and Female", "30.00", 3);
+        Long soldOut = stock("9780954702380", "Everyone's Child", "25.00", 2);
+        Long selling = stock("9780954702397", "Kare Kare Zvako", "50.00", 9);
+        jdbcTemplate.update("update books set discount_percent = 10 where id = ?", valuable);
+        inventoryService.negativeAdjustment(new UpdateStockDTO(2, MovementType.NEGATIVE_ADJUSTMENT), soldOut);
+        inventoryService.registerSale(new UpdateStockDTO(1, MovementType.EXIT), selling);
+        activityTracker.flush();
+
+        List<DeadStockDTO> deadStock = activityTracker.deadStock(30, 0, 10);
+
+        assertThat(deadStock).extracting(DeadStockDTO::bookId).containsExactly(valuable, cheap);
+        assertThat(deadStock.get(0).quantityOnHand()).isEqualTo(3);
+        assertThat(deadStock.get(0).tiedUpValue()).isEqualByComparingTo(new BigDecimal("81.00"));
+        assertThat(activityTracker.deadStock(30, 1, 1)).extracting(DeadStockDTO::bookId).containsExactly(cheap);
+    }
+
+    private InventoryActivity activity(Long inventoryId) {
+        return activityRepository.findAll().stream()
+                .filter(activity -> activity.getInventoryId().equals(inventoryId))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private void age(Long bookId) {
+        jdbcTemplate.update("update inventory_movement set created_at = ? where inventory_id = " +
+                "(select id from inventory where book_id = ?)", Timestamp.valueOf(LONG_AGO), bookId);
+    }
+
+    private Long stock(String isbn, String title, String price, int quantity) {
+        Book book = bookRepository.save(Book.builder()
+                .isbn(isbn)
+                .title(title)
+                .price(new BigDecimal(price))
+                .publishDate(LocalDate.of(1988, 1, 1))
+                .pages(204)
+                .author(author)
+                .build());
+        inventoryRepository.save(Inventory.builder()
+                .book(book)
+                .quantityAvailable(0)
+                .stockMin(1)
+                .stockMax(100)
+                .build());
+        inventoryService.registerEntry(new UpdateStockDTO(quantity, MovementType.ENTRY), book.getId());
+        return book.getId();
+    }
+}
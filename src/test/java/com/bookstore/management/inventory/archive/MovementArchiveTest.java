@@ -0,0 +1,324 @@
+package com.bookstore.management.inventory.archive;
+
+import com.bookstore.management.book.model.Author;
+import com.bookstore.management.book.model.Book;
+import com.bookstore.management.book.model.Gender;
+import com.bookstore.management.book.repository.AuthorRepository;
+import com.bookstore.management.book.repository.BookRepository;
+import com.bookstore.management.inventory.dto.InventoryMovementResponseDTO;
+import com.bookstore.management.inventory.dto.MovementSliceDTO;
+import com.bookstore.management.inventory.journal.JournalEntry;
+import com.bookstore.management.inventory.journal.MovementBatchWriter;
+import com.bookstore.management.inventory.model.Inventory;
+import com.bookstore.management.inventory.model.MovementType;
+import com.bookstore.management.inventory.repository.InventoryMovementRepository;
+import com.bookstore.management.inventory.repository.InventoryRepository;
+import com.bookstore.management.inventory.service.InventoryMovementService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:movementarchive;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "inventory.archive.enabled=false"
+})
+public class MovementArchiveTest {
+
+    @TempDir
+    static Path archiveDirectory;
+
+    @DynamicPropertySource
+    static void archiveProperties(DynamicPropertyRegistry registry) {
+        registry.add("inventory.archive.directory", () -> archiveDirectory.toString());
+    }
+
+    @Autowired
+    private MovementArchive movementArchive;
+    @Autowired
+    private InventoryMovementService inventoryMovementService;
+    @Autowired
+    private MovementBatchWriter movementBatchWriter;
+    @Autowired
+    private InventoryMovementRepository inventoryMovementRepository;
+    @Autowired
+    private InventoryRepository inventoryRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long inventoryId;
+    private Long otherInventoryId;
+
+    @BeforeEach
+    void setUp() {
+        Author author = authorRepository.save(Author.builder()
+                .name("Tsitsi Dangarembga")
+                .nationality("Zimbabwean")
+                .birthDate(LocalDate.of(1959, 2, 4))
+                .gender(Gender.FEMALE)
+                .build());
+        inventoryId = createInventory(author, "9780954702335");
+        otherInventoryId = createInventory(author, "9781555975241");
+
+        LocalDateTime now = LocalDateTime.now();
+        movementBatchWriter.write(List.of(
+                entry(inventoryId, MovementType.ENTRY, LocalDateTime.of(2024, 1, 5, 10, 0)),
+                entry(inventoryId, MovementType.RESERVE, LocalDateTime.of(2024, 1, 20, 10, 0)),
+                entry(otherInventoryId, MovementType.RESERVE, LocalDateTime.of(2024, 1, 31, 23, 59)),
+                entry(inventoryId, MovementType.ENTRY, LocalDateTime.of(2024, 2, 1, 0, 0)),
+                entry(otherInventoryId, MovementType.ENTRY, LocalDateTime.of(2024, 2, 14, 9, 30)),
+                entry(inventoryId, MovementType.RESERVE, now.minusMinutes(5)),
+                entry(otherInventoryId, MovementType.ENTRY, now.minusMinutes(1))));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from movement_archive_segment");
+        jdbcTemplate.update("delete from inventory_movement");
+        jdbcTemplate.update("delete from inventory");
+        jdbcTemplate.update("delete from books");
+        jdbcTemplate.update("delete from authors");
+    }
+
+    @Nested
+    @DisplayName("Archive")
+    class ArchiveTest {
+
+        @Test
+        @DisplayName("Should move every month before the cutoff to its own segment")
+        void shouldMoveEveryMonthBeforeTheCutoffToItsOwnSegment() {
+
+            int archived = movementArchive.archiveBefore(YearMonth.now().minusMonths(1));
+
+            assertThat(archived).isEqualTo(2);
+            assertThat(inventoryMovementRepository.count()).isEqualTo(2);
+            assertThat(movementArchive.segments())
+                    .extracting(segment -> segment.getMonth() + ":" + segment.getRowCount())
+                    .containsExactly("2024-02:2", "2024-01:3");
+            assertThat(movementArchive.segments()).allSatisfy(segment -> {
+                assertThat(archiveDirectory.resolve(segment.getFileName() + ".ndjson.gz")).exists();
+                assertThat(archiveDirectory.resolve(segment.getFileName() + ".idx.json")).exists();
+            });
+            assertThat(archiveDirectory).isDirectoryNotContaining("glob:**.tmp");
+        }
+
+        @Test
+        @DisplayName("Should leave the table untouched when no month is old enough")
+        void shouldLeaveTheTableUntouchedWhenNoMonthIsOldEnough() {
+
+            assertThat(movementArchive.archiveBefore(YearMonth.of(2024, 1))).isZero();
+            assertThat(inventoryMovementRepository.count()).isEqualTo(7);
+        }
+    }
+
+    @Nested
+    @DisplayName("Read across the table and the archive")
+    class ReadTest {
+
+        @BeforeEach
+        void archive() {
+            movementArchive.archiveBefore(YearMonth.now().minusMonths(1));
+        }
+
+        @Test
+        @DisplayName("Should continue the recent movements into the archive, newest first")
+        void shouldContinueTheRecentMovementsIntoTheArchiveNewestFirst() {
+
+            Page<InventoryMovementResponseDTO> first = inventoryMovementService.findRecentMovements(pageRequest(0));
+            Page<InventoryMovementResponseDTO> second = inventoryMovementService.findRecentMovements(pageRequest(1));
+            Page<InventoryMovementResponseDTO> third = inventoryMovementService.findRecentMovements(pageRequest(2));
+
+            assertThat(first.getTotalElements()).isEqualTo(7);
+            assertThat(first.getContent()).extracting(movement -> movement.createdAt().getYear())
+                    .containsExactly(LocalDate.now().getYear(), LocalDate.now().getYear(), 2024);
+            assertThat(first.getContent().get(2).createdAt()).isEqualTo(LocalDateTime.of(2024, 2, 14, 9, 30));
+            assertThat(second.getContent()).extracting(InventoryMovementResponseDTO::createdAt).containsExactly(
+                    LocalDateTime.of(2024, 2, 1, 0, 0),
+                    LocalDateTime.of(2024, 1, 31, 23, 59),
+                    LocalDateTime.of(2024, 1, 20, 10, 0));
+            assertThat(third.getContent()).extracting(InventoryMovementResponseDTO::createdAt)
+                    .containsExactly(LocalDateTime.of(2024, 1, 5, 10, 0));
+            assertThat(second.getContent().get(0).inventorySummaryDTO().id()).isEqualTo(inventoryId);
+        }
+
+        @Test
+        @DisplayName("Should count archived movements of an inventory from the segment indexes")
+        void shouldCountArchivedMovementsOfAnInventoryFromTheSegmentIndexes() {
+
+            Page<InventoryMovementResponseDTO> page =
+                    inventoryMovementService.findAllByInventoryId(otherInventoryId, PageRequest.of(0, 10, newestFirst()));
+
+            assertThat(page.getTotalElements()).isEqualTo(3);
+            assertThat(page.getContent()).extracting(movement -> movement.inventorySummaryDTO().id())
+                    .containsOnly(otherInventoryId);
+        }
+
+        @Test
+        @DisplayName("Should read only the archived rows inside the date range")
+        void shouldReadOnlyTheArchivedRowsInsideTheDateRange() {
+
+            MovementQuery query = MovementQuery.between(
+                    LocalDateTime.of(2024, 1, 20, 0, 0), LocalDateTime.of(2024, 2, 2, 0, 0));
+
+            assertThat(movementArchive.count(query)).isEqualTo(3);
+            assertThat(movementArchive.read(query, 0, 10)).extracting(ArchivedMovement::createdAt).containsExactly(
+                    LocalDateTime.of(2024, 2, 1, 0, 0),
+                    LocalDateTime.of(2024, 1, 31, 23, 59),
+                    LocalDateTime.of(2024, 1, 20, 10, 0));
+        }
+
+        @Test
+        @DisplayName("Should count from the segment indexes without opening the segments")
+        void shouldCountFromTheSegmentIndexesWithoutOpeningTheSegments() throws IOException {
+            try (Stream<Path> files = Files.list(archiveDirectory)) {
+                for (Path segment : files.filter(file -> file.toString().endsWith(".ndjson.gz")).toList()) {
+                    Files.delete(segment);
+                }
+            }
+
+            assertThat(movementArchive.count(new MovementQuery(inventoryId, MovementType.RESERVE, null, null))).isEqualTo(1);
+            assertThat(movementArchive.count(MovementQuery.byInventory(otherInventoryId))).isEqualTo(2);
+            assertThat(movementArchive.count(MovementQuery.between(
+                    LocalDateTime.of(2024, 1, 20, 0, 0), LocalDateTime.of(2024, 2, 2, 0, 0)))).isEqualTo(3);
+        }
+
+        @Test
+        @DisplayName("Should refuse a page in another order once it reaches the archive")
+        void shouldRefuseAPageInAnotherOrderOnceItReachesTheArchive() {
+            PageRequest oldestFirst = PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "createdAt"));
+
+            assertThatThrownBy(() -> inventoryMovementService.findRecentMovements(oldestFirst))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThat(inventoryMovementService.findByDateRange(LocalDate.now(), LocalDate.now(), oldestFirst)
+                    .getTotalElements()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("Should filter archived rows by movement type")
+        void shouldFilterArchivedRowsByMovementType() {
+
+            Page<InventoryMovementResponseDTO> page = inventoryMovementService.findByMovementType(
+                    MovementType.RESERVE, PageRequest.of(0, 10, newestFirst()));
+
+            assertThat(page.getTotalElements()).isEqualTo(3);
+            assertThat(page.getContent()).extracting(InventoryMovementResponseDTO::movementType)
+                    .containsOnly(MovementType.RESERVE);
+        }
+    }
+
+    @Nested
+    @DisplayName("Seek across the table and the archive")
+    class SeekTest {
+
+        @BeforeEach
+        void archive() {
+            movementArchive.archiveBefore(YearMonth.now().minusMonths(1));
+        }
+
+        @Test
+        @DisplayName("Should walk every movement with cursors, newest first")
+        void shouldWalkEveryMovementWithCursorsNewestFirst() {
+
+            List<LocalDateTime> seen = new ArrayList<>();
+            MovementSliceDTO slice = inventoryMovementService.seekRecentMovements(null, 3, true);
+            List<Long> totals = new ArrayList<>();
+            while (true) {
+                slice.content().forEach(movement -> seen.add(movement.createdAt()));
+                totals.add(slice.estimatedTotal());
+                if (slice.nextCursor() == null) {
+                    break;
+                }
+                slice = inventoryMovementService.seekRecentMovements(slice.nextCursor(), 3, false);
+            }
+
+            assertThat(seen).hasSize(7).isSortedAccordingTo(Comparator.reverseOrder());
+            assertThat(seen.subList(2, 7)).containsExactly(
+                    LocalDateTime.of(2024, 2, 14, 9, 30),
+                    LocalDateTime.of(2024, 2, 1, 0, 0),
+                    LocalDateTime.of(2024, 1, 31, 23, 59),
+                    LocalDateTime.of(2024, 1, 20, 10, 0),
+                    LocalDateTime.of(2024, 1, 5, 10, 0));
+            assertThat(totals).containsOnly(7L).hasSize(3);
+        }
+
+        @Test
+        @DisplayName("Should seek by inventory, type and date range")
+        void shouldSeekByInventoryTypeAndDateRange() {
+
+            MovementSliceDTO byInventory = inventoryMovementService.seekByInventoryId(otherInventoryId, null, 2, true);
+            MovementSliceDTO byInventoryRest = inventoryMovementService.seekByInventoryId(
+                    otherInventoryId, byInventory.nextCursor(), 2, false);
+            MovementSliceDTO byType = inventoryMovementService.seekByMovementType(MovementType.RESERVE, null, 10, true);
+            MovementSliceDTO byDate = inventoryMovementService.seekByDateRange(
+                    LocalDate.of(2024, 1, 20), LocalDate.of(2024, 2, 1), null, 10, true);
+
+            assertThat(byInventory.estimatedTotal()).isEqualTo(3);
+            assertThat(byInventory.content()).hasSize(2);
+            assertThat(byInventoryRest.content()).extracting(InventoryMovementResponseDTO::createdAt)
+                    .containsExactly(LocalDateTime.of(2024, 1, 31, 23, 59));
+            assertThat(byType.content()).hasSize(3).extracting(InventoryMovementResponseDTO::movementType)
+                    .containsOnly(MovementType.RESERVE);
+            assertThat(byDate.estimatedTotal()).isEqualTo(3);
+            assertThat(byDate.content()).extracting(InventoryMovementResponseDTO::createdAt).containsExactly(
+                    LocalDateTime.of(2024, 2, 1, 0, 0),
+                    LocalDateTime.of(2024, 1, 31, 23, 59),
+                    LocalDateTime.of(2024, 1, 20, 10, 0));
+        }
+    }
+
+    private Long createInventory(Author author, String isbn) {
+        Book book = bookRepository.save(Book.builder()
+                .isbn(isbn)
+                .title("Title " + isbn)
+                .publishDate(LocalDate.of(1988, 1, 1))
+                .pages(200)
+                .author(author)
+                .build());
+        return inventoryRepository.save(Inventory.builder()
+                .book(book)
+                .quantityAvailable(50)
+                .stockMin(2)
+                .stockMax(500)
+                .build()).getId();
+    }
+
+    private static JournalEntry entry(Long inventoryId, MovementType movementType, LocalDateTime createdAt) {
+        return new JournalEntry(inventoryId, 1, 10, 11, movementType, movementType.getDescription(), "SYSTEM", createdAt);
+    }
+
+    private static PageRequest pageRequest(int page) {
+        return PageRequest.of(page, 3, newestFirst());
+    }
+
+    private static Sort newestFirst() {
+        return Sort.by(Sort.Direction.DESC, "createdAt");
+    }
+}
@@ -0,0 +1,175 @@
+package com.bookstore.management.inventory.benchmark;
+
+import com.bookstore.management.book.model.Author;
+import com.bookstore.management.book.model.Book;
+import com.bookstore.management.book.model.Gender;
+import com.bookstore.management.book.repository.AuthorRepository;
+import com.bookstore.management.book.repository.BookRepository;
+import com.bookstore.management.inventory.dto.InventoryStockDTO;
+import com.bookstore.management.inventory.model.Inventory;
+import com.bookstore.management.inventory.model.InventoryMovement;
+import com.bookstore.management.inventory.model.MovementType;
+import com.bookstore.management.inventory.repository.InventoryMovementRepository;
+import com.bookstore.management.inventory.repository.InventoryRepository;
+import com.bookstore.management.inventory.service.InventoryService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.LongConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the guarded single-statement reservation with the former lock-and-load path
+ * (PESSIMISTIC_WRITE select, entity save, movement insert) under contention on one title.
+ * <p>
+ * Not part of the regular suite, run it explicitly:
+ * {@code mvn test -Dtest=ReservationContentionBenchmark -Dspring.profiles.active=test}
+ * or without the profile to measure against the configured PostgreSQL database.
+ */
+@SpringBootTest
+public class ReservationContentionBenchmark {
+
+    private static final int THREADS = Integer.getInteger("benchmark.threads", 16);
+    private static final int RESERVATIONS_PER_THREAD = Integer.getInteger("benchmark.reservations", 200);
+    private static final int WARMUP_RESERVATIONS = 50;
+
+    @Autowired
+    private InventoryService inventoryService;
+    @Autowired
+    private InventoryRepository inventoryRepository;
+    @Autowired
+    private InventoryMovementRepository inventoryMovementRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    @DisplayName("Conditional update versus lock-and-load reservation under contention")
+    void compareReservationPaths() throws Exception {
+
+        Long lockAndLoadBook = createInventory("9780000000001");
+        Long conditionalBook = createInventory("9780000000002");
+
+        run(lockAndLoadBook, this::lockAndLoadReserve, WARMUP_RESERVATIONS);
+        run(conditionalBook, bookId -> inventoryService.reserveStock(bookId, 1), WARMUP_RESERVATIONS);
+
+        Result lockAndLoad = run(lockAndLoadBook, this::lockAndLoadReserve, RESERVATIONS_PER_THREAD);
+        Result conditional = run(conditionalBook, bookId -> inventoryService.reserveStock(bookId, 1), RESERVATIONS_PER_THREAD);
+
+        System.out.printf("%n%-16s %10s %12s %10s %10s%n", "path", "ops", "ops/s", "p50 ms", "p99 ms");
+        lockAndLoad.print("lock-and-load");
+        conditional.print("conditional");
+
+        int expectedReserved = THREADS * (RESERVATIONS_PER_THREAD + WARMUP_RESERVATIONS);
+        assertThat(reservedOf(lockAndLoadBook)).isEqualTo(expectedReserved);
+        assertThat(reservedOf(conditionalBook)).isEqualTo(expectedReserved);
+    }
+
+    private void lockAndLoadReserve(long bookId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Inventory inventory = inventoryRepository.findByBookId(bookId).orElseThrow();
+            int quantityBefore = inventory.getQuantityAvailable();
+            int quantityAfter = quantityBefore - 1;
+
+            inventory.setQuantityAvailable(quantityAfter);
+            inventory.setQuantityReserved(inventory.getQuantityReserved() + 1);
+            inventory.setAlertLowStock(quantityAfter <= inventory.getStockMin());
+            inventoryRepository.save(inventory);
+
+            inventoryMovementRepository.save(InventoryMovement.builder()
+                    .inventory(inventory)
+                    .affectedQuantity(-1)
+                    .quantityBefore(quantityBefore)
+                    .quantityAfter(quantityAfter)
+                    .movementType(MovementType.RESERVE)
+                    .description(MovementType.RESERVE.getDescription())
+                    .build());
+        });
+    }
+
+    private Result run(Long bookId, LongConsumer reservation, int perThread) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<long[]>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                long[] latencies = new long[perThread];
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    long begin = System.nanoTime();
+                    reservation.accept(bookId);
+                    latencies[i] = System.nanoTime() - begin;
+                }
+                return latencies;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        long[] all = new long[THREADS * perThread];
+        int offset = 0;
+        for (Future<long[]> future : futures) {
+            long[] latencies = future.get(10, TimeUnit.MINUTES);
+            System.arraycopy(latencies, 0, all, offset, latencies.length);
+            offset += latencies.length;
+        }
+        long elapsed = System.nanoTime() - begin;
+        executor.shutdown();
+
+        Arrays.sort(all);
+        return new Result(all.length, elapsed, all[all.length / 2], all[(int) (all.length * 0.99)]);
+    }
+
+    private Long createInventory(String isbn) {
+        Author author = authorRepository.save(Author.builder()
+                .name("Benchmark Author")
+                .nationality("Spanish")
+                .birthDate(LocalDate.of(1970, 1, 1))
+                .gender(Gender.PREFER_NOT_TO_SAY)
+                .build());
+        Book book = bookRepository.save(Book.builder()
+                .isbn(isbn)
+                .title("Benchmark Title")
+                .publishDate(LocalDate.of(2024, 1, 1))
+                .pages(100)
+                .author(author)
+                .build());
+        inventoryRepository.save(Inventory.builder()
+                .book(book)
+                .quantityAvailable(1_000_000)
+                .stockMin(10)
+                .stockMax(2_000_000)
+                .build());
+        return book.getId();
+    }
+
+    private int reservedOf(Long bookId) {
+        return inventoryRepository.findStockByBookId(bookId)
+                .map(InventoryStockDTO::quantityReserved)
+                .orElseThrow();
+    }
+
+    private record Result(int operations, long elapsedNanos, long p50Nanos, long p99Nanos) {
+        void print(String path) {
+            System.out.printf("%-16s %10d %12.0f %10.2f %10.2f%n",
+                    path,
+                    operations,
+                    operations / (elapsedNanos / 1_000_000_000.0),
+                    p50Nanos / 1_000_000.0,
+                    p99Nanos / 1_000_000.0);
+        }
+    }
+}
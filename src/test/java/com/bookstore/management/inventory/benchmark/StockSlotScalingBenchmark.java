@@ -0,0 +1,148 @@
+package com.bookstore.management.inventory.benchmark;
+
+import com.bookstore.management.book.model.Author;
+import com.bookstore.management.book.model.Book;
+import com.bookstore.management.book.model.Gender;
+import com.bookstore.management.book.repository.AuthorRepository;
+import com.bookstore.management.book.repository.BookRepository;
+import com.bookstore.management.inventory.dto.InventoryStockDTO;
+import com.bookstore.management.inventory.model.Inventory;
+import com.bookstore.management.inventory.repository.InventoryRepository;
+import com.bookstore.management.inventory.service.InventoryService;
+import com.bookstore.management.inventory.slot.StockSlots;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reservation throughput of one hot title on its inventory row and split across 1, 2, 4, ...
+ * stock slots, every reservation in its own transaction.
+ * <p>
+ * Not part of the regular suite, run it explicitly:
+ * {@code mvn test -Dtest=StockSlotScalingBenchmark -Dspring.profiles.active=test -Dbenchmark.threads=32}
+ * or without the profile to measure against the configured PostgreSQL database, where the
+ * row lock is the bottleneck the slots remove.
+ */
+@SpringBootTest
+public class StockSlotScalingBenchmark {
+
+    private static final int THREADS = Integer.getInteger("benchmark.threads", 8);
+    private static final int RESERVATIONS_PER_THREAD = Integer.getInteger("benchmark.reservations", 50);
+    private static final int MAX_SLOTS = Integer.getInteger("benchmark.max-slots", 8);
+    private static final int WARMUP_RESERVATIONS = 20;
+
+    @Autowired
+    private InventoryService inventoryService;
+    @Autowired
+    private StockSlots stockSlots;
+    @Autowired
+    private InventoryRepository inventoryRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Test
+    @DisplayName("Reservation throughput of a hot title by number of stock slots")
+    void compareSlotCounts() throws Exception {
+
+        System.out.printf("%n%-10s %10s %12s %10s %10s%n", "slots", "ops", "ops/s", "p50 ms", "p99 ms");
+        Long rowBook = createInventory("9780000000100");
+        run(rowBook, WARMUP_RESERVATIONS);
+        run(rowBook, RESERVATIONS_PER_THREAD).print("row");
+        assertThat(reservedOf(rowBook)).isEqualTo(THREADS * (RESERVATIONS_PER_THREAD + WARMUP_RESERVATIONS));
+
+        for (int slots = 1; slots <= MAX_SLOTS; slots *= 2) {
+            Long bookId = createInventory("97800000001" + String.format("%02d", slots));
+            stockSlots.shard(bookId, slots);
+            run(bookId, WARMUP_RESERVATIONS);
+            run(bookId, RESERVATIONS_PER_THREAD).print(String.valueOf(slots));
+
+            assertThat(reservedOf(bookId)).isEqualTo(THREADS * (RESERVATIONS_PER_THREAD + WARMUP_RESERVATIONS));
+            stockSlots.unshard(bookId);
+        }
+    }
+
+    private Result run(Long bookId, int perThread) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<long[]>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                long[] latencies = new long[perThread];
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    long begin = System.nanoTime();
+                    inventoryService.reserveStock(bookId, 1);
+                    latencies[i] = System.nanoTime() - begin;
+                }
+                return latencies;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        long[] all = new long[THREADS * perThread];
+        int offset = 0;
+        for (Future<long[]> future : futures) {
+            long[] latencies = future.get(10, TimeUnit.MINUTES);
+            System.arraycopy(latencies, 0, all, offset, latencies.length);
+            offset += latencies.length;
+        }
+        long elapsed = System.nanoTime() - begin;
+        executor.shutdown();
+
+        Arrays.sort(all);
+        return new Result(all.length, elapsed, all[all.length / 2], all[(int) (all.length * 0.99)]);
+    }
+
+    private Long createInventory(String isbn) {
+        Author author = authorRepository.save(Author.builder()
+                .name("Benchmark Author")
+                .nationality("Spanish")
+                .birthDate(LocalDate.of(1970, 1, 1))
+                .gender(Gender.PREFER_NOT_TO_SAY)
+                .build());
+        Book book = bookRepository.save(Book.builder()
+                .isbn(isbn)
+                .title("Benchmark Title")
+                .publishDate(LocalDate.of(2024, 1, 1))
+                .pages(100)
+                .author(author)
+                .build());
+        inventoryRepository.save(Inventory.builder()
+                .book(book)
+                .quantityAvailable(1_000_000)
+                .stockMin(10)
+                .stockMax(2_000_000)
+                .build());
+        return book.getId();
+    }
+
+    private int reservedOf(Long bookId) {
+        return inventoryRepository.findStockByBookId(bookId)
+                .map(InventoryStockDTO::quantityReserved)
+                .orElseThrow();
+    }
+
+    private record Result(int operations, long elapsedNanos, long p50Nanos, long p99Nanos) {
+        void print(String slots) {
+            System.out.printf("%-10s %10d %12.0f %10.2f %10.2f%n",
+                    slots,
+                    operations,
+                    operations / (elapsedNanos / 1_000_000_000.0),
+                    p50Nanos / 1_000_000.0,
+                    p99Nanos / 1_000_000.0);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.bookstore.management.inventory.bulk;
+
+import com.bookstore.management.book.model.Author;
+import com.bookstore.management.book.model.Book;
+import com.bookstore.management.book.model.Gender;
+import com.bookstore.management.book.repository.AuthorRepository;
+import com.bookstore.management.book.repository.BookRepository;
+import com.bookstore.management.inventory.dto.BulkEntryLineResultDTO;
+import com.bookstore.management.inventory.dto.BulkEntryReportDTO;
+import com.bookstore.management.inventory.model.BulkEntryStatus;
+import com.bookstore.management.inventory.model.Inventory;
+import com.bookstore.management.inventory.model.MovementType;
+import com.bookstore.management.inventory.repository.InventoryMovementRepository;
+import com.bookstore.management.inventory.repository.InventoryRepository;
+import com.bookstore.management.inventory.service.InventoryService;
+import com.bookstore.management.shared.exception.custom.ResourceNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:bulkentry;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "inventory.bulk-entry.chunk-size=2"
+})
+public class BulkEntryImporterTest {
+
+    @Autowired
+    private BulkEntryImporter bulkEntryImporter;
+    @MockitoSpyBean
+    private InventoryService inventoryService;
+    @Autowired
+    private InventoryRepository inventoryRepository;
+    @Autowired
+    private InventoryMovementRepository inventoryMovementRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long bookId;
+    private Long otherBookId;
+
+    @BeforeEach
+    void setUp() {
+        Author author = authorRepository.save(Author.builder()
+                .name("Mariama Ba")
+                .nationality("Senegalese")
+                .birthDate(LocalDate.of(1929, 4, 17))
+                .gender(Gender.FEMALE)
+                .build());
+
+        bookId = createInventory(author, "9780435909536", 10);
+        otherBookId = createInventory(author, "9780435909727", 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from inventory_movement");
+        jdbcTemplate.update("delete from inventory");
+        jdbcTemplate.update("delete from books");
+        jdbcTemplate.update("delete from authors");
+    }
+
+    @Nested
+    @DisplayName("CSV")
+    class CsvTest {
+
+        @Test
+        @DisplayName("Should apply lines by book id or ISBN across chunks and report every line")
+        void shouldApplyLinesByBookIdOrIsbnAcrossChunksAndReportEveryLine() {
+
+            BulkEntryReportDTO report = bulkEntryImporter.importEntries(body("""
+                    bookId,isbn,quantity
+                    %d,,5
+                    ,9780435909727,7
+                    %d,,3
+                    999999,,1
+                    %d,,-2
+                    """.formatted(bookId, bookId, otherBookId)), BulkEntryFormat.CSV);
+
+            assertThat(report.received()).isEqualTo(5);
+            assertThat(report.applied()).isEqualTo(3);
+            assertThat(report.rejected()).isEqualTo(2);
+            assertThat(report.lines()).extracting(BulkEntryLineResultDTO::line).containsExactly(2, 3, 4, 5, 6);
+            assertThat(report.lines()).extracting(BulkEntryLineResultDTO::status).containsExactly(
+                    BulkEntryStatus.APPLIED, BulkEntryStatus.APPLIED, BulkEntryStatus.APPLIED,
+                    BulkEntryStatus.REJECTED, BulkEntryStatus.REJECTED);
+            assertThat(report.lines().get(1).bookId()).isEqualTo(otherBookId);
+
+            assertThat(quantityOf(bookId)).isEqualTo(18);
+            assertThat(quantityOf(otherBookId)).isEqualTo(7);
+            assertThat(inventoryMovementRepository.findAll())
+                    .allMatch(movement -> movement.getMovementType() == MovementType.ENTRY)
+                    .hasSize(3);
+        }
+
+        @Test
+        @DisplayName("Should reject the lines of a chunk that fails and carry on with the next chunk")
+        void shouldRejectTheLinesOfAChunkThatFailsAndCarryOnWithTheNextChunk() {
+            doThrow(new ResourceNotFoundException("Inventory", "Book Id", otherBookId))
+                    .when(inventoryService).registerEntryBatch(argThat((Map<Long, Integer> batch) -> batch.containsKey(otherBookId)));
+            doThrow(new QueryTimeoutException("Entry timed out"))
+                    .when(inventoryService).registerEntryBatch(Map.of(bookId, 3));
+
+            BulkEntryReportDTO report = bulkEntryImporter.importEntries(body("""
+                    bookId,isbn,quantity
+                    %d,,7
+                    %d,,5
+                    %d,,2
+                    ,9780435909536,1
+                    %d,,4
+                    """.formatted(otherBookId, bookId, bookId, bookId)), BulkEntryFormat.CSV);
+
+            assertThat(report.applied()).isEqualTo(1);
+            assertThat(report.lines()).extracting(BulkEntryLineResultDTO::status).containsExactly(
+                    BulkEntryStatus.REJECTED, BulkEntryStatus.REJECTED, BulkEntryStatus.REJECTED,
+                    BulkEntryStatus.REJECTED, BulkEntryStatus.APPLIED);
+            assertThat(report.lines().get(0).message()).contains("Inventory not found");
+            assertThat(report.lines().get(2).message()).isEqualTo("The entry could not be registered");
+            assertThat(quantityOf(bookId)).isEqualTo(14);
+            assertThat(quantityOf(otherBookId)).isZero();
+        }
+
+        @Test
+        @DisplayName("Should refuse a body without a usable header")
+        void shouldRefuseABodyWithoutAUsableHeader() {
+
+            assertThatThrownBy(() -> bulkEntryImporter.importEntries(body("title,quantity\nx,1\n"), BulkEntryFormat.CSV))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("header");
+        }
+    }
+
+    @Nested
+    @DisplayName("NDJSON")
+    class NdjsonTest {
+
+        @Test
+        @DisplayName("Should apply valid lines and reject malformed ones")
+        void shouldApplyValidLinesAndRejectMalformedOnes() {
+
+            BulkEntryReportDTO report = bulkEntryImporter.importEntries(body("""
+                    {"isbn":"9780435909536","quantity":4}
+                    {"bookId":%d,
+                    {"bookId":%d,"quantity":"many"}
+                    """.formatted(otherBookId, otherBookId)), BulkEntryFormat.NDJSON);
+
+            assertThat(report.applied()).isEqualTo(1);
+            assertThat(report.lines()).extracting(BulkEntryLineResultDTO::message)
+                    .containsExactly(null, "Malformed JSON", "Quantity is not a valid number: many");
+            assertThat(quantityOf(bookId)).isEqualTo(14);
+            assertThat(quantityOf(otherBookId)).isZero();
+        }
+    }
+
+    private Long createInventory(Author author, String isbn, int quantityAvailable) {
+        Book book = bookRepository.save(Book.builder()
+                .isbn(isbn)
+                .title("Title " + isbn)
+                .publishDate(LocalDate.of(1979, 1, 1))
+                .pages(90)
+                .author(author)
+                .build());
+        inventoryRepository.save(Inventory.builder()
+                .book(book)
+                .quantityAvailable(quantityAvailable)
+                .stockMin(2)
+                .stockMax(500)
+                .build());
+        return book.getId();
+    }
+
+    private int quantityOf(Long bookId) {
+        return inventoryRepository.findStockByBookId(bookId).orElseThrow().quantityAvailable();
+    }
+
+    private static InputStream body(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
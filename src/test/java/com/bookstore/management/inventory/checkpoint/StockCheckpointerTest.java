@@ -0,0 +1,212 @@
+package com.bookstore.management.inventory.checkpoint;
+
+import com.bookstore.management.book.model.Author;
+import com.bookstore.management.book.model.Book;
+import com.bookstore.management.book.model.Gender;
+import com.bookstore.management.book.repository.AuthorRepository;
+import com.bookstore.management.book.repository.BookRepository;
+import com.bookstore.management.inventory.archive.MovementArchive;
+import com.bookstore.management.inventory.dto.StockAsOfDTO;
+import com.bookstore.management.inventory.journal.JournalEntry;
+import com.bookstore.management.inventory.journal.MovementBatchWriter;
+import com.bookstore.management.inventory.model.Inventory;
+import com.bookstore.management.inventory.model.MovementType;
+import com.bookstore.management.inventory.repository.InventoryRepository;
+import com.bookstore.management.inventory.repository.StockCheckpointRepository;
+import com.bookstore.management.inventory.service.StockHistoryService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:stockcheckpoint;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "inventory.checkpoint.enabled=false",
+        "inventory.archive.enabled=false"
+})
+public class StockCheckpointerTest {
+
+    private static final LocalDateTime DAY_1 = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @TempDir
+    static Path archiveDirectory;
+
+    @DynamicPropertySource
+    static void archiveProperties(DynamicPropertyRegistry registry) {
+        registry.add("inventory.archive.directory", () -> archiveDirectory.toString());
+    }
+
+    @Autowired
+    private StockCheckpointer stockCheckpointer;
+    @Autowired
+    private StockHistoryService stockHistoryService;
+    @Autowired
+    private StockCheckpointRepository checkpointRepository;
+    @Autowired
+    private MovementArchive movementArchive;
+    @Autowired
+    private MovementBatchWriter movementBatchWriter;
+    @Autowired
+    private InventoryRepository inventoryRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Inventory inventory;
+    private Inventory otherInventory;
+
+    @BeforeEach
+    void setUp() {
+        Author author = authorRepository.save(Author.builder()
+                .name("Ngugi wa Thiong'o")
+                .nationality("Kenyan")
+                .birthDate(LocalDate.of(1938, 1, 5))
+                .gender(Gender.MALE)
+                .build());
+        inventory = createInventory(author, "9780435905255");
+        otherInventory = createInventory(author, "9780435908300");
+
+        movementBatchWriter.write(List.of(
+                entry(inventory, MovementType.INITIAL_INVENTORY, 10, DAY_1.plusHours(9)),
+                entry(otherInventory, MovementType.INITIAL_INVENTORY, 4, DAY_1.plusHours(9)),
+                entry(inventory, MovementType.RESERVE, -3, DAY_1.plusDays(1).plusHours(10)),
+                entry(inventory, MovementType.ENTRY, 5, DAY_1.plusDays(2).plusHours(11)),
+                entry(otherInventory, MovementType.EXIT, -4, DAY_1.plusDays(2).plusHours(11)),
+                entry(inventory, MovementType.RELEASE_RESERVE, 1, DAY_1.plusDays(3).plusHours(8))));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from stock_checkpoint");
+        jdbcTemplate.update("delete from movement_archive_segment");
+        jdbcTemplate.update("delete from inventory_movement");
+        jdbcTemplate.update("delete from inventory");
+        jdbcTemplate.update("delete from books");
+        jdbcTemplate.update("delete from authors");
+    }
+
+    @Nested
+    @DisplayName("Checkpoint")
+    class CheckpointTest {
+
+        @Test
+        @DisplayName("Should only checkpoint inventories with movements since the previous run")
+        void shouldOnlyCheckpointInventoriesWithMovementsSinceThePreviousRun() {
+
+            assertThat(stockCheckpointer.checkpoint(DAY_1.plusDays(1).plusHours(12))).isEqualTo(2);
+            assertThat(stockCheckpointer.checkpoint(DAY_1.plusDays(1).plusHours(18))).isZero();
+            assertThat(stockCheckpointer.checkpoint(DAY_1.plusDays(3).plusHours(12))).isEqualTo(2);
+            assertThat(stockCheckpointer.checkpoint(DAY_1.plusDays(3))).isZero();
+
+            assertThat(checkpointRepository.findLatestNotAfter(DAY_1.plusDays(10)))
+                    .extracting(checkpoint -> checkpoint.getInventoryId() + ":"
+                            + checkpoint.getQuantityAvailable() + "/" + checkpoint.getQuantityReserved())
+                    .containsExactlyInAnyOrder(inventory.getId() + ":13/2", otherInventory.getId() + ":0/0");
+        }
+
+        @Test
+        @DisplayName("Should include archived movements in the first checkpoint")
+        void shouldIncludeArchivedMovementsInTheFirstCheckpoint() {
+            movementArchive.archiveBefore(YearMonth.of(2025, 2));
+
+            stockCheckpointer.checkpoint(DAY_1.plusDays(10));
+
+            assertThat(stockHistoryService.findStockAsOf(inventory.getBook().getId(), DAY_1.plusDays(10)))
+                    .extracting(StockAsOfDTO::quantityAvailable, StockAsOfDTO::quantityReserved)
+                    .containsExactly(13, 2);
+        }
+    }
+
+    @Nested
+    @DisplayName("Stock as of")
+    class StockAsOfTest {
+
+        @BeforeEach
+        void checkpoint() {
+            stockCheckpointer.checkpoint(DAY_1.plusDays(1).plusHours(12));
+            stockCheckpointer.checkpoint(DAY_1.plusDays(2).plusHours(12));
+        }
+
+        @Test
+        @DisplayName("Should add the movements after the latest checkpoint")
+        void shouldAddTheMovementsAfterTheLatestCheckpoint() {
+
+            assertThat(stockAsOf(DAY_1.plusDays(2))).containsExactly(7, 3);
+            assertThat(stockAsOf(DAY_1.plusDays(3))).containsExactly(12, 3);
+            assertThat(stockAsOf(DAY_1.plusDays(4))).containsExactly(13, 2);
+        }
+
+        @Test
+        @DisplayName("Should subtract the movements before the first checkpoint")
+        void shouldSubtractTheMovementsBeforeTheFirstCheckpoint() {
+
+            assertThat(stockAsOf(DAY_1.plusDays(1))).containsExactly(10, 0);
+            assertThat(stockAsOf(DAY_1)).containsExactly(0, 0);
+        }
+
+        @Test
+        @DisplayName("Should list the stock of the catalog, leaving out empty inventories")
+        void shouldListTheStockOfTheCatalogLeavingOutEmptyInventories() {
+
+            assertThat(stockHistoryService.findCatalogStockAsOf(DAY_1.plusDays(1)))
+                    .extracting(stock -> stock.inventoryId() + ":" + stock.quantityAvailable() + "/" + stock.quantityReserved())
+                    .containsExactly(inventory.getId() + ":10/0", otherInventory.getId() + ":4/0");
+            assertThat(stockHistoryService.findCatalogStockAsOf(DAY_1.plusDays(4)))
+                    .extracting(stock -> stock.inventoryId() + ":" + stock.quantityAvailable() + "/" + stock.quantityReserved())
+                    .containsExactly(inventory.getId() + ":13/2");
+        }
+    }
+
+    @Test
+    @DisplayName("Should sum the ledger when no checkpoint has been taken")
+    void shouldSumTheLedgerWhenNoCheckpointHasBeenTaken() {
+
+        assertThat(stockAsOf(DAY_1.plusDays(2))).containsExactly(7, 3);
+        assertThat(stockHistoryService.findCatalogStockAsOf(DAY_1.plusDays(3))).hasSize(1);
+    }
+
+    private List<Integer> stockAsOf(LocalDateTime at) {
+        StockAsOfDTO stock = stockHistoryService.findStockAsOf(inventory.getBook().getId(), at);
+        return List.of(stock.quantityAvailable(), stock.quantityReserved());
+    }
+
+    private Inventory createInventory(Author author, String isbn) {
+        Book book = bookRepository.save(Book.builder()
+                .isbn(isbn)
+                .title("Title " + isbn)
+                .publishDate(LocalDate.of(1977, 1, 1))
+                .pages(340)
+                .author(author)
+                .build());
+        return inventoryRepository.save(Inventory.builder()
+                .book(book)
+                .quantityAvailable(0)
+                .stockMin(2)
+                .stockMax(500)
+                .build());
+    }
+
+    private static JournalEntry entry(Inventory inventory, MovementType movementType, int affectedQuantity,
+                                      LocalDateTime createdAt) {
+        return new JournalEntry(inventory.getId(), affectedQuantity, 0, affectedQuantity, movementType,
+                movementType.getDescription(), "SYSTEM", createdAt);
+    }
+}
@@ -0,0 +1,76 @@
+package com.bookstore.management.inventory.controller;
+
+import com.bookstore.management.inventory.activity.InventoryActivityTracker;
+import com.bookstore.management.inventory.dto.ActivityBackfillDTO;
+import com.bookstore.management.inventory.dto.DeadStockDTO;
+import com.bookstore.management.shared.exception.custom.ActivityBackfillInProgressException;
+import com.bookstore.management.shared.exception.handler.GlobalExceptionHandler;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = InventoryActivityController.class)
+@AutoConfigureMockMvc(addFilters = false)
+@Import(GlobalExceptionHandler.class)
+class InventoryActivityControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private InventoryActivityTracker activityTracker;
+
+    @Test
+    @DisplayName("Should return the dead stock of the requested window and page")
+    void shouldReturnTheDeadStockOfTheRequestedWindowAndPage() throws Exception {
+        when(activityTracker.deadStock(90, 1, 20)).thenReturn(List.of(new DeadStockDTO(4L, "9780954702373",
+                "Black and Female", 3, new BigDecimal("81.00"), null, LocalDateTime.now())));
+
+        mockMvc.perform(get("/api/inventory/dead-stock")
+                        .param("days", "90").param("page", "1").param("size", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].bookId", is(4)))
+                .andExpect(jsonPath("$[0].tiedUpValue", is(81.00)))
+                .andExpect(jsonPath("$[0].lastSoldAt", nullValue()));
+    }
+
+    @Test
+    @DisplayName("Should return bad request for a window of zero days")
+    void shouldReturnBadRequestForAWindowOfZeroDays() throws Exception {
+        mockMvc.perform(get("/api/inventory/dead-stock").param("days", "0"))
+                .andExpect(status().isBadRequest());
+
+        verify(activityTracker, never()).deadStock(anyInt(), anyInt(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should run the backfill and return conflict while one is running")
+    void shouldRunTheBackfillAndReturnConflictWhileOneIsRunning() throws Exception {
+        when(activityTracker.backfill())
+                .thenReturn(new ActivityBackfillDTO(12L, 340L))
+                .thenThrow(new ActivityBackfillInProgressException("An inventory activity backfill is already running"));
+
+        mockMvc.perform(post("/api/inventory/activity/backfill"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.inventories", is(12)));
+        mockMvc.perform(post("/api/inventory/activity/backfill"))
+                .andExpect(status().isConflict());
+    }
+}
@@ -2,10 +2,14 @@ package com.bookstore.management.inventory.controller;
 
 import com.bookstore.management.book.dto.BookSummaryDTO;
 import com.bookstore.management.book.model.Book;
+import com.bookstore.management.inventory.bulk.BulkEntryFormat;
+import com.bookstore.management.inventory.bulk.BulkEntryImporter;
 import com.bookstore.management.inventory.dto.*;
 import com.bookstore.management.inventory.model.AvailabilityStatus;
+import com.bookstore.management.inventory.model.BulkEntryStatus;
 import com.bookstore.management.inventory.model.MovementType;
 import com.bookstore.management.inventory.service.InventoryServiceImpl;
+import com.bookstore.management.inventory.service.StockHistoryService;
 import com.bookstore.management.shared.exception.custom.*;
 import com.bookstore.management.shared.exception.handler.GlobalExceptionHandler;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -45,6 +49,12 @@ public class InventoryControllerTest {
     @MockitoBean
     private InventoryServiceImpl inventoryServiceImpl;
 
+    @MockitoBean
+    private BulkEntryImporter bulkEntryImporter;
+
+    @MockitoBean
+    private StockHistoryService stockHistoryService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -272,6 +282,41 @@ public class InventoryControllerTest {
 
             verify(inventoryServiceImpl, times(1)).findByAlertLowStockList();
         }
+
+        @Test
+        @DisplayName("Should return the requested page of low stock inventories")
+        void shouldReturnTheRequestedPageOfLowStockInventories() throws Exception {
+            InventorySummaryDTO inventory = new InventorySummaryDTO(2L, bookSummary2, 1, true);
+
+            when(inventoryServiceImpl.findByAlertLowStockPage(1, 10))
+                    .thenReturn(Collections.singletonList(inventory));
+
+            mockMvc.perform(get("/api/inventory/low-stock")
+                            .param("page", "1")
+                            .param("size", "10"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(1)))
+                    .andExpect(jsonPath("$[0].id", is(2)));
+
+            verify(inventoryServiceImpl, times(1)).findByAlertLowStockPage(1, 10);
+            verify(inventoryServiceImpl, never()).findByAlertLowStockList();
+        }
+
+        @Test
+        @DisplayName("Should return the most critical low stock inventories")
+        void shouldReturnTheMostCriticalLowStockInventories() throws Exception {
+            InventorySummaryDTO inventory = new InventorySummaryDTO(1L, bookSummary, 0, true);
+
+            when(inventoryServiceImpl.findMostCriticalLowStock(3))
+                    .thenReturn(Collections.singletonList(inventory));
+
+            mockMvc.perform(get("/api/inventory/low-stock/top")
+                            .param("limit", "3"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].quantityAvailable", is(0)));
+
+            verify(inventoryServiceImpl, times(1)).findMostCriticalLowStock(3);
+        }
     }
 
     @Nested
@@ -463,6 +508,43 @@ public class InventoryControllerTest {
         }
     }
 
+    @Nested
+    @DisplayName("Register Bulk Entries Tests")
+    class RegisterBulkEntries {
+
+        @Test
+        @DisplayName("Should import a CSV body and return the line report")
+        void shouldImportACsvBodyAndReturnTheLineReport() throws Exception {
+            BulkEntryReportDTO report = new BulkEntryReportDTO(1, 1, 0, List.of(
+                    new BulkEntryLineResultDTO(2, 1L, null, 20, BulkEntryStatus.APPLIED, null)));
+
+            when(bulkEntryImporter.importEntries(any(), eq(BulkEntryFormat.CSV))).thenReturn(report);
+
+            mockMvc.perform(post("/api/inventory/entries/bulk")
+                            .contentType("text/csv")
+                            .content("bookId,quantity\n1,20\n"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.applied", is(1)))
+                    .andExpect(jsonPath("$.lines[0].status", is("APPLIED")));
+
+            verify(bulkEntryImporter, times(1)).importEntries(any(), eq(BulkEntryFormat.CSV));
+        }
+
+        @Test
+        @DisplayName("Should import an NDJSON body")
+        void shouldImportAnNdjsonBody() throws Exception {
+            when(bulkEntryImporter.importEntries(any(), eq(BulkEntryFormat.NDJSON)))
+                    .thenReturn(new BulkEntryReportDTO(0, 0, 0, List.of()));
+
+            mockMvc.perform(post("/api/inventory/entries/bulk")
+                            .contentType(MediaType.APPLICATION_NDJSON)
+                            .content("{\"bookId\":1,\"quantity\":20}\n"))
+                    .andExpect(status().isOk());
+
+            verify(bulkEntryImporter, times(1)).importEntries(any(), eq(BulkEntryFormat.NDJSON));
+        }
+    }
+
     @Nested
     @DisplayName("Positive Adjustment Tests")
     class PositiveAdjustment {
@@ -815,4 +897,40 @@ public class InventoryControllerTest {
             verify(inventoryServiceImpl, never()).disableById(any());
         }
     }
+
+    @Nested
+    @DisplayName("Stock As Of Tests")
+    class StockAsOf {
+
+        @Test
+        @DisplayName("Should ask for the stock at the close of the requested day")
+        void shouldAskForTheStockAtTheCloseOfTheRequestedDay() throws Exception {
+            LocalDateTime closeOfDay = LocalDateTime.of(2025, 3, 2, 0, 0);
+
+            when(stockHistoryService.findStockAsOf(1L, closeOfDay))
+                    .thenReturn(new StockAsOfDTO(7L, 1L, closeOfDay, 12, 3));
+
+            mockMvc.perform(get("/api/inventory/book/{bookId}/as-of", 1L)
+                            .param("date", "2025-03-01"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.inventoryId", is(7)))
+                    .andExpect(jsonPath("$.quantityAvailable", is(12)))
+                    .andExpect(jsonPath("$.quantityReserved", is(3)));
+        }
+
+        @Test
+        @DisplayName("Should return the stock of the whole catalog")
+        void shouldReturnTheStockOfTheWholeCatalog() throws Exception {
+            LocalDateTime closeOfDay = LocalDateTime.of(2025, 3, 2, 0, 0);
+
+            when(stockHistoryService.findCatalogStockAsOf(closeOfDay)).thenReturn(List.of(
+                    new StockAsOfDTO(7L, 1L, closeOfDay, 12, 3),
+                    new StockAsOfDTO(8L, 2L, closeOfDay, 4, 0)));
+
+            mockMvc.perform(get("/api/inventory/as-of").param("date", "2025-03-01"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(2)))
+                    .andExpect(jsonPath("$[1].bookId", is(2)));
+        }
+    }
 }
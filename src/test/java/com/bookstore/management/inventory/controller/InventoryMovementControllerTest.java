@@ -2,6 +2,7 @@ package com.bookstore.management.inventory.controller;
 
 import com.bookstore.management.inventory.dto.InventoryMovementResponseDTO;
 import com.bookstore.management.inventory.dto.InventorySummaryDTO;
+import com.bookstore.management.inventory.dto.MovementSliceDTO;
 import com.bookstore.management.inventory.model.MovementType;
 import com.bookstore.management.inventory.service.InventoryMovementServiceImpl;
 import com.bookstore.management.shared.exception.handler.GlobalExceptionHandler;
@@ -555,4 +556,44 @@ class InventoryMovementControllerTest {
             verify(inventoryMovementServiceImpl, times(1)).findRecentMovements(any(Pageable.class));
         }
     }
+
+    @Nested
+    @DisplayName("Keyset Pagination Tests")
+    class Keyset_Pagination {
+
+        @Test
+        @DisplayName("Should switch to keyset mode when a cursor is sent")
+        void shouldSwitchToKeysetModeWhenACursorIsSent() throws Exception {
+            InventorySummaryDTO inventorySummary = new InventorySummaryDTO(1L, null, 50, true);
+            InventoryMovementResponseDTO movement = new InventoryMovementResponseDTO(
+                    7L, inventorySummary, 10, 40, 50, MovementType.ENTRY,
+                    "Entry", "SYSTEM", LocalDateTime.now()
+            );
+
+            when(inventoryMovementServiceImpl.seekByInventoryId(1L, "", 20, true))
+                    .thenReturn(new MovementSliceDTO(List.of(movement), "next-token", 41L));
+
+            mockMvc.perform(get("/api/movements/by-inventory/{inventoryId}", 1L)
+                            .param("cursor", "")
+                            .param("size", "20")
+                            .param("withTotal", "true"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content", hasSize(1)))
+                    .andExpect(jsonPath("$.content[0].id", is(7)))
+                    .andExpect(jsonPath("$.nextCursor", is("next-token")))
+                    .andExpect(jsonPath("$.estimatedTotal", is(41)));
+
+            verify(inventoryMovementServiceImpl, never()).findAllByInventoryId(any(), any());
+        }
+
+        @Test
+        @DisplayName("Should return 400 when the cursor is invalid")
+        void shouldReturn400WhenTheCursorIsInvalid() throws Exception {
+            when(inventoryMovementServiceImpl.seekRecentMovements("broken", 10, false))
+                    .thenThrow(new IllegalArgumentException("Invalid cursor"));
+
+            mockMvc.perform(get("/api/movements/recent").param("cursor", "broken"))
+                    .andExpect(status().isBadRequest());
+        }
+    }
 }
@@ -0,0 +1,60 @@
+package com.bookstore.management.inventory.controller;
+
+import com.bookstore.management.inventory.dto.InventoryValuationReportDTO;
+import com.bookstore.management.inventory.dto.ValuationLineDTO;
+import com.bookstore.management.inventory.report.InventoryValuationReporter;
+import com.bookstore.management.shared.exception.handler.GlobalExceptionHandler;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = InventoryReportController.class)
+@AutoConfigureMockMvc(addFilters = false)
+@Import(GlobalExceptionHandler.class)
+class InventoryReportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private InventoryValuationReporter valuationReporter;
+
+    @Test
+    @DisplayName("Should return the valuation report of the requested window")
+    void shouldReturnTheValuationReportOfTheRequestedWindow() throws Exception {
+        ValuationLineDTO total = new ValuationLineDTO("Total", 3L, 20L, new BigDecimal("304.00"), 2L,
+                new BigDecimal("36.00"), new BigDecimal("0.12"), new BigDecimal("70.0"));
+        when(valuationReporter.report(7)).thenReturn(new InventoryValuationReportDTO(
+                LocalDateTime.now(), 42L, 7, total, List.of(), List.of()));
+
+        mockMvc.perform(get("/api/inventory/reports/valuation").param("days", "7"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ledgerVersion", is(42)))
+                .andExpect(jsonPath("$.total.stockValue", is(304.00)))
+                .andExpect(jsonPath("$.byGenre", empty()));
+    }
+
+    @Test
+    @DisplayName("Should return bad request for a window longer than a year")
+    void shouldReturnBadRequestForAWindowLongerThanAYear() throws Exception {
+        mockMvc.perform(get("/api/inventory/reports/valuation").param("days", "400"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(valuationReporter);
+    }
+}
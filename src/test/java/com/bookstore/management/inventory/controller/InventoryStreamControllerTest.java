@@ -0,0 +1,59 @@
+package com.bookstore.management.inventory.controller;
+
+import com.bookstore.management.inventory.stream.InventoryStreamBroker;
+import com.bookstore.management.shared.exception.handler.GlobalExceptionHandler;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Set;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@WebMvcTest(InventoryStreamController.class)
+@Import(GlobalExceptionHandler.class)
+@AutoConfigureMockMvc(addFilters = false)
+public class InventoryStreamControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private InventoryStreamBroker inventoryStreamBroker;
+
+    @Test
+    @DisplayName("Should subscribe to every book when no book ids are given")
+    void shouldSubscribeToEveryBookWhenNoBookIdsAreGiven() throws Exception {
+
+        when(inventoryStreamBroker.subscribe(Set.of(), null)).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/inventory/stream").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+
+        verify(inventoryStreamBroker).subscribe(Set.of(), null);
+    }
+
+    @Test
+    @DisplayName("Should resume the requested books from the last event id")
+    void shouldResumeTheRequestedBooksFromTheLastEventId() throws Exception {
+
+        when(inventoryStreamBroker.subscribe(Set.of(1L, 2L), 41L)).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/inventory/stream")
+                        .param("bookIds", "1,2")
+                        .header("Last-Event-ID", "41")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+
+        verify(inventoryStreamBroker).subscribe(Set.of(1L, 2L), 41L);
+    }
+}
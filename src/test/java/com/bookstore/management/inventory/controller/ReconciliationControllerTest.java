@@ -0,0 +1,71 @@
+package com.bookstore.management.inventory.controller;
+
+import com.bookstore.management.inventory.dto.InventoryDriftDTO;
+import com.bookstore.management.inventory.dto.ReconciliationRunDTO;
+import com.bookstore.management.inventory.model.ReconciliationStatus;
+import com.bookstore.management.inventory.reconcile.LedgerReconciler;
+import com.bookstore.management.shared.exception.custom.ReconciliationInProgressException;
+import com.bookstore.management.shared.exception.handler.GlobalExceptionHandler;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = ReconciliationController.class)
+@AutoConfigureMockMvc(addFilters = false)
+@Import(GlobalExceptionHandler.class)
+class ReconciliationControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private LedgerReconciler ledgerReconciler;
+
+    @Test
+    @DisplayName("Should accept a reconciliation and return its run")
+    void shouldAcceptAReconciliationAndReturnItsRun() throws Exception {
+        when(ledgerReconciler.start()).thenReturn(new ReconciliationRunDTO(
+                4L, ReconciliationStatus.RUNNING, LocalDateTime.now(), null, 0L, 0, null, List.of()));
+
+        mockMvc.perform(post("/api/inventory/reconciliations"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id", is(4)))
+                .andExpect(jsonPath("$.status", is("RUNNING")));
+    }
+
+    @Test
+    @DisplayName("Should return conflict when a reconciliation is already running")
+    void shouldReturnConflictWhenAReconciliationIsAlreadyRunning() throws Exception {
+        when(ledgerReconciler.start()).thenThrow(new ReconciliationInProgressException("A reconciliation is already running"));
+
+        mockMvc.perform(post("/api/inventory/reconciliations"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @DisplayName("Should return the drift report of a run")
+    void shouldReturnTheDriftReportOfARun() throws Exception {
+        when(ledgerReconciler.report(4L)).thenReturn(new ReconciliationRunDTO(
+                4L, ReconciliationStatus.COMPLETED, LocalDateTime.now(), LocalDateTime.now(), 7L, 1, null,
+                List.of(new InventoryDriftDTO(3L, 9L, 13L, 17, 2L, 0, null, null))));
+
+        mockMvc.perform(get("/api/inventory/reconciliations/{runId}", 4L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.drifts", hasSize(1)))
+                .andExpect(jsonPath("$.drifts[0].actualAvailable", is(17)));
+    }
+}
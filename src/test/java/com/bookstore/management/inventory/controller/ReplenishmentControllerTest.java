@@ -0,0 +1,68 @@
+package com.bookstore.management.inventory.controller;
+
+import com.bookstore.management.inventory.dto.ReplenishmentSuggestionDTO;
+import com.bookstore.management.inventory.velocity.SalesVelocityTracker;
+import com.bookstore.management.shared.exception.custom.ResourceNotFoundException;
+import com.bookstore.management.shared.exception.handler.GlobalExceptionHandler;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = ReplenishmentController.class)
+@AutoConfigureMockMvc(addFilters = false)
+@Import(GlobalExceptionHandler.class)
+class ReplenishmentControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private SalesVelocityTracker velocityTracker;
+
+    @Test
+    @DisplayName("Should return the requested page of replenishment suggestions")
+    void shouldReturnTheRequestedPageOfReplenishmentSuggestions() throws Exception {
+        when(velocityTracker.suggestions(2, 20)).thenReturn(List.of(new ReplenishmentSuggestionDTO(
+                7L, 12.5, 30, 5, 200, LocalDate.of(2026, 3, 2), 170, LocalDateTime.now())));
+
+        mockMvc.perform(get("/api/inventory/replenishment").param("page", "2").param("size", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].bookId", is(7)))
+                .andExpect(jsonPath("$[0].stockOutDate", is("2026-03-02")))
+                .andExpect(jsonPath("$[0].suggestedQuantity", is(170)));
+    }
+
+    @Test
+    @DisplayName("Should return bad request for a page larger than allowed")
+    void shouldReturnBadRequestForAPageLargerThanAllowed() throws Exception {
+        mockMvc.perform(get("/api/inventory/replenishment").param("size", "5000"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(velocityTracker);
+    }
+
+    @Test
+    @DisplayName("Should return not found for a book without sales velocity")
+    void shouldReturnNotFoundForABookWithoutSalesVelocity() throws Exception {
+        when(velocityTracker.findByBookId(3L)).thenThrow(new ResourceNotFoundException("Sales velocity", "Book Id", 3L));
+
+        mockMvc.perform(get("/api/inventory/book/3/velocity"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,66 @@
+package com.bookstore.management.inventory.controller;
+
+import com.bookstore.management.inventory.dto.StockSlotsDTO;
+import com.bookstore.management.inventory.slot.StockSlots;
+import com.bookstore.management.shared.exception.custom.InvalidStockSlotsException;
+import com.bookstore.management.shared.exception.handler.GlobalExceptionHandler;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = StockSlotController.class)
+@AutoConfigureMockMvc(addFilters = false)
+@Import(GlobalExceptionHandler.class)
+class StockSlotControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private StockSlots stockSlots;
+
+    @Test
+    @DisplayName("Should shard a book across the requested number of slots")
+    void shouldShardABookAcrossTheRequestedNumberOfSlots() throws Exception {
+        when(stockSlots.shard(7L, 2)).thenReturn(new StockSlotsDTO(7L, 2, 9, 1, List.of(5, 4)));
+
+        mockMvc.perform(put("/api/inventory/book/7/slots").param("count", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.slots", is(2)))
+                .andExpect(jsonPath("$.quantityAvailable", is(9)))
+                .andExpect(jsonPath("$.slotsAvailable", contains(5, 4)));
+    }
+
+    @Test
+    @DisplayName("Should return bad request when the number of slots is not allowed")
+    void shouldReturnBadRequestWhenTheNumberOfSlotsIsNotAllowed() throws Exception {
+        when(stockSlots.shard(7L, 500)).thenThrow(new InvalidStockSlotsException("The number of slots must be between 1 and 64"));
+
+        mockMvc.perform(put("/api/inventory/book/7/slots").param("count", "500"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should unshard a book")
+    void shouldUnshardABook() throws Exception {
+        when(stockSlots.unshard(7L)).thenReturn(new StockSlotsDTO(7L, 0, 9, 1, List.of()));
+
+        mockMvc.perform(delete("/api/inventory/book/7/slots"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.slots", is(0)))
+                .andExpect(jsonPath("$.slotsAvailable", empty()));
+    }
+}
@@ -0,0 +1,208 @@
+package com.bookstore.management.inventory.journal;
+
+import com.bookstore.management.inventory.model.InventoryMovement;
+import com.bookstore.management.inventory.model.MovementJournalCheckpoint;
+import com.bookstore.management.inventory.model.MovementType;
+import com.bookstore.management.inventory.repository.MovementJournalCheckpointRepository;
+import com.bookstore.management.shared.exception.custom.JournalBatchTooLargeException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static com.bookstore.management.inventory.journal.GroupCommitMovementJournalTest.movement;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class FileMovementJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private final MovementBatchWriter movementBatchWriter = mock(MovementBatchWriter.class);
+    private final MovementDeadLetterWriter deadLetterWriter = mock(MovementDeadLetterWriter.class);
+    private final MovementJournalCheckpointRepository checkpointRepository = mock(MovementJournalCheckpointRepository.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final List<JournalEntry> drained = new ArrayList<>();
+    private FileMovementJournal journal;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        journal.stopDrainer();
+        journal.stop();
+    }
+
+    @Test
+    @DisplayName("Should append movements to the segment and drain them into the database")
+    void shouldAppendMovementsToTheSegmentAndDrainThemIntoTheDatabase() throws Exception {
+
+        journal = start(DataSize.ofMegabytes(1));
+
+        journal.appendAll(List.of(movement(1L, -2), movement(2L, -3)));
+
+        assertThat(Files.readAllLines(directory.resolve(segmentName(0)))).hasSize(2);
+
+        verify(movementBatchWriter, timeout(2000).atLeastOnce()).write(any());
+        assertThat(drained).extracting(JournalEntry::inventoryId).containsExactly(1L, 2L);
+        assertThat(drained).extracting(JournalEntry::movementType).containsOnly(MovementType.RESERVE);
+        verify(checkpointRepository, atLeastOnce()).save(argThat(checkpoint ->
+                checkpoint.getSegmentNumber() == 0 && checkpoint.getSegmentPosition() > 0));
+    }
+
+    @Test
+    @DisplayName("Should roll to a new segment and delete the drained one")
+    void shouldRollToANewSegmentAndDeleteTheDrainedOne() throws Exception {
+
+        journal = start(DataSize.ofBytes(1));
+
+        journal.append(movement(1L, -1));
+        journal.append(movement(2L, -1));
+
+        verify(checkpointRepository, timeout(2000).atLeastOnce()).save(argThat(checkpoint ->
+                checkpoint.getSegmentNumber() == 1 && checkpoint.getSegmentPosition() > 0));
+        assertThat(drained).extracting(JournalEntry::inventoryId).containsExactly(1L, 2L);
+        assertThat(directory.resolve(segmentName(0))).doesNotExist();
+    }
+
+    @Test
+    @DisplayName("Should drain movements left by a previous run from the checkpoint on")
+    void shouldDrainMovementsLeftByAPreviousRunFromTheCheckpointOn() throws Exception {
+
+        String alreadyDrained = line(new JournalEntry(1L, -1, 5, 4, MovementType.RESERVE, "Reserve", "SYSTEM", LocalDateTime.now()));
+        String pending = line(new JournalEntry(2L, 3, 0, 3, MovementType.ENTRY, "Entry", "SYSTEM", LocalDateTime.now()));
+        Files.writeString(directory.resolve(segmentName(0)), alreadyDrained + pending + "{\"incomplete");
+
+        when(checkpointRepository.findById("inventory-movement")).thenReturn(Optional.of(
+                new MovementJournalCheckpoint("inventory-movement", 0L, (long) alreadyDrained.length(), 0L)));
+
+        journal = start(DataSize.ofMegabytes(1));
+
+        verify(movementBatchWriter, timeout(2000).times(1)).write(any());
+        assertThat(drained).extracting(JournalEntry::inventoryId).containsExactly(2L);
+        assertThat(Files.readString(directory.resolve(segmentName(0)))).isEqualTo(alreadyDrained + pending);
+    }
+
+    @Test
+    @DisplayName("Should insert once the entries written again after a failed flush")
+    void shouldInsertOnceTheEntriesWrittenAgainAfterAFailedFlush() throws Exception {
+
+        // a flush that failed after two entries and part of a third, written again to the next segment
+        Files.writeString(directory.resolve(segmentName(0)),
+                line(entry(1L, 1L)) + line(entry(2L, 2L)) + "{\"inventoryId\":3,\"affec");
+        Files.writeString(directory.resolve(segmentName(1)),
+                line(entry(2L, 2L)) + line(entry(3L, 3L)));
+
+        journal = start(DataSize.ofMegabytes(1));
+        verify(checkpointRepository, timeout(2000).atLeastOnce()).save(argThat(checkpoint ->
+                checkpoint.getSegmentNumber() == 1 && checkpoint.getLastEntryId() == 3));
+
+        journal.append(movement(4L, -1));
+
+        verify(checkpointRepository, timeout(2000).atLeastOnce()).save(argThat(checkpoint -> checkpoint.getLastEntryId() == 4));
+        assertThat(drained).extracting(JournalEntry::inventoryId).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(drained).extracting(JournalEntry::entryId).containsExactly(1L, 2L, 3L, 4L);
+    }
+
+    @Test
+    @DisplayName("Should skip the entries up to the last id drained by a previous run")
+    void shouldSkipTheEntriesUpToTheLastIdDrainedByAPreviousRun() throws Exception {
+
+        Files.writeString(directory.resolve(segmentName(0)), line(entry(6L, 6L)) + line(entry(7L, 7L)));
+        when(checkpointRepository.findById("inventory-movement")).thenReturn(Optional.of(
+                new MovementJournalCheckpoint("inventory-movement", 0L, 0L, 6L)));
+
+        journal = start(DataSize.ofMegabytes(1));
+        journal.append(movement(8L, -1));
+
+        verify(checkpointRepository, timeout(2000).atLeastOnce()).save(argThat(checkpoint -> checkpoint.getLastEntryId() == 8));
+        assertThat(drained).extracting(JournalEntry::entryId).containsExactly(7L, 8L);
+    }
+
+    @Test
+    @DisplayName("Should skip the entries of a dead-lettered batch that reached the segment")
+    void shouldSkipTheEntriesOfADeadLetteredBatchThatReachedTheSegment() throws Exception {
+
+        Files.writeString(directory.resolve(segmentName(0)),
+                line(entry(1L, 1L)) + line(entry(2L, 2L)) + line(entry(3L, 3L)));
+        when(deadLetterWriter.deadLetteredEntryIds(1L, 3L)).thenReturn(Set.of(2L));
+
+        journal = start(DataSize.ofMegabytes(1));
+
+        verify(checkpointRepository, timeout(2000).atLeastOnce()).save(argThat(checkpoint -> checkpoint.getLastEntryId() == 3));
+        assertThat(drained).extracting(JournalEntry::entryId).containsExactly(1L, 3L);
+    }
+
+    @Test
+    @DisplayName("Should refuse at once a change with more movements than the journal can hold")
+    void shouldRefuseAtOnceAChangeWithMoreMovementsThanTheJournalCanHold() throws Exception {
+
+        journal = start(DataSize.ofMegabytes(1));
+        List<InventoryMovement> movements = new ArrayList<>();
+        for (long inventoryId = 1; inventoryId <= 101; inventoryId++) {
+            movements.add(movement(inventoryId, -1));
+        }
+
+        assertThatThrownBy(() -> journal.appendAll(movements))
+                .isInstanceOf(JournalBatchTooLargeException.class)
+                .hasMessageContaining("capacity of 100");
+        journal.appendAll(movements.subList(0, 100));
+        verify(movementBatchWriter, timeout(2000).atLeastOnce()).write(any());
+    }
+
+    private FileMovementJournal start(DataSize maxSegmentSize) throws Exception {
+        doAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        doAnswer(invocation -> {
+            drained.addAll(invocation.getArgument(0));
+            return null;
+        }).when(movementBatchWriter).write(any());
+
+        MovementJournalProperties properties = new MovementJournalProperties("file", 100, Duration.ofMillis(10),
+                true, Duration.ofSeconds(2), 100, Duration.ofMillis(1), 5,
+                new MovementJournalProperties.File(directory, maxSegmentSize, 100, Duration.ofMillis(20)));
+
+        FileMovementJournal started = new FileMovementJournal(properties, meterRegistry, movementBatchWriter,
+                deadLetterWriter, checkpointRepository, transactionTemplate, objectMapper, eventPublisher);
+        started.start();
+        started.startDrainer();
+        return started;
+    }
+
+    private static JournalEntry entry(Long inventoryId, Long entryId) {
+        return new JournalEntry(inventoryId, -1, 5, 4, MovementType.RESERVE, "Reserve", "SYSTEM", LocalDateTime.now(), entryId);
+    }
+
+    private String line(JournalEntry entry) throws Exception {
+        return objectMapper.writeValueAsString(entry) + "\n";
+    }
+
+    private static String segmentName(long segment) {
+        return String.format("segment-%019d.ndjson", segment);
+    }
+}
@@ -0,0 +1,167 @@
+package com.bookstore.management.inventory.journal;
+
+import com.bookstore.management.inventory.model.Inventory;
+import com.bookstore.management.inventory.model.InventoryMovement;
+import com.bookstore.management.inventory.model.MovementType;
+import com.bookstore.management.shared.exception.custom.JournalSaturatedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class GroupCommitMovementJournalTest {
+
+    private final MovementBatchWriter movementBatchWriter = mock(MovementBatchWriter.class);
+    private final MovementDeadLetterWriter deadLetterWriter = mock(MovementDeadLetterWriter.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private GroupCommitMovementJournal journal;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        journal.stop();
+    }
+
+    @Test
+    @DisplayName("Should write appended movements in one batch and wait for the flush")
+    void shouldWriteAppendedMovementsInOneBatchAndWaitForTheFlush() throws Exception {
+
+        journal = start(properties(100, true, Duration.ofMillis(5)));
+
+        journal.appendAll(List.of(movement(1L, -2), movement(2L, -3)));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<JournalEntry>> entriesCaptor = ArgumentCaptor.forClass(List.class);
+        verify(movementBatchWriter, times(1)).write(entriesCaptor.capture());
+        assertThat(entriesCaptor.getValue()).extracting(JournalEntry::inventoryId).containsExactly(1L, 2L);
+        assertThat(entriesCaptor.getValue()).extracting(JournalEntry::affectedQuantity).containsExactly(-2, -3);
+        assertThat(meterRegistry.get("inventory.journal.depth").gauge().value()).isZero();
+        assertThat(meterRegistry.get("inventory.journal.flush").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should group movements of concurrent appends into a single batch")
+    void shouldGroupMovementsOfConcurrentAppendsIntoASingleBatch() throws Exception {
+
+        journal = start(properties(100, false, Duration.ofMillis(300)));
+
+        journal.append(movement(1L, -1));
+        journal.append(movement(2L, -1));
+        journal.append(movement(3L, -1));
+
+        verify(movementBatchWriter, timeout(2000).times(1)).write(argThat(entries -> entries.size() == 3));
+    }
+
+    @Test
+    @DisplayName("Should hand movements over only after the transaction commits")
+    void shouldHandMovementsOverOnlyAfterTheTransactionCommits() throws Exception {
+
+        journal = start(properties(100, true, Duration.ofMillis(5)));
+        TransactionSynchronizationManager.initSynchronization();
+
+        journal.append(movement(1L, -1));
+        verifyNoInteractions(movementBatchWriter);
+
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        verify(movementBatchWriter, times(1)).write(anyList());
+    }
+
+    @Test
+    @DisplayName("Should reject appends when full and free capacity when the transaction rolls back")
+    void shouldRejectAppendsWhenFullAndFreeCapacityWhenTheTransactionRollsBack() throws Exception {
+
+        journal = start(properties(1, true, Duration.ofMillis(5)));
+        TransactionSynchronizationManager.initSynchronization();
+
+        journal.append(movement(1L, -1));
+
+        assertThatThrownBy(() -> journal.append(movement(2L, -1)))
+                .isInstanceOf(JournalSaturatedException.class);
+        assertThat(meterRegistry.get("inventory.journal.depth").gauge().value()).isEqualTo(1);
+
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(meterRegistry.get("inventory.journal.depth").gauge().value()).isZero();
+        journal.append(movement(2L, -1));
+        verify(movementBatchWriter, times(1)).write(argThat(entries ->
+                entries.size() == 1 && entries.get(0).inventoryId() == 2L));
+    }
+
+    @Test
+    @DisplayName("Should move a batch to the dead letter after its last attempt and keep writing the next ones")
+    void shouldMoveABatchToTheDeadLetterAfterItsLastAttemptAndKeepWritingTheNextOnes() throws Exception {
+
+        doThrow(new IllegalStateException("connection refused")).doThrow(new IllegalStateException("connection refused"))
+                .doNothing().when(movementBatchWriter).write(anyList());
+        journal = start(properties(100, true, Duration.ofMillis(5)));
+
+        journal.append(movement(1L, -1));
+
+        verify(movementBatchWriter, times(2)).write(anyList());
+        verify(deadLetterWriter).write(eq("group-commit"), argThat(entries ->
+                entries.size() == 1 && entries.get(0).inventoryId() == 1L), any(IllegalStateException.class));
+        assertThat(meterRegistry.get("inventory.journal.depth").gauge().value()).isZero();
+
+        journal.append(movement(2L, -1));
+
+        verify(movementBatchWriter, times(3)).write(anyList());
+        verifyNoMoreInteractions(deadLetterWriter);
+    }
+
+    private GroupCommitMovementJournal start(MovementJournalProperties properties) throws Exception {
+        doAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        GroupCommitMovementJournal started = new GroupCommitMovementJournal(
+                properties, meterRegistry, movementBatchWriter, deadLetterWriter, transactionTemplate, eventPublisher);
+        started.start();
+        return started;
+    }
+
+    private void completeTransaction(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+    static MovementJournalProperties properties(int capacity, boolean awaitFlush, Duration maxBatchDelay) {
+        return new MovementJournalProperties("group-commit", capacity, Duration.ofMillis(10), awaitFlush,
+                Duration.ofSeconds(2), 100, maxBatchDelay, 2,
+                new MovementJournalProperties.File(Path.of("unused"), null, 100, Duration.ofMillis(20)));
+    }
+
+    static InventoryMovement movement(Long inventoryId, int affectedQuantity) {
+        return InventoryMovement.builder()
+                .inventory(Inventory.builder().id(inventoryId).build())
+                .affectedQuantity(affectedQuantity)
+                .quantityBefore(10)
+                .quantityAfter(10 + affectedQuantity)
+                .movementType(MovementType.RESERVE)
+                .description(MovementType.RESERVE.getDescription())
+                .build();
+    }
+}
@@ -0,0 +1,108 @@
+package com.bookstore.management.inventory.journal;
+
+import com.bookstore.management.book.model.Author;
+import com.bookstore.management.book.model.Book;
+import com.bookstore.management.book.model.Gender;
+import com.bookstore.management.book.repository.AuthorRepository;
+import com.bookstore.management.book.repository.BookRepository;
+import com.bookstore.management.inventory.model.Inventory;
+import com.bookstore.management.inventory.model.InventoryMovement;
+import com.bookstore.management.inventory.model.MovementType;
+import com.bookstore.management.inventory.repository.InventoryMovementRepository;
+import com.bookstore.management.inventory.repository.InventoryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:movementbatchwriter;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE")
+public class MovementBatchWriterTest {
+
+    @Autowired
+    private MovementBatchWriter movementBatchWriter;
+    @Autowired
+    private InventoryMovementRepository inventoryMovementRepository;
+    @Autowired
+    private InventoryRepository inventoryRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Inventory inventory;
+
+    @BeforeEach
+    void setUp() {
+        Author author = authorRepository.save(Author.builder()
+                .name("Yvonne Vera")
+                .nationality("Zimbabwean")
+                .birthDate(LocalDate.of(1964, 9, 19))
+                .gender(Gender.FEMALE)
+                .build());
+        Book book = bookRepository.save(Book.builder()
+                .isbn("9780889612510")
+                .title("Butterfly Burning")
+                .publishDate(LocalDate.of(1998, 1, 1))
+                .pages(130)
+                .author(author)
+                .build());
+        inventory = inventoryRepository.save(Inventory.builder()
+                .book(book)
+                .quantityAvailable(10)
+                .stockMin(1)
+                .stockMax(100)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from inventory_movement");
+        jdbcTemplate.update("delete from inventory");
+        jdbcTemplate.update("delete from books");
+        jdbcTemplate.update("delete from authors");
+    }
+
+    @Test
+    @DisplayName("Should hand out consecutive ids from one sequence block across batches")
+    void shouldHandOutConsecutiveIdsFromOneSequenceBlockAcrossBatches() {
+        movementBatchWriter.write(List.of(entry(), entry(), entry()));
+        movementBatchWriter.write(List.of(entry(), entry()));
+
+        List<Long> ids = jdbcTemplate.queryForList("select id from inventory_movement order by id", Long.class);
+        assertThat(ids).hasSize(5);
+        assertThat(ids.get(4) - ids.get(0)).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Should never hand out an id the entity inserts also use")
+    void shouldNeverHandOutAnIdTheEntityInsertsAlsoUse() {
+        movementBatchWriter.write(List.of(entry(), entry()));
+        inventoryMovementRepository.save(InventoryMovement.builder()
+                .inventory(inventory)
+                .affectedQuantity(1)
+                .quantityBefore(10)
+                .quantityAfter(11)
+                .movementType(MovementType.ENTRY)
+                .description(MovementType.ENTRY.getDescription())
+                .build());
+        movementBatchWriter.write(List.of(entry()));
+
+        assertThat(jdbcTemplate.queryForObject("select count(distinct id) from inventory_movement", Long.class))
+                .isEqualTo(4);
+    }
+
+    private JournalEntry entry() {
+        return new JournalEntry(inventory.getId(), 1, 10, 11, MovementType.ENTRY, "Entry", "SYSTEM", LocalDateTime.now());
+    }
+}
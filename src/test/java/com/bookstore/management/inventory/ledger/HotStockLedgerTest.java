@@ -0,0 +1,270 @@
+package com.bookstore.management.inventory.ledger;
+
+import com.bookstore.management.book.model.Author;
+import com.bookstore.management.book.model.Book;
+import com.bookstore.management.book.model.Gender;
+import com.bookstore.management.book.repository.AuthorRepository;
+import com.bookstore.management.book.repository.BookRepository;
+import com.bookstore.management.inventory.dto.CheckAvailabilityResponseDTO;
+import com.bookstore.management.inventory.dto.InventoryStockDTO;
+import com.bookstore.management.inventory.dto.UpdateStockDTO;
+import com.bookstore.management.inventory.model.Inventory;
+import com.bookstore.management.inventory.model.MovementType;
+import com.bookstore.management.inventory.repository.InventoryMovementRepository;
+import com.bookstore.management.inventory.repository.InventoryRepository;
+import com.bookstore.management.inventory.service.HotLedgerInventoryService;
+import com.bookstore.management.inventory.service.InventoryService;
+import com.bookstore.management.shared.exception.custom.InsufficientReservedStockException;
+import com.bookstore.management.shared.exception.custom.InsufficientStockException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:hotledger;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "inventory.stock.mode=hot-ledger",
+        "inventory.ledger.flush-interval=1h",
+        "inventory.ledger.reconcile-interval=1h"
+})
+public class HotStockLedgerTest {
+
+    @Autowired
+    private HotStockLedger hotStockLedger;
+    @Autowired
+    private InventoryService inventoryService;
+    @Autowired
+    private InventoryRepository inventoryRepository;
+    @Autowired
+    private InventoryMovementRepository inventoryMovementRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Long bookId;
+    private Long otherBookId;
+
+    @BeforeEach
+    void setUp() {
+        Author author = authorRepository.save(Author.builder()
+                .name("Ngugi wa Thiong'o")
+                .nationality("Kenyan")
+                .birthDate(LocalDate.of(1938, 1, 5))
+                .gender(Gender.MALE)
+                .build());
+
+        bookId = createInventory(author, "9780435905484", 20);
+        otherBookId = createInventory(author, "9780435909741", 3);
+        hotStockLedger.load();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from inventory_movement");
+        jdbcTemplate.update("delete from inventory");
+        jdbcTemplate.update("delete from books");
+        jdbcTemplate.update("delete from authors");
+    }
+
+    @Test
+    @DisplayName("Should serve the inventory service from the ledger in hot-ledger mode")
+    void shouldServeTheInventoryServiceFromTheLedgerInHotLedgerMode() {
+        assertThat(inventoryService).isInstanceOf(HotLedgerInventoryService.class);
+    }
+
+    @Nested
+    @DisplayName("Reserve stock")
+    class ReserveStockTest {
+
+        @Test
+        @DisplayName("Should reserve in memory and write the row only when flushed")
+        void shouldReserveInMemoryAndWriteTheRowOnlyWhenFlushed() {
+
+            inventoryService.reserveStock(bookId, 5);
+
+            CheckAvailabilityResponseDTO availability = inventoryService.checkBookAvailability(bookId);
+            assertThat(availability.quantityAvailable()).isEqualTo(15);
+            assertThat(stockOf(bookId).quantityAvailable()).isEqualTo(20);
+            assertThat(inventoryMovementRepository.count()).isEqualTo(1);
+
+            hotStockLedger.flushPending();
+
+            assertThat(stockOf(bookId).quantityAvailable()).isEqualTo(15);
+            assertThat(stockOf(bookId).quantityReserved()).isEqualTo(5);
+        }
+
+        @Test
+        @DisplayName("Should undo the reservation when the transaction rolls back")
+        void shouldUndoTheReservationWhenTheTransactionRollsBack() {
+
+            transactionTemplate.executeWithoutResult(status -> {
+                inventoryService.reserveStock(bookId, 5);
+                status.setRollbackOnly();
+            });
+            hotStockLedger.flushPending();
+
+            assertThat(hotStockLedger.find(bookId)).get()
+                    .extracting(StockSnapshot::quantityAvailable, StockSnapshot::quantityReserved)
+                    .containsExactly(20, 0);
+            assertThat(stockOf(bookId).quantityAvailable()).isEqualTo(20);
+            assertThat(inventoryMovementRepository.count()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should not flush a reservation before its transaction commits")
+        void shouldNotFlushAReservationBeforeItsTransactionCommits() {
+
+            transactionTemplate.executeWithoutResult(status -> {
+                inventoryService.reserveStock(bookId, 5);
+                CompletableFuture.runAsync(hotStockLedger::flushPending).join();
+                hotStockLedger.reconcile();
+                hotStockLedger.reconcile();
+            });
+
+            assertThat(stockOf(bookId).quantityAvailable()).isEqualTo(20);
+
+            hotStockLedger.flushPending();
+
+            assertThat(stockOf(bookId).quantityAvailable()).isEqualTo(15);
+            assertThat(stockOf(bookId).quantityReserved()).isEqualTo(5);
+        }
+
+        @Test
+        @DisplayName("Should reserve no line when one line lacks stock")
+        void shouldReserveNoLineWhenOneLineLacksStock() {
+
+            assertThatThrownBy(() -> inventoryService.reserveStockBatch(Map.of(bookId, 2, otherBookId, 4)))
+                    .isInstanceOf(InsufficientStockException.class)
+                    .hasMessage("Insufficient stock for book id: " + otherBookId);
+
+            assertThat(hotStockLedger.find(bookId)).get()
+                    .extracting(StockSnapshot::quantityAvailable)
+                    .isEqualTo(20);
+        }
+
+        @Test
+        @DisplayName("Should release reserved stock")
+        void shouldReleaseReservedStock() {
+
+            inventoryService.reserveStock(bookId, 5);
+            inventoryService.releaseReservation(bookId, 3);
+            hotStockLedger.flushPending();
+
+            assertThat(stockOf(bookId).quantityAvailable()).isEqualTo(18);
+            assertThat(stockOf(bookId).quantityReserved()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("Should take a completed reservation out of reserved stock only")
+        void shouldTakeACompletedReservationOutOfReservedStockOnly() {
+
+            inventoryService.reserveStock(bookId, 5);
+            inventoryService.consumeReservation(bookId, 5);
+
+            assertThat(hotStockLedger.find(bookId)).get()
+                    .extracting(StockSnapshot::quantityAvailable, StockSnapshot::quantityReserved)
+                    .containsExactly(15, 0);
+            assertThatThrownBy(() -> inventoryService.consumeReservation(bookId, 1))
+                    .isInstanceOf(InsufficientReservedStockException.class);
+
+            hotStockLedger.flushPending();
+
+            assertThat(stockOf(bookId).quantityAvailable()).isEqualTo(15);
+            assertThat(stockOf(bookId).quantityReserved()).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("Locking operations")
+    class LockingOperationsTest {
+
+        @Test
+        @DisplayName("Should write pending reservations before a negative adjustment reads the row")
+        void shouldWritePendingReservationsBeforeANegativeAdjustmentReadsTheRow() {
+
+            inventoryService.reserveStock(bookId, 15);
+
+            assertThatThrownBy(() -> inventoryService.negativeAdjustment(
+                    new UpdateStockDTO(6, MovementType.NEGATIVE_ADJUSTMENT), bookId))
+                    .hasMessage("The adjustment would leave negative stock.");
+
+            inventoryService.negativeAdjustment(new UpdateStockDTO(5, MovementType.NEGATIVE_ADJUSTMENT), bookId);
+
+            assertThat(stockOf(bookId).quantityAvailable()).isZero();
+            assertThat(hotStockLedger.find(bookId)).get()
+                    .extracting(StockSnapshot::quantityAvailable)
+                    .isEqualTo(0);
+        }
+    }
+
+    @Nested
+    @DisplayName("Reconcile")
+    class ReconcileTest {
+
+        @Test
+        @DisplayName("Should rewrite a row that drifted on two consecutive passes")
+        void shouldRewriteARowThatDriftedOnTwoConsecutivePasses() {
+
+            jdbcTemplate.update("update inventory set quantity_available = 7 where book_id = ?", bookId);
+
+            hotStockLedger.reconcile();
+            assertThat(stockOf(bookId).quantityAvailable()).isEqualTo(7);
+
+            hotStockLedger.reconcile();
+            assertThat(stockOf(bookId).quantityAvailable()).isEqualTo(20);
+        }
+
+        @Test
+        @DisplayName("Should load inventories created outside the ledger")
+        void shouldLoadInventoriesCreatedOutsideTheLedger() {
+
+            Author author = authorRepository.findAll().get(0);
+            Long createdBookId = createInventory(author, "9780435908171", 9);
+            assertThat(hotStockLedger.find(createdBookId)).isEmpty();
+
+            hotStockLedger.reconcile();
+
+            assertThat(hotStockLedger.find(createdBookId)).get()
+                    .extracting(StockSnapshot::quantityAvailable)
+                    .isEqualTo(9);
+        }
+    }
+
+    private Long createInventory(Author author, String isbn, int quantityAvailable) {
+        Book book = bookRepository.save(Book.builder()
+                .isbn(isbn)
+                .title("Title " + isbn)
+                .publishDate(LocalDate.of(1977, 1, 1))
+                .pages(300)
+                .author(author)
+                .build());
+        inventoryRepository.save(Inventory.builder()
+                .book(book)
+                .quantityAvailable(quantityAvailable)
+                .stockMin(2)
+                .stockMax(500)
+                .build());
+        return book.getId();
+    }
+
+    private InventoryStockDTO stockOf(Long bookId) {
+        return inventoryRepository.findStockByBookId(bookId).orElseThrow();
+    }
+}
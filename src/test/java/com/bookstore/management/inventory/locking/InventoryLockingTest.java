@@ -0,0 +1,113 @@
+package com.bookstore.management.inventory.locking;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class InventoryLockingTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private InventoryLocking inventoryLocking;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        inventoryLocking = new InventoryLocking(new InventoryLockingProperties(LockingMode.OPTIMISTIC,
+                Map.of(7L, LockingMode.PESSIMISTIC), 3, Duration.ofMillis(1), Duration.ofMillis(2)), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should use the book's own mode before the global one")
+    void shouldUseTheBooksOwnModeBeforeTheGlobalOne() {
+        assertThat(inventoryLocking.modeFor(7L)).isEqualTo(LockingMode.PESSIMISTIC);
+        assertThat(inventoryLocking.modeFor(8L)).isEqualTo(LockingMode.OPTIMISTIC);
+    }
+
+    @Nested
+    @DisplayName("withRetry")
+    class WithRetry {
+
+        @Test
+        @DisplayName("Should run the change again after a conflict and count it")
+        void shouldRunTheChangeAgainAfterAConflictAndCountIt() {
+            AtomicInteger attempts = new AtomicInteger();
+
+            String result = inventoryLocking.withRetry(8L, () -> {
+                if (attempts.incrementAndGet() < 3) {
+                    throw conflict();
+                }
+                return "saved";
+            });
+
+            assertThat(result).isEqualTo("saved");
+            assertThat(attempts).hasValue(3);
+            assertThat(count("inventory.locking.conflicts")).isEqualTo(2);
+            assertThat(count("inventory.locking.retries")).isEqualTo(2);
+            assertThat(count("inventory.locking.exhausted")).isZero();
+        }
+
+        @Test
+        @DisplayName("Should pass the conflict on after the last attempt")
+        void shouldPassTheConflictOnAfterTheLastAttempt() {
+            AtomicInteger attempts = new AtomicInteger();
+
+            assertThatThrownBy(() -> inventoryLocking.withRetry(8L, () -> {
+                attempts.incrementAndGet();
+                throw conflict();
+            })).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+
+            assertThat(attempts).hasValue(3);
+            assertThat(count("inventory.locking.exhausted")).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should not retry books in the pessimistic mode")
+        void shouldNotRetryBooksInThePessimisticMode() {
+            AtomicInteger attempts = new AtomicInteger();
+
+            assertThatThrownBy(() -> inventoryLocking.withRetry(7L, () -> {
+                attempts.incrementAndGet();
+                throw conflict();
+            })).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+
+            assertThat(attempts).hasValue(1);
+            assertThat(count("inventory.locking.conflicts")).isZero();
+        }
+
+        @Test
+        @DisplayName("Should not retry inside a caller's transaction")
+        void shouldNotRetryInsideACallersTransaction() {
+            AtomicInteger attempts = new AtomicInteger();
+            TransactionSynchronizationManager.setActualTransactionActive(true);
+            try {
+                assertThatThrownBy(() -> inventoryLocking.withRetry(8L, () -> {
+                    attempts.incrementAndGet();
+                    throw conflict();
+                })).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+            } finally {
+                TransactionSynchronizationManager.setActualTransactionActive(false);
+            }
+
+            assertThat(attempts).hasValue(1);
+        }
+    }
+
+    private double count(String name) {
+        return meterRegistry.counter(name).count();
+    }
+
+    private static ObjectOptimisticLockingFailureException conflict() {
+        return new ObjectOptimisticLockingFailureException("Inventory", 1L);
+    }
+}
@@ -0,0 +1,138 @@
+package com.bookstore.management.inventory.locking;
+
+import com.bookstore.management.book.model.Author;
+import com.bookstore.management.book.model.Book;
+import com.bookstore.management.book.model.Gender;
+import com.bookstore.management.book.repository.AuthorRepository;
+import com.bookstore.management.book.repository.BookRepository;
+import com.bookstore.management.inventory.dto.UpdateStockDTO;
+import com.bookstore.management.inventory.model.Inventory;
+import com.bookstore.management.inventory.model.MovementType;
+import com.bookstore.management.inventory.repository.InventoryMovementRepository;
+import com.bookstore.management.inventory.repository.InventoryRepository;
+import com.bookstore.management.inventory.service.InventoryService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:optimisticlocking;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "inventory.locking.mode=optimistic",
+        "inventory.locking.max-attempts=100",
+        "inventory.locking.initial-backoff=1ms",
+        "inventory.locking.max-backoff=10ms"
+})
+public class OptimisticInventoryLockingTest {
+
+    @Autowired
+    private InventoryService inventoryService;
+    @Autowired
+    private InventoryRepository inventoryRepository;
+    @Autowired
+    private InventoryMovementRepository inventoryMovementRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long bookId;
+
+    @BeforeEach
+    void setUp() {
+        Author author = authorRepository.save(Author.builder()
+                .name("Tsitsi Dangarembga")
+                .nationality("Zimbabwean")
+                .birthDate(LocalDate.of(1959, 2, 4))
+                .gender(Gender.FEMALE)
+                .build());
+        Book book = bookRepository.save(Book.builder()
+                .isbn("9780954702335")
+                .title("Nervous Conditions")
+                .publishDate(LocalDate.of(1988, 1, 1))
+                .pages(208)
+                .author(author)
+                .build());
+        inventoryRepository.save(Inventory.builder()
+                .book(book)
+                .quantityAvailable(10)
+                .stockMin(2)
+                .stockMax(500)
+                .build());
+        bookId = book.getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from inventory_movement");
+        jdbcTemplate.update("delete from inventory");
+        jdbcTemplate.update("delete from books");
+        jdbcTemplate.update("delete from authors");
+    }
+
+    @Test
+    @DisplayName("Should apply every concurrent entry by retrying the ones that lost the race")
+    void shouldApplyEveryConcurrentEntryByRetrying() throws Exception {
+        int writers = 6;
+        int entriesPerWriter = 10;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < writers; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < entriesPerWriter; j++) {
+                        inventoryService.registerEntry(new UpdateStockDTO(1, MovementType.ENTRY), bookId);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Inventory inventory = inventoryRepository.findReadOnlyByBookId(bookId).orElseThrow();
+        assertThat(inventory.getQuantityAvailable()).isEqualTo(10 + writers * entriesPerWriter);
+        assertThat(inventory.getVersion()).isEqualTo(writers * entriesPerWriter);
+        assertThat(inventoryMovementRepository.findAll())
+                .filteredOn(movement -> movement.getMovementType() == MovementType.ENTRY)
+                .hasSize(writers * entriesPerWriter);
+    }
+
+    @Test
+    @DisplayName("Should refuse to write a row changed by another writer after it was read")
+    void shouldRefuseToWriteARowChangedByAnotherWriterAfterItWasRead() {
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+            Inventory stale = inventoryRepository.findVersionedByBookId(bookId).orElseThrow();
+            inventoryService.reserveStock(bookId, 3);
+            stale.setQuantityAvailable(stale.getQuantityAvailable() + 1);
+        })).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+
+        assertThat(inventoryRepository.findStockByBookId(bookId).orElseThrow().quantityAvailable()).isEqualTo(10);
+    }
+}
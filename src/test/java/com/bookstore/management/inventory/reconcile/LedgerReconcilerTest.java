@@ -0,0 +1,144 @@
+package com.bookstore.management.inventory.reconcile;
+
+import com.bookstore.management.book.model.Author;
+import com.bookstore.management.book.model.Book;
+import com.bookstore.management.book.model.Gender;
+import com.bookstore.management.book.repository.AuthorRepository;
+import com.bookstore.management.book.repository.BookRepository;
+import com.bookstore.management.inventory.dto.CreateInventoryDTO;
+import com.bookstore.management.inventory.dto.InventoryDriftDTO;
+import com.bookstore.management.inventory.dto.ReconciliationRunDTO;
+import com.bookstore.management.inventory.dto.UpdateStockDTO;
+import com.bookstore.management.inventory.model.MovementType;
+import com.bookstore.management.inventory.model.ReconciliationStatus;
+import com.bookstore.management.inventory.service.InventoryService;
+import com.bookstore.management.shared.exception.custom.ResourceNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:reconciliation;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "inventory.reconciliation.enabled=false",
+        "inventory.reconciliation.range-size=2",
+        "inventory.reconciliation.parallelism=3",
+        "inventory.reconciliation.max-ranges-per-second=0",
+        "inventory.reconciliation.recheck-delay=0ms",
+        "inventory.checkpoint.settle=0s"
+})
+public class LedgerReconcilerTest {
+
+    @Autowired
+    private LedgerReconciler ledgerReconciler;
+    @Autowired
+    private InventoryService inventoryService;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> bookIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Author author = authorRepository.save(Author.builder()
+                .name("Buchi Emecheta")
+                .nationality("Nigerian")
+                .birthDate(LocalDate.of(1944, 7, 21))
+                .gender(Gender.FEMALE)
+                .build());
+        for (int i = 0; i < 7; i++) {
+            Book book = bookRepository.save(Book.builder()
+                    .isbn("978080761" + (1000 + i))
+                    .title("Title " + i)
+                    .publishDate(LocalDate.of(1979, 1, 1))
+                    .pages(220)
+                    .author(author)
+                    .build());
+            inventoryService.create(new CreateInventoryDTO(book.getId(), 10, 2, 500));
+            inventoryService.registerEntry(new UpdateStockDTO(5, MovementType.ENTRY), book.getId());
+            inventoryService.reserveStock(book.getId(), 2);
+            bookIds.add(book.getId());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from inventory_drift");
+        jdbcTemplate.update("delete from reconciliation_run");
+        jdbcTemplate.update("delete from stock_checkpoint");
+        jdbcTemplate.update("delete from inventory_movement");
+        jdbcTemplate.update("delete from inventory");
+        jdbcTemplate.update("delete from books");
+        jdbcTemplate.update("delete from authors");
+    }
+
+    @Test
+    @DisplayName("Should find no drift when every row matches its movements")
+    void shouldFindNoDriftWhenEveryRowMatchesItsMovements() {
+
+        ReconciliationRunDTO run = ledgerReconciler.run();
+
+        assertThat(run.status()).isEqualTo(ReconciliationStatus.COMPLETED);
+        assertThat(run.inventoriesChecked()).isEqualTo(7);
+        assertThat(run.driftCount()).isZero();
+        assertThat(run.drifts()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should report a row changed without a movement")
+    void shouldReportARowChangedWithoutAMovement() {
+        jdbcTemplate.update("update inventory set quantity_available = quantity_available + 4, " +
+                "reserved_quantity = 0 where book_id = ?", bookIds.get(3));
+
+        ReconciliationRunDTO run = ledgerReconciler.run();
+
+        assertThat(run.driftCount()).isEqualTo(1);
+        InventoryDriftDTO drift = run.drifts().get(0);
+        assertThat(drift.bookId()).isEqualTo(bookIds.get(3));
+        assertThat(drift.expectedAvailable()).isEqualTo(13);
+        assertThat(drift.actualAvailable()).isEqualTo(17);
+        assertThat(drift.expectedReserved()).isEqualTo(2);
+        assertThat(drift.actualReserved()).isZero();
+        assertThat(drift.firstDivergentMovementId()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should point at the first movement that breaks the chain")
+    void shouldPointAtTheFirstMovementThatBreaksTheChain() {
+        Long entryId = jdbcTemplate.queryForObject("select m.id from inventory_movement m join inventory i " +
+                "on i.id = m.inventory_id where i.book_id = ? and m.movement_type = 'ENTRY'", Long.class, bookIds.get(6));
+        jdbcTemplate.update("update inventory_movement set affected_quantity = 4 where id = ?", entryId);
+
+        ReconciliationRunDTO run = ledgerReconciler.run();
+
+        assertThat(run.drifts()).singleElement().satisfies(drift -> {
+            assertThat(drift.bookId()).isEqualTo(bookIds.get(6));
+            assertThat(drift.expectedAvailable()).isEqualTo(12);
+            assertThat(drift.actualAvailable()).isEqualTo(13);
+            assertThat(drift.firstDivergentMovementId()).isEqualTo(entryId);
+        });
+        assertThat(ledgerReconciler.report(run.id()).drifts()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Should throw exception when the run does not exist")
+    void shouldThrowExceptionWhenTheRunDoesNotExist() {
+
+        assertThatThrownBy(() -> ledgerReconciler.report(999L))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+}
@@ -0,0 +1,165 @@
+package com.bookstore.management.inventory.report;
+
+import com.bookstore.management.book.event.BookChangedEvent;
+import com.bookstore.management.book.model.Author;
+import com.bookstore.management.book.model.Book;
+import com.bookstore.management.book.model.Gender;
+import com.bookstore.management.book.repository.AuthorRepository;
+import com.bookstore.management.book.repository.BookRepository;
+import com.bookstore.management.inventory.dto.InventoryValuationReportDTO;
+import com.bookstore.management.inventory.dto.UpdateStockDTO;
+import com.bookstore.management.inventory.dto.ValuationLineDTO;
+import com.bookstore.management.inventory.event.MovementRecordedEvent;
+import com.bookstore.management.inventory.model.Inventory;
+import com.bookstore.management.inventory.model.MovementType;
+import com.bookstore.management.inventory.repository.InventoryRepository;
+import com.bookstore.management.inventory.service.InventoryService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:inventoryreport;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "inventory.report.range-size=1",
+        "inventory.report.parallelism=3",
+        "inventory.report.fetch-size=2"
+})
+public class InventoryValuationReporterTest {
+
+    @Autowired
+    private InventoryValuationReporter valuationReporter;
+    @Autowired
+    private InventoryService inventoryService;
+    @Autowired
+    private InventoryRepository inventoryRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long novelId;
+
+    @BeforeEach
+    void setUp() {
+        Author achebe = author("Chinua Achebe");
+        Author ngugi = author("Ngugi wa Thiong'o");
+        novelId = stock(book("9780385474542", "Things Fall Apart", "Fiction", "20.00", "10", achebe), 10);
+        stock(book("9780435905255", "An Image of Africa", "Essay", "15.00", "0", achebe), 4);
+        stock(book("9780143106692", "A Grain of Wheat", "Fiction", "12.50", "0", ngugi), 8);
+
+        inventoryService.registerSale(new UpdateStockDTO(2, MovementType.EXIT), novelId);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from inventory_movement");
+        jdbcTemplate.update("delete from inventory");
+        jdbcTemplate.update("delete from books");
+        jdbcTemplate.update("delete from authors");
+    }
+
+    @Test
+    @DisplayName("Should value the stock at the net price in total, by genre and by author")
+    void shouldValueTheStockInTotalByGenreAndByAuthor() {
+        InventoryValuationReportDTO report = valuationReporter.report(30);
+
+        ValuationLineDTO total = report.total();
+        assertThat(total.inventories()).isEqualTo(3);
+        assertThat(total.unitsOnHand()).isEqualTo(20);
+        assertThat(total.stockValue()).isEqualByComparingTo("304.00");
+        assertThat(total.unitsSold()).isEqualTo(2);
+        assertThat(total.soldValue()).isEqualByComparingTo("36.00");
+        assertThat(total.turnover()).isEqualByComparingTo("0.12");
+        assertThat(total.daysOfSupply()).isEqualByComparingTo("300.0");
+
+        assertThat(report.byGenre()).extracting(ValuationLineDTO::key).containsExactly("Fiction", "Essay");
+        assertThat(report.byGenre().get(0).stockValue()).isEqualByComparingTo("244.00");
+        assertThat(report.byGenre().get(1).daysOfSupply()).isNull();
+
+        assertThat(report.byAuthor()).extracting(ValuationLineDTO::key)
+                .containsExactly("Chinua Achebe", "Ngugi wa Thiong'o");
+        assertThat(report.byAuthor().get(0).stockValue()).isEqualByComparingTo("204.00");
+        assertThat(report.byAuthor().get(1).stockValue()).isEqualByComparingTo(new BigDecimal("100.00"));
+    }
+
+    @Test
+    @DisplayName("Should serve the cached report until the ledger moves or the catalogue changes")
+    void shouldServeTheCachedReportUntilTheLedgerMoves() {
+        InventoryValuationReportDTO first = valuationReporter.report(30);
+
+        assertThat(valuationReporter.report(30)).isSameAs(first);
+
+        inventoryService.registerEntry(new UpdateStockDTO(1, MovementType.ENTRY), novelId);
+        InventoryValuationReportDTO afterEntry = valuationReporter.report(30);
+        assertThat(afterEntry).isNotSameAs(first);
+        assertThat(afterEntry.ledgerVersion()).isGreaterThan(first.ledgerVersion());
+        assertThat(afterEntry.total().unitsOnHand()).isEqualTo(21);
+
+        eventPublisher.publishEvent(new BookChangedEvent(novelId));
+        assertThat(valuationReporter.report(30)).isNotSameAs(afterEntry);
+    }
+
+    @Test
+    @DisplayName("Should rebuild the report when a movement with a lower id commits after it was cached")
+    void shouldRebuildTheReportWhenAMovementWithALowerIdCommitsLate() {
+        InventoryValuationReportDTO first = valuationReporter.report(30);
+        Long inventoryId = inventoryRepository.findStockByBookId(novelId).orElseThrow().id();
+
+        jdbcTemplate.update("insert into inventory_movement (id, inventory_id, affected_quantity, quantity_before, " +
+                "quantity_after, movement_type, create_by, created_at) values (-1, ?, -1, 8, 8, 'EXIT', 'SYSTEM', " +
+                "current_timestamp)", inventoryId);
+        assertThat(valuationReporter.report(30)).isSameAs(first);
+
+        eventPublisher.publishEvent(new MovementRecordedEvent(inventoryId, MovementType.EXIT, -1, LocalDateTime.now()));
+
+        assertThat(valuationReporter.report(30).total().unitsSold()).isEqualTo(first.total().unitsSold() + 1);
+    }
+
+    private Author author(String name) {
+        return authorRepository.save(Author.builder()
+                .name(name)
+                .nationality("Kenyan")
+                .birthDate(LocalDate.of(1938, 1, 5))
+                .gender(Gender.MALE)
+                .build());
+    }
+
+    private Book book(String isbn, String title, String genre, String price, String discountPercent, Author author) {
+        return bookRepository.save(Book.builder()
+                .isbn(isbn)
+                .title(title)
+                .genre(genre)
+                .price(new BigDecimal(price))
+                .discountPercent(new BigDecimal(discountPercent))
+                .publishDate(LocalDate.of(1960, 1, 1))
+                .pages(200)
+                .author(author)
+                .build());
+    }
+
+    private Long stock(Book book, int quantity) {
+        inventoryRepository.save(Inventory.builder()
+                .book(book)
+                .quantityAvailable(0)
+                .stockMin(1)
+                .stockMax(100)
+                .build());
+        inventoryService.registerEntry(new UpdateStockDTO(quantity, MovementType.ENTRY), book.getId());
+        return book.getId();
+    }
+}
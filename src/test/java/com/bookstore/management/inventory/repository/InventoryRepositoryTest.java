@@ -0,0 +1,224 @@
+package com.bookstore.management.inventory.repository;
+
+import com.bookstore.management.book.model.Author;
+import com.bookstore.management.book.model.Book;
+import com.bookstore.management.book.model.Gender;
+import com.bookstore.management.inventory.dto.InventoryStockDTO;
+import com.bookstore.management.inventory.model.Inventory;
+import com.bookstore.management.inventory.model.InventoryStockSlot;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+public class InventoryRepositoryTest {
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Book book;
+    private Inventory inventory;
+
+    @BeforeEach
+    void setUp() {
+        Author author = Author.builder()
+                .name("Chimamanda Ngozi Adichie")
+                .nationality("Nigerian")
+                .birthDate(LocalDate.of(1977, 9, 15))
+                .gender(Gender.FEMALE)
+                .build();
+
+        book = Book.builder()
+                .isbn("9780007356348")
+                .title("Half of a Yellow Sun")
+                .publishDate(LocalDate.of(2006, 8, 10))
+                .pages(433)
+                .author(author)
+                .build();
+
+        inventory = Inventory.builder()
+                .book(book)
+                .quantityAvailable(30)
+                .quantityReserved(5)
+                .stockMin(10)
+                .stockMax(500)
+                .build();
+
+        entityManager.persist(author);
+        entityManager.persist(book);
+        entityManager.persist(inventory);
+        entityManager.flush();
+    }
+
+    @Nested
+    @DisplayName("Reserve stock")
+    class ReserveStockTest {
+
+        @Test
+        @DisplayName("Should move quantity from available to reserved when stock is sufficient")
+        void shouldMoveQuantityFromAvailableToReservedWhenStockIsSufficient() {
+
+            int updated = inventoryRepository.reserveStock(book.getId(), 5);
+
+            Optional<InventoryStockDTO> stock = inventoryRepository.findStockByBookId(book.getId());
+
+            assertThat(updated).isEqualTo(1);
+            assertThat(stock).isPresent();
+            assertThat(stock.get().quantityAvailable()).isEqualTo(25);
+            assertThat(stock.get().quantityReserved()).isEqualTo(10);
+        }
+
+        @Test
+        @DisplayName("Should raise low stock alert when quantity after reservation reaches minimum stock")
+        void shouldRaiseLowStockAlertWhenQuantityAfterReservationReachesMinimumStock() {
+
+            inventoryRepository.reserveStock(book.getId(), 20);
+            entityManager.clear();
+
+            Inventory reloaded = entityManager.find(Inventory.class, inventory.getId());
+
+            assertThat(reloaded.getQuantityAvailable()).isEqualTo(10);
+            assertThat(reloaded.getAlertLowStock()).isTrue();
+        }
+
+        @Test
+        @DisplayName("Should not update when available stock is less than requested quantity")
+        void shouldNotUpdateWhenAvailableStockIsLessThanRequestedQuantity() {
+
+            int updated = inventoryRepository.reserveStock(book.getId(), 31);
+
+            Optional<InventoryStockDTO> stock = inventoryRepository.findStockByBookId(book.getId());
+
+            assertThat(updated).isZero();
+            assertThat(stock).isPresent();
+            assertThat(stock.get().quantityAvailable()).isEqualTo(30);
+            assertThat(stock.get().quantityReserved()).isEqualTo(5);
+        }
+
+        @Test
+        @DisplayName("Should not update when inventory is disabled")
+        void shouldNotUpdateWhenInventoryIsDisabled() {
+
+            inventory.setActiveStatus(false);
+            entityManager.flush();
+
+            int updated = inventoryRepository.reserveStock(book.getId(), 5);
+
+            assertThat(updated).isZero();
+        }
+
+        @Test
+        @DisplayName("Should not update when book has no inventory")
+        void shouldNotUpdateWhenBookHasNoInventory() {
+
+            int updated = inventoryRepository.reserveStock(999L, 5);
+
+            assertThat(updated).isZero();
+            assertThat(inventoryRepository.findStockByBookId(999L)).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("Find all by book ids for update")
+    class FindAllByBookIdInOrderByBookIdTest {
+
+        @Test
+        @DisplayName("Should return inventories ordered by book id")
+        void shouldReturnInventoriesOrderedByBookId() {
+
+            Book secondBook = Book.builder()
+                    .isbn("9780307455925")
+                    .title("Americanah")
+                    .publishDate(LocalDate.of(2013, 5, 14))
+                    .pages(588)
+                    .author(book.getAuthor())
+                    .build();
+            Inventory secondInventory = Inventory.builder()
+                    .book(secondBook)
+                    .quantityAvailable(200)
+                    .build();
+            entityManager.persist(secondBook);
+            entityManager.persist(secondInventory);
+            entityManager.flush();
+
+            List<Inventory> inventories = inventoryRepository
+                    .findAllByBookIdInOrderByBookId(List.of(secondBook.getId(), book.getId(), 999L));
+
+            assertThat(inventories).extracting(Inventory::getId)
+                    .containsExactly(inventory.getId(), secondInventory.getId());
+        }
+    }
+
+    @Nested
+    @DisplayName("Find read only by book id")
+    class FindReadOnlyByBookIdTest {
+
+        @Test
+        @DisplayName("Should return the inventory with its book and author loaded")
+        void shouldReturnTheInventoryWithItsBookAndAuthorLoaded() {
+
+            entityManager.clear();
+
+            Optional<Inventory> found = inventoryRepository.findReadOnlyByBookId(book.getId());
+
+            assertThat(found).isPresent();
+            assertThat(Hibernate.isInitialized(found.get().getBook())).isTrue();
+            assertThat(Hibernate.isInitialized(found.get().getBook().getAuthor())).isTrue();
+            assertThat(found.get().getQuantityAvailable()).isEqualTo(30);
+        }
+
+        @Test
+        @DisplayName("Should not write changes made to the returned inventory")
+        void shouldNotWriteChangesMadeToTheReturnedInventory() {
+
+            entityManager.clear();
+
+            Inventory found = inventoryRepository.findReadOnlyByBookId(book.getId()).orElseThrow();
+            found.setQuantityAvailable(0);
+            entityManager.flush();
+            entityManager.clear();
+
+            assertThat(inventoryRepository.findStockByBookId(book.getId()))
+                    .get().extracting(InventoryStockDTO::quantityAvailable).isEqualTo(30);
+        }
+    }
+
+    @Nested
+    @DisplayName("Find row stock by book id")
+    class FindRowStockByBookIdTest {
+
+        @Test
+        @DisplayName("Should read the inventory row without the stock held in its slots")
+        void shouldReadTheInventoryRowWithoutTheStockHeldInItsSlots() {
+
+            entityManager.persist(InventoryStockSlot.builder()
+                    .inventoryId(inventory.getId())
+                    .slot(0)
+                    .quantityAvailable(12)
+                    .quantityReserved(3)
+                    .build());
+            entityManager.flush();
+
+            assertThat(inventoryRepository.findRowStockByBookId(book.getId())).get()
+                    .extracting(InventoryStockDTO::quantityAvailable, InventoryStockDTO::quantityReserved)
+                    .containsExactly(30, 5);
+            assertThat(inventoryRepository.findStockByBookId(book.getId())).get()
+                    .extracting(InventoryStockDTO::quantityAvailable, InventoryStockDTO::quantityReserved)
+                    .containsExactly(42, 8);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.bookstore.management.inventory.service;
 
 import com.bookstore.management.book.model.Book;
 import com.bookstore.management.inventory.dto.InventoryMovementResponseDTO;
+import com.bookstore.management.inventory.dto.MovementSliceDTO;
 import com.bookstore.management.inventory.mapper.InventoryMovementMapper;
 import com.bookstore.management.inventory.model.Inventory;
 import com.bookstore.management.inventory.model.InventoryMovement;
@@ -30,6 +31,8 @@ import java.util.Collections;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @Slf4j
@@ -269,7 +272,8 @@ class InventoryMovementServiceImplTest {
             List<InventoryMovement> movements = Arrays.asList(movement, movement2, movement3);
             Page<InventoryMovement> movementPage = new PageImpl<>(movements, defaultPageable, 3);
 
-            when(inventoryMovementRepository.findByCreatedAtBetween(startDate, endDate, defaultPageable))
+            when(inventoryMovementRepository.findByCreatedAtGreaterThanEqualAndCreatedAtLessThan(
+                    startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay(), defaultPageable))
                     .thenReturn(movementPage);
 
             Page<InventoryMovementResponseDTO> result = inventoryMovementServiceImpl
@@ -278,7 +282,8 @@ class InventoryMovementServiceImplTest {
             assertThat(result).isNotNull();
             assertThat(result.getContent()).hasSize(3);
             assertThat(result.getTotalElements()).isEqualTo(3);
-            verify(inventoryMovementRepository).findByCreatedAtBetween(startDate, endDate, defaultPageable);
+            verify(inventoryMovementRepository).findByCreatedAtGreaterThanEqualAndCreatedAtLessThan(
+                    startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay(), defaultPageable);
         }
 
         @Test
@@ -290,7 +295,7 @@ class InventoryMovementServiceImplTest {
                     .isInstanceOf(IllegalArgumentException.class)
                     .hasMessage("Dates cannot be null");
 
-            verify(inventoryMovementRepository, never()).findByCreatedAtBetween(any(), any(), any());
+            verify(inventoryMovementRepository, never()).findByCreatedAtGreaterThanEqualAndCreatedAtLessThan(any(), any(), any());
         }
 
         @Test
@@ -302,7 +307,7 @@ class InventoryMovementServiceImplTest {
                     .isInstanceOf(IllegalArgumentException.class)
                     .hasMessage("Dates cannot be null");
 
-            verify(inventoryMovementRepository, never()).findByCreatedAtBetween(any(), any(), any());
+            verify(inventoryMovementRepository, never()).findByCreatedAtGreaterThanEqualAndCreatedAtLessThan(any(), any(), any());
         }
 
         @Test
@@ -312,7 +317,7 @@ class InventoryMovementServiceImplTest {
                     .isInstanceOf(IllegalArgumentException.class)
                     .hasMessage("Dates cannot be null");
 
-            verify(inventoryMovementRepository, never()).findByCreatedAtBetween(any(), any(), any());
+            verify(inventoryMovementRepository, never()).findByCreatedAtGreaterThanEqualAndCreatedAtLessThan(any(), any(), any());
         }
 
         @Test
@@ -325,7 +330,7 @@ class InventoryMovementServiceImplTest {
                     .isInstanceOf(IllegalArgumentException.class)
                     .hasMessage("Start date must be before or equal to end date");
 
-            verify(inventoryMovementRepository, never()).findByCreatedAtBetween(any(), any(), any());
+            verify(inventoryMovementRepository, never()).findByCreatedAtGreaterThanEqualAndCreatedAtLessThan(any(), any(), any());
         }
 
         @Test
@@ -335,7 +340,8 @@ class InventoryMovementServiceImplTest {
             List<InventoryMovement> movements = Collections.singletonList(movement);
             Page<InventoryMovement> movementPage = new PageImpl<>(movements, defaultPageable, 1);
 
-            when(inventoryMovementRepository.findByCreatedAtBetween(sameDate, sameDate, defaultPageable))
+            when(inventoryMovementRepository.findByCreatedAtGreaterThanEqualAndCreatedAtLessThan(
+                    sameDate.atStartOfDay(), sameDate.plusDays(1).atStartOfDay(), defaultPageable))
                     .thenReturn(movementPage);
 
             Page<InventoryMovementResponseDTO> result = inventoryMovementServiceImpl
@@ -343,7 +349,8 @@ class InventoryMovementServiceImplTest {
 
             assertThat(result).isNotNull();
             assertThat(result.getContent()).hasSize(1);
-            verify(inventoryMovementRepository).findByCreatedAtBetween(sameDate, sameDate, defaultPageable);
+            verify(inventoryMovementRepository).findByCreatedAtGreaterThanEqualAndCreatedAtLessThan(
+                    sameDate.atStartOfDay(), sameDate.plusDays(1).atStartOfDay(), defaultPageable);
         }
 
         @Test
@@ -353,7 +360,8 @@ class InventoryMovementServiceImplTest {
             LocalDate endDate = LocalDate.now().minusDays(9);
             Page<InventoryMovement> emptyPage = new PageImpl<>(Collections.emptyList(), defaultPageable, 0);
 
-            when(inventoryMovementRepository.findByCreatedAtBetween(startDate, endDate, defaultPageable))
+            when(inventoryMovementRepository.findByCreatedAtGreaterThanEqualAndCreatedAtLessThan(
+                    startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay(), defaultPageable))
                     .thenReturn(emptyPage);
 
             Page<InventoryMovementResponseDTO> result = inventoryMovementServiceImpl
@@ -362,7 +370,8 @@ class InventoryMovementServiceImplTest {
             assertThat(result).isNotNull();
             assertThat(result.getContent()).isEmpty();
             assertThat(result.getTotalElements()).isZero();
-            verify(inventoryMovementRepository).findByCreatedAtBetween(startDate, endDate, defaultPageable);
+            verify(inventoryMovementRepository).findByCreatedAtGreaterThanEqualAndCreatedAtLessThan(
+                    startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay(), defaultPageable);
         }
     }
 
@@ -441,4 +450,63 @@ class InventoryMovementServiceImplTest {
             verify(inventoryMovementRepository).findAllBy(customSortedPageable);
         }
     }
-}
\ No newline at end of file
+
+    @Nested
+    @DisplayName("Keyset pagination tests")
+    class SeekTests {
+
+        @Test
+        @DisplayName("Should return a cursor that continues after the last movement of the slice")
+        void shouldReturnACursorThatContinuesAfterTheLastMovementOfTheSlice() {
+            when(inventoryMovementRepository.findAllBefore(any(), any(), any()))
+                    .thenReturn(Arrays.asList(movement3, movement2, movement))
+                    .thenReturn(Collections.singletonList(movement));
+            when(inventoryMovementRepository.count()).thenReturn(3L);
+
+            MovementSliceDTO first = inventoryMovementServiceImpl.seekRecentMovements("", 2, true);
+            MovementSliceDTO second = inventoryMovementServiceImpl.seekRecentMovements(first.nextCursor(), 2, false);
+
+            assertThat(first.content()).extracting(InventoryMovementResponseDTO::id).containsExactly(3L, 2L);
+            assertThat(first.nextCursor()).isNotBlank();
+            assertThat(first.estimatedTotal()).isEqualTo(3L);
+            assertThat(second.content()).extracting(InventoryMovementResponseDTO::id).containsExactly(1L);
+            assertThat(second.nextCursor()).isNull();
+            assertThat(second.estimatedTotal()).isEqualTo(3L);
+
+            verify(inventoryMovementRepository).findAllBefore(movement2.getCreatedAt(), 2L, Limit.of(3));
+            verify(inventoryMovementRepository, times(1)).count();
+        }
+
+        @Test
+        @DisplayName("Should not count when no total is requested")
+        void shouldNotCountWhenNoTotalIsRequested() {
+            when(inventoryMovementRepository.findByInventoryIdBefore(eq(1L), any(), any(), any()))
+                    .thenReturn(Collections.singletonList(movement));
+
+            MovementSliceDTO slice = inventoryMovementServiceImpl.seekByInventoryId(1L, null, 10, false);
+
+            assertThat(slice.content()).hasSize(1);
+            assertThat(slice.estimatedTotal()).isNull();
+            verify(inventoryMovementRepository, never()).countByInventoryId(any());
+        }
+
+        @Test
+        @DisplayName("Should throw exception when cursor is not a valid token")
+        void shouldThrowExceptionWhenCursorIsNotAValidToken() {
+            assertThatThrownBy(() -> inventoryMovementServiceImpl.seekByMovementType(MovementType.ENTRY, "not-a-cursor", 10, false))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Invalid cursor");
+
+            verify(inventoryMovementRepository, never()).findByMovementTypeBefore(any(), any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("Should throw exception when size is out of range")
+        void shouldThrowExceptionWhenSizeIsOutOfRange() {
+            assertThatThrownBy(() -> inventoryMovementServiceImpl.seekRecentMovements(null, 0, false))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> inventoryMovementServiceImpl.seekRecentMovements(null, 101, false))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+}
@@ -5,7 +5,9 @@ import com.bookstore.management.book.model.Author;
 import com.bookstore.management.book.model.Book;
 import com.bookstore.management.book.model.Gender;
 import com.bookstore.management.book.repository.BookRepository;
+import com.bookstore.management.inventory.cache.AvailabilityCache;
 import com.bookstore.management.inventory.dto.*;
+import com.bookstore.management.inventory.index.LowStockIndex;
 import com.bookstore.management.inventory.mapper.InventoryMapper;
 import com.bookstore.management.inventory.model.AvailabilityStatus;
 import com.bookstore.management.inventory.model.Inventory;
@@ -27,7 +29,9 @@ import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -48,6 +52,10 @@ public class InventoryServiceImplTest {
     private InventoryMapper inventoryMapper;
     @Autowired
     private BookMapper bookMapper ;
+    @Autowired
+    private AvailabilityCache availabilityCache;
+    @Autowired
+    private LowStockIndex lowStockIndex;
 
     private Author author;
     private Book book;
@@ -57,6 +65,10 @@ public class InventoryServiceImplTest {
     private CreateInventoryDTO createInventoryDTO;
     @BeforeEach
     void setUp() {
+        availabilityCache.invalidateAll();
+        lowStockIndex.rebuild();
+        clearInvocations(inventoryRepository);
+
         author = Author.builder()
                 .id(1L)
                 .name("Chimamanda Ngozi Adichie")
@@ -158,7 +170,7 @@ public class InventoryServiceImplTest {
         void shouldReturnInventoryResponseWhenBookExistsInInventory(){
 
             Long bookId = 1L;
-            when(inventoryRepository.findByBookId(bookId)).thenReturn(Optional.of(inventory));
+            when(inventoryRepository.findReadOnlyByBookId(bookId)).thenReturn(Optional.of(inventory));
 
             InventoryResponseDTO result = inventoryService.findByBookId(bookId);
 
@@ -168,7 +180,7 @@ public class InventoryServiceImplTest {
             assertThat(result.stockMin()).isEqualTo(10);
             assertThat(result.stockMax()).isEqualTo(500);
             assertThat(result.activeStatus()).isTrue();
-            verify(inventoryRepository, times(1)).findByBookId(bookId);
+            verify(inventoryRepository, times(1)).findReadOnlyByBookId(bookId);
 
         }
 
@@ -178,7 +190,7 @@ public class InventoryServiceImplTest {
 
             Long bookId = 999L;
 
-            when(inventoryRepository.findByBookId(bookId)).thenReturn(Optional.empty());
+            when(inventoryRepository.findReadOnlyByBookId(bookId)).thenReturn(Optional.empty());
 
             assertThatThrownBy(() -> inventoryService.findByBookId(bookId))
                     .isInstanceOf(ResourceNotFoundException.class)
@@ -186,7 +198,7 @@ public class InventoryServiceImplTest {
                     .hasMessageContaining("Id")
                     .hasMessageContaining(bookId.toString());
 
-            verify(inventoryRepository, times(1)).findByBookId(bookId);
+            verify(inventoryRepository, times(1)).findReadOnlyByBookId(bookId);
         }
     }
     @Nested
@@ -250,8 +262,8 @@ public class InventoryServiceImplTest {
     @DisplayName("Find by alert low stock list")
     class findByAlertLowStock{
         @Test
-        @DisplayName("Should return list of inventories with low stock alert when inventories exist")
-        void shouldReturnListOfInventoriesWithLowStockAlertWhenInventoriesExist(){
+        @DisplayName("Should return inventories with low stock ordered by deficit")
+        void shouldReturnInventoriesWithLowStockOrderedByDeficit(){
 
             inventory.setQuantityAvailable(5);
             inventory.setAlertLowStock(true);
@@ -261,15 +273,17 @@ public class InventoryServiceImplTest {
             List<Inventory> lowStockInventories = Arrays.asList(inventory, anotherInventory);
 
             when(inventoryRepository.findActiveInventoriesWithLowStock()).thenReturn(lowStockInventories);
+            lowStockIndex.rebuild();
 
             List<InventorySummaryDTO> result = inventoryService.findByAlertLowStockList();
 
             assertThat(result).isNotNull();
             assertThat(result).hasSize(2);
-            assertThat(result.get(0).id()).isEqualTo(1L);
+            assertThat(result.get(0).id()).isEqualTo(2L);
             assertThat(result.get(0).quantityAvailable()).isEqualTo(5);
             assertThat(result.get(0).activeStatus()).isTrue();
-            assertThat(result.get(1).id()).isEqualTo(2L);
+            assertThat(result.get(0).bookSummaryDTO().title()).isEqualTo("Americanah");
+            assertThat(result.get(1).id()).isEqualTo(1L);
             assertThat(result.get(1).quantityAvailable()).isEqualTo(5);
             assertThat(result.get(1).activeStatus()).isTrue();
             verify(inventoryRepository, times(1)).findActiveInventoriesWithLowStock();
@@ -282,12 +296,60 @@ public class InventoryServiceImplTest {
             List<Inventory> emptyInventories = Collections.emptyList();
 
             when(inventoryRepository.findActiveInventoriesWithLowStock()).thenReturn(emptyInventories);
+            lowStockIndex.rebuild();
 
             List<InventorySummaryDTO> result = inventoryService.findByAlertLowStockList();
 
             assertThat(result).isNotNull();
             assertThat(result).isEmpty();
-            verify(inventoryRepository, times(1)).findActiveInventoriesWithLowStock();
+        }
+
+        @Test
+        @DisplayName("Should page and limit the most critical inventories without querying the database")
+        void shouldPageAndLimitTheMostCriticalInventoriesWithoutQueryingTheDatabase() {
+
+            inventory.setQuantityAvailable(5);
+            anotherInventory.setQuantityAvailable(5);
+            when(inventoryRepository.findActiveInventoriesWithLowStock()).thenReturn(Arrays.asList(inventory, anotherInventory));
+            lowStockIndex.rebuild();
+            clearInvocations(inventoryRepository);
+
+            assertThat(inventoryService.findMostCriticalLowStock(1)).extracting(InventorySummaryDTO::id).containsExactly(2L);
+            assertThat(inventoryService.findByAlertLowStockPage(1, 1)).extracting(InventorySummaryDTO::id).containsExactly(1L);
+            assertThat(inventoryService.findByAlertLowStockPage(1, 5)).isEmpty();
+            verifyNoInteractions(inventoryRepository);
+        }
+
+        @Test
+        @DisplayName("Should add an inventory when a sale leaves it below minimum stock")
+        void shouldAddAnInventoryWhenASaleLeavesItBelowMinimumStock() {
+
+            Long bookId = 1L;
+            when(inventoryRepository.findByBookId(bookId)).thenReturn(Optional.of(inventory));
+            when(bookRepository.findAllByIdIn(List.of(bookId))).thenReturn(List.of(book));
+
+            inventoryService.registerSale(new UpdateStockDTO(95, MovementType.EXIT), bookId);
+
+            List<InventorySummaryDTO> result = inventoryService.findByAlertLowStockList();
+            assertThat(result).hasSize(1);
+            assertThat(result.get(0).id()).isEqualTo(1L);
+            assertThat(result.get(0).quantityAvailable()).isEqualTo(5);
+            assertThat(result.get(0).bookSummaryDTO().title()).isEqualTo("Half of a Yellow Sun");
+        }
+
+        @Test
+        @DisplayName("Should remove an inventory when an entry restores its stock")
+        void shouldRemoveAnInventoryWhenAnEntryRestoresItsStock() {
+
+            Long bookId = 1L;
+            inventory.setQuantityAvailable(5);
+            when(inventoryRepository.findActiveInventoriesWithLowStock()).thenReturn(List.of(inventory));
+            lowStockIndex.rebuild();
+            when(inventoryRepository.findByBookId(bookId)).thenReturn(Optional.of(inventory));
+
+            inventoryService.registerEntry(new UpdateStockDTO(50, MovementType.ENTRY), bookId);
+
+            assertThat(inventoryService.findByAlertLowStockList()).isEmpty();
         }
     }
     @Nested
@@ -297,7 +359,7 @@ public class InventoryServiceImplTest {
         @DisplayName("Should return available status when book has sufficient stock")
         void shouldReturnAvailableStatusWhenBookHasSufficientStock(){
             Long bookId = 1L;
-            when(inventoryRepository.findByBookId(bookId)).thenReturn(Optional.of(inventory));
+            when(inventoryRepository.findStockByBookId(bookId)).thenReturn(Optional.of(stockOf(inventory)));
 
             CheckAvailabilityResponseDTO result = inventoryService.checkBookAvailability(bookId);
 
@@ -306,7 +368,7 @@ public class InventoryServiceImplTest {
             assertThat(result.isAvailable()).isTrue();
             assertThat(result.status()).isEqualTo(AvailabilityStatus.AVAILABLE);
             assertThat(result.quantityAvailable()).isEqualTo(100);
-            verify(inventoryRepository, times(1)).findByBookId(bookId);
+            verify(inventoryRepository, times(1)).findStockByBookId(bookId);
         }
 
         @Test
@@ -314,7 +376,7 @@ public class InventoryServiceImplTest {
         void shouldReturnFewUnitsStatusWhenBookQuantityIsBelowMinimum() {
             Long bookId = 1L;
             inventory.setQuantityAvailable(10);
-            when(inventoryRepository.findByBookId(bookId)).thenReturn(Optional.of(inventory));
+            when(inventoryRepository.findStockByBookId(bookId)).thenReturn(Optional.of(stockOf(inventory)));
 
             CheckAvailabilityResponseDTO result = inventoryService.checkBookAvailability(bookId);
 
@@ -324,7 +386,7 @@ public class InventoryServiceImplTest {
             assertThat(result.isAvailable()).isTrue();
             assertThat(result.quantityAvailable()).isEqualTo(10);
             assertThat(result.status()).isEqualTo(AvailabilityStatus.FEW_UNITS);
-            verify(inventoryRepository, times(1)).findByBookId(bookId);
+            verify(inventoryRepository, times(1)).findStockByBookId(bookId);
         }
 
         @Test
@@ -332,7 +394,7 @@ public class InventoryServiceImplTest {
         void shouldReturnUnavailableWhenBookHasZeroStock() {
             Long bookId = 1L;
             inventory.setQuantityAvailable(0);
-            when(inventoryRepository.findByBookId(bookId)).thenReturn(Optional.of(inventory));
+            when(inventoryRepository.findStockByBookId(bookId)).thenReturn(Optional.of(stockOf(inventory)));
 
             CheckAvailabilityResponseDTO result = inventoryService.checkBookAvailability(bookId);
 
@@ -341,7 +403,7 @@ public class InventoryServiceImplTest {
             assertThat(result.isAvailable()).isFalse();
             assertThat(result.quantityAvailable()).isZero();
             assertThat(result.status()).isEqualTo(AvailabilityStatus.UNAVAILABLE);
-            verify(inventoryRepository, times(1)).findByBookId(bookId);
+            verify(inventoryRepository, times(1)).findStockByBookId(bookId);
         }
 
         @Test
@@ -350,7 +412,7 @@ public class InventoryServiceImplTest {
 
             Long bookId = 999L;
 
-            when(inventoryRepository.findByBookId(bookId)).thenReturn(Optional.empty());
+            when(inventoryRepository.findStockByBookId(bookId)).thenReturn(Optional.empty());
 
             assertThatThrownBy(() -> inventoryService.checkBookAvailability(bookId))
                     .isInstanceOf(ResourceNotFoundException.class)
@@ -358,7 +420,39 @@ public class InventoryServiceImplTest {
                     .hasMessageContaining("Id")
                     .hasMessageContaining(bookId.toString());
 
-            verify(inventoryRepository, times(1)).findByBookId(bookId);
+            verify(inventoryRepository, times(1)).findStockByBookId(bookId);
+        }
+
+        @Test
+        @DisplayName("Should serve repeated checks from the availability cache")
+        void shouldServeRepeatedChecksFromTheAvailabilityCache() {
+            Long bookId = 1L;
+            when(inventoryRepository.findStockByBookId(bookId)).thenReturn(Optional.of(stockOf(inventory)));
+
+            inventoryService.checkBookAvailability(bookId);
+            CheckAvailabilityResponseDTO result = inventoryService.checkBookAvailability(bookId);
+
+            assertThat(result.quantityAvailable()).isEqualTo(100);
+            verify(inventoryRepository, times(1)).findStockByBookId(bookId);
+            verify(inventoryRepository, never()).findByBookId(bookId);
+        }
+
+        @Test
+        @DisplayName("Should reload availability after a stock mutation")
+        void shouldReloadAvailabilityAfterAStockMutation() {
+            Long bookId = 1L;
+            when(inventoryRepository.findStockByBookId(bookId)).thenReturn(Optional.of(stockOf(inventory)));
+            when(inventoryRepository.findByBookId(bookId)).thenReturn(Optional.of(inventory));
+            when(inventoryRepository.save(any(Inventory.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+            inventoryService.checkBookAvailability(bookId);
+            inventoryService.registerEntry(new UpdateStockDTO(5, MovementType.ENTRY), bookId);
+            when(inventoryRepository.findStockByBookId(bookId)).thenReturn(Optional.of(stockOf(inventory)));
+
+            CheckAvailabilityResponseDTO result = inventoryService.checkBookAvailability(bookId);
+
+            assertThat(result.quantityAvailable()).isEqualTo(105);
+            verify(inventoryRepository, times(2)).findStockByBookId(bookId);
         }
     }
     @Nested
@@ -1042,28 +1136,24 @@ public class InventoryServiceImplTest {
             Long bookId = 1L;
             Integer quantity = 5;
 
-            inventory.setQuantityAvailable(30);
-            inventory.setQuantityReserved(5);
-            inventory.setStockMin(10);
-            inventory.setAlertLowStock(false);
+            InventoryStockDTO stockAfterReservation = new InventoryStockDTO(1L, bookId, 25, 10, 10, true);
 
-            when(inventoryRepository.findByBookId(bookId)).thenReturn(Optional.of(inventory));
-            when(inventoryRepository.save(any(Inventory.class))).thenReturn(inventory);
+            when(inventoryRepository.reserveStock(bookId, quantity)).thenReturn(1);
+            when(inventoryRepository.findRowStockByBookId(bookId)).thenReturn(Optional.of(stockAfterReservation));
+            when(inventoryRepository.getReferenceById(1L)).thenReturn(inventory);
             when(inventoryMovementRepository.save(any(InventoryMovement.class))).thenReturn(InventoryMovement.builder().build());
 
             inventoryService.reserveStock(bookId, quantity);
 
-            assertThat(inventory.getQuantityAvailable()).isEqualTo(30);
-            assertThat(inventory.getQuantityReserved()).isEqualTo(10);
-            assertThat(inventory.getAlertLowStock()).isFalse();
-
-            verify(inventoryRepository, times(1)).findByBookId(bookId);
-            verify(inventoryRepository, times(1)).save(inventory);
+            verify(inventoryRepository, times(1)).reserveStock(bookId, quantity);
+            verify(inventoryRepository, never()).findByBookId(any());
+            verify(inventoryRepository, never()).save(any(Inventory.class));
 
             ArgumentCaptor<InventoryMovement> movementCaptor = ArgumentCaptor.forClass(InventoryMovement.class);
             verify(inventoryMovementRepository, times(1)).save(movementCaptor.capture());
 
             InventoryMovement capturedMovement = movementCaptor.getValue();
+            assertThat(capturedMovement.getInventory()).isEqualTo(inventory);
             assertThat(capturedMovement.getQuantityBefore()).isEqualTo(30);
             assertThat(capturedMovement.getQuantityAfter()).isEqualTo(25);
             assertThat(capturedMovement.getAffectedQuantity()).isEqualTo(-5);
@@ -1071,49 +1161,39 @@ public class InventoryServiceImplTest {
         }
 
         @Test
-        @DisplayName("Should set alert low stock to true when quantity after reservation is below or equal to minimum stock")
-        void shouldSetAlertLowStockToTrueWhenQuantityAfterReservationIsBelowOrEqualToMinimumStock() {
+        @DisplayName("Should throw InsufficientStockException when available stock is less than reserve quantity")
+        void shouldThrowInsufficientStockExceptionWhenAvailableStockIsLessThanReserveQuantity() {
 
             Long bookId = 1L;
-            Integer quantity = 15;
-
-            inventory.setQuantityAvailable(20);
-            inventory.setQuantityReserved(0);
-            inventory.setStockMin(10);
-            inventory.setAlertLowStock(false);
-
-            when(inventoryRepository.findByBookId(bookId)).thenReturn(Optional.of(inventory));
-            when(inventoryRepository.save(any(Inventory.class))).thenReturn(inventory);
-            when(inventoryMovementRepository.save(any(InventoryMovement.class))).thenReturn(InventoryMovement.builder().build());
+            Integer quantity = 50;
 
-            inventoryService.reserveStock(bookId, quantity);
+            when(inventoryRepository.reserveStock(bookId, quantity)).thenReturn(0);
+            when(inventoryRepository.findStockByBookId(bookId))
+                    .thenReturn(Optional.of(new InventoryStockDTO(1L, bookId, 20, 5, 10, true)));
 
-            assertThat(inventory.getQuantityAvailable()).isEqualTo(20);
-            assertThat(inventory.getQuantityReserved()).isEqualTo(15);
-            assertThat(inventory.getAlertLowStock()).isTrue();
+            assertThatThrownBy(() -> inventoryService.reserveStock(bookId, quantity))
+                    .isInstanceOf(InsufficientStockException.class)
+                    .hasMessageContaining("Insufficient stock");
 
-            verify(inventoryRepository, times(1)).save(inventory);
-            verify(inventoryMovementRepository, times(1)).save(any(InventoryMovement.class));
+            verify(inventoryRepository, times(1)).reserveStock(bookId, quantity);
+            verify(inventoryMovementRepository, never()).save(any(InventoryMovement.class));
         }
 
         @Test
-        @DisplayName("Should throw InsufficientStockException when available stock is less than reserve quantity")
-        void shouldThrowInsufficientStockExceptionWhenAvailableStockIsLessThanReserveQuantity() {
+        @DisplayName("Should throw InsufficientStockException when inventory is disabled")
+        void shouldThrowInsufficientStockExceptionWhenInventoryIsDisabled() {
 
             Long bookId = 1L;
-            Integer quantity = 50;
-
-            inventory.setQuantityAvailable(20);
-            inventory.setQuantityReserved(5);
+            Integer quantity = 5;
 
-            when(inventoryRepository.findByBookId(bookId)).thenReturn(Optional.of(inventory));
+            when(inventoryRepository.reserveStock(bookId, quantity)).thenReturn(0);
+            when(inventoryRepository.findStockByBookId(bookId))
+                    .thenReturn(Optional.of(new InventoryStockDTO(1L, bookId, 20, 0, 10, false)));
 
             assertThatThrownBy(() -> inventoryService.reserveStock(bookId, quantity))
                     .isInstanceOf(InsufficientStockException.class)
-                    .hasMessageContaining("Insufficient stock");
+                    .hasMessageContaining("disabled");
 
-            verify(inventoryRepository, times(1)).findByBookId(bookId);
-            verify(inventoryRepository, never()).save(any(Inventory.class));
             verify(inventoryMovementRepository, never()).save(any(InventoryMovement.class));
         }
 
@@ -1124,27 +1204,20 @@ public class InventoryServiceImplTest {
             Long bookId = 1L;
             Integer quantity = 25;
 
-            inventory.setQuantityAvailable(25);
-            inventory.setQuantityReserved(0);
-            inventory.setStockMin(10);
-            inventory.setAlertLowStock(false);
-
-            when(inventoryRepository.findByBookId(bookId)).thenReturn(Optional.of(inventory));
-            when(inventoryRepository.save(any(Inventory.class))).thenReturn(inventory);
+            when(inventoryRepository.reserveStock(bookId, quantity)).thenReturn(1);
+            when(inventoryRepository.findRowStockByBookId(bookId))
+                    .thenReturn(Optional.of(new InventoryStockDTO(1L, bookId, 0, 25, 10, true)));
+            when(inventoryRepository.getReferenceById(1L)).thenReturn(inventory);
             when(inventoryMovementRepository.save(any(InventoryMovement.class))).thenReturn(InventoryMovement.builder().build());
 
             inventoryService.reserveStock(bookId, quantity);
 
-            assertThat(inventory.getQuantityAvailable()).isEqualTo(25);
-            assertThat(inventory.getQuantityReserved()).isEqualTo(25);
-
             ArgumentCaptor<InventoryMovement> movementCaptor = ArgumentCaptor.forClass(InventoryMovement.class);
             verify(inventoryMovementRepository, times(1)).save(movementCaptor.capture());
 
             InventoryMovement capturedMovement = movementCaptor.getValue();
+            assertThat(capturedMovement.getQuantityBefore()).isEqualTo(25);
             assertThat(capturedMovement.getQuantityAfter()).isZero();
-
-            verify(inventoryRepository, times(1)).save(inventory);
         }
 
         @Test
@@ -1154,7 +1227,8 @@ public class InventoryServiceImplTest {
             Long bookId = 999L;
             Integer quantity = 5;
 
-            when(inventoryRepository.findByBookId(bookId)).thenReturn(Optional.empty());
+            when(inventoryRepository.reserveStock(bookId, quantity)).thenReturn(0);
+            when(inventoryRepository.findStockByBookId(bookId)).thenReturn(Optional.empty());
 
             assertThatThrownBy(() -> inventoryService.reserveStock(bookId, quantity))
                     .isInstanceOf(ResourceNotFoundException.class)
@@ -1162,12 +1236,247 @@ public class InventoryServiceImplTest {
                     .hasMessageContaining("Id")
                     .hasMessageContaining(bookId.toString());
 
-            verify(inventoryRepository, times(1)).findByBookId(bookId);
+            verify(inventoryRepository, times(1)).reserveStock(bookId, quantity);
             verify(inventoryRepository, never()).save(any(Inventory.class));
             verify(inventoryMovementRepository, never()).save(any(InventoryMovement.class));
         }
     }
     @Nested
+    @DisplayName("Reserve stock batch")
+    class reserveStockBatch{
+        @Test
+        @DisplayName("Should reserve every line and save all movements in one batch")
+        void shouldReserveEveryLineAndSaveAllMovementsInOneBatch() {
+
+            Map<Long, Integer> quantities = Map.of(2L, 50, 1L, 10);
+
+            when(inventoryRepository.findAllByBookIdInOrderByBookId(any()))
+                    .thenReturn(List.of(inventory, anotherInventory));
+
+            inventoryService.reserveStockBatch(quantities);
+
+            assertThat(inventory.getQuantityAvailable()).isEqualTo(90);
+            assertThat(inventory.getQuantityReserved()).isEqualTo(10);
+            assertThat(anotherInventory.getQuantityAvailable()).isEqualTo(150);
+            assertThat(anotherInventory.getQuantityReserved()).isEqualTo(50);
+
+            verify(inventoryRepository, times(1)).findAllByBookIdInOrderByBookId(Set.of(1L, 2L));
+            verify(inventoryRepository, never()).findByBookId(any());
+            verify(inventoryRepository, times(1)).saveAll(any());
+
+            @SuppressWarnings("unchecked")
+            ArgumentCaptor<List<InventoryMovement>> movementsCaptor = ArgumentCaptor.forClass(List.class);
+            verify(inventoryMovementRepository, times(1)).saveAll(movementsCaptor.capture());
+            verify(inventoryMovementRepository, never()).save(any(InventoryMovement.class));
+
+            List<InventoryMovement> movements = movementsCaptor.getValue();
+            assertThat(movements).hasSize(2);
+            assertThat(movements).extracting(InventoryMovement::getInventory).containsExactly(inventory, anotherInventory);
+            assertThat(movements).extracting(InventoryMovement::getAffectedQuantity).containsExactly(-10, -50);
+            assertThat(movements).extracting(InventoryMovement::getMovementType).containsOnly(MovementType.RESERVE);
+        }
+
+        @Test
+        @DisplayName("Should not reserve any line when one line has insufficient stock")
+        void shouldNotReserveAnyLineWhenOneLineHasInsufficientStock() {
+
+            Map<Long, Integer> quantities = Map.of(1L, 10, 2L, 201);
+
+            when(inventoryRepository.findAllByBookIdInOrderByBookId(any()))
+                    .thenReturn(List.of(inventory, anotherInventory));
+
+            assertThatThrownBy(() -> inventoryService.reserveStockBatch(quantities))
+                    .isInstanceOf(InsufficientStockException.class)
+                    .hasMessageContaining("Insufficient stock")
+                    .hasMessageContaining("2");
+
+            assertThat(inventory.getQuantityAvailable()).isEqualTo(100);
+            assertThat(inventory.getQuantityReserved()).isZero();
+            verify(inventoryRepository, never()).saveAll(any());
+            verify(inventoryMovementRepository, never()).saveAll(any());
+        }
+
+        @Test
+        @DisplayName("Should throw InsufficientStockException when one inventory is disabled")
+        void shouldThrowInsufficientStockExceptionWhenOneInventoryIsDisabled() {
+
+            anotherInventory.setActiveStatus(false);
+
+            when(inventoryRepository.findAllByBookIdInOrderByBookId(any()))
+                    .thenReturn(List.of(inventory, anotherInventory));
+
+            assertThatThrownBy(() -> inventoryService.reserveStockBatch(Map.of(1L, 1, 2L, 1)))
+                    .isInstanceOf(InsufficientStockException.class)
+                    .hasMessageContaining("disabled");
+
+            verify(inventoryMovementRepository, never()).saveAll(any());
+        }
+
+        @Test
+        @DisplayName("Should throw ResourceNotFoundException when one book has no inventory")
+        void shouldThrowResourceNotFoundExceptionWhenOneBookHasNoInventory() {
+
+            when(inventoryRepository.findAllByBookIdInOrderByBookId(any()))
+                    .thenReturn(List.of(inventory));
+
+            assertThatThrownBy(() -> inventoryService.reserveStockBatch(Map.of(1L, 1, 999L, 1)))
+                    .isInstanceOf(ResourceNotFoundException.class)
+                    .hasMessageContaining("999");
+
+            verify(inventoryRepository, never()).saveAll(any());
+            verify(inventoryMovementRepository, never()).saveAll(any());
+        }
+
+        @Test
+        @DisplayName("Should not touch the database when there is nothing to reserve")
+        void shouldNotTouchTheDatabaseWhenThereIsNothingToReserve() {
+
+            inventoryService.reserveStockBatch(Map.of());
+
+            verifyNoInteractions(inventoryRepository, inventoryMovementRepository);
+        }
+    }
+    @Nested
+    @DisplayName("Consume Reservation Tests")
+    class consumeReservation{
+        @Test
+        @DisplayName("Should take the units out of reserved stock and leave available stock unchanged")
+        void shouldTakeTheUnitsOutOfReservedStockAndLeaveAvailableStockUnchanged() {
+
+            Long bookId = 1L;
+            Integer quantity = 4;
+
+            when(inventoryRepository.consumeReservation(bookId, quantity)).thenReturn(1);
+            when(inventoryRepository.findRowStockByBookId(bookId))
+                    .thenReturn(Optional.of(new InventoryStockDTO(1L, bookId, 25, 6, 10, true)));
+            when(inventoryRepository.getReferenceById(1L)).thenReturn(inventory);
+
+            inventoryService.consumeReservation(bookId, quantity);
+
+            verify(inventoryRepository, times(1)).consumeReservation(bookId, quantity);
+            verify(inventoryRepository, never()).save(any(Inventory.class));
+
+            ArgumentCaptor<InventoryMovement> movementCaptor = ArgumentCaptor.forClass(InventoryMovement.class);
+            verify(inventoryMovementRepository, times(1)).save(movementCaptor.capture());
+
+            InventoryMovement capturedMovement = movementCaptor.getValue();
+            assertThat(capturedMovement.getQuantityBefore()).isEqualTo(25);
+            assertThat(capturedMovement.getQuantityAfter()).isEqualTo(25);
+            assertThat(capturedMovement.getAffectedQuantity()).isEqualTo(-4);
+            assertThat(capturedMovement.getMovementType()).isEqualTo(MovementType.EXIT);
+        }
+
+        @Test
+        @DisplayName("Should throw InsufficientReservedStockException when less stock is reserved than the sale holds")
+        void shouldThrowInsufficientReservedStockExceptionWhenLessStockIsReserved() {
+
+            Long bookId = 1L;
+            Integer quantity = 4;
+
+            when(inventoryRepository.consumeReservation(bookId, quantity)).thenReturn(0);
+            when(inventoryRepository.findStockByBookId(bookId))
+                    .thenReturn(Optional.of(new InventoryStockDTO(1L, bookId, 25, 3, 10, true)));
+
+            assertThatThrownBy(() -> inventoryService.consumeReservation(bookId, quantity))
+                    .isInstanceOf(InsufficientReservedStockException.class);
+
+            verify(inventoryMovementRepository, never()).save(any(InventoryMovement.class));
+        }
+    }
+    @Nested
+    @DisplayName("Register entry batch")
+    class registerEntryBatch{
+        @Test
+        @DisplayName("Should add every entry and save all movements in one batch")
+        void shouldAddEveryEntryAndSaveAllMovementsInOneBatch() {
+
+            when(inventoryRepository.findAllByBookIdInOrderByBookId(any()))
+                    .thenReturn(List.of(inventory, anotherInventory));
+
+            inventoryService.registerEntryBatch(Map.of(2L, 5, 1L, 30));
+
+            assertThat(inventory.getQuantityAvailable()).isEqualTo(130);
+            assertThat(anotherInventory.getQuantityAvailable()).isEqualTo(205);
+
+            verify(inventoryRepository, times(1)).findAllByBookIdInOrderByBookId(Set.of(1L, 2L));
+            verify(inventoryRepository, times(1)).saveAll(any());
+
+            @SuppressWarnings("unchecked")
+            ArgumentCaptor<List<InventoryMovement>> movementsCaptor = ArgumentCaptor.forClass(List.class);
+            verify(inventoryMovementRepository, times(1)).saveAll(movementsCaptor.capture());
+
+            List<InventoryMovement> movements = movementsCaptor.getValue();
+            assertThat(movements).extracting(InventoryMovement::getInventory).containsExactly(inventory, anotherInventory);
+            assertThat(movements).extracting(InventoryMovement::getAffectedQuantity).containsExactly(30, 5);
+            assertThat(movements).extracting(InventoryMovement::getQuantityAfter).containsExactly(130, 205);
+            assertThat(movements).extracting(InventoryMovement::getMovementType).containsOnly(MovementType.ENTRY);
+        }
+
+        @Test
+        @DisplayName("Should throw ResourceNotFoundException when one book has no inventory")
+        void shouldThrowResourceNotFoundExceptionWhenOneBookHasNoInventory() {
+
+            when(inventoryRepository.findAllByBookIdInOrderByBookId(any()))
+                    .thenReturn(List.of(inventory));
+
+            assertThatThrownBy(() -> inventoryService.registerEntryBatch(Map.of(1L, 1, 999L, 1)))
+                    .isInstanceOf(ResourceNotFoundException.class)
+                    .hasMessageContaining("999");
+
+            assertThat(inventory.getQuantityAvailable()).isEqualTo(100);
+            verify(inventoryRepository, never()).saveAll(any());
+            verify(inventoryMovementRepository, never()).saveAll(any());
+        }
+    }
+    @Nested
+    @DisplayName("Release reservation batch")
+    class releaseReservationBatch{
+        @Test
+        @DisplayName("Should give back every reservation and save all movements in one batch")
+        void shouldGiveBackEveryReservationAndSaveAllMovementsInOneBatch() {
+
+            inventory.setQuantityReserved(4);
+            anotherInventory.setQuantityReserved(10);
+            when(inventoryRepository.findAllByBookIdInOrderByBookId(any()))
+                    .thenReturn(List.of(inventory, anotherInventory));
+
+            inventoryService.releaseReservationBatch(Map.of(2L, 7, 1L, 4));
+
+            assertThat(inventory.getQuantityAvailable()).isEqualTo(104);
+            assertThat(inventory.getQuantityReserved()).isZero();
+            assertThat(anotherInventory.getQuantityAvailable()).isEqualTo(207);
+            assertThat(anotherInventory.getQuantityReserved()).isEqualTo(3);
+            verify(inventoryRepository, times(1)).saveAll(any());
+
+            @SuppressWarnings("unchecked")
+            ArgumentCaptor<List<InventoryMovement>> movementsCaptor = ArgumentCaptor.forClass(List.class);
+            verify(inventoryMovementRepository, times(1)).saveAll(movementsCaptor.capture());
+
+            List<InventoryMovement> movements = movementsCaptor.getValue();
+            assertThat(movements).extracting(InventoryMovement::getInventory).containsExactly(inventory, anotherInventory);
+            assertThat(movements).extracting(InventoryMovement::getAffectedQuantity).containsExactly(4, 7);
+            assertThat(movements).extracting(InventoryMovement::getMovementType).containsOnly(MovementType.RELEASE_RESERVE);
+        }
+
+        @Test
+        @DisplayName("Should release nothing when one book has less reserved stock than requested")
+        void shouldReleaseNothingWhenOneBookHasLessReservedStockThanRequested() {
+
+            inventory.setQuantityReserved(4);
+            anotherInventory.setQuantityReserved(1);
+            when(inventoryRepository.findAllByBookIdInOrderByBookId(any()))
+                    .thenReturn(List.of(inventory, anotherInventory));
+
+            assertThatThrownBy(() -> inventoryService.releaseReservationBatch(Map.of(1L, 4, 2L, 2)))
+                    .isInstanceOf(InsufficientReservedStockException.class)
+                    .hasMessageContaining("2");
+
+            assertThat(inventory.getQuantityReserved()).isEqualTo(4);
+            verify(inventoryRepository, never()).saveAll(any());
+            verify(inventoryMovementRepository, never()).saveAll(any());
+        }
+    }
+    @Nested
     @DisplayName("Update Thresholds Tests")
     class updateThresholds{
         @Test
@@ -1424,4 +1733,9 @@ public class InventoryServiceImplTest {
             verify(inventoryMovementRepository, never()).save(any(InventoryMovement.class));
         }
     }
+
+    private InventoryStockDTO stockOf(Inventory inventory) {
+        return new InventoryStockDTO(inventory.getId(), inventory.getBook().getId(), inventory.getQuantityAvailable(),
+                inventory.getQuantityReserved(), inventory.getStockMin(), inventory.getActiveStatus());
+    }
 }
@@ -0,0 +1,277 @@
+package com.bookstore.management.inventory.slot;
+
+import com.bookstore.management.book.model.Author;
+import com.bookstore.management.book.model.Book;
+import com.bookstore.management.book.model.Gender;
+import com.bookstore.management.book.repository.AuthorRepository;
+import com.bookstore.management.book.repository.BookRepository;
+import com.bookstore.management.inventory.dto.InventoryStockDTO;
+import com.bookstore.management.inventory.dto.ReconciliationRunDTO;
+import com.bookstore.management.inventory.dto.StockSlotsDTO;
+import com.bookstore.management.inventory.dto.UpdateStockDTO;
+import com.bookstore.management.inventory.model.Inventory;
+import com.bookstore.management.inventory.model.MovementType;
+import com.bookstore.management.inventory.reconcile.LedgerReconciler;
+import com.bookstore.management.inventory.repository.InventoryRepository;
+import com.bookstore.management.inventory.service.InventoryService;
+import com.bookstore.management.shared.exception.custom.InsufficientStockException;
+import com.bookstore.management.shared.exception.custom.InvalidStockSlotsException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:stockslots;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "inventory.stock-slots.max-slots=8",
+        "inventory.reconciliation.enabled=false",
+        "inventory.reconciliation.recheck-delay=0ms",
+        "inventory.checkpoint.settle=0s"
+})
+public class StockSlotsTest {
+
+    @Autowired
+    private StockSlots stockSlots;
+    @Autowired
+    private InventoryService inventoryService;
+    @Autowired
+    private InventoryRepository inventoryRepository;
+    @Autowired
+    private LedgerReconciler ledgerReconciler;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long bookId;
+
+    @BeforeEach
+    void setUp() {
+        Author author = authorRepository.save(Author.builder()
+                .name("Mariama Bâ")
+                .nationality("Senegalese")
+                .birthDate(LocalDate.of(1929, 4, 17))
+                .gender(Gender.FEMALE)
+                .build());
+        Book book = bookRepository.save(Book.builder()
+                .isbn("9780435905552")
+                .title("So Long a Letter")
+                .publishDate(LocalDate.of(1979, 1, 1))
+                .pages(96)
+                .author(author)
+                .build());
+        inventoryRepository.save(Inventory.builder()
+                .book(book)
+                .quantityAvailable(0)
+                .stockMin(2)
+                .stockMax(500)
+                .build());
+        bookId = book.getId();
+        inventoryService.registerEntry(new UpdateStockDTO(100, MovementType.ENTRY), bookId);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stockSlots.unshard(bookId);
+        jdbcTemplate.update("delete from inventory_drift");
+        jdbcTemplate.update("delete from reconciliation_run");
+        jdbcTemplate.update("delete from stock_checkpoint");
+        jdbcTemplate.update("delete from inventory_stock_slot");
+        jdbcTemplate.update("delete from inventory_movement");
+        jdbcTemplate.update("delete from inventory");
+        jdbcTemplate.update("delete from books");
+        jdbcTemplate.update("delete from authors");
+    }
+
+    @Test
+    @DisplayName("Should split the available stock across the slots without changing the totals")
+    void shouldSplitTheAvailableStockAcrossTheSlots() {
+        inventoryService.reserveStock(bookId, 10);
+
+        StockSlotsDTO slots = stockSlots.shard(bookId, 4);
+
+        assertThat(slots.slots()).isEqualTo(4);
+        assertThat(slots.slotsAvailable()).containsExactly(23, 23, 22, 22);
+        assertThat(slots.quantityAvailable()).isEqualTo(90);
+        assertThat(slots.quantityReserved()).isEqualTo(10);
+        assertThat(inventoryService.checkBookAvailability(bookId).quantityAvailable()).isEqualTo(90);
+        assertThat(inventoryService.findByBookId(bookId).quantityAvailable()).isEqualTo(90);
+    }
+
+    @Test
+    @DisplayName("Should keep the totals through reservations, releases, sales and entries on the slots")
+    void shouldKeepTheTotalsThroughChangesOnTheSlots() {
+        stockSlots.shard(bookId, 4);
+
+        inventoryService.reserveStock(bookId, 30);
+        inventoryService.reserveStock(bookId, 30);
+        inventoryService.releaseReservation(bookId, 20);
+        inventoryService.registerSale(new UpdateStockDTO(5, MovementType.EXIT), bookId);
+        inventoryService.registerEntry(new UpdateStockDTO(8, MovementType.ENTRY), bookId);
+        inventoryService.reserveStockBatch(Map.of(bookId, 3));
+        inventoryService.releaseReservationBatch(Map.of(bookId, 3));
+
+        InventoryStockDTO stock = inventoryRepository.findStockByBookId(bookId).orElseThrow();
+        assertThat(stock.quantityAvailable()).isEqualTo(100 - 60 + 20 - 5 + 8);
+        assertThat(stock.quantityReserved()).isEqualTo(40);
+        assertThat(stockSlots.describe(bookId).slotsAvailable()).hasSize(4);
+    }
+
+    @Test
+    @DisplayName("Should take a reservation larger than any slot from several slots")
+    void shouldSpreadAReservationLargerThanAnySlot() {
+        stockSlots.shard(bookId, 4);
+
+        inventoryService.reserveStock(bookId, 60);
+
+        StockSlotsDTO slots = stockSlots.describe(bookId);
+        assertThat(slots.quantityAvailable()).isEqualTo(40);
+        assertThat(slots.quantityReserved()).isEqualTo(60);
+        assertThatThrownBy(() -> inventoryService.reserveStock(bookId, 41))
+                .isInstanceOf(InsufficientStockException.class);
+    }
+
+    @Test
+    @DisplayName("Should reserve stock split between the row and the slots")
+    void shouldReserveStockSplitBetweenTheRowAndTheSlots() {
+        stockSlots.shard(bookId, 2);
+        jdbcTemplate.update("update inventory set quantity_available = 10 where book_id = ?", bookId);
+
+        inventoryService.reserveStock(bookId, 105);
+
+        InventoryStockDTO stock = inventoryRepository.findStockByBookId(bookId).orElseThrow();
+        assertThat(stock.quantityAvailable()).isEqualTo(5);
+        assertThat(stock.quantityReserved()).isEqualTo(105);
+    }
+
+    @Test
+    @DisplayName("Should reserve and release a batch mixing sharded and unsharded books")
+    void shouldReserveAndReleaseABatchMixingShardedAndUnshardedBooks() {
+        Book other = bookRepository.save(Book.builder()
+                .isbn("9780435909925")
+                .title("Scarlet Song")
+                .publishDate(LocalDate.of(1981, 1, 1))
+                .pages(176)
+                .author(authorRepository.findAll().get(0))
+                .build());
+        inventoryRepository.save(Inventory.builder()
+                .book(other)
+                .quantityAvailable(20)
+                .stockMin(2)
+                .stockMax(500)
+                .build());
+        stockSlots.shard(bookId, 2);
+        jdbcTemplate.update("update inventory set quantity_available = 10 where book_id = ?", bookId);
+
+        inventoryService.reserveStockBatch(Map.of(bookId, 105, other.getId(), 4));
+
+        assertThat(inventoryRepository.findStockByBookId(bookId).orElseThrow().quantityReserved()).isEqualTo(105);
+        assertThat(inventoryRepository.findStockByBookId(other.getId()).orElseThrow().quantityReserved()).isEqualTo(4);
+
+        inventoryService.releaseReservationBatch(Map.of(bookId, 5, other.getId(), 4));
+
+        InventoryStockDTO stock = inventoryRepository.findStockByBookId(bookId).orElseThrow();
+        assertThat(stock.quantityAvailable()).isEqualTo(10);
+        assertThat(stock.quantityReserved()).isEqualTo(100);
+        assertThat(inventoryRepository.findStockByBookId(other.getId()).orElseThrow().quantityAvailable()).isEqualTo(20);
+    }
+
+    @Test
+    @DisplayName("Should move the stock back onto the row when the book is unsharded")
+    void shouldMoveTheStockBackOntoTheRowWhenUnsharded() {
+        stockSlots.shard(bookId, 4);
+        inventoryService.reserveStock(bookId, 7);
+
+        StockSlotsDTO slots = stockSlots.unshard(bookId);
+
+        assertThat(slots.slots()).isZero();
+        Inventory inventory = inventoryRepository.findReadOnlyByBookId(bookId).orElseThrow();
+        assertThat(inventory.getStockSlots()).isZero();
+        assertThat(inventory.getQuantityAvailable()).isEqualTo(93);
+        assertThat(inventory.getQuantityReserved()).isEqualTo(7);
+        assertThat(stockSlots.layout(bookId)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should lose no reservation while the book is sharded concurrently")
+    void shouldLoseNoReservationWhileShardedConcurrently() throws Exception {
+        int threads = 4;
+        int reservationsPerThread = 10;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < reservationsPerThread; j++) {
+                        inventoryService.reserveStock(bookId, 1);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            stockSlots.shard(bookId, 4);
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        InventoryStockDTO stock = inventoryRepository.findStockByBookId(bookId).orElseThrow();
+        assertThat(stock.quantityReserved()).isEqualTo(threads * reservationsPerThread);
+        assertThat(stock.quantityAvailable()).isEqualTo(100 - threads * reservationsPerThread);
+    }
+
+    @Test
+    @DisplayName("Should take a completed reservation out of the reserved slots only")
+    void shouldTakeACompletedReservationOutOfTheReservedSlotsOnly() {
+        stockSlots.shard(bookId, 4);
+        inventoryService.reserveStock(bookId, 12);
+
+        inventoryService.consumeReservation(bookId, 12);
+
+        InventoryStockDTO stock = inventoryRepository.findStockByBookId(bookId).orElseThrow();
+        assertThat(stock.quantityAvailable()).isEqualTo(88);
+        assertThat(stock.quantityReserved()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should report no drift for a sharded book")
+    void shouldReportNoDriftForAShardedBook() {
+        stockSlots.shard(bookId, 3);
+        inventoryService.reserveStock(bookId, 12);
+        inventoryService.registerSale(new UpdateStockDTO(4, MovementType.EXIT), bookId);
+        inventoryService.reserveStock(bookId, 6);
+        inventoryService.consumeReservation(bookId, 6);
+
+        ReconciliationRunDTO run = ledgerReconciler.run();
+
+        assertThat(run.driftCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should refuse more slots than configured")
+    void shouldRefuseMoreSlotsThanConfigured() {
+        assertThatThrownBy(() -> stockSlots.shard(bookId, 9))
+                .isInstanceOf(InvalidStockSlotsException.class);
+    }
+}
@@ -0,0 +1,202 @@
+package com.bookstore.management.inventory.stream;
+
+import com.bookstore.management.inventory.dto.StockUpdateDTO;
+import com.bookstore.management.inventory.event.StockChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InventoryStreamBrokerTest {
+
+    private InventoryStreamBroker broker;
+
+    @BeforeEach
+    void setUp() {
+        broker = brokerWith(3, 16, Runnable::run);
+    }
+
+    @Nested
+    @DisplayName("Coalescing")
+    class CoalescingTest {
+
+        @Test
+        @DisplayName("Should send one update per book with the latest stock and the summed delta")
+        void shouldSendOneUpdatePerBookWithTheLatestStockAndTheSummedDelta() {
+            CapturingEmitter emitter = subscribe(Set.of(), null);
+
+            broker.onStockChanged(change(1L, 8, -2));
+            broker.onStockChanged(change(1L, 5, -3));
+            broker.onStockChanged(change(2L, 40, 10));
+            broker.flush();
+
+            assertThat(emitter.updates()).containsExactly(
+                    new StockUpdateDTO(1L, 5, 0, -5, true, false),
+                    new StockUpdateDTO(2L, 40, 0, 10, true, false));
+            assertThat(emitter.ids()).containsExactly("1", "2");
+        }
+
+        @Test
+        @DisplayName("Should keep the latest stock when changes arrive out of order")
+        void shouldKeepTheLatestStockWhenChangesArriveOutOfOrder() {
+            CapturingEmitter emitter = subscribe(Set.of(), null);
+            StockChangedEvent older = change(1L, 8, -2);
+            StockChangedEvent newer = change(1L, 5, -3);
+
+            broker.onStockChanged(newer);
+            broker.onStockChanged(older);
+            broker.flush();
+
+            assertThat(emitter.updates()).containsExactly(new StockUpdateDTO(1L, 5, 0, -5, true, false));
+        }
+
+        @Test
+        @DisplayName("Should only send the books the client follows")
+        void shouldOnlySendTheBooksTheClientFollows() {
+            CapturingEmitter emitter = subscribe(Set.of(2L), null);
+
+            broker.onStockChanged(change(1L, 8, -2));
+            broker.onStockChanged(change(2L, 1, -4));
+            broker.flush();
+
+            assertThat(emitter.updates()).containsExactly(new StockUpdateDTO(2L, 1, 0, -4, true, true));
+        }
+    }
+
+    @Nested
+    @DisplayName("Resume")
+    class ResumeTest {
+
+        @Test
+        @DisplayName("Should replay the updates after the last event id")
+        void shouldReplayTheUpdatesAfterTheLastEventId() {
+            publish(1L, 2L, 3L);
+
+            CapturingEmitter emitter = subscribe(Set.of(), 1L);
+
+            assertThat(emitter.ids()).containsExactly("2", "3");
+            assertThat(emitter.names()).containsOnly(InventoryStreamBroker.UPDATE_EVENT);
+        }
+
+        @Test
+        @DisplayName("Should send a reset when the missed updates are no longer buffered")
+        void shouldSendAResetWhenTheMissedUpdatesAreNoLongerBuffered() {
+            publish(1L, 2L, 3L, 4L, 5L);
+
+            CapturingEmitter emitter = subscribe(Set.of(), 1L);
+
+            assertThat(emitter.names()).containsExactly(InventoryStreamBroker.RESET_EVENT);
+            assertThat(emitter.ids()).containsExactly("5");
+        }
+
+        @Test
+        @DisplayName("Should send a reset for an event id the broker never issued")
+        void shouldSendAResetForAnEventIdTheBrokerNeverIssued() {
+            publish(1L);
+
+            CapturingEmitter emitter = subscribe(Set.of(), 42L);
+
+            assertThat(emitter.names()).containsExactly(InventoryStreamBroker.RESET_EVENT);
+        }
+    }
+
+    @Nested
+    @DisplayName("Backpressure")
+    class BackpressureTest {
+
+        @Test
+        @DisplayName("Should disconnect a client whose buffer is full without affecting the others")
+        void shouldDisconnectAClientWhoseBufferIsFullWithoutAffectingTheOthers() {
+            List<Runnable> stalled = new ArrayList<>();
+            broker = brokerWith(100, 2, stalled::add);
+            CapturingEmitter slow = subscribe(Set.of(1L), null);
+            CapturingEmitter other = subscribe(Set.of(2L), null);
+
+            publish(1L);
+            publish(1L);
+            publish(1L);
+            publish(1L);
+
+            assertThat(slow.completed).isTrue();
+            assertThat(other.completed).isFalse();
+            assertThat(broker.subscriberCount()).isEqualTo(1);
+        }
+    }
+
+    private InventoryStreamBroker brokerWith(int replayCapacity, int subscriberBuffer, Executor sender) {
+        InventoryStreamProperties properties = new InventoryStreamProperties(Duration.ofMillis(250), replayCapacity,
+                subscriberBuffer, Duration.ofSeconds(15), Duration.ofMinutes(30), 1);
+        return new InventoryStreamBroker(properties, new SimpleMeterRegistry(), sender);
+    }
+
+    private CapturingEmitter subscribe(Set<Long> bookIds, Long lastEventId) {
+        CapturingEmitter emitter = new CapturingEmitter();
+        broker.register(emitter, bookIds, lastEventId);
+        return emitter;
+    }
+
+    private void publish(Long... bookIds) {
+        for (Long bookId : bookIds) {
+            broker.onStockChanged(change(bookId, 10, -1));
+        }
+        broker.flush();
+    }
+
+    private static StockChangedEvent change(Long bookId, int quantityAvailable, int availableDelta) {
+        return new StockChangedEvent(StockChangedEvent.nextSequence(), bookId, bookId,
+                quantityAvailable, 0, 2, true, availableDelta);
+    }
+
+    private static class CapturingEmitter extends SseEmitter {
+
+        private final List<String> lines = new ArrayList<>();
+        private final List<StockUpdateDTO> updates = new ArrayList<>();
+        private boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            builder.build().forEach(part -> {
+                if (part.getData() instanceof StockUpdateDTO update) {
+                    updates.add(update);
+                } else if (part.getData() instanceof String text) {
+                    lines.addAll(List.of(text.split("\n")));
+                }
+            });
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        List<StockUpdateDTO> updates() {
+            return updates;
+        }
+
+        List<String> ids() {
+            return field("id:");
+        }
+
+        List<String> names() {
+            return field("event:");
+        }
+
+        private List<String> field(String prefix) {
+            return lines.stream()
+                    .filter(line -> line.startsWith(prefix))
+                    .map(line -> line.substring(prefix.length()))
+                    .collect(Collectors.toList());
+        }
+    }
+}
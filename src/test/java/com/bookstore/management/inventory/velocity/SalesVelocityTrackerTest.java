@@ -0,0 +1,165 @@
+package com.bookstore.management.inventory.velocity;
+
+import com.bookstore.management.book.model.Author;
+import com.bookstore.management.book.model.Book;
+import com.bookstore.management.book.model.Gender;
+import com.bookstore.management.book.repository.AuthorRepository;
+import com.bookstore.management.book.repository.BookRepository;
+import com.bookstore.management.inventory.dto.ReplenishmentSuggestionDTO;
+import com.bookstore.management.inventory.dto.UpdateStockDTO;
+import com.bookstore.management.inventory.model.Inventory;
+import com.bookstore.management.inventory.model.MovementType;
+import com.bookstore.management.inventory.repository.InventoryRepository;
+import com.bookstore.management.inventory.service.InventoryService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:salesvelocity;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "inventory.velocity.flush-interval=1h",
+        "inventory.velocity.chunk-size=1"
+})
+public class SalesVelocityTrackerTest {
+
+    @Autowired
+    private SalesVelocityTracker velocityTracker;
+    @Autowired
+    private InventoryService inventoryService;
+    @Autowired
+    private InventoryRepository inventoryRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final LocalDate today = LocalDate.now();
+    private Author author;
+    private Long bookId;
+
+    @BeforeEach
+    void setUp() {
+        author = authorRepository.save(Author.builder()
+                .name("Bessie Head")
+                .nationality("Botswanan")
+                .birthDate(LocalDate.of(1937, 7, 6))
+                .gender(Gender.FEMALE)
+                .build());
+        bookId = stock("9780435909093", "When Rain Clouds Gather", 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        velocityTracker.flush(today);
+        jdbcTemplate.update("delete from sales_velocity");
+        jdbcTemplate.update("delete from inventory_movement");
+        jdbcTemplate.update("delete from inventory");
+        jdbcTemplate.update("delete from books");
+        jdbcTemplate.update("delete from authors");
+    }
+
+    @Test
+    @DisplayName("Should fold the sales of a day into the velocity once the day closes")
+    void shouldFoldTheSalesOfADayIntoTheVelocityOnceTheDayCloses() {
+        inventoryService.registerSale(new UpdateStockDTO(4, MovementType.EXIT), bookId);
+        inventoryService.registerSale(new UpdateStockDTO(6, MovementType.EXIT), bookId);
+
+        velocityTracker.flush(today);
+        ReplenishmentSuggestionDTO open = velocityTracker.findByBookId(bookId);
+        assertThat(open.dailyVelocity()).isZero();
+        assertThat(open.quantityAvailable()).isEqualTo(90);
+        assertThat(open.stockOutDate()).isNull();
+
+        velocityTracker.roll(today.plusDays(1));
+        ReplenishmentSuggestionDTO closed = velocityTracker.findByBookId(bookId);
+        assertThat(closed.dailyVelocity()).isCloseTo(2.0, within(1e-9));
+        assertThat(closed.stockOutDate()).isEqualTo(today.plusDays(1 + 45));
+        assertThat(closed.suggestedQuantity()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should decay the velocity over the days without sales")
+    void shouldDecayTheVelocityOverTheDaysWithoutSales() {
+        inventoryService.registerSale(new UpdateStockDTO(10, MovementType.EXIT), bookId);
+        velocityTracker.flush(today);
+
+        velocityTracker.roll(today.plusDays(3));
+
+        assertThat(velocityTracker.findByBookId(bookId).dailyVelocity()).isCloseTo(2.0 * 0.8 * 0.8, within(1e-9));
+    }
+
+    @Test
+    @DisplayName("Should suggest ordering up to the maximum stock when the stock runs out within the horizon")
+    void shouldSuggestOrderingWhenTheStockRunsOutWithinTheHorizon() {
+        Long slowBookId = stock("9780435907374", "Maru", 100);
+        inventoryService.registerSale(new UpdateStockDTO(60, MovementType.EXIT), bookId);
+        inventoryService.registerSale(new UpdateStockDTO(1, MovementType.EXIT), slowBookId);
+        velocityTracker.flush(today);
+
+        velocityTracker.roll(today.plusDays(1));
+
+        assertThat(velocityTracker.suggestions(0, 10))
+                .singleElement()
+                .satisfies(suggestion -> {
+                    assertThat(suggestion.bookId()).isEqualTo(bookId);
+                    assertThat(suggestion.dailyVelocity()).isCloseTo(12.0, within(1e-9));
+                    assertThat(suggestion.stockOutDate()).isEqualTo(today.plusDays(1 + 3));
+                    assertThat(suggestion.suggestedQuantity()).isEqualTo(500 - 40);
+                });
+    }
+
+    @Test
+    @DisplayName("Should suggest a low stock without counting adjustments as sales")
+    void shouldSuggestALowStockWithoutCountingAdjustmentsAsSales() {
+        inventoryService.negativeAdjustment(new UpdateStockDTO(99, MovementType.NEGATIVE_ADJUSTMENT), bookId);
+
+        velocityTracker.flush(today);
+
+        ReplenishmentSuggestionDTO suggestion = velocityTracker.findByBookId(bookId);
+        assertThat(suggestion.dailyVelocity()).isZero();
+        assertThat(suggestion.stockOutDate()).isNull();
+        assertThat(suggestion.suggestedQuantity()).isEqualTo(499);
+        assertThat(velocityTracker.suggestions(0, 10)).extracting(ReplenishmentSuggestionDTO::bookId)
+                .containsExactly(bookId);
+    }
+
+    @Test
+    @DisplayName("Should leave the projection alone for reservations and their releases")
+    void shouldLeaveTheProjectionAloneForReservationsAndTheirReleases() {
+        velocityTracker.flush(today);
+
+        inventoryService.reserveStock(bookId, 5);
+        inventoryService.releaseReservation(bookId, 5);
+
+        assertThat(velocityTracker.flush(today)).isZero();
+    }
+
+    private Long stock(String isbn, String title, int quantity) {
+        Book book = bookRepository.save(Book.builder()
+                .isbn(isbn)
+                .title(title)
+                .publishDate(LocalDate.of(1969, 1, 1))
+                .pages(192)
+                .author(author)
+                .build());
+        inventoryRepository.save(Inventory.builder()
+                .book(book)
+                .quantityAvailable(0)
+                .stockMin(2)
+                .stockMax(500)
+                .build());
+        inventoryService.registerEntry(new UpdateStockDTO(quantity, MovementType.ENTRY), book.getId());
+        return book.getId();
+    }
+}
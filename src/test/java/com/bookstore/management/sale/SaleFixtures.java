@@ -0,0 +1,72 @@
+package com.bookstore.management.sale;
+
+import com.bookstore.management.book.model.Author;
+import com.bookstore.management.book.model.Book;
+import com.bookstore.management.book.repository.BookRepository;
+import com.bookstore.management.inventory.model.Inventory;
+import com.bookstore.management.inventory.repository.InventoryRepository;
+import com.bookstore.management.sales.dto.SaleRequestDTO;
+import com.bookstore.management.sales.dto.SalesDetailRequestDTO;
+import com.bookstore.management.sales.model.PaymentMethod;
+import org.springframework.boot.test.context.TestComponent;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Books in stock and sale requests for the sale tests that run against the database; import it
+ * into the test's context.
+ */
+@TestComponent
+public class SaleFixtures {
+
+    public static final BigDecimal PRICE = new BigDecimal("15.00");
+    public static final int STOCK = 50;
+
+    private final BookRepository bookRepository;
+    private final InventoryRepository inventoryRepository;
+
+    public SaleFixtures(BookRepository bookRepository, InventoryRepository inventoryRepository) {
+        this.bookRepository = bookRepository;
+        this.inventoryRepository = inventoryRepository;
+    }
+
+    public Book book(Author author, String isbn, String title) {
+        return bookRepository.save(Book.builder()
+                .isbn(isbn)
+                .title(title)
+                .publishDate(LocalDate.of(1970, 1, 1))
+                .pages(160)
+                .price(PRICE)
+                .author(author)
+                .build());
+    }
+
+    /**
+     * Gives the book an inventory of {@link #STOCK} units.
+     *
+     * @return the book's id
+     */
+    public Long stock(Book book) {
+        inventoryRepository.save(Inventory.builder()
+                .book(book)
+                .quantityAvailable(STOCK)
+                .stockMin(1)
+                .stockMax(100)
+                .build());
+        return book.getId();
+    }
+
+    public static SaleRequestDTO request(Long customerId, PaymentMethod paymentMethod, SalesDetailRequestDTO... lines) {
+        return SaleRequestDTO.builder()
+                .customerId(customerId)
+                .paymentMethod(paymentMethod)
+                .items(List.of(lines))
+                .build();
+    }
+
+    public static SalesDetailRequestDTO line(Long bookId, int quantity) {
+        return SalesDetailRequestDTO.builder().bookId(bookId).quantity(quantity).build();
+    }
+}
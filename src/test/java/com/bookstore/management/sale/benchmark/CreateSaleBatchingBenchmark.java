@@ -0,0 +1,139 @@
+package com.bookstore.management.sale.benchmark;
+
+import com.bookstore.management.book.model.Author;
+import com.bookstore.management.book.model.Book;
+import com.bookstore.management.book.model.Gender;
+import com.bookstore.management.book.repository.AuthorRepository;
+import com.bookstore.management.book.repository.BookRepository;
+import com.bookstore.management.inventory.model.Inventory;
+import com.bookstore.management.inventory.repository.InventoryRepository;
+import com.bookstore.management.sales.dto.SaleRequestDTO;
+import com.bookstore.management.sales.dto.SalesDetailRequestDTO;
+import com.bookstore.management.sales.model.PaymentMethod;
+import com.bookstore.management.sales.service.SaleService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Statement count and latency of createSale for baskets of 1, 10 and 100 lines, with JDBC
+ * batching disabled (one statement per row, as with identity ids) and with the configured batch size.
+ * <p>
+ * Not part of the regular suite, run it explicitly:
+ * {@code mvn test -Dtest=CreateSaleBatchingBenchmark -Dspring.profiles.active=test}
+ * or without the profile to measure against the configured PostgreSQL database.
+ */
+@SpringBootTest
+public class CreateSaleBatchingBenchmark {
+
+    private static final int[] BASKET_SIZES = {1, 10, 100};
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 30);
+    private static final int WARMUP_ITERATIONS = 5;
+
+    @Autowired
+    private SaleService saleService;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private InventoryRepository inventoryRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    @DisplayName("createSale statements and latency with and without JDBC batching")
+    void compareCreateSaleWithAndWithoutBatching() {
+
+        List<Long> bookIds = createCatalog(BASKET_SIZES[BASKET_SIZES.length - 1]);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        System.out.printf("%n%-6s %-10s %12s %10s %10s%n", "lines", "batching", "statements", "p50 ms", "p99 ms");
+        for (int lines : BASKET_SIZES) {
+            SaleRequestDTO request = basket(bookIds.subList(0, lines));
+            for (boolean batching : new boolean[]{false, true}) {
+                for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                    createSale(request, batching);
+                }
+                long[] latencies = new long[ITERATIONS];
+                statistics.clear();
+                for (int i = 0; i < ITERATIONS; i++) {
+                    long begin = System.nanoTime();
+                    createSale(request, batching);
+                    latencies[i] = System.nanoTime() - begin;
+                }
+                long statements = statistics.getPrepareStatementCount() / ITERATIONS;
+                Arrays.sort(latencies);
+                System.out.printf("%-6d %-10s %12d %10.2f %10.2f%n",
+                        lines,
+                        batching ? "on" : "off",
+                        statements,
+                        latencies[ITERATIONS / 2] / 1_000_000.0,
+                        latencies[(int) (ITERATIONS * 0.99)] / 1_000_000.0);
+            }
+        }
+    }
+
+    private void createSale(SaleRequestDTO request, boolean batching) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!batching) {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(1);
+            }
+            saleService.createSale(request);
+        });
+    }
+
+    private SaleRequestDTO basket(List<Long> bookIds) {
+        return SaleRequestDTO.builder()
+                .paymentMethod(PaymentMethod.CARD)
+                .items(bookIds.stream()
+                        .map(bookId -> SalesDetailRequestDTO.builder().bookId(bookId).quantity(1).build())
+                        .toList())
+                .build();
+    }
+
+    private List<Long> createCatalog(int titles) {
+        Author author = authorRepository.save(Author.builder()
+                .name("Benchmark Author")
+                .nationality("Spanish")
+                .birthDate(LocalDate.of(1970, 1, 1))
+                .gender(Gender.PREFER_NOT_TO_SAY)
+                .build());
+        List<Long> bookIds = new ArrayList<>();
+        for (int i = 0; i < titles; i++) {
+            Book book = bookRepository.save(Book.builder()
+                    .isbn(String.format("979%010d", i))
+                    .title("Benchmark Title " + i)
+                    .publishDate(LocalDate.of(2024, 1, 1))
+                    .pages(100)
+                    .price(new BigDecimal("19.90"))
+                    .author(author)
+                    .build());
+            inventoryRepository.save(Inventory.builder()
+                    .book(book)
+                    .quantityAvailable(1_000_000)
+                    .stockMax(2_000_000)
+                    .build());
+            bookIds.add(book.getId());
+        }
+        return bookIds;
+    }
+}
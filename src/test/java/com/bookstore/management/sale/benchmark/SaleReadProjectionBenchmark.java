@@ -0,0 +1,197 @@
+package com.bookstore.management.sale.benchmark;
+
+import com.bookstore.management.book.model.Author;
+import com.bookstore.management.book.model.Book;
+import com.bookstore.management.book.model.Gender;
+import com.bookstore.management.book.repository.AuthorRepository;
+import com.bookstore.management.book.repository.BookRepository;
+import com.bookstore.management.customer.model.Customer;
+import com.bookstore.management.customer.repository.CustomerRepository;
+import com.bookstore.management.inventory.model.Inventory;
+import com.bookstore.management.inventory.repository.InventoryRepository;
+import com.bookstore.management.sales.dto.SaleLineDTO;
+import com.bookstore.management.sales.dto.SaleRequestDTO;
+import com.bookstore.management.sales.dto.SaleResponseDTO;
+import com.bookstore.management.sales.dto.SalesDetailRequestDTO;
+import com.bookstore.management.sales.mapper.SaleMapper;
+import com.bookstore.management.sales.model.Sale;
+import com.bookstore.management.sales.model.PaymentMethod;
+import com.bookstore.management.sales.repository.SaleRepository;
+import com.bookstore.management.sales.service.SaleService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latency, heap allocated and entities loaded per call of a sales listing read through entities
+ * and the mapper, and through the line projection assembled by {@link SaleMapper#fromLines}.
+ * <p>
+ * Not part of the regular suite, run it explicitly:
+ * {@code mvn test -Dtest=SaleReadProjectionBenchmark -Dspring.profiles.active=test -Dbenchmark.sales=2000}
+ * or without the profile to measure against the configured PostgreSQL database.
+ */
+@SpringBootTest(properties = "sales.expiry.enabled=false")
+public class SaleReadProjectionBenchmark {
+
+    private static final int SALES = Integer.getInteger("benchmark.sales", 50);
+    private static final int LINES_PER_SALE = 5;
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 20);
+    private static final int WARMUP_ITERATIONS = 5;
+
+    @Autowired
+    private SaleService saleService;
+    @Autowired
+    private SaleRepository saleRepository;
+    @Autowired
+    private SaleMapper saleMapper;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private InventoryRepository inventoryRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    @DisplayName("Sales by customer read through entities and through the line projection")
+    void compareEntityAndProjectionReads() {
+        Long customerId = createSales();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        Supplier<List<SaleResponseDTO>> entities =
+                () -> saleMapper.toResponseDtoList(findSalesWithDetails(customerId));
+        Supplier<List<SaleResponseDTO>> projection = () -> {
+            try (Stream<SaleLineDTO> lines = saleRepository.streamLinesByCustomerId(customerId)) {
+                return saleMapper.fromLines(lines);
+            }
+        };
+        assertThat(read(projection)).hasSize(SALES).isEqualTo(sorted(read(entities)));
+
+        System.out.printf("%n%-12s %8s %10s %10s %14s %10s%n",
+                "path", "sales", "p50 ms", "p99 ms", "KB allocated", "entities");
+        measure("entities", entities, statistics);
+        measure("projection", projection, statistics);
+    }
+
+    /**
+     * The entity read the projection replaced: each sale with its customer, details and books
+     * fetched in one query.
+     */
+    private List<Sale> findSalesWithDetails(Long customerId) {
+        return entityManager.createQuery("SELECT DISTINCT s FROM Sale s LEFT JOIN FETCH s.customer " +
+                        "LEFT JOIN FETCH s.details d LEFT JOIN FETCH d.book WHERE s.customer.id = :customerId", Sale.class)
+                .setParameter("customerId", customerId)
+                .getResultList();
+    }
+
+    private void measure(String path, Supplier<List<SaleResponseDTO>> reader, Statistics statistics) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            read(reader);
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long[] latencies = new long[ITERATIONS];
+        long allocated = 0;
+        statistics.clear();
+        for (int i = 0; i < ITERATIONS; i++) {
+            long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+            long begin = System.nanoTime();
+            read(reader);
+            latencies[i] = System.nanoTime() - begin;
+            allocated += threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        }
+        Arrays.sort(latencies);
+        System.out.printf("%-12s %8d %10.2f %10.2f %14d %10d%n",
+                path,
+                SALES,
+                latencies[ITERATIONS / 2] / 1_000_000.0,
+                latencies[(int) (ITERATIONS * 0.99)] / 1_000_000.0,
+                allocated / ITERATIONS / 1024,
+                statistics.getEntityLoadCount() / ITERATIONS);
+    }
+
+    private List<SaleResponseDTO> read(Supplier<List<SaleResponseDTO>> reader) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+        return readOnly.execute(status -> reader.get());
+    }
+
+    private static List<SaleResponseDTO> sorted(List<SaleResponseDTO> sales) {
+        return sales.stream()
+                .map(sale -> new SaleResponseDTO(sale.id(), sale.customer(), sale.status(), sale.paymentMethod(),
+                        sale.details().stream()
+                                .sorted((a, b) -> a.id().compareTo(b.id()))
+                                .toList(),
+                        sale.total(), sale.observation()))
+                .sorted((a, b) -> a.id().compareTo(b.id()))
+                .toList();
+    }
+
+    private Long createSales() {
+        Customer customer = customerRepository.save(Customer.builder()
+                .name("Benchmark")
+                .lastName("Customer")
+                .email("projection.benchmark@example.com")
+                .birthDate(LocalDate.of(1980, 1, 1))
+                .build());
+        Author author = authorRepository.save(Author.builder()
+                .name("Projection Benchmark Author")
+                .nationality("Spanish")
+                .birthDate(LocalDate.of(1970, 1, 1))
+                .gender(Gender.PREFER_NOT_TO_SAY)
+                .build());
+        List<Long> bookIds = new ArrayList<>();
+        for (int i = 0; i < LINES_PER_SALE; i++) {
+            Book book = bookRepository.save(Book.builder()
+                    .isbn(String.format("977%010d", i))
+                    .title("Projection Benchmark Title " + i)
+                    .publishDate(LocalDate.of(2024, 1, 1))
+                    .pages(100)
+                    .price(new BigDecimal("19.90"))
+                    .author(author)
+                    .build());
+            inventoryRepository.save(Inventory.builder()
+                    .book(book)
+                    .quantityAvailable(1_000_000)
+                    .stockMax(2_000_000)
+                    .build());
+            bookIds.add(book.getId());
+        }
+        SaleRequestDTO request = SaleRequestDTO.builder()
+                .customerId(customer.getId())
+                .paymentMethod(PaymentMethod.CARD)
+                .items(bookIds.stream()
+                        .map(bookId -> SalesDetailRequestDTO.builder().bookId(bookId).quantity(1).build())
+                        .toList())
+                .build();
+        for (int i = 0; i < SALES; i++) {
+            saleService.createSale(request);
+        }
+        return customer.getId();
+    }
+}
@@ -3,13 +3,21 @@ package com.bookstore.management.sale.controller;
 import com.bookstore.management.book.dto.BookSummaryDTO;
 import com.bookstore.management.customer.dto.CustomerSummaryDTO;
 import com.bookstore.management.sales.controller.SalesController;
+import com.bookstore.management.sales.dto.IdempotentSaleDTO;
+import com.bookstore.management.sales.dto.SaleExportFilterDTO;
 import com.bookstore.management.sales.dto.SaleRequestDTO;
 import com.bookstore.management.sales.dto.SaleResponseDTO;
+import com.bookstore.management.sales.dto.SaleSearchDTO;
+import com.bookstore.management.sales.dto.SaleSliceDTO;
 import com.bookstore.management.sales.dto.SalesDetailRequestDTO;
 import com.bookstore.management.sales.dto.SalesDetailResponseDTO;
+import com.bookstore.management.sales.export.SaleExportFormat;
+import com.bookstore.management.sales.export.SaleExporter;
+import com.bookstore.management.sales.idempotency.SaleIdempotency;
 import com.bookstore.management.sales.model.PaymentMethod;
 import com.bookstore.management.sales.model.SalesStatus;
 import com.bookstore.management.sales.service.SaleService;
+import com.bookstore.management.shared.exception.custom.IdempotencyKeyReusedException;
 import com.bookstore.management.shared.exception.handler.GlobalExceptionHandler;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -18,17 +26,23 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -45,6 +59,12 @@ class SalesControllerTest {
     @MockitoBean
     private SaleService saleService;
 
+    @MockitoBean
+    private SaleIdempotency saleIdempotency;
+
+    @MockitoBean
+    private SaleExporter saleExporter;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -96,30 +116,71 @@ class SalesControllerTest {
     }
 
     @Nested
-    class GetAllSales {
+    class GetSales {
 
         @Test
-        @DisplayName("Should return 200 with list of sales")
-        void shouldReturnAllSales() throws Exception {
-            when(saleService.findAll()).thenReturn(List.of(buildSaleResponse()));
+        @DisplayName("Should return 200 with the first page and the cursor of the next")
+        void shouldReturnTheFirstPageAndTheNextCursor() throws Exception {
+            SaleSearchDTO filter = new SaleSearchDTO(null, null, null, null, null, null);
+            when(saleService.search(filter, null, 20))
+                    .thenReturn(new SaleSliceDTO(List.of(buildSaleResponse()), "next"));
 
             mockMvc.perform(get("/api/sales"))
                     .andExpect(status().isOk())
-                    .andExpect(jsonPath("$", hasSize(1)))
-                    .andExpect(jsonPath("$[0].id").value(1L))
-                    .andExpect(jsonPath("$[0].status").value("PENDING"));
+                    .andExpect(jsonPath("$.content", hasSize(1)))
+                    .andExpect(jsonPath("$.content[0].id").value(1L))
+                    .andExpect(jsonPath("$.content[0].status").value("PENDING"))
+                    .andExpect(jsonPath("$.nextCursor").value("next"));
 
-            verify(saleService).findAll();
+            verify(saleService).search(filter, null, 20);
         }
 
         @Test
-        @DisplayName("Should return 200 with empty list when no sales exist")
-        void shouldReturnEmptyListWhenNoSales() throws Exception {
-            when(saleService.findAll()).thenReturn(List.of());
-
-            mockMvc.perform(get("/api/sales"))
+        @DisplayName("Should pass every filter, the cursor and the size to the service")
+        void shouldPassEveryFilterTheCursorAndTheSize() throws Exception {
+            SaleSearchDTO filter = new SaleSearchDTO(SalesStatus.COMPLETED, 7L, PaymentMethod.CARD,
+                    new BigDecimal("25.50"), LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31));
+            when(saleService.search(filter, "abc", 5)).thenReturn(new SaleSliceDTO(List.of(), null));
+
+            mockMvc.perform(get("/api/sales")
+                            .param("status", "COMPLETED")
+                            .param("customerId", "7")
+                            .param("paymentMethod", "CARD")
+                            .param("minTotal", "25.50")
+                            .param("start", "2024-01-01")
+                            .param("end", "2024-01-31")
+                            .param("cursor", "abc")
+                            .param("size", "5"))
                     .andExpect(status().isOk())
-                    .andExpect(jsonPath("$", hasSize(0)));
+                    .andExpect(jsonPath("$.content", hasSize(0)))
+                    .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+            verify(saleService).search(filter, "abc", 5);
+        }
+
+        @Test
+        @DisplayName("Should return 400 when the service rejects the size or the cursor")
+        void shouldReturn400WhenTheServiceRejectsTheSizeOrTheCursor() throws Exception {
+            when(saleService.search(any(), eq("broken"), eq(20)))
+                    .thenThrow(new IllegalArgumentException("Invalid cursor"));
+
+            mockMvc.perform(get("/api/sales")
+                            .param("cursor", "broken"))
+                    .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        @DisplayName("Should return 400 when minimum total is negative or start date is after end date")
+        void shouldReturn400WhenFiltersAreInvalid() throws Exception {
+            mockMvc.perform(get("/api/sales")
+                            .param("minTotal", "-1"))
+                    .andExpect(status().isBadRequest());
+            mockMvc.perform(get("/api/sales")
+                            .param("start", "2024-02-01")
+                            .param("end", "2024-01-01"))
+                    .andExpect(status().isBadRequest());
+
+            verifyNoInteractions(saleService);
         }
     }
 
@@ -273,6 +334,77 @@ class SalesControllerTest {
         }
     }
 
+    @Nested
+    class ExportSales {
+
+        @Test
+        @DisplayName("Should stream the filtered sales as an NDJSON attachment")
+        void shouldStreamTheFilteredSalesAsNdjson() throws Exception {
+            SaleExportFilterDTO filter = new SaleExportFilterDTO(SalesStatus.COMPLETED, 7L,
+                    LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31));
+            when(saleExporter.export(eq(filter), eq(SaleExportFormat.NDJSON), eq(false), any()))
+                    .thenAnswer(invocation -> {
+                        invocation.<OutputStream>getArgument(3).write("{\"saleId\":1}\n".getBytes(StandardCharsets.UTF_8));
+                        return 1L;
+                    });
+
+            MvcResult result = mockMvc.perform(get("/api/sales/export")
+                            .param("status", "COMPLETED")
+                            .param("customerId", "7")
+                            .param("start", "2024-01-01")
+                            .param("end", "2024-01-31"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                    .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"sales.ndjson\""))
+                    .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                    .andExpect(content().string("{\"saleId\":1}\n"));
+        }
+
+        @Test
+        @DisplayName("Should compress a CSV export when the client accepts gzip")
+        void shouldCompressACsvExportWhenTheClientAcceptsGzip() throws Exception {
+            SaleExportFilterDTO filter = new SaleExportFilterDTO(null, null, null, null);
+            when(saleExporter.export(eq(filter), eq(SaleExportFormat.CSV), eq(true), any())).thenReturn(0L);
+
+            MvcResult result = mockMvc.perform(get("/api/sales/export")
+                            .param("format", "CSV")
+                            .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                    .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+            verify(saleExporter).export(eq(filter), eq(SaleExportFormat.CSV), eq(true), any());
+        }
+
+        @Test
+        @DisplayName("Should return 400 when start date is after end date")
+        void shouldReturn400WhenStartDateIsAfterEndDate() throws Exception {
+            mockMvc.perform(get("/api/sales/export")
+                            .param("start", "2024-02-01")
+                            .param("end", "2024-01-01"))
+                    .andExpect(status().isBadRequest());
+
+            verifyNoInteractions(saleExporter);
+        }
+
+        @Test
+        @DisplayName("Should return 400 when format is unknown")
+        void shouldReturn400WhenFormatIsUnknown() throws Exception {
+            mockMvc.perform(get("/api/sales/export")
+                            .param("format", "XML"))
+                    .andExpect(status().isBadRequest());
+
+            verifyNoInteractions(saleExporter);
+        }
+    }
+
     @Nested
     class CreateSale {
 
@@ -334,6 +466,48 @@ class SalesControllerTest {
                             .contentType(MediaType.APPLICATION_JSON))
                     .andExpect(status().isBadRequest());
         }
+
+        @Test
+        @DisplayName("Should create the sale through the idempotency store when a key is sent")
+        void shouldCreateTheSaleThroughTheIdempotencyStoreWhenAKeyIsSent() throws Exception {
+            when(saleIdempotency.createSale(eq("pos-7-0001"), any(SaleRequestDTO.class)))
+                    .thenReturn(new IdempotentSaleDTO(buildSaleResponse(), true));
+
+            mockMvc.perform(post("/api/sales")
+                            .header("Idempotency-Key", "pos-7-0001")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(buildSaleRequest())))
+                    .andExpect(status().isCreated())
+                    .andExpect(header().string("Idempotent-Replayed", "true"))
+                    .andExpect(jsonPath("$.id").value(1L));
+
+            verifyNoInteractions(saleService);
+        }
+
+        @Test
+        @DisplayName("Should return 400 when the idempotency key is longer than 255 characters")
+        void shouldReturn400WhenIdempotencyKeyIsTooLong() throws Exception {
+            mockMvc.perform(post("/api/sales")
+                            .header("Idempotency-Key", "k".repeat(256))
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(buildSaleRequest())))
+                    .andExpect(status().isBadRequest());
+
+            verifyNoInteractions(saleIdempotency);
+        }
+
+        @Test
+        @DisplayName("Should return 422 when the idempotency key was used for another sale")
+        void shouldReturn422WhenIdempotencyKeyWasUsedForAnotherSale() throws Exception {
+            when(saleIdempotency.createSale(eq("pos-7-0001"), any(SaleRequestDTO.class)))
+                    .thenThrow(new IdempotencyKeyReusedException("reused"));
+
+            mockMvc.perform(post("/api/sales")
+                            .header("Idempotency-Key", "pos-7-0001")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(buildSaleRequest())))
+                    .andExpect(status().isUnprocessableEntity());
+        }
     }
 
     @Nested
@@ -0,0 +1,116 @@
+package com.bookstore.management.sale.expiry;
+
+import com.bookstore.management.sales.dto.PendingSaleDTO;
+import com.bookstore.management.sales.event.SaleClosedEvent;
+import com.bookstore.management.sales.event.SalePendingEvent;
+import com.bookstore.management.sales.expiry.SaleExpiryProperties;
+import com.bookstore.management.sales.expiry.SaleExpiryScheduler;
+import com.bookstore.management.sales.model.SalesStatus;
+import com.bookstore.management.sales.repository.SaleRepository;
+import com.bookstore.management.sales.service.SaleService;
+import com.bookstore.management.shared.exception.custom.InvalidSalesStatusException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SaleExpirySchedulerTest {
+
+    @Mock
+    private SaleService saleService;
+
+    @Mock
+    private SaleRepository saleRepository;
+
+    private SaleExpiryScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new SaleExpiryScheduler(saleService, saleRepository,
+                new SaleExpiryProperties(true, Duration.ofMillis(50), 8, Duration.ofMinutes(10), 500));
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.stop();
+    }
+
+    @Test
+    @DisplayName("should cancel sales left pending in the database, expired ones first")
+    void shouldCancelSalesLeftPendingInTheDatabase() {
+        when(saleRepository.findPendingExpiries(SalesStatus.PENDING)).thenReturn(List.of(
+                new PendingSaleDTO(1L, LocalDateTime.now().minusMinutes(3)),
+                new PendingSaleDTO(2L, LocalDateTime.now().plusMinutes(5))));
+
+        scheduler.start();
+
+        verify(saleService, timeout(1000)).cancelSale(1L);
+        verify(saleService, never()).cancelSale(2L);
+        assertEquals(1, scheduler.pendingCount());
+    }
+
+    @Test
+    @DisplayName("should cancel a new sale within a tick of its expiry, past a full turn of the wheel")
+    void shouldCancelANewSaleWithinATickOfItsExpiry() {
+        when(saleRepository.findPendingExpiries(SalesStatus.PENDING)).thenReturn(List.of());
+        scheduler.start();
+
+        scheduler.onSalePending(new SalePendingEvent(7L, LocalDateTime.now().plusNanos(600_000_000)));
+
+        verify(saleService, after(400).never()).cancelSale(7L);
+        verify(saleService, timeout(1000)).cancelSale(7L);
+        assertEquals(0, scheduler.pendingCount());
+    }
+
+    @Test
+    @DisplayName("should not cancel a sale closed before its expiry")
+    void shouldNotCancelASaleClosedBeforeItsExpiry() {
+        when(saleRepository.findPendingExpiries(SalesStatus.PENDING)).thenReturn(List.of());
+        scheduler.start();
+
+        scheduler.onSalePending(new SalePendingEvent(3L, LocalDateTime.now().plusNanos(200_000_000)));
+        scheduler.onSaleClosed(new SaleClosedEvent(3L));
+
+        verify(saleService, after(500).never()).cancelSale(any());
+        assertEquals(0, scheduler.pendingCount());
+    }
+
+    @Test
+    @DisplayName("should keep expiring other sales when one cancellation fails")
+    void shouldKeepExpiringOtherSalesWhenOneCancellationFails() {
+        when(saleRepository.findPendingExpiries(SalesStatus.PENDING)).thenReturn(List.of(
+                new PendingSaleDTO(4L, LocalDateTime.now().minusSeconds(1)),
+                new PendingSaleDTO(5L, LocalDateTime.now().minusSeconds(1))));
+        when(saleService.cancelSale(4L)).thenThrow(new InvalidSalesStatusException("Cannot process sale with status COMPLETED"));
+
+        scheduler.start();
+
+        verify(saleService, timeout(1000)).cancelSale(4L);
+        verify(saleService, timeout(1000)).cancelSale(5L);
+    }
+
+    @Test
+    @DisplayName("should neither load nor schedule sales when disabled")
+    void shouldNeitherLoadNorScheduleSalesWhenDisabled() {
+        SaleExpiryScheduler disabled = new SaleExpiryScheduler(saleService, saleRepository,
+                new SaleExpiryProperties(false, Duration.ofMillis(50), 8, Duration.ofMinutes(10), 500));
+
+        disabled.start();
+        disabled.onSalePending(new SalePendingEvent(6L, LocalDateTime.now()));
+
+        verifyNoInteractions(saleRepository);
+        verify(saleService, after(200).never()).cancelSale(any());
+        disabled.stop();
+    }
+}
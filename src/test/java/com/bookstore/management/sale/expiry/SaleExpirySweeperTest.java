@@ -0,0 +1,215 @@
+package com.bookstore.management.sale.expiry;
+
+import com.bookstore.management.book.model.Author;
+import com.bookstore.management.book.model.Book;
+import com.bookstore.management.book.model.Gender;
+import com.bookstore.management.book.repository.AuthorRepository;
+import com.bookstore.management.book.repository.BookRepository;
+import com.bookstore.management.inventory.dto.InventoryStockDTO;
+import com.bookstore.management.inventory.model.Inventory;
+import com.bookstore.management.inventory.model.MovementType;
+import com.bookstore.management.inventory.repository.InventoryMovementRepository;
+import com.bookstore.management.inventory.repository.InventoryRepository;
+import com.bookstore.management.inventory.service.InventoryService;
+import com.bookstore.management.sales.dto.SaleRequestDTO;
+import com.bookstore.management.sales.dto.SalesDetailRequestDTO;
+import com.bookstore.management.sales.expiry.SaleExpirySweeper;
+import com.bookstore.management.sales.model.PaymentMethod;
+import com.bookstore.management.sales.model.SalesStatus;
+import com.bookstore.management.sales.repository.SaleRepository;
+import com.bookstore.management.sales.service.SaleService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:saleexpiry;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "sales.expiry.enabled=false",
+        "sales.expiry.sweep-chunk=2"
+})
+public class SaleExpirySweeperTest {
+
+    @Autowired
+    private SaleExpirySweeper saleExpirySweeper;
+    @MockitoSpyBean
+    private SaleService saleService;
+    @MockitoSpyBean
+    private InventoryService inventoryService;
+    @Autowired
+    private SaleRepository saleRepository;
+    @Autowired
+    private InventoryRepository inventoryRepository;
+    @Autowired
+    private InventoryMovementRepository inventoryMovementRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long bookId;
+    private Long otherBookId;
+
+    @BeforeEach
+    void setUp() {
+        Author author = authorRepository.save(Author.builder()
+                .name("Ngugi wa Thiong'o")
+                .nationality("Kenyan")
+                .birthDate(LocalDate.of(1938, 1, 5))
+                .gender(Gender.MALE)
+                .build());
+
+        bookId = createInventory(author, "9780435905484");
+        otherBookId = createInventory(author, "9780435909003");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from sales_detail");
+        jdbcTemplate.update("delete from sale");
+        jdbcTemplate.update("delete from inventory_movement");
+        jdbcTemplate.update("delete from inventory");
+        jdbcTemplate.update("delete from books");
+        jdbcTemplate.update("delete from authors");
+    }
+
+    @Test
+    @DisplayName("Should cancel expired sales chunk by chunk with one release movement per book and chunk")
+    void shouldCancelExpiredSalesChunkByChunk() {
+        List<Long> expired = List.of(
+                createSale(Map.of(bookId, 1, otherBookId, 2)),
+                createSale(Map.of(bookId, 2, otherBookId, 1)),
+                createSale(Map.of(bookId, 1, otherBookId, 1)),
+                createSale(Map.of(bookId, 3, otherBookId, 2)),
+                createSale(Map.of(bookId, 1, otherBookId, 1)));
+        Long stillPending = createSale(Map.of(bookId, 2, otherBookId, 3));
+        expire(expired);
+
+        int cancelled = saleExpirySweeper.sweep();
+
+        assertThat(cancelled).isEqualTo(5);
+        expired.forEach(saleId -> assertThat(statusOf(saleId)).isEqualTo(SalesStatus.CANCELLED));
+        assertThat(statusOf(stillPending)).isEqualTo(SalesStatus.PENDING);
+
+        assertThat(stockOf(bookId).quantityAvailable()).isEqualTo(18);
+        assertThat(stockOf(bookId).quantityReserved()).isEqualTo(2);
+        assertThat(stockOf(otherBookId).quantityAvailable()).isEqualTo(17);
+        assertThat(stockOf(otherBookId).quantityReserved()).isEqualTo(3);
+        assertThat(inventoryMovementRepository.findAll())
+                .filteredOn(movement -> movement.getMovementType() == MovementType.RELEASE_RESERVE)
+                .hasSize(6);
+    }
+
+    @Test
+    @DisplayName("Should cancel the rest of a chunk one by one when a reservation cannot be released")
+    void shouldCancelTheRestOfAChunkOneByOneWhenAReservationCannotBeReleased() {
+        Long first = createSale(Map.of(bookId, 1));
+        Long drifted = createSale(Map.of(otherBookId, 2));
+        Long last = createSale(Map.of(bookId, 1));
+        expire(List.of(first, drifted, last));
+        jdbcTemplate.update("update inventory set reserved_quantity = 0 where book_id = ?", otherBookId);
+
+        int cancelled = saleExpirySweeper.sweep();
+
+        assertThat(cancelled).isEqualTo(2);
+        assertThat(statusOf(first)).isEqualTo(SalesStatus.CANCELLED);
+        assertThat(statusOf(drifted)).isEqualTo(SalesStatus.PENDING);
+        assertThat(statusOf(last)).isEqualTo(SalesStatus.CANCELLED);
+        assertThat(stockOf(bookId).quantityAvailable()).isEqualTo(20);
+        assertThat(stockOf(bookId).quantityReserved()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should cancel the others one by one when a chunk or a sale fails with an unexpected error")
+    void shouldCancelTheOthersOneByOneWhenAChunkOrASaleFailsWithAnUnexpectedError() {
+        Long first = createSale(Map.of(bookId, 1));
+        Long failing = createSale(Map.of(otherBookId, 2));
+        Long last = createSale(Map.of(bookId, 1));
+        expire(List.of(first, failing, last));
+        // the chunk's release covers both books, each sale's own release only one
+        doThrow(new QueryTimeoutException("Release timed out")).when(inventoryService)
+                .releaseReservationBatch(argThat(quantities -> quantities.size() > 1));
+        doThrow(new QueryTimeoutException("Cancel timed out")).when(saleService).cancelSale(failing);
+
+        int cancelled = saleExpirySweeper.sweep();
+
+        assertThat(cancelled).isEqualTo(2);
+        assertThat(statusOf(first)).isEqualTo(SalesStatus.CANCELLED);
+        assertThat(statusOf(failing)).isEqualTo(SalesStatus.PENDING);
+        assertThat(statusOf(last)).isEqualTo(SalesStatus.CANCELLED);
+        assertThat(stockOf(bookId).quantityReserved()).isZero();
+        assertThat(stockOf(otherBookId).quantityReserved()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should leave sales that have not expired yet")
+    void shouldLeaveSalesThatHaveNotExpiredYet() {
+        Long pending = createSale(Map.of(bookId, 4));
+
+        assertThat(saleExpirySweeper.sweep()).isZero();
+        assertThat(statusOf(pending)).isEqualTo(SalesStatus.PENDING);
+        assertThat(stockOf(bookId).quantityReserved()).isEqualTo(4);
+    }
+
+    private Long createInventory(Author author, String isbn) {
+        Book book = bookRepository.save(Book.builder()
+                .isbn(isbn)
+                .title("Title " + isbn)
+                .publishDate(LocalDate.of(1964, 1, 1))
+                .pages(120)
+                .price(new BigDecimal("12.50"))
+                .author(author)
+                .build());
+        inventoryRepository.save(Inventory.builder()
+                .book(book)
+                .quantityAvailable(20)
+                .stockMin(2)
+                .stockMax(100)
+                .build());
+        return book.getId();
+    }
+
+    private Long createSale(Map<Long, Integer> quantitiesByBookId) {
+        List<SalesDetailRequestDTO> items = quantitiesByBookId.entrySet().stream()
+                .map(line -> SalesDetailRequestDTO.builder()
+                        .bookId(line.getKey())
+                        .quantity(line.getValue())
+                        .build())
+                .toList();
+        return saleService.createSale(SaleRequestDTO.builder()
+                .paymentMethod(PaymentMethod.CASH)
+                .items(items)
+                .discountPercentage(BigDecimal.ZERO)
+                .build()).id();
+    }
+
+    private void expire(List<Long> saleIds) {
+        saleIds.forEach(saleId -> jdbcTemplate.update("update sale set expired_at = ? where id = ?",
+                LocalDateTime.now().minusMinutes(1), saleId));
+    }
+
+    private SalesStatus statusOf(Long saleId) {
+        return saleRepository.findById(saleId).orElseThrow().getStatus();
+    }
+
+    private InventoryStockDTO stockOf(Long bookId) {
+        return inventoryRepository.findStockByBookId(bookId).orElseThrow();
+    }
+}
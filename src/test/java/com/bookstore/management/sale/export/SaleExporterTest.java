@@ -0,0 +1,177 @@
+package com.bookstore.management.sale.export;
+
+import com.bookstore.management.book.model.Author;
+import com.bookstore.management.book.model.Gender;
+import com.bookstore.management.book.repository.AuthorRepository;
+import com.bookstore.management.customer.model.Customer;
+import com.bookstore.management.customer.repository.CustomerRepository;
+import com.bookstore.management.sale.SaleFixtures;
+import com.bookstore.management.sales.dto.SaleExportFilterDTO;
+import com.bookstore.management.sales.export.SaleExportFormat;
+import com.bookstore.management.sales.export.SaleExporter;
+import com.bookstore.management.sales.model.PaymentMethod;
+import com.bookstore.management.sales.model.SalesStatus;
+import com.bookstore.management.sales.service.SaleService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static com.bookstore.management.sale.SaleFixtures.line;
+import static com.bookstore.management.sale.SaleFixtures.request;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:saleexport;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "sales.expiry.enabled=false",
+        "sales.export.fetch-size=1"
+})
+@Import(SaleFixtures.class)
+public class SaleExporterTest {
+
+    @Autowired
+    private SaleExporter saleExporter;
+    @Autowired
+    private SaleService saleService;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private SaleFixtures saleFixtures;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long customerId;
+    private Long completedSaleId;
+    private Long walkInSaleId;
+
+    @BeforeEach
+    void setUp() {
+        Author author = authorRepository.save(Author.builder()
+                .name("Bessie Head")
+                .nationality("Botswanan")
+                .birthDate(LocalDate.of(1937, 7, 6))
+                .gender(Gender.FEMALE)
+                .build());
+        Long rainClouds = saleFixtures.stock(saleFixtures.book(author, "9780435901776", "When Rain Clouds Gather"));
+        Long maru = saleFixtures.stock(saleFixtures.book(author, "9780435902209", "Maru, \"a novel\""));
+        customerId = customerRepository.save(Customer.builder()
+                .name("Amantle")
+                .lastName("Kgosi")
+                .email("amantle.kgosi@example.com")
+                .build()).getId();
+
+        completedSaleId = saleService.createSale(request(customerId, PaymentMethod.CARD, line(rainClouds, 2), line(maru, 1))).id();
+        saleService.completeSale(completedSaleId);
+        walkInSaleId = saleService.createSale(request(null, PaymentMethod.CARD, line(maru, 2))).id();
+        jdbcTemplate.update("update sale set created_at = ? where id = ?",
+                LocalDate.now().minusYears(1).atStartOfDay(), walkInSaleId);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from sales_detail");
+        jdbcTemplate.update("delete from sale");
+        jdbcTemplate.update("delete from customers");
+        jdbcTemplate.update("delete from inventory_movement");
+        jdbcTemplate.update("delete from inventory");
+        jdbcTemplate.update("delete from books");
+        jdbcTemplate.update("delete from authors");
+    }
+
+    @Test
+    @DisplayName("Should write one NDJSON record per sale line in creation order")
+    void shouldWriteOneNdjsonRecordPerSaleLine() throws IOException {
+        List<JsonNode> records = ndjson(export(new SaleExportFilterDTO(null, null, null, null), SaleExportFormat.NDJSON));
+
+        assertThat(records).extracting(node -> node.get("saleId").asLong())
+                .containsExactly(walkInSaleId, completedSaleId, completedSaleId);
+        JsonNode walkIn = records.get(0);
+        assertThat(walkIn.get("customerId").isNull()).isTrue();
+        assertThat(walkIn.get("status").asText()).isEqualTo("PENDING");
+        assertThat(walkIn.get("title").asText()).isEqualTo("Maru, \"a novel\"");
+        JsonNode line = records.get(1);
+        assertThat(line.get("customerLastName").asText()).isEqualTo("Kgosi");
+        assertThat(line.get("quantity").asInt()).isEqualTo(2);
+        assertThat(line.get("lineTotal").decimalValue()).isEqualByComparingTo("30.00");
+    }
+
+    @Test
+    @DisplayName("Should write a CSV header and quote the values that need it")
+    void shouldWriteACsvHeaderAndQuoteValues() throws IOException {
+        String[] lines = new String(export(new SaleExportFilterDTO(SalesStatus.COMPLETED, null, null, null),
+                SaleExportFormat.CSV), StandardCharsets.UTF_8).split("\r\n");
+
+        assertThat(lines).hasSize(3);
+        assertThat(lines[0]).startsWith("saleId,createdAt,status,paymentMethod,customerId,");
+        assertThat(lines[1]).startsWith(completedSaleId + ",").contains(",COMPLETED,CARD,")
+                .contains(",When Rain Clouds Gather,");
+        assertThat(lines[2]).contains(",\"Maru, \"\"a novel\"\"\",");
+    }
+
+    @Test
+    @DisplayName("Should export only the sales of the customer and days asked for")
+    void shouldFilterByCustomerAndDays() throws IOException {
+        LocalDate today = LocalDate.now();
+
+        assertThat(ndjson(export(new SaleExportFilterDTO(null, customerId, null, null), SaleExportFormat.NDJSON)))
+                .extracting(node -> node.get("saleId").asLong())
+                .containsOnly(completedSaleId);
+        assertThat(ndjson(export(new SaleExportFilterDTO(null, null, today.minusYears(1), today.minusDays(1)),
+                SaleExportFormat.NDJSON)))
+                .extracting(node -> node.get("saleId").asLong())
+                .containsExactly(walkInSaleId);
+        assertThat(ndjson(export(new SaleExportFilterDTO(SalesStatus.PENDING, customerId, today, today),
+                SaleExportFormat.NDJSON)))
+                .isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should compress the same records with gzip")
+    void shouldCompressTheSameRecordsWithGzip() throws IOException {
+        SaleExportFilterDTO filter = new SaleExportFilterDTO(null, null, null, null);
+        byte[] plain = export(filter, SaleExportFormat.CSV);
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        long records = saleExporter.export(filter, SaleExportFormat.CSV, true, compressed);
+
+        assertThat(records).isEqualTo(3);
+        try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+            assertThat(input.readAllBytes()).isEqualTo(plain);
+        }
+    }
+
+    private byte[] export(SaleExportFilterDTO filter, SaleExportFormat format) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        saleExporter.export(filter, format, false, output);
+        return output.toByteArray();
+    }
+
+    private List<JsonNode> ndjson(byte[] body) throws IOException {
+        List<JsonNode> records = new ArrayList<>();
+        for (String line : new String(body, StandardCharsets.UTF_8).split("\n")) {
+            if (!line.isEmpty()) {
+                records.add(objectMapper.readTree(line));
+            }
+        }
+        return records;
+    }
+}
@@ -0,0 +1,210 @@
+package com.bookstore.management.sale.idempotency;
+
+import com.bookstore.management.book.model.Author;
+import com.bookstore.management.book.model.Book;
+import com.bookstore.management.book.model.Gender;
+import com.bookstore.management.book.repository.AuthorRepository;
+import com.bookstore.management.book.repository.BookRepository;
+import com.bookstore.management.inventory.model.Inventory;
+import com.bookstore.management.inventory.repository.InventoryRepository;
+import com.bookstore.management.sales.dto.IdempotentSaleDTO;
+import com.bookstore.management.sales.dto.SaleRequestDTO;
+import com.bookstore.management.sales.dto.SalesDetailRequestDTO;
+import com.bookstore.management.sales.idempotency.SaleIdempotency;
+import com.bookstore.management.sales.idempotency.SaleIdempotencyProperties;
+import com.bookstore.management.sales.model.PaymentMethod;
+import com.bookstore.management.sales.repository.SaleIdempotencyKeyRepository;
+import com.bookstore.management.sales.repository.SaleRepository;
+import com.bookstore.management.sales.service.SaleService;
+import com.bookstore.management.shared.exception.custom.IdempotencyKeyReusedException;
+import com.bookstore.management.shared.exception.custom.InsufficientStockException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:saleidempotency;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "sales.expiry.enabled=false"
+})
+public class SaleIdempotencyTest {
+
+    @Autowired
+    private SaleIdempotency saleIdempotency;
+    @Autowired
+    private SaleService saleService;
+    @Autowired
+    private SaleRepository saleRepository;
+    @Autowired
+    private SaleIdempotencyKeyRepository keyRepository;
+    @Autowired
+    private InventoryRepository inventoryRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private SaleIdempotencyProperties properties;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long bookId;
+
+    @BeforeEach
+    void setUp() {
+        Author author = authorRepository.save(Author.builder()
+                .name("Ayi Kwei Armah")
+                .nationality("Ghanaian")
+                .birthDate(LocalDate.of(1939, 10, 28))
+                .gender(Gender.MALE)
+                .build());
+        Book book = bookRepository.save(Book.builder()
+                .isbn("9780435905408")
+                .title("The Beautyful Ones Are Not Yet Born")
+                .publishDate(LocalDate.of(1968, 1, 1))
+                .pages(183)
+                .price(new BigDecimal("14.00"))
+                .author(author)
+                .build());
+        inventoryRepository.save(Inventory.builder()
+                .book(book)
+                .quantityAvailable(10)
+                .stockMin(1)
+                .stockMax(100)
+                .build());
+        bookId = book.getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from sale_idempotency_key");
+        jdbcTemplate.update("delete from sales_detail");
+        jdbcTemplate.update("delete from sale");
+        jdbcTemplate.update("delete from inventory_movement");
+        jdbcTemplate.update("delete from inventory");
+        jdbcTemplate.update("delete from books");
+        jdbcTemplate.update("delete from authors");
+    }
+
+    @Test
+    @DisplayName("Should return the original sale for a repeated key without reserving stock again")
+    void shouldReturnTheOriginalSaleForARepeatedKey() {
+        IdempotentSaleDTO first = saleIdempotency.createSale("pos-1-0001", request(3));
+        IdempotentSaleDTO retry = saleIdempotency.createSale("pos-1-0001", request(3));
+
+        assertThat(first.replayed()).isFalse();
+        assertThat(retry.replayed()).isTrue();
+        assertThat(retry.sale()).isEqualTo(first.sale());
+        assertThat(saleRepository.count()).isEqualTo(1);
+        assertThat(reserved()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should execute only one of concurrent requests with the same key")
+    void shouldExecuteOnlyOneOfConcurrentRequestsWithTheSameKey() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<IdempotentSaleDTO>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return saleIdempotency.createSale("pos-2-0001", request(2));
+                }));
+            }
+            start.countDown();
+            List<IdempotentSaleDTO> results = new ArrayList<>();
+            for (Future<IdempotentSaleDTO> future : futures) {
+                results.add(future.get());
+            }
+
+            assertThat(results).extracting(result -> result.sale().id()).containsOnly(results.get(0).sale().id());
+            assertThat(results).filteredOn(result -> !result.replayed()).hasSize(1);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(saleRepository.count()).isEqualTo(1);
+        assertThat(reserved()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should recognise a key after a restart from the stored response")
+    void shouldRecogniseAKeyAfterARestart() {
+        IdempotentSaleDTO first = saleIdempotency.createSale("pos-3-0001", request(1));
+        SaleIdempotency restarted = new SaleIdempotency(saleService, keyRepository, transactionTemplate,
+                objectMapper, properties);
+
+        IdempotentSaleDTO retry = restarted.createSale("pos-3-0001", request(1));
+
+        assertThat(retry.replayed()).isTrue();
+        assertThat(retry.sale()).isEqualTo(first.sale());
+        assertThat(reserved()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should refuse a key reused for a different sale")
+    void shouldRefuseAKeyReusedForADifferentSale() {
+        saleIdempotency.createSale("pos-4-0001", request(1));
+
+        assertThatThrownBy(() -> saleIdempotency.createSale("pos-4-0001", request(2)))
+                .isInstanceOf(IdempotencyKeyReusedException.class);
+        assertThat(reserved()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should not remember a key whose sale failed")
+    void shouldNotRememberAKeyWhoseSaleFailed() {
+        assertThatThrownBy(() -> saleIdempotency.createSale("pos-5-0001", request(11)))
+                .isInstanceOf(InsufficientStockException.class);
+        jdbcTemplate.update("update inventory set quantity_available = 20 where book_id = ?", bookId);
+
+        IdempotentSaleDTO retry = saleIdempotency.createSale("pos-5-0001", request(11));
+
+        assertThat(retry.replayed()).isFalse();
+        assertThat(reserved()).isEqualTo(11);
+    }
+
+    @Test
+    @DisplayName("Should purge the keys older than the retention")
+    void shouldPurgeTheKeysOlderThanTheRetention() {
+        saleIdempotency.createSale("pos-6-0001", request(1));
+
+        assertThat(saleIdempotency.purge(LocalDateTime.now().minusHours(1))).isZero();
+        assertThat(saleIdempotency.purge(LocalDateTime.now().plusSeconds(1))).isEqualTo(1);
+        assertThat(keyRepository.count()).isZero();
+    }
+
+    private SaleRequestDTO request(int quantity) {
+        return SaleRequestDTO.builder()
+                .paymentMethod(PaymentMethod.CASH)
+                .items(List.of(SalesDetailRequestDTO.builder().bookId(bookId).quantity(quantity).build()))
+                .build();
+    }
+
+    private int reserved() {
+        return inventoryRepository.findStockByBookId(bookId).orElseThrow().quantityReserved();
+    }
+}
@@ -7,7 +7,9 @@ import com.bookstore.management.book.model.Author;
 import com.bookstore.management.book.model.Book;
 import com.bookstore.management.customer.mapper.CustomerMapperImpl;
 import com.bookstore.management.customer.model.Customer;
+import com.bookstore.management.sales.dto.SaleLineDTO;
 import com.bookstore.management.sales.dto.SaleResponseDTO;
+import com.bookstore.management.sales.dto.SalesDetailResponseDTO;
 import com.bookstore.management.sales.mapper.SaleMapper;
 import com.bookstore.management.sales.mapper.SaleMapperImpl;
 import com.bookstore.management.sales.model.PaymentMethod;
@@ -27,6 +29,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -420,6 +423,57 @@ class SaleMapperTest {
         }
     }
 
+    @Nested
+    @DisplayName("fromLines() - Projected Lines Assembly")
+    class FromLinesTests {
+
+        @Test
+        @DisplayName("should group adjacent lines into sales with their details")
+        void shouldGroupAdjacentLinesIntoSalesWithTheirDetails() {
+            List<SaleResponseDTO> result = saleMapper.fromLines(Stream.of(
+                    line(1L, 1L, 10L, "45.99"),
+                    line(1L, 1L, 11L, "12.00"),
+                    line(2L, null, 12L, "25.00")));
+
+            assertThat(result).hasSize(2);
+            assertThat(result.get(0).id()).isEqualTo(1L);
+            assertThat(result.get(0).customer().lastName()).isEqualTo("Doe");
+            assertThat(result.get(0).details()).extracting(SalesDetailResponseDTO::id).containsExactly(10L, 11L);
+            assertThat(result.get(0).details().get(0).book().author()).isEqualTo("Robert C. Martin");
+            assertThat(result.get(1).customer()).isNull();
+            assertThat(result.get(1).details()).singleElement()
+                    .satisfies(detail -> assertThat(detail.unitPrice()).isEqualByComparingTo("25.00"));
+        }
+
+        @Test
+        @DisplayName("should map a sale without lines to an empty details list")
+        void shouldMapASaleWithoutLinesToAnEmptyDetailsList() {
+            SaleLineDTO withoutDetails = new SaleLineDTO(3L, null, null, null, null, SalesStatus.PENDING,
+                    PaymentMethod.CARD, BigDecimal.ZERO, null, null, null, null, null, null, null,
+                    null, null, null, null);
+
+            List<SaleResponseDTO> result = saleMapper.fromLines(Stream.of(withoutDetails));
+
+            assertThat(result).singleElement().satisfies(sale -> {
+                assertThat(sale.status()).isEqualTo(SalesStatus.PENDING);
+                assertThat(sale.details()).isEmpty();
+            });
+        }
+
+        @Test
+        @DisplayName("should return empty list when there are no lines")
+        void shouldReturnEmptyListWhenThereAreNoLines() {
+            assertThat(saleMapper.fromLines(Stream.empty())).isEmpty();
+        }
+
+        private SaleLineDTO line(Long saleId, Long customerId, Long detailId, String unitPrice) {
+            return new SaleLineDTO(saleId, customerId, "John", "Doe", "john.doe@example.com",
+                    SalesStatus.COMPLETED, PaymentMethod.CASH, new BigDecimal("82.78"), null,
+                    detailId, 1L, "978-0132350884", "Clean Code", new BigDecimal("45.99"), "Robert C. Martin",
+                    1, new BigDecimal(unitPrice), BigDecimal.ZERO, new BigDecimal(unitPrice));
+        }
+    }
+
     private Sale createBasicSale(Long id, PaymentMethod paymentMethod) {
         Book book = Book.builder()
                 .id(1L)
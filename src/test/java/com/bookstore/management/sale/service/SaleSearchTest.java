@@ -0,0 +1,145 @@
+package com.bookstore.management.sale.service;
+
+import com.bookstore.management.book.model.Author;
+import com.bookstore.management.book.model.Gender;
+import com.bookstore.management.book.repository.AuthorRepository;
+import com.bookstore.management.customer.model.Customer;
+import com.bookstore.management.customer.repository.CustomerRepository;
+import com.bookstore.management.sale.SaleFixtures;
+import com.bookstore.management.sales.dto.SaleResponseDTO;
+import com.bookstore.management.sales.dto.SaleSearchDTO;
+import com.bookstore.management.sales.dto.SaleSliceDTO;
+import com.bookstore.management.sales.model.PaymentMethod;
+import com.bookstore.management.sales.model.SalesStatus;
+import com.bookstore.management.sales.service.SaleService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.bookstore.management.sale.SaleFixtures.line;
+import static com.bookstore.management.sale.SaleFixtures.request;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:salesearch;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "sales.expiry.enabled=false"
+})
+@Import(SaleFixtures.class)
+public class SaleSearchTest {
+
+    private static final SaleSearchDTO ALL = new SaleSearchDTO(null, null, null, null, null, null);
+
+    @Autowired
+    private SaleService saleService;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private SaleFixtures saleFixtures;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Long customerId;
+    private final List<Long> saleIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Author author = authorRepository.save(Author.builder()
+                .name("Mariama Bâ")
+                .nationality("Senegalese")
+                .birthDate(LocalDate.of(1929, 4, 17))
+                .gender(Gender.FEMALE)
+                .build());
+        Long letter = saleFixtures.stock(saleFixtures.book(author, "9780435905552", "So Long a Letter"));
+        Long song = saleFixtures.stock(saleFixtures.book(author, "9780435902483", "Scarlet Song"));
+        customerId = customerRepository.save(Customer.builder()
+                .name("Ramatoulaye")
+                .lastName("Fall")
+                .email("ramatoulaye.fall@example.com")
+                .build()).getId();
+
+        // Five sales a day apart, the oldest first; the two with the customer paid by card.
+        LocalDateTime day = LocalDate.of(2025, 3, 1).atStartOfDay();
+        for (int i = 0; i < 5; i++) {
+            boolean withCustomer = i % 2 == 0 && i < 4;
+            Long saleId = saleService.createSale(request(withCustomer ? customerId : null,
+                    withCustomer ? PaymentMethod.CARD : PaymentMethod.CASH, line(letter, 1), line(song, 1))).id();
+            jdbcTemplate.update("update sale set created_at = ? where id = ?", day.plusDays(i), saleId);
+            saleIds.add(saleId);
+        }
+        saleService.completeSale(saleIds.get(2));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from sales_detail");
+        jdbcTemplate.update("delete from sale");
+        jdbcTemplate.update("delete from customers");
+        jdbcTemplate.update("delete from inventory_movement");
+        jdbcTemplate.update("delete from inventory");
+        jdbcTemplate.update("delete from books");
+        jdbcTemplate.update("delete from authors");
+    }
+
+    @Test
+    @DisplayName("Should walk every sale newest first, two statements per page, without repeating one")
+    void shouldWalkEverySaleNewestFirst() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        List<SaleResponseDTO> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            SaleSliceDTO slice = saleService.search(ALL, cursor, 2);
+            seen.addAll(slice.content());
+            cursor = slice.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(seen).extracting(SaleResponseDTO::id).containsExactly(saleIds.get(4), saleIds.get(3), saleIds.get(2), saleIds.get(1), saleIds.get(0));
+        assertThat(seen).allSatisfy(sale -> assertThat(sale.details()).hasSize(2));
+        assertThat(seen.get(4).customer().id()).isEqualTo(customerId);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2L * pages);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should combine the filters of the listing")
+    void shouldCombineTheFilters() {
+        assertThat(ids(new SaleSearchDTO(null, customerId, PaymentMethod.CARD, null, null, null)))
+                .containsExactly(saleIds.get(2), saleIds.get(0));
+        assertThat(ids(new SaleSearchDTO(SalesStatus.COMPLETED, customerId, null, null, null, null)))
+                .containsExactly(saleIds.get(2));
+        assertThat(ids(new SaleSearchDTO(null, null, PaymentMethod.CASH, null,
+                LocalDate.of(2025, 3, 2), LocalDate.of(2025, 3, 4))))
+                .containsExactly(saleIds.get(3), saleIds.get(1));
+        assertThat(ids(new SaleSearchDTO(null, null, null, new BigDecimal("1000.00"), null, null)))
+                .isEmpty();
+    }
+
+    private List<Long> ids(SaleSearchDTO filter) {
+        SaleSliceDTO slice = saleService.search(filter, null, 20);
+        assertThat(slice.nextCursor()).isNull();
+        return slice.content().stream().map(SaleResponseDTO::id).toList();
+    }
+}
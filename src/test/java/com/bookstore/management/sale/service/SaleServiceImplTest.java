@@ -8,18 +8,24 @@ import com.bookstore.management.book.repository.BookRepository;
 import com.bookstore.management.customer.dto.CustomerSummaryDTO;
 import com.bookstore.management.customer.model.Customer;
 import com.bookstore.management.customer.repository.CustomerRepository;
-import com.bookstore.management.inventory.dto.UpdateStockDTO;
 import com.bookstore.management.inventory.service.InventoryServiceImpl;
+import com.bookstore.management.sales.dto.SaleKeyDTO;
+import com.bookstore.management.sales.dto.SaleLineDTO;
 import com.bookstore.management.sales.dto.SaleRequestDTO;
 import com.bookstore.management.sales.dto.SaleResponseDTO;
+import com.bookstore.management.sales.dto.SaleSearchDTO;
+import com.bookstore.management.sales.dto.SaleSliceDTO;
 import com.bookstore.management.sales.dto.SalesDetailRequestDTO;
 import com.bookstore.management.sales.dto.SalesDetailResponseDTO;
+import com.bookstore.management.sales.event.SaleClosedEvent;
+import com.bookstore.management.sales.event.SalePendingEvent;
 import com.bookstore.management.sales.mapper.SaleMapper;
 import com.bookstore.management.sales.model.PaymentMethod;
 import com.bookstore.management.sales.model.Sale;
 import com.bookstore.management.sales.model.SalesDetail;
 import com.bookstore.management.sales.model.SalesStatus;
 import com.bookstore.management.sales.repository.SaleRepository;
+import com.bookstore.management.sales.repository.SaleSearchRepository;
 import com.bookstore.management.sales.service.SaleServiceImpl;
 import com.bookstore.management.shared.exception.custom.InsufficientReservedStockException;
 import com.bookstore.management.shared.exception.custom.InsufficientStockException;
@@ -33,13 +39,17 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -52,6 +62,9 @@ public class SaleServiceImplTest {
     @Mock
     private SaleRepository saleRepository;
 
+    @Mock
+    private SaleSearchRepository saleSearchRepository;
+
     @Mock
     private BookRepository bookRepository;
 
@@ -64,6 +77,9 @@ public class SaleServiceImplTest {
     @Mock
     private SaleMapper saleMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private SaleServiceImpl  saleService;
 
@@ -202,43 +218,61 @@ public class SaleServiceImplTest {
         }
     }
     @Nested
-    @DisplayName("findAll")
-    class FindAll {
+    @DisplayName("search")
+    class Search {
+
+        private final SaleSearchDTO filter = new SaleSearchDTO(SalesStatus.COMPLETED, null, null, null, null, null);
+        private final LocalDateTime createdAt = LocalDateTime.of(2025, 3, 1, 10, 0);
 
         @Test
-        @DisplayName("should return list of sale responses when sales exist")
-        void shouldReturnListOfSaleResponsesWhenSalesExist() {
-            List<Sale> saleList = List.of(sale);
-            List<SaleResponseDTO> expectedList = List.of(saleResponseDTO);
+        @DisplayName("should read the lines of the page in one query and return the cursor of the next page")
+        void shouldReadTheLinesOfThePageAndReturnTheNextCursor() {
+            List<SaleLineDTO> lines = List.of();
+            when(saleSearchRepository.findKeysBefore(filter, null, null, 3)).thenReturn(List.of(
+                    new SaleKeyDTO(9L, createdAt), new SaleKeyDTO(8L, createdAt), new SaleKeyDTO(7L, createdAt)));
+            when(saleRepository.findLinesBySaleIdIn(List.of(9L, 8L))).thenReturn(lines);
+            when(saleMapper.fromLines(any())).thenReturn(List.of(saleResponseDTO));
 
-            when(saleRepository.findAll()).thenReturn(saleList);
-            when(saleMapper.toResponseDtoList(saleList)).thenReturn(expectedList);
+            SaleSliceDTO first = saleService.search(filter, null, 2);
 
-            List<SaleResponseDTO> result = saleService.findAll();
+            assertEquals(List.of(saleResponseDTO), first.content());
+            assertNotNull(first.nextCursor());
 
-            assertNotNull(result);
-            assertEquals(1, result.size());
-            assertEquals(expectedList, result);
-            verify(saleRepository, times(1)).findAll();
-            verify(saleMapper, times(1)).toResponseDtoList(saleList);
+            when(saleSearchRepository.findKeysBefore(filter, createdAt, 8L, 3))
+                    .thenReturn(List.of(new SaleKeyDTO(7L, createdAt)));
+            when(saleRepository.findLinesBySaleIdIn(List.of(7L))).thenReturn(lines);
+
+            SaleSliceDTO last = saleService.search(filter, first.nextCursor(), 2);
+
+            assertNull(last.nextCursor());
+            verify(saleRepository, times(1)).findLinesBySaleIdIn(List.of(9L, 8L));
+            verify(saleRepository, times(1)).findLinesBySaleIdIn(List.of(7L));
         }
 
         @Test
-        @DisplayName("should return empty list when no sales exist")
-        void shouldReturnEmptyListWhenNoSalesExist() {
-            List<Sale> emptyList = List.of();
+        @DisplayName("should not read lines when no sale matches")
+        void shouldNotReadLinesWhenNoSaleMatches() {
+            when(saleSearchRepository.findKeysBefore(filter, null, null, 21)).thenReturn(List.of());
 
-            when(saleRepository.findAll()).thenReturn(emptyList);
-            when(saleMapper.toResponseDtoList(emptyList)).thenReturn(List.of());
+            SaleSliceDTO result = saleService.search(filter, "", 20);
 
-            List<SaleResponseDTO> result = saleService.findAll();
+            assertTrue(result.content().isEmpty());
+            assertNull(result.nextCursor());
+            verify(saleRepository, never()).findLinesBySaleIdIn(any());
+            verifyNoInteractions(saleMapper);
+        }
 
-            assertNotNull(result);
-            assertTrue(result.isEmpty());
-            verify(saleRepository, times(1)).findAll();
-            verify(saleMapper, times(1)).toResponseDtoList(emptyList);
+        @Test
+        @DisplayName("should reject a size out of range or a cursor it did not issue")
+        void shouldRejectASizeOutOfRangeOrAForeignCursor() {
+            assertThrows(IllegalArgumentException.class, () -> saleService.search(filter, null, 0));
+            assertThrows(IllegalArgumentException.class, () -> saleService.search(filter, null, 101));
+            assertThrows(IllegalArgumentException.class, () -> saleService.search(filter, "not-a-cursor", 20));
+
+            verifyNoInteractions(saleSearchRepository);
         }
     }
+
     @Nested
     @DisplayName("findByCustomerId")
     class FindByCustomerId {
@@ -247,12 +281,12 @@ public class SaleServiceImplTest {
         @DisplayName("should return list of sale responses when customer exists and has sales")
         void shouldReturnListOfSaleResponsesWhenCustomerExistsAndHasSales() {
             Long customerId = 1L;
-            List<Sale> saleList = List.of(sale);
+            Stream<SaleLineDTO> lines = Stream.empty();
             List<SaleResponseDTO> expectedList = List.of(saleResponseDTO);
 
             when(customerRepository.findById(customerId)).thenReturn(Optional.of(customer));
-            when(saleRepository.findByCustomerId(customerId)).thenReturn(saleList);
-            when(saleMapper.toResponseDtoList(saleList)).thenReturn(expectedList);
+            when(saleRepository.streamLinesByCustomerId(customerId)).thenReturn(lines);
+            when(saleMapper.fromLines(lines)).thenReturn(expectedList);
 
             List<SaleResponseDTO> result = saleService.findByCustomerId(customerId);
 
@@ -260,27 +294,27 @@ public class SaleServiceImplTest {
             assertEquals(1, result.size());
             assertEquals(expectedList, result);
             verify(customerRepository, times(1)).findById(customerId);
-            verify(saleRepository, times(1)).findByCustomerId(customerId);
-            verify(saleMapper, times(1)).toResponseDtoList(saleList);
+            verify(saleRepository, times(1)).streamLinesByCustomerId(customerId);
+            verify(saleMapper, times(1)).fromLines(lines);
         }
 
         @Test
         @DisplayName("should return empty list when customer exists but has no sales")
         void shouldReturnEmptyListWhenCustomerExistsButHasNoSales() {
             Long customerId = 1L;
-            List<Sale> emptyList = List.of();
+            Stream<SaleLineDTO> lines = Stream.empty();
 
             when(customerRepository.findById(customerId)).thenReturn(Optional.of(customer));
-            when(saleRepository.findByCustomerId(customerId)).thenReturn(emptyList);
-            when(saleMapper.toResponseDtoList(emptyList)).thenReturn(List.of());
+            when(saleRepository.streamLinesByCustomerId(customerId)).thenReturn(lines);
+            when(saleMapper.fromLines(lines)).thenReturn(List.of());
 
             List<SaleResponseDTO> result = saleService.findByCustomerId(customerId);
 
             assertNotNull(result);
             assertTrue(result.isEmpty());
             verify(customerRepository, times(1)).findById(customerId);
-            verify(saleRepository, times(1)).findByCustomerId(customerId);
-            verify(saleMapper, times(1)).toResponseDtoList(emptyList);
+            verify(saleRepository, times(1)).streamLinesByCustomerId(customerId);
+            verify(saleMapper, times(1)).fromLines(lines);
         }
 
         @Test
@@ -299,8 +333,8 @@ public class SaleServiceImplTest {
             assertTrue(exception.getMessage().contains("Id"));
             assertTrue(exception.getMessage().contains("999"));
             verify(customerRepository, times(1)).findById(nonExistentCustomerId);
-            verify(saleRepository, never()).findByCustomerId(any());
-            verify(saleMapper, never()).toResponseDtoList(any());
+            verify(saleRepository, never()).streamLinesByCustomerId(any());
+            verifyNoInteractions(saleMapper);
         }
     }
     @Nested
@@ -311,36 +345,36 @@ public class SaleServiceImplTest {
         @DisplayName("should return list of sale responses when sales with status exist")
         void shouldReturnListOfSaleResponsesWhenSalesWithStatusExist() {
             SalesStatus status = SalesStatus.COMPLETED;
-            List<Sale> saleList = List.of(sale);
+            Stream<SaleLineDTO> lines = Stream.empty();
             List<SaleResponseDTO> expectedList = List.of(saleResponseDTO);
 
-            when(saleRepository.findByStatus(status)).thenReturn(saleList);
-            when(saleMapper.toResponseDtoList(saleList)).thenReturn(expectedList);
+            when(saleRepository.streamLinesByStatus(status)).thenReturn(lines);
+            when(saleMapper.fromLines(lines)).thenReturn(expectedList);
 
             List<SaleResponseDTO> result = saleService.findByStatus(status);
 
             assertNotNull(result);
             assertEquals(1, result.size());
             assertEquals(expectedList, result);
-            verify(saleRepository, times(1)).findByStatus(status);
-            verify(saleMapper, times(1)).toResponseDtoList(saleList);
+            verify(saleRepository, times(1)).streamLinesByStatus(status);
+            verify(saleMapper, times(1)).fromLines(lines);
         }
 
         @Test
         @DisplayName("should return empty list when no sales with status exist")
         void shouldReturnEmptyListWhenNoSalesWithStatusExist() {
             SalesStatus status = SalesStatus.PENDING;
-            List<Sale> emptyList = List.of();
+            Stream<SaleLineDTO> lines = Stream.empty();
 
-            when(saleRepository.findByStatus(status)).thenReturn(emptyList);
-            when(saleMapper.toResponseDtoList(emptyList)).thenReturn(List.of());
+            when(saleRepository.streamLinesByStatus(status)).thenReturn(lines);
+            when(saleMapper.fromLines(lines)).thenReturn(List.of());
 
             List<SaleResponseDTO> result = saleService.findByStatus(status);
 
             assertNotNull(result);
             assertTrue(result.isEmpty());
-            verify(saleRepository, times(1)).findByStatus(status);
-            verify(saleMapper, times(1)).toResponseDtoList(emptyList);
+            verify(saleRepository, times(1)).streamLinesByStatus(status);
+            verify(saleMapper, times(1)).fromLines(lines);
         }
     }
     @Nested
@@ -352,19 +386,19 @@ public class SaleServiceImplTest {
         void shouldReturnListOfSaleResponsesWhenSalesInDateRangeExist() {
             LocalDate start = LocalDate.of(2024, 1, 1);
             LocalDate end = LocalDate.of(2024, 12, 31);
-            List<Sale> saleList = List.of(sale);
+            Stream<SaleLineDTO> lines = Stream.empty();
             List<SaleResponseDTO> expectedList = List.of(saleResponseDTO);
 
-            when(saleRepository.findByDateRange(start, end)).thenReturn(saleList);
-            when(saleMapper.toResponseDtoList(saleList)).thenReturn(expectedList);
+            when(saleRepository.streamLinesByCreatedAt(start.atStartOfDay(), end.plusDays(1).atStartOfDay())).thenReturn(lines);
+            when(saleMapper.fromLines(lines)).thenReturn(expectedList);
 
             List<SaleResponseDTO> result = saleService.findByDateRange(start, end);
 
             assertNotNull(result);
             assertEquals(1, result.size());
             assertEquals(expectedList, result);
-            verify(saleRepository, times(1)).findByDateRange(start, end);
-            verify(saleMapper, times(1)).toResponseDtoList(saleList);
+            verify(saleRepository, times(1)).streamLinesByCreatedAt(start.atStartOfDay(), end.plusDays(1).atStartOfDay());
+            verify(saleMapper, times(1)).fromLines(lines);
         }
 
         @Test
@@ -372,17 +406,17 @@ public class SaleServiceImplTest {
         void shouldReturnEmptyListWhenNoSalesInDateRangeExist() {
             LocalDate start = LocalDate.of(2025, 1, 1);
             LocalDate end = LocalDate.of(2025, 1, 31);
-            List<Sale> emptyList = List.of();
+            Stream<SaleLineDTO> lines = Stream.empty();
 
-            when(saleRepository.findByDateRange(start, end)).thenReturn(emptyList);
-            when(saleMapper.toResponseDtoList(emptyList)).thenReturn(List.of());
+            when(saleRepository.streamLinesByCreatedAt(start.atStartOfDay(), end.plusDays(1).atStartOfDay())).thenReturn(lines);
+            when(saleMapper.fromLines(lines)).thenReturn(List.of());
 
             List<SaleResponseDTO> result = saleService.findByDateRange(start, end);
 
             assertNotNull(result);
             assertTrue(result.isEmpty());
-            verify(saleRepository, times(1)).findByDateRange(start, end);
-            verify(saleMapper, times(1)).toResponseDtoList(emptyList);
+            verify(saleRepository, times(1)).streamLinesByCreatedAt(start.atStartOfDay(), end.plusDays(1).atStartOfDay());
+            verify(saleMapper, times(1)).fromLines(lines);
         }
     }
     @Nested
@@ -393,7 +427,7 @@ public class SaleServiceImplTest {
         @DisplayName("should create sale successfully when customer exists")
         void shouldCreateSaleSuccessfullyWhenCustomerExists() {
             when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
-            when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+            when(bookRepository.findAllByIdIn(Set.of(1L))).thenReturn(List.of(book));
             when(saleRepository.save(any(Sale.class))).thenReturn(sale);
             when(saleMapper.toResponseDto(sale)).thenReturn(saleResponseDTO);
 
@@ -402,10 +436,11 @@ public class SaleServiceImplTest {
             assertNotNull(result);
             assertEquals(saleResponseDTO, result);
             verify(customerRepository, times(1)).findById(1L);
-            verify(bookRepository, times(1)).findById(1L);
-            verify(inventoryService, times(1)).reserveStock(1L, 2);
+            verify(bookRepository, times(1)).findAllByIdIn(Set.of(1L));
+            verify(inventoryService, times(1)).reserveStockBatch(Map.of(1L, 2));
             verify(saleRepository, times(1)).save(any(Sale.class));
             verify(saleMapper, times(1)).toResponseDto(sale);
+            verify(eventPublisher, times(1)).publishEvent(new SalePendingEvent(sale.getId(), sale.getExpiredAt()));
         }
 
         @Test
@@ -419,7 +454,7 @@ public class SaleServiceImplTest {
                     .observation("Test sale")
                     .build();
 
-            when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+            when(bookRepository.findAllByIdIn(Set.of(1L))).thenReturn(List.of(book));
             when(saleRepository.save(any(Sale.class))).thenReturn(sale);
             when(saleMapper.toResponseDto(sale)).thenReturn(saleResponseDTO);
 
@@ -428,8 +463,8 @@ public class SaleServiceImplTest {
             assertNotNull(result);
             assertEquals(saleResponseDTO, result);
             verify(customerRepository, never()).findById(any());
-            verify(bookRepository, times(1)).findById(1L);
-            verify(inventoryService, times(1)).reserveStock(1L, 2);
+            verify(bookRepository, times(1)).findAllByIdIn(Set.of(1L));
+            verify(inventoryService, times(1)).reserveStockBatch(Map.of(1L, 2));
             verify(saleRepository, times(1)).save(any(Sale.class));
             verify(saleMapper, times(1)).toResponseDto(sale);
         }
@@ -463,8 +498,7 @@ public class SaleServiceImplTest {
                     .build();
 
             when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
-            when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
-            when(bookRepository.findById(2L)).thenReturn(Optional.of(secondBook));
+            when(bookRepository.findAllByIdIn(Set.of(1L, 2L))).thenReturn(List.of(book, secondBook));
             when(saleRepository.save(any(Sale.class))).thenReturn(sale);
             when(saleMapper.toResponseDto(sale)).thenReturn(saleResponseDTO);
 
@@ -473,10 +507,9 @@ public class SaleServiceImplTest {
             assertNotNull(result);
             assertEquals(saleResponseDTO, result);
             verify(customerRepository, times(1)).findById(1L);
-            verify(bookRepository, times(1)).findById(1L);
-            verify(bookRepository, times(1)).findById(2L);
-            verify(inventoryService, times(1)).reserveStock(1L, 2);
-            verify(inventoryService, times(1)).reserveStock(2L, 1);
+            verify(bookRepository, times(1)).findAllByIdIn(Set.of(1L, 2L));
+            verify(inventoryService, times(1)).reserveStockBatch(Map.of(1L, 2, 2L, 1));
+            verify(inventoryService, never()).reserveStock(any(), any());
             verify(saleRepository, times(1)).save(any(Sale.class));
             verify(saleMapper, times(1)).toResponseDto(sale);
         }
@@ -504,8 +537,8 @@ public class SaleServiceImplTest {
             assertTrue(exception.getMessage().contains("Id"));
             assertTrue(exception.getMessage().contains("999"));
             verify(customerRepository, times(1)).findById(nonExistentCustomerId);
-            verify(bookRepository, never()).findById(any());
-            verify(inventoryService, never()).reserveStock(any(), any());
+            verify(bookRepository, never()).findAllByIdIn(any());
+            verify(inventoryService, never()).reserveStockBatch(any());
             verify(saleRepository, never()).save(any());
             verify(saleMapper, never()).toResponseDto(any());
         }
@@ -529,7 +562,7 @@ public class SaleServiceImplTest {
                     .build();
 
             when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
-            when(bookRepository.findById(nonExistentBookId)).thenReturn(Optional.empty());
+            when(bookRepository.findAllByIdIn(Set.of(nonExistentBookId))).thenReturn(List.of());
 
             ResourceNotFoundException exception = assertThrows(
                     ResourceNotFoundException.class,
@@ -540,8 +573,8 @@ public class SaleServiceImplTest {
             assertTrue(exception.getMessage().contains("Id"));
             assertTrue(exception.getMessage().contains("999"));
             verify(customerRepository, times(1)).findById(1L);
-            verify(bookRepository, times(1)).findById(nonExistentBookId);
-            verify(inventoryService, never()).reserveStock(any(), any());
+            verify(bookRepository, times(1)).findAllByIdIn(Set.of(nonExistentBookId));
+            verify(inventoryService, never()).reserveStockBatch(any());
             verify(saleRepository, never()).save(any());
             verify(saleMapper, never()).toResponseDto(any());
         }
@@ -550,9 +583,9 @@ public class SaleServiceImplTest {
         @DisplayName("should throw InsufficientStockException when stock is insufficient")
         void shouldThrowInsufficientStockExceptionWhenStockIsInsufficient() {
             when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
-            when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+            when(bookRepository.findAllByIdIn(Set.of(1L))).thenReturn(List.of(book));
             doThrow(new InsufficientStockException("Insufficient stock"))
-                    .when(inventoryService).reserveStock(1L, 2);
+                    .when(inventoryService).reserveStockBatch(Map.of(1L, 2));
 
             InsufficientStockException exception = assertThrows(
                     InsufficientStockException.class,
@@ -561,11 +594,40 @@ public class SaleServiceImplTest {
 
             assertEquals("Insufficient stock", exception.getMessage());
             verify(customerRepository, times(1)).findById(1L);
-            verify(bookRepository, times(1)).findById(1L);
-            verify(inventoryService, times(1)).reserveStock(1L, 2);
+            verify(bookRepository, times(1)).findAllByIdIn(Set.of(1L));
+            verify(inventoryService, times(1)).reserveStockBatch(Map.of(1L, 2));
             verify(saleRepository, never()).save(any());
             verify(saleMapper, never()).toResponseDto(any());
         }
+
+        @Test
+        @DisplayName("should merge duplicate book lines into a single reservation")
+        void shouldMergeDuplicateBookLinesIntoASingleReservation() {
+            SalesDetailRequestDTO duplicatedDetailRequest = SalesDetailRequestDTO.builder()
+                    .bookId(1L)
+                    .quantity(3)
+                    .discountPercentage(BigDecimal.ZERO)
+                    .build();
+
+            SaleRequestDTO duplicatedItemsRequest = SaleRequestDTO.builder()
+                    .customerId(1L)
+                    .paymentMethod(PaymentMethod.CASH)
+                    .items(List.of(salesDetailRequestDTO, duplicatedDetailRequest))
+                    .discountPercentage(BigDecimal.ZERO)
+                    .observation("Test sale")
+                    .build();
+
+            when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
+            when(bookRepository.findAllByIdIn(Set.of(1L))).thenReturn(List.of(book));
+            when(saleRepository.save(any(Sale.class))).thenReturn(sale);
+            when(saleMapper.toResponseDto(sale)).thenReturn(saleResponseDTO);
+
+            saleService.createSale(duplicatedItemsRequest);
+
+            verify(bookRepository, times(1)).findAllByIdIn(Set.of(1L));
+            verify(inventoryService, times(1)).reserveStockBatch(Map.of(1L, 5));
+            verify(saleRepository, times(1)).save(argThat(saved -> saved.getDetails().size() == 2));
+        }
     }
     @Nested
     @DisplayName("completeSale")
@@ -587,23 +649,27 @@ public class SaleServiceImplTest {
                     .createdBy(1L)
                     .build();
 
-            when(saleRepository.findById(1L)).thenReturn(Optional.of(sale));
-            when(saleRepository.save(any(Sale.class))).thenReturn(completedSale);
+            when(saleRepository.findById(1L)).thenReturn(Optional.of(sale), Optional.of(completedSale));
+            when(saleRepository.updateStatusByIdIn(eq(List.of(1L)), eq(SalesStatus.PENDING), eq(SalesStatus.COMPLETED), any()))
+                    .thenReturn(1);
             when(saleMapper.toResponseDto(completedSale)).thenReturn(saleResponseDTO);
 
             SaleResponseDTO result = saleService.completeSale(1L);
 
             assertNotNull(result);
             assertEquals(saleResponseDTO, result);
-            verify(saleRepository, times(1)).findById(1L);
-            verify(inventoryService, times(1)).registerSale(any(UpdateStockDTO.class), eq(1L));
-            verify(saleRepository, times(1)).save(any(Sale.class));
+            verify(saleRepository, times(2)).findById(1L);
+            verify(inventoryService, times(1)).consumeReservation(1L, 2);
+            verify(inventoryService, never()).registerSale(any(), any());
+            verify(saleRepository, times(1)).updateStatusByIdIn(eq(List.of(1L)), eq(SalesStatus.PENDING), eq(SalesStatus.COMPLETED), any());
+            verify(saleRepository, never()).save(any());
             verify(saleMapper, times(1)).toResponseDto(completedSale);
+            verify(eventPublisher, times(1)).publishEvent(new SaleClosedEvent(1L));
         }
 
         @Test
-        @DisplayName("should register sales for all items when completing sale")
-        void shouldRegisterSalesForAllItemsWhenCompletingSale() {
+        @DisplayName("should consume the reservation of every book when completing sale")
+        void shouldConsumeTheReservationOfEveryBookWhenCompletingSale() {
             Book secondBook = Book.builder()
                     .id(2L)
                     .isbn("978-0451524935")
@@ -629,16 +695,18 @@ public class SaleServiceImplTest {
             sale.setStatus(SalesStatus.PENDING);
 
             when(saleRepository.findById(1L)).thenReturn(Optional.of(sale));
-            when(saleRepository.save(any(Sale.class))).thenReturn(sale);
+            when(saleRepository.updateStatusByIdIn(eq(List.of(1L)), eq(SalesStatus.PENDING), eq(SalesStatus.COMPLETED), any()))
+                    .thenReturn(1);
             when(saleMapper.toResponseDto(sale)).thenReturn(saleResponseDTO);
 
             SaleResponseDTO result = saleService.completeSale(1L);
 
             assertNotNull(result);
-            verify(saleRepository, times(1)).findById(1L);
-            verify(inventoryService, times(1)).registerSale(any(UpdateStockDTO.class), eq(1L));
-            verify(inventoryService, times(1)).registerSale(any(UpdateStockDTO.class), eq(2L));
-            verify(saleRepository, times(1)).save(any(Sale.class));
+            verify(saleRepository, times(2)).findById(1L);
+            verify(inventoryService, times(1)).consumeReservation(1L, 2);
+            verify(inventoryService, times(1)).consumeReservation(2L, 3);
+            verify(saleRepository, times(1)).updateStatusByIdIn(eq(List.of(1L)), eq(SalesStatus.PENDING), eq(SalesStatus.COMPLETED), any());
+            verify(saleRepository, never()).save(any());
             verify(saleMapper, times(1)).toResponseDto(sale);
         }
 
@@ -657,7 +725,7 @@ public class SaleServiceImplTest {
             assertTrue(exception.getMessage().contains("Id"));
             assertTrue(exception.getMessage().contains("999"));
             verify(saleRepository, times(1)).findById(nonExistentId);
-            verify(inventoryService, never()).registerSale(any(), any());
+            verify(inventoryService, never()).consumeReservation(any(), any());
             verify(saleRepository, never()).save(any());
             verify(saleMapper, never()).toResponseDto(any());
         }
@@ -676,7 +744,7 @@ public class SaleServiceImplTest {
             assertTrue(exception.getMessage().contains("Cannot process sale with status"));
             assertTrue(exception.getMessage().contains("COMPLETED"));
             verify(saleRepository, times(1)).findById(1L);
-            verify(inventoryService, never()).registerSale(any(), any());
+            verify(inventoryService, never()).consumeReservation(any(), any());
             verify(saleRepository, never()).save(any());
             verify(saleMapper, never()).toResponseDto(any());
         }
@@ -695,30 +763,49 @@ public class SaleServiceImplTest {
             assertTrue(exception.getMessage().contains("Cannot process sale with status"));
             assertTrue(exception.getMessage().contains("CANCELLED"));
             verify(saleRepository, times(1)).findById(1L);
-            verify(inventoryService, never()).registerSale(any(), any());
+            verify(inventoryService, never()).consumeReservation(any(), any());
             verify(saleRepository, never()).save(any());
             verify(saleMapper, never()).toResponseDto(any());
         }
 
         @Test
-        @DisplayName("should throw InsufficientStockException when inventory service fails")
-        void shouldThrowInsufficientStockExceptionWhenInventoryServiceFails() {
+        @DisplayName("should throw InsufficientReservedStockException when the reservation is gone")
+        void shouldThrowInsufficientReservedStockExceptionWhenTheReservationIsGone() {
             sale.setStatus(SalesStatus.PENDING);
             when(saleRepository.findById(1L)).thenReturn(Optional.of(sale));
-            doThrow(new InsufficientStockException("Insufficient Stock"))
-                    .when(inventoryService).registerSale(any(UpdateStockDTO.class), eq(1L));
+            when(saleRepository.updateStatusByIdIn(eq(List.of(1L)), eq(SalesStatus.PENDING), eq(SalesStatus.COMPLETED), any()))
+                    .thenReturn(1);
+            doThrow(new InsufficientReservedStockException("Not enough reserved stock to complete the sale"))
+                    .when(inventoryService).consumeReservation(1L, 2);
 
-            InsufficientStockException exception = assertThrows(
-                    InsufficientStockException.class,
+            InsufficientReservedStockException exception = assertThrows(
+                    InsufficientReservedStockException.class,
                     () -> saleService.completeSale(1L)
             );
 
-            assertEquals("Insufficient Stock", exception.getMessage());
+            assertEquals("Not enough reserved stock to complete the sale", exception.getMessage());
             verify(saleRepository, times(1)).findById(1L);
-            verify(inventoryService, times(1)).registerSale(any(UpdateStockDTO.class), eq(1L));
+            verify(inventoryService, times(1)).consumeReservation(1L, 2);
             verify(saleRepository, never()).save(any());
             verify(saleMapper, never()).toResponseDto(any());
         }
+
+        @Test
+        @DisplayName("should throw InvalidSalesStatusException when another transaction closed the sale first")
+        void shouldThrowInvalidSalesStatusExceptionWhenAnotherTransactionClosedTheSaleFirst() {
+            sale.setStatus(SalesStatus.PENDING);
+            when(saleRepository.findById(1L)).thenReturn(Optional.of(sale));
+
+            InvalidSalesStatusException exception = assertThrows(
+                    InvalidSalesStatusException.class,
+                    () -> saleService.completeSale(1L)
+            );
+
+            assertTrue(exception.getMessage().contains("no longer pending"));
+            verify(inventoryService, never()).consumeReservation(any(), any());
+            verify(saleMapper, never()).toResponseDto(any());
+            verify(eventPublisher, never()).publishEvent(any(SaleClosedEvent.class));
+        }
     }
     @Nested
     @DisplayName("cancelSale")
@@ -740,18 +827,21 @@ public class SaleServiceImplTest {
                     .createdBy(1L)
                     .build();
 
-            when(saleRepository.findById(1L)).thenReturn(Optional.of(sale));
-            when(saleRepository.save(any(Sale.class))).thenReturn(cancelledSale);
+            when(saleRepository.findById(1L)).thenReturn(Optional.of(sale), Optional.of(cancelledSale));
+            when(saleRepository.updateStatusByIdIn(eq(List.of(1L)), eq(SalesStatus.PENDING), eq(SalesStatus.CANCELLED), any()))
+                    .thenReturn(1);
             when(saleMapper.toResponseDto(cancelledSale)).thenReturn(saleResponseDTO);
 
             SaleResponseDTO result = saleService.cancelSale(1L);
 
             assertNotNull(result);
             assertEquals(saleResponseDTO, result);
-            verify(saleRepository, times(1)).findById(1L);
-            verify(inventoryService, times(1)).releaseReservation(1L, 2);
-            verify(saleRepository, times(1)).save(any(Sale.class));
+            verify(saleRepository, times(2)).findById(1L);
+            verify(inventoryService, times(1)).releaseReservationBatch(Map.of(1L, 2));
+            verify(saleRepository, times(1)).updateStatusByIdIn(eq(List.of(1L)), eq(SalesStatus.PENDING), eq(SalesStatus.CANCELLED), any());
+            verify(saleRepository, never()).save(any());
             verify(saleMapper, times(1)).toResponseDto(cancelledSale);
+            verify(eventPublisher, times(1)).publishEvent(new SaleClosedEvent(1L));
         }
 
         @Test
@@ -782,16 +872,17 @@ public class SaleServiceImplTest {
             sale.setStatus(SalesStatus.PENDING);
 
             when(saleRepository.findById(1L)).thenReturn(Optional.of(sale));
-            when(saleRepository.save(any(Sale.class))).thenReturn(sale);
+            when(saleRepository.updateStatusByIdIn(eq(List.of(1L)), eq(SalesStatus.PENDING), eq(SalesStatus.CANCELLED), any()))
+                    .thenReturn(1);
             when(saleMapper.toResponseDto(sale)).thenReturn(saleResponseDTO);
 
             SaleResponseDTO result = saleService.cancelSale(1L);
 
             assertNotNull(result);
-            verify(saleRepository, times(1)).findById(1L);
-            verify(inventoryService, times(1)).releaseReservation(1L, 2);
-            verify(inventoryService, times(1)).releaseReservation(2L, 3);
-            verify(saleRepository, times(1)).save(any(Sale.class));
+            verify(saleRepository, times(2)).findById(1L);
+            verify(inventoryService, times(1)).releaseReservationBatch(Map.of(1L, 2, 2L, 3));
+            verify(saleRepository, times(1)).updateStatusByIdIn(eq(List.of(1L)), eq(SalesStatus.PENDING), eq(SalesStatus.CANCELLED), any());
+            verify(saleRepository, never()).save(any());
             verify(saleMapper, times(1)).toResponseDto(sale);
         }
 
@@ -810,7 +901,7 @@ public class SaleServiceImplTest {
             assertTrue(exception.getMessage().contains("Id"));
             assertTrue(exception.getMessage().contains("999"));
             verify(saleRepository, times(1)).findById(nonExistentId);
-            verify(inventoryService, never()).releaseReservation(any(), any());
+            verify(inventoryService, never()).releaseReservationBatch(any());
             verify(saleRepository, never()).save(any());
             verify(saleMapper, never()).toResponseDto(any());
         }
@@ -829,7 +920,7 @@ public class SaleServiceImplTest {
             assertTrue(exception.getMessage().contains("Cannot process sale with status"));
             assertTrue(exception.getMessage().contains("COMPLETED"));
             verify(saleRepository, times(1)).findById(1L);
-            verify(inventoryService, never()).releaseReservation(any(), any());
+            verify(inventoryService, never()).releaseReservationBatch(any());
             verify(saleRepository, never()).save(any());
             verify(saleMapper, never()).toResponseDto(any());
         }
@@ -848,7 +939,7 @@ public class SaleServiceImplTest {
             assertTrue(exception.getMessage().contains("Cannot process sale with status"));
             assertTrue(exception.getMessage().contains("CANCELLED"));
             verify(saleRepository, times(1)).findById(1L);
-            verify(inventoryService, never()).releaseReservation(any(), any());
+            verify(inventoryService, never()).releaseReservationBatch(any());
             verify(saleRepository, never()).save(any());
             verify(saleMapper, never()).toResponseDto(any());
         }
@@ -858,8 +949,10 @@ public class SaleServiceImplTest {
         void shouldThrowInsufficientReservedStockExceptionWhenReleaseReservationFails() {
             sale.setStatus(SalesStatus.PENDING);
             when(saleRepository.findById(1L)).thenReturn(Optional.of(sale));
+            when(saleRepository.updateStatusByIdIn(eq(List.of(1L)), eq(SalesStatus.PENDING), eq(SalesStatus.CANCELLED), any()))
+                    .thenReturn(1);
             doThrow(new InsufficientReservedStockException("Not enough reserved stock to release"))
-                    .when(inventoryService).releaseReservation(1L, 2);
+                    .when(inventoryService).releaseReservationBatch(Map.of(1L, 2));
 
             InsufficientReservedStockException exception = assertThrows(
                     InsufficientReservedStockException.class,
@@ -868,244 +961,26 @@ public class SaleServiceImplTest {
 
             assertEquals("Not enough reserved stock to release", exception.getMessage());
             verify(saleRepository, times(1)).findById(1L);
-            verify(inventoryService, times(1)).releaseReservation(1L, 2);
+            verify(inventoryService, times(1)).releaseReservationBatch(Map.of(1L, 2));
             verify(saleRepository, never()).save(any());
             verify(saleMapper, never()).toResponseDto(any());
         }
-    }
-    @Nested
-    @DisplayName("expirePendingSales")
-    class ExpirePendingSales {
 
         @Test
-        @DisplayName("should cancel all expired pending sales")
-        void shouldCancelAllExpiredPendingSales() {
-            Sale expiredSale1 = Sale.builder()
-                    .id(1L)
-                    .customer(customer)
-                    .status(SalesStatus.PENDING)
-                    .paymentMethod(PaymentMethod.CASH)
-                    .total(new BigDecimal("53.98"))
-                    .details(List.of(salesDetail))
-                    .expiredAt(LocalDateTime.now().minusMinutes(10))
-                    .build();
-
-            Sale expiredSale2 = Sale.builder()
-                    .id(2L)
-                    .customer(customer)
-                    .status(SalesStatus.PENDING)
-                    .paymentMethod(PaymentMethod.CARD)
-                    .total(new BigDecimal("29.99"))
-                    .details(List.of(salesDetail))
-                    .expiredAt(LocalDateTime.now().minusMinutes(5))
-                    .build();
-
-            List<Sale> expiredSales = List.of(expiredSale1, expiredSale2);
-
-            when(saleRepository.findByStatusAndExpiredAtBefore(eq(SalesStatus.PENDING), any(LocalDateTime.class)))
-                    .thenReturn(expiredSales);
-            when(saleRepository.findById(1L)).thenReturn(Optional.of(expiredSale1));
-            when(saleRepository.findById(2L)).thenReturn(Optional.of(expiredSale2));
-            when(saleRepository.save(any(Sale.class))).thenReturn(expiredSale1, expiredSale2);
-            when(saleMapper.toResponseDto(any(Sale.class))).thenReturn(saleResponseDTO);
-
-            saleService.expirePendingSales();
-
-            verify(saleRepository, times(1)).findByStatusAndExpiredAtBefore(eq(SalesStatus.PENDING), any(LocalDateTime.class));
-            verify(saleRepository, times(1)).findById(1L);
-            verify(saleRepository, times(1)).findById(2L);
-            verify(inventoryService, times(2)).releaseReservation(any(), any());
-            verify(saleRepository, times(2)).save(any(Sale.class));
-        }
-
-        @Test
-        @DisplayName("should do nothing when no expired sales exist")
-        void shouldDoNothingWhenNoExpiredSalesExist() {
-            when(saleRepository.findByStatusAndExpiredAtBefore(eq(SalesStatus.PENDING), any(LocalDateTime.class)))
-                    .thenReturn(List.of());
+        @DisplayName("should throw InvalidSalesStatusException when another transaction closed the sale first")
+        void shouldThrowInvalidSalesStatusExceptionWhenAnotherTransactionClosedTheSaleFirst() {
+            sale.setStatus(SalesStatus.PENDING);
+            when(saleRepository.findById(1L)).thenReturn(Optional.of(sale));
 
-            saleService.expirePendingSales();
+            InvalidSalesStatusException exception = assertThrows(
+                    InvalidSalesStatusException.class,
+                    () -> saleService.cancelSale(1L)
+            );
 
-            verify(saleRepository, times(1)).findByStatusAndExpiredAtBefore(eq(SalesStatus.PENDING), any(LocalDateTime.class));
-            verify(saleRepository, never()).findById(any());
-            verify(inventoryService, never()).releaseReservation(any(), any());
-            verify(saleRepository, never()).save(any());
+            assertTrue(exception.getMessage().contains("no longer pending"));
+            verify(inventoryService, never()).releaseReservationBatch(any());
             verify(saleMapper, never()).toResponseDto(any());
-        }
-
-        @Test
-        @DisplayName("should continue processing remaining sales when one sale cancellation fails")
-        void shouldContinueProcessingRemainingSalesWhenOneSaleCancellationFails() {
-            Sale expiredSale1 = Sale.builder()
-                    .id(1L)
-                    .customer(customer)
-                    .status(SalesStatus.PENDING)
-                    .paymentMethod(PaymentMethod.CASH)
-                    .total(new BigDecimal("53.98"))
-                    .details(List.of(salesDetail))
-                    .expiredAt(LocalDateTime.now().minusMinutes(10))
-                    .build();
-
-            Sale expiredSale2 = Sale.builder()
-                    .id(2L)
-                    .customer(customer)
-                    .status(SalesStatus.PENDING)
-                    .paymentMethod(PaymentMethod.CARD)
-                    .total(new BigDecimal("29.99"))
-                    .details(List.of(salesDetail))
-                    .expiredAt(LocalDateTime.now().minusMinutes(5))
-                    .build();
-
-            Sale expiredSale3 = Sale.builder()
-                    .id(3L)
-                    .customer(customer)
-                    .status(SalesStatus.PENDING)
-                    .paymentMethod(PaymentMethod.TRANSFER)
-                    .total(new BigDecimal("19.99"))
-                    .details(List.of(salesDetail))
-                    .expiredAt(LocalDateTime.now().minusMinutes(3))
-                    .build();
-
-            List<Sale> expiredSales = List.of(expiredSale1, expiredSale2, expiredSale3);
-
-            when(saleRepository.findByStatusAndExpiredAtBefore(eq(SalesStatus.PENDING), any(LocalDateTime.class)))
-                    .thenReturn(expiredSales);
-            when(saleRepository.findById(1L)).thenReturn(Optional.of(expiredSale1));
-            when(saleRepository.findById(2L)).thenThrow(new ResourceNotFoundException("Sale", "Id", 2L));
-            when(saleRepository.findById(3L)).thenReturn(Optional.of(expiredSale3));
-            when(saleRepository.save(any(Sale.class))).thenReturn(expiredSale1, expiredSale3);
-            when(saleMapper.toResponseDto(any(Sale.class))).thenReturn(saleResponseDTO);
-
-            saleService.expirePendingSales();
-
-            verify(saleRepository, times(1)).findByStatusAndExpiredAtBefore(eq(SalesStatus.PENDING), any(LocalDateTime.class));
-            verify(saleRepository, times(1)).findById(1L);
-            verify(saleRepository, times(1)).findById(2L);
-            verify(saleRepository, times(1)).findById(3L);
-            verify(saleRepository, times(2)).save(any(Sale.class));
-        }
-
-        @Test
-        @DisplayName("should continue processing when InvalidSalesStatusException is thrown")
-        void shouldContinueProcessingWhenInvalidSalesStatusExceptionIsThrown() {
-            Sale expiredSale1 = Sale.builder()
-                    .id(1L)
-                    .customer(customer)
-                    .status(SalesStatus.COMPLETED)
-                    .paymentMethod(PaymentMethod.CASH)
-                    .total(new BigDecimal("53.98"))
-                    .details(List.of(salesDetail))
-                    .expiredAt(LocalDateTime.now().minusMinutes(10))
-                    .build();
-
-            Sale expiredSale2 = Sale.builder()
-                    .id(2L)
-                    .customer(customer)
-                    .status(SalesStatus.PENDING)
-                    .paymentMethod(PaymentMethod.CARD)
-                    .total(new BigDecimal("29.99"))
-                    .details(List.of(salesDetail))
-                    .expiredAt(LocalDateTime.now().minusMinutes(5))
-                    .build();
-
-            List<Sale> expiredSales = List.of(expiredSale1, expiredSale2);
-
-            when(saleRepository.findByStatusAndExpiredAtBefore(eq(SalesStatus.PENDING), any(LocalDateTime.class)))
-                    .thenReturn(expiredSales);
-            when(saleRepository.findById(1L)).thenReturn(Optional.of(expiredSale1));
-            when(saleRepository.findById(2L)).thenReturn(Optional.of(expiredSale2));
-            when(saleRepository.save(any(Sale.class))).thenReturn(expiredSale2);
-            when(saleMapper.toResponseDto(any(Sale.class))).thenReturn(saleResponseDTO);
-
-            saleService.expirePendingSales();
-
-            verify(saleRepository, times(1)).findByStatusAndExpiredAtBefore(eq(SalesStatus.PENDING), any(LocalDateTime.class));
-            verify(saleRepository, times(1)).findById(1L);
-            verify(saleRepository, times(1)).findById(2L);
-            verify(saleRepository, times(1)).save(any(Sale.class));
-        }
-
-        @Test
-        @DisplayName("should continue processing when InsufficientReservedStockException is thrown")
-        void shouldContinueProcessingWhenInsufficientReservedStockExceptionIsThrown() {
-
-            SalesDetail detail1 = SalesDetail.builder()
-                    .id(10L)
-                    .book(book)
-                    .quantity(2)
-                    .unitPrice(new BigDecimal("29.99"))
-                    .discountPercent(new BigDecimal("10.00"))
-                    .lineTotal(new BigDecimal("53.98"))
-                    .build();
-
-            Sale expiredSale1 = Sale.builder()
-                    .id(10L)
-                    .customer(customer)
-                    .status(SalesStatus.PENDING)
-                    .paymentMethod(PaymentMethod.CASH)
-                    .total(new BigDecimal("53.98"))
-                    .details(new ArrayList<>(List.of(detail1)))
-                    .expiredAt(LocalDateTime.now().minusMinutes(10))
-                    .build();
-
-            detail1.setSale(expiredSale1);
-
-            // Segunda venta que tendrá éxito (crea un libro diferente)
-            Book book2 = Book.builder()
-                    .id(2L)
-                    .isbn("978-0451524935")
-                    .title("1984")
-                    .publishDate(LocalDate.of(1949, 6, 8))
-                    .pages(328)
-                    .price(new BigDecimal("19.99"))
-                    .discountPercent(BigDecimal.ZERO)
-                    .author(author)
-                    .build();
-
-            SalesDetail detail2 = SalesDetail.builder()
-                    .id(20L)
-                    .book(book2)
-                    .quantity(1)
-                    .unitPrice(new BigDecimal("19.99"))
-                    .discountPercent(BigDecimal.ZERO)
-                    .lineTotal(new BigDecimal("19.99"))
-                    .build();
-
-            Sale expiredSale2 = Sale.builder()
-                    .id(20L)
-                    .customer(customer)
-                    .status(SalesStatus.PENDING)
-                    .paymentMethod(PaymentMethod.CARD)
-                    .total(new BigDecimal("19.99"))
-                    .details(new ArrayList<>(List.of(detail2)))
-                    .expiredAt(LocalDateTime.now().minusMinutes(5))
-                    .build();
-
-            detail2.setSale(expiredSale2);
-
-            List<Sale> expiredSales = List.of(expiredSale1, expiredSale2);
-
-            when(saleRepository.findByStatusAndExpiredAtBefore(eq(SalesStatus.PENDING), any(LocalDateTime.class)))
-                    .thenReturn(expiredSales);
-            when(saleRepository.findById(10L)).thenReturn(Optional.of(expiredSale1));
-            when(saleRepository.findById(20L)).thenReturn(Optional.of(expiredSale2));
-
-            doThrow(new InsufficientReservedStockException("Not enough reserved stock to release"))
-                    .when(inventoryService).releaseReservation(1L, 2);
-
-            doNothing().when(inventoryService).releaseReservation(2L, 1);
-
-            when(saleRepository.save(any(Sale.class))).thenReturn(expiredSale2);
-            when(saleMapper.toResponseDto(any(Sale.class))).thenReturn(saleResponseDTO);
-
-            saleService.expirePendingSales();
-
-            verify(saleRepository, times(1)).findByStatusAndExpiredAtBefore(eq(SalesStatus.PENDING), any(LocalDateTime.class));
-            verify(saleRepository, times(1)).findById(10L);
-            verify(saleRepository, times(1)).findById(20L);
-            verify(inventoryService, times(1)).releaseReservation(1L, 2);
-            verify(inventoryService, times(1)).releaseReservation(2L, 1);
-            verify(saleRepository, times(1)).save(any(Sale.class));
+            verify(eventPublisher, never()).publishEvent(any(SaleClosedEvent.class));
         }
     }
 }
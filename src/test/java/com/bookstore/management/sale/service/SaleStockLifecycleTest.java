@@ -0,0 +1,131 @@
+package com.bookstore.management.sale.service;
+
+import com.bookstore.management.book.model.Author;
+import com.bookstore.management.book.model.Book;
+import com.bookstore.management.book.model.Gender;
+import com.bookstore.management.book.repository.AuthorRepository;
+import com.bookstore.management.book.repository.BookRepository;
+import com.bookstore.management.inventory.dto.InventoryStockDTO;
+import com.bookstore.management.inventory.dto.ReconciliationRunDTO;
+import com.bookstore.management.inventory.dto.UpdateStockDTO;
+import com.bookstore.management.inventory.model.Inventory;
+import com.bookstore.management.inventory.model.MovementType;
+import com.bookstore.management.inventory.reconcile.LedgerReconciler;
+import com.bookstore.management.inventory.repository.InventoryRepository;
+import com.bookstore.management.inventory.service.InventoryService;
+import com.bookstore.management.sales.dto.SaleRequestDTO;
+import com.bookstore.management.sales.dto.SaleResponseDTO;
+import com.bookstore.management.sales.dto.SalesDetailRequestDTO;
+import com.bookstore.management.sales.model.PaymentMethod;
+import com.bookstore.management.sales.service.SaleService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:salestocklifecycle;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "sales.expiry.enabled=false"
+})
+public class SaleStockLifecycleTest {
+
+    @Autowired
+    private SaleService saleService;
+    @Autowired
+    private InventoryService inventoryService;
+    @Autowired
+    private LedgerReconciler ledgerReconciler;
+    @Autowired
+    private InventoryRepository inventoryRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long bookId;
+
+    @BeforeEach
+    void setUp() {
+        Author author = authorRepository.save(Author.builder()
+                .name("Mariama Ba")
+                .nationality("Senegalese")
+                .birthDate(LocalDate.of(1929, 4, 17))
+                .gender(Gender.FEMALE)
+                .build());
+        Book book = bookRepository.save(Book.builder()
+                .isbn("9780435905552")
+                .title("So Long a Letter")
+                .publishDate(LocalDate.of(1979, 1, 1))
+                .pages(96)
+                .price(new BigDecimal("11.00"))
+                .author(author)
+                .build());
+        inventoryRepository.save(Inventory.builder()
+                .book(book)
+                .quantityAvailable(0)
+                .stockMin(1)
+                .stockMax(100)
+                .build());
+        bookId = book.getId();
+        inventoryService.registerEntry(new UpdateStockDTO(10, MovementType.ENTRY), bookId);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from inventory_drift");
+        jdbcTemplate.update("delete from reconciliation_run");
+        jdbcTemplate.update("delete from stock_checkpoint");
+        jdbcTemplate.update("delete from sales_detail");
+        jdbcTemplate.update("delete from sale");
+        jdbcTemplate.update("delete from inventory_movement");
+        jdbcTemplate.update("delete from inventory");
+        jdbcTemplate.update("delete from books");
+        jdbcTemplate.update("delete from authors");
+    }
+
+    @Test
+    @DisplayName("Should take the units out of available stock once when a reserved sale completes")
+    void shouldTakeTheUnitsOutOfAvailableStockOnceWhenAReservedSaleCompletes() {
+        SaleResponseDTO sale = saleService.createSale(request(3));
+
+        assertThat(stock().quantityAvailable()).isEqualTo(7);
+        assertThat(stock().quantityReserved()).isEqualTo(3);
+
+        saleService.completeSale(sale.id());
+
+        assertThat(stock().quantityAvailable()).isEqualTo(7);
+        assertThat(stock().quantityReserved()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should leave the movement ledger in line with the stock after a completed sale")
+    void shouldLeaveTheMovementLedgerInLineWithTheStockAfterACompletedSale() {
+        saleService.completeSale(saleService.createSale(request(4)).id());
+
+        ReconciliationRunDTO run = ledgerReconciler.run();
+
+        assertThat(run.driftCount()).isZero();
+    }
+
+    private SaleRequestDTO request(int quantity) {
+        return SaleRequestDTO.builder()
+                .paymentMethod(PaymentMethod.CASH)
+                .items(List.of(SalesDetailRequestDTO.builder().bookId(bookId).quantity(quantity).build()))
+                .build();
+    }
+
+    private InventoryStockDTO stock() {
+        return inventoryRepository.findStockByBookId(bookId).orElseThrow();
+    }
+}
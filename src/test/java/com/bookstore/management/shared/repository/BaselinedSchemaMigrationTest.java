@@ -0,0 +1,78 @@
+package com.bookstore.management.shared.repository;
+
+import com.bookstore.management.inventory.repository.InventoryRepository;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Starts the application on a database that already holds the schema ddl-auto=update created, as a
+ * production database does the first time the migrations run: it is baselined on V1 and every later
+ * migration has to bring it up to what the entities validate against.
+ */
+@SpringBootTest(properties = "sales.expiry.enabled=false")
+public class BaselinedSchemaMigrationTest {
+
+    private static final String URL = "jdbc:h2:mem:baselined;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
+
+    @Autowired
+    private Flyway flyway;
+    @Autowired
+    private InventoryRepository inventoryRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void existingDatabase(DynamicPropertyRegistry registry) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/migration/common/V1__baseline_schema.sql"));
+            statement.execute("insert into authors (id, name, nationality, birth_date, gender) " +
+                    "values (1, 'Bessie Head', 'Botswanan', date '1937-07-06', 'FEMALE')");
+            statement.execute("insert into books (id, isbn, title, publish_date, pages, author_id) " +
+                    "values (1, '9780435907908', 'When Rain Clouds Gather', date '1968-01-01', 188, 1)");
+            statement.execute("insert into inventory (id, book_id, quantity_available, reserved_quantity, stock_min, " +
+                    "stock_max, active_status, alert_low_stock) values (1, 1, 12, 2, 1, 100, true, false)");
+        }
+        registry.add("spring.datasource.url", () -> URL);
+    }
+
+    @Test
+    @DisplayName("Should baseline an existing database on V1 and apply every later migration")
+    void shouldBaselineAnExistingDatabaseOnV1AndApplyEveryLaterMigration() {
+        MigrationInfo[] all = flyway.info().all();
+        assertThat(flyway.info().current().getVersion()).isEqualTo(all[all.length - 1].getVersion());
+        assertThat(flyway.info().applied()).hasSizeGreaterThan(1);
+        assertThat(flyway.info().applied()[0].getVersion().getVersion()).isEqualTo("1");
+        assertThat(flyway.info().applied()[0].getType().name()).isEqualTo("BASELINE");
+        assertThat(flyway.info().pending()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should keep the existing stock and start it unsharded at version 0")
+    void shouldKeepTheExistingStockAndStartItUnshardedAtVersion0() {
+        assertThat(inventoryRepository.findStockByBookId(1L)).get()
+                .satisfies(stock -> {
+                    assertThat(stock.quantityAvailable()).isEqualTo(12);
+                    assertThat(stock.quantityReserved()).isEqualTo(2);
+                });
+        assertThat(jdbcTemplate.queryForObject("select version from inventory where id = 1", Long.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject("select stock_slots from inventory where id = 1", Integer.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from inventory_stock_slot", Integer.class)).isZero();
+    }
+}
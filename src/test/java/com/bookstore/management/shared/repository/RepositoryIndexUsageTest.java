@@ -0,0 +1,194 @@
+package com.bookstore.management.shared.repository;
+
+import com.bookstore.management.inventory.model.MovementType;
+import com.bookstore.management.inventory.repository.InventoryMovementRepository;
+import com.bookstore.management.sales.dto.SaleSearchDTO;
+import com.bookstore.management.sales.model.PaymentMethod;
+import com.bookstore.management.sales.model.SalesStatus;
+import com.bookstore.management.sales.repository.SaleRepository;
+import com.bookstore.management.sales.repository.SaleSearchRepository;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Every statement the filtered repository queries issue reads its tables through an index on the
+ * schema the migrations create, never through a table scan.
+ */
+@DataJpaTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+                "com.bookstore.management.shared.repository.RepositoryIndexUsageTest$CapturedStatements")
+@Import(SaleSearchRepository.class)
+public class RepositoryIndexUsageTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2025, 2, 1, 0, 0);
+
+    @Autowired
+    private SaleRepository saleRepository;
+    @Autowired
+    private SaleSearchRepository saleSearchRepository;
+    @Autowired
+    private InventoryMovementRepository movementRepository;
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        CapturedStatements.STATEMENTS.clear();
+    }
+
+    @Nested
+    @DisplayName("SaleRepository")
+    class SaleQueries {
+
+        @Test
+        @DisplayName("Should find sales by customer through an index")
+        void shouldFindSalesByCustomerThroughAnIndex() {
+            assertIndexedPlans(() -> {
+                try (var lines = saleRepository.streamLinesByCustomerId(1L)) {
+                    lines.toList();
+                }
+            });
+        }
+
+        @Test
+        @DisplayName("Should find sales by status through an index")
+        void shouldFindSalesByStatusThroughAnIndex() {
+            assertIndexedPlans(() -> {
+                try (var lines = saleRepository.streamLinesByStatus(SalesStatus.COMPLETED)) {
+                    lines.toList();
+                }
+            });
+        }
+
+        @Test
+        @DisplayName("Should find sales in a half-open creation range through an index")
+        void shouldFindSalesByCreationRangeThroughAnIndex() {
+            assertIndexedPlans(() -> {
+                try (var lines = saleRepository.streamLinesByCreatedAt(FROM, TO)) {
+                    lines.toList();
+                }
+            });
+        }
+
+        @Test
+        @DisplayName("Should find expiring sales and their lines through an index")
+        void shouldFindExpiringSalesThroughAnIndex() {
+            assertIndexedPlans(() -> saleRepository.findPendingExpiries(SalesStatus.PENDING));
+            assertIndexedPlans(() -> saleRepository.findIdsByStatusAndExpiredAtBefore(
+                    SalesStatus.PENDING, TO, 0L, Limit.of(100)));
+            assertIndexedPlans(() -> saleRepository.sumQuantitiesByBookForSales(List.of(1L, 2L)));
+        }
+
+        @Test
+        @DisplayName("Should page the sales listing and read the lines of a page through an index")
+        void shouldPageTheSalesListingThroughAnIndex() {
+            assertIndexedPlans(() -> saleSearchRepository.findKeysBefore(
+                    new SaleSearchDTO(null, null, null, null, null, null), null, null, 21));
+            assertIndexedPlans(() -> saleSearchRepository.findKeysBefore(
+                    new SaleSearchDTO(SalesStatus.COMPLETED, null, PaymentMethod.CARD, BigDecimal.TEN, null, null),
+                    TO, Long.MAX_VALUE, 21));
+            assertIndexedPlans(() -> saleSearchRepository.findKeysBefore(
+                    new SaleSearchDTO(null, 1L, null, null, null, null), TO, Long.MAX_VALUE, 21));
+            assertIndexedPlans(() -> saleSearchRepository.findKeysBefore(
+                    new SaleSearchDTO(null, null, null, null, FROM.toLocalDate(), TO.toLocalDate()), null, null, 21));
+            assertIndexedPlans(() -> saleRepository.findLinesBySaleIdIn(List.of(1L, 2L)));
+        }
+    }
+
+    @Nested
+    @DisplayName("InventoryMovementRepository")
+    class MovementQueries {
+
+        @Test
+        @DisplayName("Should page the movements of an inventory through an index")
+        void shouldPageTheMovementsOfAnInventoryThroughAnIndex() {
+            assertIndexedPlans(() -> movementRepository.findAllByInventoryId(1L, PageRequest.of(0, 20)));
+            assertIndexedPlans(() -> movementRepository.findByInventoryIdBefore(1L, TO, Long.MAX_VALUE, Limit.of(20)));
+            assertIndexedPlans(() -> movementRepository.countByInventoryId(1L));
+        }
+
+        @Test
+        @DisplayName("Should page the movements of a type through an index")
+        void shouldPageTheMovementsOfATypeThroughAnIndex() {
+            assertIndexedPlans(() -> movementRepository.findByMovementType(MovementType.EXIT, PageRequest.of(0, 20)));
+            assertIndexedPlans(() -> movementRepository.findByMovementTypeBefore(
+                    MovementType.EXIT, TO, Long.MAX_VALUE, Limit.of(20)));
+            assertIndexedPlans(() -> movementRepository.countByMovementType(MovementType.EXIT));
+        }
+
+        @Test
+        @DisplayName("Should page the movements in a half-open creation range through an index")
+        void shouldPageTheMovementsInACreationRangeThroughAnIndex() {
+            assertIndexedPlans(() -> movementRepository.findByCreatedAtGreaterThanEqualAndCreatedAtLessThan(
+                    FROM, TO, PageRequest.of(0, 20)));
+            assertIndexedPlans(() -> movementRepository.findBetweenBefore(FROM, TO, TO, Long.MAX_VALUE, Limit.of(20)));
+            assertIndexedPlans(() -> movementRepository.findAllBefore(TO, Long.MAX_VALUE, Limit.of(20)));
+            assertIndexedPlans(() -> movementRepository.countByCreatedAtGreaterThanEqualAndCreatedAtLessThan(FROM, TO));
+        }
+    }
+
+    private void assertIndexedPlans(Runnable query) {
+        CapturedStatements.STATEMENTS.clear();
+        query.run();
+        List<String> statements = List.copyOf(CapturedStatements.STATEMENTS);
+
+        assertThat(statements).isNotEmpty();
+        for (String sql : statements) {
+            assertThat(explain(sql)).as(sql).doesNotContainIgnoringCase("tableScan");
+        }
+    }
+
+    private String explain(String sql) {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try (PreparedStatement statement = connection.prepareStatement("explain " + sql)) {
+            int parameters = statement.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameters; i++) {
+                statement.setObject(i, null);
+            }
+            try (ResultSet plan = statement.executeQuery()) {
+                plan.next();
+                return plan.getString(1);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot explain " + sql, e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    /**
+     * Collects the SQL Hibernate sends, so each statement can be explained afterwards.
+     */
+    public static class CapturedStatements implements StatementInspector {
+
+        static final List<String> STATEMENTS = new ArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}